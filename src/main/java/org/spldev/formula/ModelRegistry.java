@@ -0,0 +1,249 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.solver.sat4j.*;
+
+/**
+ * Registry for multiple {@link ModelRepresentation models} that share a common
+ * memory budget. Whenever the estimated size of all models exceeds the budget,
+ * elements that can be recomputed cheaply (i.e., with little computation time
+ * per byte) are evicted first. Elements are evicted per model and kind (cached
+ * solvers, derived elements such as CNF and MIG, and analysis results). The
+ * formulas themselves are never evicted.<br>
+ * The budget is enforced whenever a model is added. As models grow while they
+ * are used, {@link #enforceBudget()} should also be called after running
+ * expensive analyses.
+ *
+ * @param <K> the type of the keys
+ *
+ * @see SizeEstimator
+ *
+ * @author Sebastian Krieter
+ */
+public class ModelRegistry<K> {
+
+	/**
+	 * Kinds of elements that can be evicted from a model.
+	 */
+	public enum ElementKind {
+		SOLVERS, DERIVED, RESULTS
+	}
+
+	private static class Candidate {
+		private final ModelRepresentation model;
+		private final ElementKind kind;
+		private final long size;
+		private final double costPerByte;
+
+		private Candidate(ModelRepresentation model, ElementKind kind, long size, long cost) {
+			this.model = model;
+			this.kind = kind;
+			this.size = size;
+			costPerByte = (double) cost / size;
+		}
+	}
+
+	private final ConcurrentHashMap<K, ModelRepresentation> models = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong evictedBytes = new AtomicLong();
+
+	private volatile long memoryBudget;
+
+	/**
+	 * Creates a new registry.
+	 *
+	 * @param memoryBudget the maximum estimated size in bytes of all registered
+	 *                     models
+	 */
+	public ModelRegistry(long memoryBudget) {
+		setMemoryBudget(memoryBudget);
+	}
+
+	public ModelRepresentation get(K key) {
+		final ModelRepresentation model = models.get(key);
+		if (model != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+		return model;
+	}
+
+	public ModelRepresentation computeIfAbsent(K key, Function<? super K, ModelRepresentation> modelFunction) {
+		final ModelRepresentation model = models.get(key);
+		if (model != null) {
+			hits.incrementAndGet();
+			return model;
+		}
+		misses.incrementAndGet();
+		final ModelRepresentation newModel = models.computeIfAbsent(key, modelFunction);
+		enforceBudget();
+		return newModel;
+	}
+
+	public ModelRepresentation put(K key, ModelRepresentation model) {
+		final ModelRepresentation oldModel = models.put(key, model);
+		enforceBudget();
+		return oldModel;
+	}
+
+	public ModelRepresentation remove(K key) {
+		return models.remove(key);
+	}
+
+	public Set<K> getKeys() {
+		return Collections.unmodifiableSet(models.keySet());
+	}
+
+	/**
+	 * @return The estimated size in bytes of all elements that are cached by the
+	 *         registered models.
+	 */
+	public long getEstimatedSize() {
+		long size = 0;
+		for (final ModelRepresentation model : models.values()) {
+			size += model.getEstimatedDerivedSize();
+			size += model.getSolverCache().getEstimatedSize();
+			size += model.getResultCache().getEstimatedSize();
+		}
+		return size;
+	}
+
+	/**
+	 * Evicts cached elements of the registered models until their estimated size
+	 * is within the memory budget. Elements with the lowest computation time per
+	 * byte are evicted first.
+	 *
+	 * @return The estimated number of bytes that were evicted.
+	 */
+	public synchronized long enforceBudget() {
+		final List<Candidate> candidates = new ArrayList<>();
+		long size = 0;
+		for (final ModelRepresentation model : models.values()) {
+			final SolverCache solverCache = model.getSolverCache();
+			final AnalysisResultCache resultCache = model.getResultCache();
+			size += addCandidate(candidates, model, ElementKind.SOLVERS, //
+				solverCache.getEstimatedSize(), solverCache.getBuildTime());
+			size += addCandidate(candidates, model, ElementKind.DERIVED, //
+				model.getEstimatedDerivedSize(), model.getDerivationTime());
+			size += addCandidate(candidates, model, ElementKind.RESULTS, //
+				resultCache.getEstimatedSize(), resultCache.getComputationTime());
+		}
+		if (size <= memoryBudget) {
+			return 0;
+		}
+		candidates.sort(Comparator.comparingDouble(c -> c.costPerByte));
+		long freed = 0;
+		for (final Candidate candidate : candidates) {
+			if ((size - freed) <= memoryBudget) {
+				break;
+			}
+			evict(candidate.model, candidate.kind);
+			freed += candidate.size;
+			evictions.incrementAndGet();
+		}
+		evictedBytes.addAndGet(freed);
+		return freed;
+	}
+
+	private static long addCandidate(List<Candidate> candidates, ModelRepresentation model, ElementKind kind,
+		long size, long cost) {
+		if (size > 0) {
+			candidates.add(new Candidate(model, kind, size, cost));
+		}
+		return size;
+	}
+
+	private static void evict(ModelRepresentation model, ElementKind kind) {
+		switch (kind) {
+		case SOLVERS:
+			model.getSolverCache().clear();
+			break;
+		case DERIVED:
+			model.evictDerivedElements();
+			break;
+		case RESULTS:
+			model.getResultCache().clear();
+			break;
+		default:
+			throw new IllegalStateException(String.valueOf(kind));
+		}
+	}
+
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	public void setMemoryBudget(long memoryBudget) {
+		if (memoryBudget < 0) {
+			throw new IllegalArgumentException(String.valueOf(memoryBudget));
+		}
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * @return The number of lookups that found a registered model.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of lookups that did not find a registered model.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The number of evicted elements (each counting a single kind of
+	 *         elements for a single model).
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return The estimated total number of bytes that were evicted.
+	 */
+	public long getEvictedBytes() {
+		return evictedBytes.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ModelRegistry [models=" + models.size() + ", memoryBudget=" + memoryBudget + ", hits=" + hits
+			+ ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+}
@@ -23,10 +23,18 @@
 package org.spldev.formula;
 
 import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.clauses.*;
 import org.spldev.formula.expression.*;
 import org.spldev.formula.expression.atomic.literal.*;
 import org.spldev.formula.expression.io.*;
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.formula.solver.mig.*;
+import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.io.*;
 import org.spldev.util.logging.*;
@@ -34,11 +42,33 @@ import org.spldev.util.logging.*;
 /**
  * Representation of a feature model as a formula {@link #formula}, where
  * features are mapped to {@link #variables}. Analysis results are stored in a
- * {@link #cache} for later reuse.
+ * {@link #cache} for later reuse. Warm solvers for the formula's CNF are kept
+ * in a {@link #solverCache} and results of analyses with different parameters
+ * in a {@link #resultCache}.<br>
+ * <br>
+ * This class is thread-safe. Concurrent requests for the same element (e.g.,
+ * the CNF or the MIG of the formula) share a single computation. Requests for
+ * different elements are computed concurrently.
  */
 public class ModelRepresentation {
 
-	private final Cache cache = new Cache();
+	private volatile Cache cache = new Cache();
+	private final AtomicLong derivationTime = new AtomicLong();
+	private final SolverCache solverCache = new SolverCache();
+	private final AnalysisResultCache resultCache = new AnalysisResultCache();
+	private volatile AnalysisResultStore resultStore;
+
+	/**
+	 * Computations that are currently running, identified by provider identifier
+	 * and parameters.
+	 */
+	private final ConcurrentHashMap<List<Object>, CompletableFuture<Result<?>>> computations =
+		new ConcurrentHashMap<>();
+	/**
+	 * Elements that were derived by {@link #getResult(Provider)}, identified by
+	 * provider identifier and parameters.
+	 */
+	private final ConcurrentHashMap<List<Object>, Result<?>> results = new ConcurrentHashMap<>();
 	private final Formula formula;
 	private final VariableMap variables;
 
@@ -52,23 +82,218 @@ public class ModelRepresentation {
 	}
 
 	public ModelRepresentation(Formula formula, VariableMap variables) {
+		this(formula, variables, null);
+	}
+
+	/**
+	 * Creates a new model representation that reuses analysis results from the
+	 * given store.
+	 *
+	 * @param formula     the formula
+	 * @param variables   the variables of the formula
+	 * @param resultStore the persistent result store, may be {@code null}
+	 */
+	public ModelRepresentation(Formula formula, VariableMap variables, AnalysisResultStore resultStore) {
 		this.formula = formula;
 		this.variables = variables;
+		this.resultStore = resultStore;
 		cache.set(FormulaProvider.of(formula));
 	}
 
+	/**
+	 * Returns the element of the given provider, computing it if it is not yet
+	 * cached. If the element is already being computed by another thread, waits
+	 * for this computation and returns its result. Exceptions thrown by the
+	 * computation are rethrown in all waiting threads.<br>
+	 * <br>
+	 * The computation does not hold any lock. It works on a private cache that
+	 * contains the formula and the already derived CNF, MIG, and d-DNNF. Before
+	 * computing any other element, the CNF is obtained by this method, such that
+	 * it is computed only once, even if it is needed by concurrent computations
+	 * of different elements. Only publishing the result synchronizes on the
+	 * {@link #getCache() cache}. Only the time of actual computations is added to
+	 * the {@link #getDerivationTime() derivation time}.
+	 *
+	 * @param provider the provider
+	 * @return The result of the provider.
+	 */
+	@SuppressWarnings("unchecked")
 	public <T> Result<T> getResult(Provider<T> provider) {
-		return cache.get(provider, null);
+		final List<Object> key = Arrays.asList(provider.getIdentifier(), provider.getParameters());
+		final Result<?> publishedResult = results.get(key);
+		if (publishedResult != null) {
+			return (Result<T>) publishedResult;
+		}
+		final CompletableFuture<Result<?>> computation = new CompletableFuture<>();
+		final CompletableFuture<Result<?>> runningComputation = computations.putIfAbsent(key, computation);
+		if (runningComputation != null) {
+			try {
+				return (Result<T>) runningComputation.join();
+			} catch (final CompletionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw e;
+			}
+		}
+		try {
+			// the result may have been published since the first lookup
+			final Result<?> recentResult = results.get(key);
+			if (recentResult != null) {
+				computation.complete(recentResult);
+				return (Result<T>) recentResult;
+			}
+			if (provider.getIdentifier() != CNFProvider.identifier) {
+				// most elements are derived from the CNF, which is shared with concurrent computations
+				getResult(CNFProvider.fromFormula());
+			}
+			final Cache currentCache = cache;
+			final Cache derivationCache = createDerivationCache(currentCache);
+			final long startTime = System.nanoTime();
+			final Result<T> result = derivationCache.get(provider, null);
+			publish(currentCache, derivationCache, key, result, System.nanoTime() - startTime);
+			computation.complete(result);
+			return result;
+		} catch (final RuntimeException | Error e) {
+			computation.completeExceptionally(e);
+			throw e;
+		} finally {
+			computations.remove(key, computation);
+		}
+	}
+
+	/**
+	 * Creates a private cache for a computation that contains the formula and all
+	 * elements of the given cache that are commonly needed by providers.
+	 */
+	private Cache createDerivationCache(Cache currentCache) {
+		final Cache derivationCache = new Cache();
+		derivationCache.set(FormulaProvider.of(formula));
+		synchronized (currentCache) {
+			transfer(currentCache, derivationCache);
+		}
+		return derivationCache;
+	}
+
+	/**
+	 * Publishes a computed result and all commonly needed elements that were
+	 * derived along the way, unless the derived elements were evicted in the
+	 * meantime.
+	 */
+	private void publish(Cache currentCache, Cache derivationCache, List<Object> key, Result<?> result,
+		long time) {
+		synchronized (currentCache) {
+			if (cache == currentCache) {
+				transfer(derivationCache, currentCache);
+				if (!result.isEmpty()) {
+					results.putIfAbsent(key, result);
+				}
+				derivationTime.addAndGet(time);
+			}
+		}
+	}
+
+	private static void transfer(Cache source, Cache target) {
+		final Result<CNF> cnf = source.get(CNFProvider.identifier);
+		if (!cnf.isEmpty() && target.get(CNFProvider.identifier).isEmpty()) {
+			target.set(CNFProvider.of(cnf.get()));
+		}
+		final Result<MIG> mig = source.get(MIGProvider.identifier);
+		if (!mig.isEmpty() && target.get(MIGProvider.identifier).isEmpty()) {
+			target.set(MIGProvider.of(mig.get()));
+		}
+		final Result<DDNNF> ddnnf = source.get(DDNNFProvider.identifier);
+		if (!ddnnf.isEmpty() && target.get(DDNNFProvider.identifier).isEmpty()) {
+			target.set(DDNNFProvider.of(ddnnf.get()));
+		}
 	}
 
 	public <T> T get(Provider<T> provider) {
-		return cache.get(provider).orElse(Logger::logProblems);
+		return getResult(provider).orElse(Logger::logProblems);
 	}
 
+	/**
+	 * Returns the underlying cache, which contains the formula and its derived
+	 * CNF, MIG, and d-DNNF. The cache is not thread-safe, so concurrent access
+	 * must be synchronized on the cache. Prefer {@link #getResult(Provider)},
+	 * which also prevents duplicate computations.
+	 *
+	 * @return The cache.
+	 */
 	public Cache getCache() {
 		return cache;
 	}
 
+	/**
+	 * @return The estimated size in bytes of the elements derived from the
+	 *         formula, i.e., its CNF and MIG.
+	 *
+	 * @see SizeEstimator
+	 */
+	public long getEstimatedDerivedSize() {
+		final Cache currentCache = cache;
+		long size = 0;
+		synchronized (currentCache) {
+			final Result<CNF> cnf = currentCache.get(CNFProvider.identifier);
+			if (!cnf.isEmpty()) {
+				size += SizeEstimator.estimate(cnf.get());
+			}
+			final Result<MIG> mig = currentCache.get(MIGProvider.identifier);
+			if (!mig.isEmpty()) {
+				size += SizeEstimator.estimate(mig.get());
+			}
+			final Result<DDNNF> ddnnf = currentCache.get(DDNNFProvider.identifier);
+			if (!ddnnf.isEmpty()) {
+				size += SizeEstimator.estimate(ddnnf.get());
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return The total time in nanoseconds spent on deriving the currently
+	 *         cached elements.
+	 */
+	public long getDerivationTime() {
+		return derivationTime.get();
+	}
+
+	/**
+	 * Removes all elements derived from the formula (e.g., its CNF and MIG) and
+	 * all cached solvers for them. Elements are derived again on demand. Analysis
+	 * results stay cached, as they only depend on the formula.
+	 */
+	public void evictDerivedElements() {
+		final Cache oldCache = cache;
+		synchronized (oldCache) {
+			final Cache newCache = new Cache();
+			newCache.set(FormulaProvider.of(formula));
+			cache = newCache;
+			results.clear();
+			derivationTime.set(0);
+		}
+		solverCache.clear();
+	}
+
+	public AnalysisResultCache getResultCache() {
+		return resultCache;
+	}
+
+	public AnalysisResultStore getResultStore() {
+		return resultStore;
+	}
+
+	public void setResultStore(AnalysisResultStore resultStore) {
+		this.resultStore = resultStore;
+	}
+
+	public SolverCache getSolverCache() {
+		return solverCache;
+	}
+
 	public Formula getFormula() {
 		return formula;
 	}
@@ -0,0 +1,159 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.formula.solver.mig.*;
+
+/**
+ * Estimates the retained heap size of cached artifacts, assuming a 64-bit JVM
+ * with compressed references. The estimates are meant for enforcing memory
+ * budgets and are not exact.
+ *
+ * @author Sebastian Krieter
+ */
+public final class SizeEstimator {
+
+	public static final int OBJECT_HEADER = 16;
+	public static final int ARRAY_HEADER = 16;
+	public static final int REFERENCE = 4;
+
+	/**
+	 * Bytes per variable for the variable map (name, entries in index and name
+	 * map).
+	 */
+	public static final int VARIABLE = 96;
+
+	/**
+	 * Approximate factor between the size of a CNF and the size of a Sat4J solver
+	 * containing it (clause objects, watch lists, learnt clauses, heap).
+	 */
+	public static final int SOLVER_FACTOR = 4;
+
+	private SizeEstimator() {
+	}
+
+	public static long estimate(LiteralList literalList) {
+		return OBJECT_HEADER + REFERENCE + REFERENCE + 4 + intArray(literalList.size());
+	}
+
+	public static long estimate(CNF cnf) {
+		long size = OBJECT_HEADER + REFERENCE + REFERENCE;
+		size += list(cnf.getClauses().size());
+		for (final LiteralList clause : cnf.getClauses()) {
+			size += estimate(clause);
+		}
+		size += (long) cnf.getVariableMap().size() * VARIABLE;
+		return size;
+	}
+
+	/**
+	 * Estimates the size of a MIG excluding its CNF and the clauses shared with
+	 * it.
+	 *
+	 * @param mig the MIG
+	 * @return The estimated size in bytes.
+	 */
+	public static long estimate(MIG mig) {
+		long size = OBJECT_HEADER + (5 * REFERENCE);
+		final List<Vertex> vertices = mig.getVertices();
+		size += list(vertices.size());
+		for (final Vertex vertex : vertices) {
+			size += OBJECT_HEADER + 4 + (3 * REFERENCE);
+			size += list(vertex.getComplexClauses().size());
+			size += list(vertex.getStrongEdges().size());
+		}
+		size += list(mig.getDetectedStrong().size());
+		for (final LiteralList clause : mig.getDetectedStrong()) {
+			size += estimate(clause);
+		}
+		return size;
+	}
+
+	/**
+	 * Estimates the size of a d-DNNF excluding its variable map.
+	 *
+	 * @param ddnnf the d-DNNF
+	 * @return The estimated size in bytes.
+	 */
+	public static long estimate(DDNNF ddnnf) {
+		return OBJECT_HEADER + (4 * REFERENCE) + align(ARRAY_HEADER + ddnnf.getTypes().length) + intArray(ddnnf
+			.getOffsets().length) + intArray(ddnnf.getData().length);
+	}
+
+	/**
+	 * Estimates the size of a Sat4J solver for the given CNF.
+	 *
+	 * @param cnf the CNF of the solver
+	 * @return The estimated size in bytes.
+	 */
+	public static long estimateSolver(CNF cnf) {
+		return SOLVER_FACTOR * estimate(cnf);
+	}
+
+	/**
+	 * Estimates the size of an analysis result. Supports {@link LiteralList},
+	 * {@link CNF}, {@link BigInteger}, boxed primitives, and collections of these
+	 * types. Other objects are counted as a single object.
+	 *
+	 * @param result the result
+	 * @return The estimated size in bytes.
+	 */
+	public static long estimateResult(Object result) {
+		if (result == null) {
+			return 0;
+		} else if (result instanceof LiteralList) {
+			return estimate((LiteralList) result);
+		} else if (result instanceof CNF) {
+			return estimate((CNF) result);
+		} else if (result instanceof BigInteger) {
+			return OBJECT_HEADER + REFERENCE + 16 + ARRAY_HEADER + (((BigInteger) result).bitLength() >>> 3);
+		} else if (result instanceof Collection) {
+			final Collection<?> collection = (Collection<?>) result;
+			long size = list(collection.size());
+			for (final Object element : collection) {
+				size += estimateResult(element);
+			}
+			return size;
+		} else {
+			return OBJECT_HEADER + 8;
+		}
+	}
+
+	private static long intArray(int length) {
+		return align(ARRAY_HEADER + (4L * length));
+	}
+
+	private static long list(int size) {
+		return OBJECT_HEADER + REFERENCE + 8 + align(ARRAY_HEADER + ((long) REFERENCE * size));
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+}
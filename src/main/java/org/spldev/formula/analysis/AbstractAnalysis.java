@@ -23,9 +23,12 @@
 package org.spldev.formula.analysis;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.Executor;
 import java.util.function.*;
 
 import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
 import org.spldev.formula.expression.*;
 import org.spldev.formula.expression.atomic.*;
 import org.spldev.formula.solver.*;
@@ -45,6 +48,62 @@ public abstract class AbstractAnalysis<T, S extends Solver, I> implements Analys
 
 	protected static Object defaultParameters = new Object();
 
+	private static volatile Executor defaultExecutor = null;
+
+	/**
+	 * Lazily creates the built-in executor for asynchronous analyses. Uses
+	 * virtual threads if available (i.e., Java 21 and newer) and a cached pool of
+	 * daemon threads otherwise.
+	 */
+	private static final class DefaultExecutor {
+		private static final Executor INSTANCE = create();
+
+		private static Executor create() {
+			try {
+				return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+					.invoke(null);
+			} catch (final ReflectiveOperationException e) {
+				return Executors.newCachedThreadPool(runnable -> {
+					final Thread thread = new Thread(runnable, "analysis");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+		}
+	}
+
+	/**
+	 * @return The executor used by {@link #executeAsync(ModelRepresentation)}.
+	 */
+	public static Executor getDefaultExecutor() {
+		final Executor executor = defaultExecutor;
+		return executor != null ? executor : DefaultExecutor.INSTANCE;
+	}
+
+	/**
+	 * Sets the executor used by {@link #executeAsync(ModelRepresentation)}.
+	 *
+	 * @param executor the executor or {@code null} to use the built-in executor
+	 */
+	public static void setDefaultExecutor(Executor executor) {
+		defaultExecutor = executor;
+	}
+
+	/**
+	 * Future for an asynchronous execution that cancels the analysis when it is
+	 * cancelled.
+	 */
+	private class AnalysisFuture extends CompletableFuture<T> {
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			final boolean cancelledFuture = super.cancel(mayInterruptIfRunning);
+			if (cancelledFuture) {
+				AbstractAnalysis.this.cancel();
+			}
+			return cancelledFuture;
+		}
+	}
+
 	public class AnalysisResultProvider implements Provider<T> {
 		private final Function<InternalMonitor, Result<T>> function;
 
@@ -72,9 +131,19 @@ public abstract class AbstractAnalysis<T, S extends Solver, I> implements Analys
 	protected final List<Formula> assumedConstraints = new ArrayList<>();
 	protected Provider<I> solverInputProvider;
 	protected S solver;
+	private boolean externalSolver = false;
+	private volatile S activeSolver = null;
+	private volatile boolean cancelled = false;
+	private final Set<Solver> additionalSolvers = ConcurrentHashMap.newKeySet();
+	/**
+	 * Number of nested executions in the executing thread. A cancellation only
+	 * applies to the outermost execution that is currently running.
+	 */
+	private int executionDepth = 0;
 
 	public void setSolver(S solver) {
 		this.solver = solver;
+		externalSolver = solver != null;
 	}
 
 	public void setSolverInputProvider(Provider<I> solverInputProvider) {
@@ -93,17 +162,290 @@ public abstract class AbstractAnalysis<T, S extends Solver, I> implements Analys
 		return Arrays.asList(assumptions, assumedConstraints);
 	}
 
+	/**
+	 * Computes the result of this analysis for the given model representation.
+	 * If this analysis is {@link #isCacheable() cacheable}, results are stored in
+	 * the {@link ModelRepresentation#getResultCache() result cache} of the model
+	 * representation and reused by subsequent calls with the same
+	 * {@link #setSolverInputProvider(Provider) solver input}, assumptions, assumed
+	 * constraints, and {@link #getAnalysisParameters() parameters}. If
+	 * the model representation has a {@link ModelRepresentation#getResultStore()
+	 * result store}, results are also persisted there. Cached results are shared
+	 * and must not be modified.
+	 */
 	@Override
 	public Result<T> getResult(ModelRepresentation rep) {
-		// TODO improve handling of many results with different parameters
-		return Executor.run(this::execute, rep, new NullMonitor());
-//		return rep.getCache().get(new AnalysisResultProvider(m -> Executor.run(this::execute, rep, m)));
+		beginExecution(true);
+		try {
+			return computeResult(rep);
+		} finally {
+			endExecution();
+		}
+	}
+
+	private Result<T> computeResult(ModelRepresentation rep) {
+		if (!isCacheable()) {
+			return org.spldev.util.job.Executor.run(this::execute, rep, new NullMonitor());
+		}
+		final AnalysisResultCache resultCache = rep.getResultCache();
+		final AnalysisResult<T> key = getResultKey();
+		final AnalysisResult<T> cachedResult = resultCache.get(key);
+		if (cachedResult != null) {
+			return Result.of(cachedResult.getResult());
+		}
+		final AnalysisResultStore resultStore = rep.getResultStore();
+		final CNF cnf = resultStore != null ? getStoredInput(rep) : null;
+		if (cnf != null) {
+			final AnalysisResult<T> storedResult = resultStore.load(cnf, getStoreKey(key, null));
+			if (storedResult != null) {
+				resultCache.put(new AnalysisResult<>(key.getId(), key.getAssumptions(), key.getParameters(),
+					storedResult.getResult()));
+				return Result.of(storedResult.getResult());
+			}
+		}
+		final long startTime = System.nanoTime();
+		final Result<T> result = org.spldev.util.job.Executor.run(this::execute, rep, new NullMonitor());
+		if (!result.isEmpty() && isResultCacheable()) {
+			final AnalysisResult<T> analysisResult = new AnalysisResult<>(key.getId(), key.getAssumptions(), key
+				.getParameters(), result.get());
+			resultCache.put(analysisResult, System.nanoTime() - startTime);
+			if (cnf != null) {
+				resultStore.store(cnf, getStoreKey(key, result.get()));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The input of this analysis, if it is a CNF and thus supported by
+	 *         the {@link AnalysisResultStore}, {@code null} otherwise.
+	 */
+	private CNF getStoredInput(ModelRepresentation rep) {
+		final Object input = rep.get(solverInputProvider);
+		return input instanceof CNF ? (CNF) input : null;
+	}
+
+	/**
+	 * Computes the result of this analysis asynchronously using the
+	 * {@link #getDefaultExecutor() default executor}.
+	 *
+	 * @param rep the model representation
+	 * @return A future for the result. Cancelling the future
+	 *         {@link #cancel() cancels} the analysis.
+	 *
+	 * @see #executeAsync(ModelRepresentation, Executor)
+	 */
+	public CompletableFuture<T> executeAsync(ModelRepresentation rep) {
+		return executeAsync(rep, getDefaultExecutor());
+	}
+
+	/**
+	 * Computes the result of this analysis asynchronously using the given
+	 * executor. An analysis object must not be executed concurrently, so each
+	 * concurrent execution requires its own analysis object.
+	 *
+	 * @param rep      the model representation
+	 * @param executor the executor
+	 * @return A future for the result. Cancelling the future
+	 *         {@link #cancel() cancels} the analysis.
+	 */
+	public CompletableFuture<T> executeAsync(ModelRepresentation rep, Executor executor) {
+		cancelled = false;
+		final AnalysisFuture future = new AnalysisFuture();
+		executor.execute(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			// a cancellation before the start of the task applies to this execution
+			beginExecution(false);
+			try {
+				final Result<T> result = computeResult(rep);
+				if (cancelled) {
+					future.completeExceptionally(new CancellationException());
+				} else if (!result.isEmpty()) {
+					future.complete(result.get());
+				} else {
+					future.completeExceptionally(new IllegalStateException(String.valueOf(result.getProblems())));
+				}
+			} catch (final Throwable e) {
+				future.completeExceptionally(e);
+			} finally {
+				endExecution();
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Starts an execution. If this is the outermost execution and
+	 * {@code resetCancellation} is set, a cancellation of a previous execution is
+	 * discarded.
+	 */
+	private void beginExecution(boolean resetCancellation) {
+		if ((executionDepth++ == 0) && resetCancellation) {
+			cancelled = false;
+		}
+	}
+
+	private void endExecution() {
+		executionDepth--;
+	}
+
+	/**
+	 * Cancels the current execution of this analysis. The solver used by this
+	 * analysis is {@link Solver#setCancelled(boolean) cancelled}, such that a
+	 * running satisfiability check and all subsequent checks of this execution
+	 * stop immediately. Subsequent executions are not affected. May be called
+	 * from any thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+		final S currentSolver = activeSolver;
+		if (currentSolver != null) {
+			currentSolver.setCancelled(true);
+		}
+		for (final Solver additionalSolver : additionalSolvers) {
+			additionalSolver.setCancelled(true);
+		}
+	}
+
+	/**
+	 * Registers a solver that is used by the current execution in addition to the
+	 * solver of this analysis (e.g., by a parallel worker), such that
+	 * {@link #cancel()} reaches it. If the execution is already cancelled, the
+	 * solver is cancelled immediately. May be called from any thread.
+	 *
+	 * @param additionalSolver the solver
+	 *
+	 * @see #unregisterSolver(Solver)
+	 */
+	protected final void registerSolver(Solver additionalSolver) {
+		additionalSolvers.add(additionalSolver);
+		if (cancelled) {
+			additionalSolver.setCancelled(true);
+		}
+	}
+
+	/**
+	 * Unregisters a solver registered by {@link #registerSolver(Solver)} and
+	 * resets its cancellation. May be called from any thread.
+	 *
+	 * @param additionalSolver the solver
+	 */
+	protected final void unregisterSolver(Solver additionalSolver) {
+		additionalSolvers.remove(additionalSolver);
+		additionalSolver.setCancelled(false);
+	}
+
+	/**
+	 * Releases the resources (e.g., the threads of a portfolio) of a solver that
+	 * was created for a single execution and is not used afterwards.
+	 *
+	 * @param solver the solver
+	 */
+	protected static void closeSolver(Solver solver) {
+		if (solver instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) solver).close();
+			} catch (final Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	private AnalysisResult<T> getResultKey() {
+		final List<Pair<Integer, Object>> assignment = assumptions.getAll();
+		final int[] literals = new int[assignment.size()];
+		int length = 0;
+		for (final Pair<Integer, Object> pair : assignment) {
+			if (pair.getValue() instanceof Boolean) {
+				literals[length++] = (Boolean) pair.getValue() ? pair.getKey() : -pair.getKey();
+			}
+		}
+		final LiteralList normalizedAssumptions = new LiteralList(Arrays.copyOf(literals, length));
+		final List<Object> parameters = Arrays.asList(new ArrayList<>(assumedConstraints), getAnalysisParameters(),
+			Arrays.asList(solverInputProvider.getIdentifier(), solverInputProvider.getParameters()));
+		return new AnalysisResult<>(getClass().getName(), normalizedAssumptions, parameters, null);
+	}
+
+	/**
+	 * Removes the solver input from the given result key. Results in the
+	 * {@link AnalysisResultStore} are already separated by the
+	 * {@link CNFFingerprint fingerprint} of the input.
+	 */
+	private static <R> AnalysisResult<R> getStoreKey(AnalysisResult<?> key, R result) {
+		final List<?> parameters = (List<?>) key.getParameters();
+		return new AnalysisResult<>(key.getId(), key.getAssumptions(), parameters.subList(0, parameters.size() - 1),
+			result);
+	}
+
+	/**
+	 * Returns all parameters of this analysis that influence its result, except
+	 * for the assumptions and assumed constraints (e.g., a subset of variables).
+	 * The returned object is used as part of the key for cached results and thus
+	 * must implement {@link Object#equals(Object) equals} and
+	 * {@link Object#hashCode() hashCode} based on its content.
+	 *
+	 * @return The parameters of this analysis.
+	 */
+	protected Object getAnalysisParameters() {
+		return null;
+	}
+
+	/**
+	 * Returns whether results of this analysis can be cached. By default, this is
+	 * the case unless a solver was given to this analysis, which may contain
+	 * additional clauses.
+	 *
+	 * @return {@code true} if results can be cached, {@code false} otherwise.
+	 */
+	protected boolean isCacheable() {
+		return !externalSolver;
+	}
+
+	/**
+	 * Returns whether the result of the last execution is complete and can be
+	 * cached.
+	 *
+	 * @return {@code true} if the last result can be cached, {@code false}
+	 *         otherwise.
+	 */
+	protected boolean isResultCacheable() {
+		return !cancelled;
 	}
 
 	@Override
 	public final T execute(ModelRepresentation c, InternalMonitor monitor) {
+		beginExecution(true);
+		try {
+			return executeOnce(c, monitor);
+		} finally {
+			endExecution();
+		}
+	}
+
+	private T executeOnce(ModelRepresentation c, InternalMonitor monitor) {
 		if (solver == null) {
-			solver = createSolver(c.get(solverInputProvider));
+			final I input = c.get(solverInputProvider);
+			final S cachedSolver = leaseSolver(c, input);
+			if (cachedSolver != null) {
+				try {
+					return run(cachedSolver, monitor);
+				} finally {
+					releaseSolver(c, cachedSolver);
+				}
+			}
+			// the solver is specific to the input of this model representation
+			final S localSolver = createSolver(input);
+			try {
+				return run(localSolver, monitor);
+			} finally {
+				closeSolver(localSolver);
+			}
 		}
 		return execute(solver, monitor);
 	}
@@ -111,8 +453,23 @@ public abstract class AbstractAnalysis<T, S extends Solver, I> implements Analys
 	public T execute(S solver, InternalMonitor monitor) {
 		if (this.solver == null) {
 			this.solver = solver;
+			externalSolver = true;
 		}
+		beginExecution(true);
+		try {
+			return run(solver, monitor);
+		} finally {
+			endExecution();
+		}
+	}
+
+	private T run(S solver, InternalMonitor monitor) {
 		monitor.checkCancel();
+		final S outerSolver = activeSolver;
+		activeSolver = solver;
+		if (cancelled) {
+			solver.setCancelled(true);
+		}
 		prepareSolver(solver);
 		try {
 			return analyze(solver, monitor);
@@ -120,6 +477,10 @@ public abstract class AbstractAnalysis<T, S extends Solver, I> implements Analys
 			throw new RuntimeException(e);
 		} finally {
 			resetSolver(solver);
+			activeSolver = outerSolver;
+			if (cancelled) {
+				solver.setCancelled(false);
+			}
 		}
 	}
 
@@ -135,6 +496,31 @@ public abstract class AbstractAnalysis<T, S extends Solver, I> implements Analys
 
 	protected abstract S createSolver(I input) throws RuntimeContradictionException;
 
+	/**
+	 * Leases a warm solver from the given model representation. The solver is
+	 * only used for a single execution and is not stored in this analysis.
+	 *
+	 * @param rep   the model representation
+	 * @param input the solver input
+	 * @return A solver or {@code null}, if this analysis does not support cached
+	 *         solvers or no solver is available.
+	 *
+	 * @see ModelRepresentation#getSolverCache()
+	 */
+	protected S leaseSolver(ModelRepresentation rep, I input) {
+		return null;
+	}
+
+	/**
+	 * Returns a solver obtained by {@link #leaseSolver(ModelRepresentation, Object)}
+	 * to the given model representation.
+	 *
+	 * @param rep    the model representation
+	 * @param solver the leased solver
+	 */
+	protected void releaseSolver(ModelRepresentation rep, S solver) {
+	}
+
 	protected void prepareSolver(S solver) {
 		solver.getAssumptions().setAll(assumptions.getAll());
 		solver.getDynamicFormula().push(assumedConstraints);
@@ -38,14 +38,30 @@ public class AnalysisResult<T> {
 
 	private final String id;
 	private final LiteralList assumptions;
+	private final Object parameters;
 	private final int hashCode;
 	private final T result;
 
 	public AnalysisResult(String id, LiteralList assumptions, T result) {
+		this(id, assumptions, null, result);
+	}
+
+	/**
+	 * @param id          the id of the analysis
+	 * @param assumptions the assumptions of the analysis
+	 * @param parameters  further parameters that influence the result (e.g., a
+	 *                    subset of variables), must implement
+	 *                    {@link Object#equals(Object) equals} and
+	 *                    {@link Object#hashCode() hashCode}
+	 * @param result      the analysis result
+	 */
+	public AnalysisResult(String id, LiteralList assumptions, Object parameters, T result) {
 		this.id = id;
 		this.assumptions = assumptions;
+		this.parameters = parameters;
 		this.result = result;
-		this.hashCode = (31 * id.hashCode()) + Arrays.hashCode(assumptions.getLiterals());
+		hashCode = (31 * ((31 * id.hashCode()) + Arrays.hashCode(assumptions.getLiterals()))) + Objects.hashCode(
+			parameters);
 	}
 
 	public String getId() {
@@ -56,6 +72,10 @@ public class AnalysisResult<T> {
 		return assumptions;
 	}
 
+	public Object getParameters() {
+		return parameters;
+	}
+
 	public T getResult() {
 		return result;
 	}
@@ -74,7 +94,8 @@ public class AnalysisResult<T> {
 			return false;
 		}
 		final AnalysisResult<?> other = (AnalysisResult<?>) obj;
-		return id.equals(other.id) && Arrays.equals(assumptions.getLiterals(), other.assumptions.getLiterals());
+		return id.equals(other.id) && Arrays.equals(assumptions.getLiterals(), other.assumptions.getLiterals())
+			&& Objects.equals(parameters, other.parameters);
 	}
 
 }
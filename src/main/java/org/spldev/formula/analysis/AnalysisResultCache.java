@@ -0,0 +1,162 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import java.util.*;
+
+import org.spldev.formula.*;
+
+/**
+ * Thread-safe cache for analysis results with a bounded size. If the cache is
+ * full, the least recently used result is evicted. Results are identified by
+ * the {@link AnalysisResult#getId() id} of the analysis, its assumptions, and
+ * its {@link AnalysisResult#getParameters() parameters}.
+ *
+ * @author Sebastian Krieter
+ */
+public class AnalysisResultCache {
+
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private static final class Entry {
+		private final AnalysisResult<?> result;
+		private final long computationTime;
+
+		private Entry(AnalysisResult<?> result, long computationTime) {
+			this.result = result;
+			this.computationTime = computationTime;
+		}
+	}
+
+	private final LinkedHashMap<AnalysisResult<?>, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+	private int capacity;
+
+	public AnalysisResultCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public AnalysisResultCache(int capacity) {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Looks up a result.
+	 *
+	 * @param key an analysis result with the id, assumptions, and parameters of
+	 *            the requested result (the result of the key itself is ignored)
+	 * @return The cached analysis result or {@code null}, if there is no such
+	 *         result.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> AnalysisResult<T> get(AnalysisResult<?> key) {
+		final Entry entry = results.get(key);
+		return entry != null ? (AnalysisResult<T>) entry.result : null;
+	}
+
+	/**
+	 * Adds a result to the cache, replacing any result with the same id,
+	 * assumptions, and parameters.
+	 *
+	 * @param result the analysis result
+	 */
+	public void put(AnalysisResult<?> result) {
+		put(result, 0);
+	}
+
+	/**
+	 * Adds a result to the cache, replacing any result with the same id,
+	 * assumptions, and parameters.
+	 *
+	 * @param result          the analysis result
+	 * @param computationTime the time in nanoseconds it took to compute the
+	 *                        result
+	 */
+	public synchronized void put(AnalysisResult<?> result, long computationTime) {
+		results.put(result, new Entry(result, computationTime));
+		evict();
+	}
+
+	public synchronized void remove(AnalysisResult<?> key) {
+		results.remove(key);
+	}
+
+	public synchronized void clear() {
+		results.clear();
+	}
+
+	public synchronized int size() {
+		return results.size();
+	}
+
+	/**
+	 * @return The estimated size of all cached results in bytes.
+	 *
+	 * @see SizeEstimator#estimateResult(Object)
+	 */
+	public synchronized long getEstimatedSize() {
+		long size = 0;
+		for (final Entry entry : results.values()) {
+			size += SizeEstimator.estimateResult(entry.result.getResult());
+		}
+		return size;
+	}
+
+	/**
+	 * @return The total time in nanoseconds it took to compute all cached
+	 *         results.
+	 */
+	public synchronized long getComputationTime() {
+		long time = 0;
+		for (final Entry entry : results.values()) {
+			time += entry.computationTime;
+		}
+		return time;
+	}
+
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the maximal number of cached results. A capacity of {@code 0} disables
+	 * the cache.
+	 *
+	 * @param capacity the capacity
+	 */
+	public synchronized void setCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+		}
+		this.capacity = capacity;
+		evict();
+	}
+
+	private void evict() {
+		final Iterator<AnalysisResult<?>> iterator = results.keySet().iterator();
+		while ((results.size() > capacity) && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+}
@@ -0,0 +1,344 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import java.io.*;
+import java.math.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.expression.atomic.literal.*;
+
+/**
+ * Persistent store for analysis results in a local directory. Results are
+ * stored per {@link CNFFingerprint fingerprint} of the analyzed CNF, such that
+ * they can be reused across program runs as long as the CNF does not change.
+ * Literals in keys and results are stored by the names of their variables, so
+ * the indices of the variables may change between runs.<br>
+ * <br>
+ * Supported results are {@link Boolean}, {@link Integer}, {@link Long},
+ * {@link BigInteger}, {@link LiteralList}, and (nested) {@link List lists} of
+ * these types. Keys may only contain {@link LiteralList}, {@link Integer},
+ * {@link Long}, {@link Double}, {@link Boolean}, {@link String}, enum
+ * constants, and (nested) {@link List lists} of these types. Results with
+ * other key parameters are not stored, because their string representation
+ * may not be stable across program runs. Each result is written to a
+ * temporary file first, which is then atomically moved to its final location.
+ * Entries with a different format version or that cannot be read are ignored.
+ *
+ * @author Sebastian Krieter
+ */
+public class AnalysisResultStore {
+
+	public static final int VERSION = 1;
+
+	private static final int MAGIC = 0x46415253;
+	private static final String FILE_EXTENSION = ".result";
+
+	private static final byte NULL = 0;
+	private static final byte BOOLEAN = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte BIG_INTEGER = 4;
+	private static final byte LITERAL_LIST = 5;
+	private static final byte LIST = 6;
+
+	private final Path directory;
+
+	private CNF lastCnf;
+	private String lastFingerprint;
+
+	public AnalysisResultStore(Path directory) {
+		this.directory = directory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Loads a stored result.
+	 *
+	 * @param cnf the analyzed CNF
+	 * @param key an analysis result with the id, assumptions, and parameters of
+	 *            the requested result
+	 * @return The stored analysis result or {@code null}, if there is no such
+	 *         result.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> AnalysisResult<T> load(CNF cnf, AnalysisResult<?> key) {
+		try {
+			final String description = describeKey(cnf.getVariableMap(), key);
+			final Path file = getFile(cnf, description);
+			if (!Files.isRegularFile(file)) {
+				return null;
+			}
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+				if ((in.readInt() != MAGIC) || (in.readInt() != VERSION) || !description.equals(readString(in))) {
+					return null;
+				}
+				final T result = (T) readValue(in, cnf.getVariableMap());
+				return new AnalysisResult<>(key.getId(), key.getAssumptions(), key.getParameters(), result);
+			}
+		} catch (final IOException | RuntimeException e) {
+			// missing variables, corrupted or concurrently deleted entry
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a result, replacing any result with the same key.
+	 *
+	 * @param cnf    the analyzed CNF
+	 * @param result the analysis result
+	 * @return {@code true} if the result was stored, {@code false} if the type of
+	 *         the result or of a key parameter is not supported or the result
+	 *         could not be written.
+	 */
+	public boolean store(CNF cnf, AnalysisResult<?> result) {
+		final VariableMap variables = cnf.getVariableMap();
+		final byte[] data;
+		final String description;
+		try {
+			description = describeKey(variables, result);
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeString(out, description);
+				writeValue(out, variables, result.getResult());
+			}
+			data = bytes.toByteArray();
+		} catch (final IOException | RuntimeException e) {
+			return false;
+		}
+
+		Path tempFile = null;
+		try {
+			final Path file = getFile(cnf, description);
+			Files.createDirectories(file.getParent());
+			tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			try (FileOutputStream out = new FileOutputStream(tempFile.toFile())) {
+				out.write(data);
+				out.getFD().sync();
+			}
+			try {
+				Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		} catch (final IOException e) {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (final IOException e1) {
+					// the temporary file is ignored by subsequent loads
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes all stored results for the given CNF.
+	 *
+	 * @param cnf the CNF
+	 * @throws IOException if a file cannot be deleted
+	 */
+	public void clear(CNF cnf) throws IOException {
+		final Path cnfDirectory = directory.resolve(getFingerprint(cnf));
+		if (Files.isDirectory(cnfDirectory)) {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(cnfDirectory)) {
+				for (final Path file : files) {
+					Files.deleteIfExists(file);
+				}
+			}
+			Files.deleteIfExists(cnfDirectory);
+		}
+	}
+
+	private Path getFile(CNF cnf, String description) {
+		return directory.resolve(getFingerprint(cnf)).resolve(CNFFingerprint.hash(description) + FILE_EXTENSION);
+	}
+
+	private synchronized String getFingerprint(CNF cnf) {
+		if (lastCnf != cnf) {
+			lastFingerprint = CNFFingerprint.of(cnf);
+			lastCnf = cnf;
+		}
+		return lastFingerprint;
+	}
+
+	private static String describeKey(VariableMap variables, AnalysisResult<?> key) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(key.getId());
+		sb.append('\n');
+		final List<String> assumptions = new ArrayList<>();
+		for (final int literal : key.getAssumptions().getLiterals()) {
+			assumptions.add(toName(variables, literal));
+		}
+		Collections.sort(assumptions);
+		sb.append(assumptions);
+		sb.append('\n');
+		describe(sb, variables, key.getParameters());
+		return sb.toString();
+	}
+
+	private static void describe(StringBuilder sb, VariableMap variables, Object parameter) {
+		if (parameter instanceof LiteralList) {
+			sb.append('[');
+			for (final int literal : ((LiteralList) parameter).getLiterals()) {
+				sb.append(toName(variables, literal));
+				sb.append(',');
+			}
+			sb.append(']');
+		} else if (parameter instanceof List) {
+			sb.append('(');
+			for (final Object element : (List<?>) parameter) {
+				describe(sb, variables, element);
+				sb.append(',');
+			}
+			sb.append(')');
+		} else if (parameter instanceof String) {
+			sb.append('"');
+			sb.append(((String) parameter).replace("\\", "\\\\").replace("\"", "\\\""));
+			sb.append('"');
+		} else if (parameter instanceof Enum) {
+			final Enum<?> constant = (Enum<?>) parameter;
+			sb.append(constant.getDeclaringClass().getName());
+			sb.append('.');
+			sb.append(constant.name());
+		} else if ((parameter == null) || (parameter instanceof Boolean) || (parameter instanceof Integer)
+			|| (parameter instanceof Long) || (parameter instanceof Double)) {
+			sb.append(parameter);
+		} else {
+			throw new IllegalArgumentException("Unsupported key parameter: " + parameter.getClass().getName());
+		}
+	}
+
+	private static String toName(VariableMap variables, int literal) {
+		final String name = variables.getName(Math.abs(literal)).orElseThrow(IllegalArgumentException::new);
+		return literal > 0 ? "+" + name : "-" + name;
+	}
+
+	private static void writeValue(DataOutputStream out, VariableMap variables, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof BigInteger) {
+			out.writeByte(BIG_INTEGER);
+			final byte[] bytes = ((BigInteger) value).toByteArray();
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} else if (value instanceof LiteralList) {
+			final LiteralList literalList = (LiteralList) value;
+			out.writeByte(LITERAL_LIST);
+			out.writeByte(literalList.getOrder().ordinal());
+			final int[] literals = literalList.getLiterals();
+			out.writeInt(literals.length);
+			for (final int literal : literals) {
+				if (literal == 0) {
+					writeString(out, "");
+				} else {
+					writeString(out, toName(variables, literal));
+				}
+			}
+		} else if (value instanceof List) {
+			final List<?> list = (List<?>) value;
+			out.writeByte(LIST);
+			out.writeInt(list.size());
+			for (final Object element : list) {
+				writeValue(out, variables, element);
+			}
+		} else {
+			throw new IllegalArgumentException("Unsupported result type: " + value.getClass());
+		}
+	}
+
+	private static Object readValue(DataInputStream in, VariableMap variables) throws IOException {
+		final byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case BOOLEAN:
+			return in.readBoolean();
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case BIG_INTEGER: {
+			final byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new BigInteger(bytes);
+		}
+		case LITERAL_LIST: {
+			final Order order = Order.values()[in.readByte()];
+			final int[] literals = new int[in.readInt()];
+			for (int i = 0; i < literals.length; i++) {
+				final String name = readString(in);
+				if (!name.isEmpty()) {
+					final int index = variables.getIndex(name.substring(1)).orElseThrow(
+						IllegalArgumentException::new);
+					literals[i] = name.charAt(0) == '+' ? index : -index;
+				}
+			}
+			return new LiteralList(literals, order);
+		}
+		case LIST: {
+			final int size = in.readInt();
+			final List<Object> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(readValue(in, variables));
+			}
+			return list;
+		}
+		default:
+			throw new IOException("Unknown type " + type);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String text) throws IOException {
+		final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
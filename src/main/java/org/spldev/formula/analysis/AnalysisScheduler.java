@@ -0,0 +1,229 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.spldev.formula.*;
+
+/**
+ * Runs several analyses on the same {@link ModelRepresentation} as a directed
+ * acyclic graph. Each analysis is a {@link Node node} that can depend on nodes
+ * added before. A node is started as soon as all its dependencies are
+ * computed, so independent nodes run in parallel. The results of dependencies
+ * can be passed to dependent analyses instead of being recomputed by them.
+ * Solvers are taken from the {@link ModelRepresentation#getSolverCache() solver
+ * cache} of the model representation.<br>
+ * <br>
+ * Example:
+ *
+ * <pre>
+ * AnalysisScheduler scheduler = new AnalysisScheduler(rep);
+ * Node&lt;CoreDeadAnalysis, LiteralList&gt; coreDead = scheduler.add(new CoreDeadAnalysis());
+ * Node&lt;AtomicSetAnalysis, List&lt;LiteralList&gt;&gt; atomicSets = scheduler.add(new AtomicSetAnalysis()) //
+ * 	.dependsOn(coreDead, AtomicSetAnalysis::setCoreDead);
+ * scheduler.run().join();
+ * </pre>
+ *
+ * @author Sebastian Krieter
+ */
+public class AnalysisScheduler {
+
+	/**
+	 * An analysis within a scheduler.
+	 *
+	 * @param <A> Type of the analysis.
+	 * @param <T> Type of the analysis result.
+	 */
+	public final class Node<A extends AbstractAnalysis<T, ?, ?>, T> {
+
+		private final A analysis;
+		private final List<Node<?, ?>> dependencies = new ArrayList<>();
+		private final List<Runnable> injectors = new ArrayList<>();
+
+		private CompletableFuture<T> future;
+		private volatile CompletableFuture<T> analysisFuture;
+
+		private Node(A analysis) {
+			this.analysis = analysis;
+		}
+
+		/**
+		 * Adds a dependency to this node. This node is only started after the
+		 * given node is computed.
+		 *
+		 * @param dependency a node that was added to the same scheduler before this
+		 *                   node
+		 * @return This node.
+		 */
+		public Node<A, T> dependsOn(Node<?, ?> dependency) {
+			checkDependency(dependency);
+			dependencies.add(dependency);
+			return this;
+		}
+
+		/**
+		 * Adds a dependency to this node and passes its result to the analysis of
+		 * this node before it is started.
+		 *
+		 * @param dependency a node that was added to the same scheduler before this
+		 *                   node
+		 * @param consumer   passes the result of the dependency to the analysis
+		 * @return This node.
+		 */
+		public <D> Node<A, T> dependsOn(Node<?, D> dependency, BiConsumer<? super A, ? super D> consumer) {
+			checkDependency(dependency);
+			dependencies.add(dependency);
+			injectors.add(() -> consumer.accept(analysis, dependency.future.join()));
+			return this;
+		}
+
+		private void checkDependency(Node<?, ?> dependency) {
+			if (dependency.getScheduler() != AnalysisScheduler.this) {
+				throw new IllegalArgumentException("Node belongs to another scheduler");
+			}
+			if (nodes.indexOf(dependency) >= nodes.indexOf(this)) {
+				throw new IllegalArgumentException("Dependencies must be added before their dependent nodes");
+			}
+			if (running) {
+				throw new IllegalStateException("Scheduler is already running");
+			}
+		}
+
+		private AnalysisScheduler getScheduler() {
+			return AnalysisScheduler.this;
+		}
+
+		public A getAnalysis() {
+			return analysis;
+		}
+
+		public List<Node<?, ?>> getDependencies() {
+			return Collections.unmodifiableList(dependencies);
+		}
+
+		/**
+		 * @return A future for the result of this node or {@code null}, if the
+		 *         scheduler was not started yet.
+		 */
+		public CompletableFuture<T> getFuture() {
+			return future;
+		}
+
+		private void start() {
+			final CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.size()];
+			for (int i = 0; i < dependencyFutures.length; i++) {
+				dependencyFutures[i] = dependencies.get(i).future;
+			}
+			future = CompletableFuture.allOf(dependencyFutures).thenCompose(v -> {
+				injectors.forEach(Runnable::run);
+				analysisFuture = analysis.executeAsync(rep, executor);
+				return analysisFuture;
+			});
+		}
+
+		private void cancel() {
+			if (future != null) {
+				future.cancel(true);
+			}
+			final CompletableFuture<T> currentAnalysisFuture = analysisFuture;
+			if (currentAnalysisFuture != null) {
+				currentAnalysisFuture.cancel(true);
+			}
+		}
+
+	}
+
+	private final ModelRepresentation rep;
+	private final Executor executor;
+	private final List<Node<?, ?>> nodes = new ArrayList<>();
+
+	private boolean running = false;
+
+	public AnalysisScheduler(ModelRepresentation rep) {
+		this(rep, AbstractAnalysis.getDefaultExecutor());
+	}
+
+	public AnalysisScheduler(ModelRepresentation rep, Executor executor) {
+		this.rep = rep;
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds an analysis to this scheduler. Each analysis object must only be added
+	 * once.
+	 *
+	 * @param analysis the analysis
+	 * @return The node for the analysis.
+	 */
+	public <A extends AbstractAnalysis<T, ?, ?>, T> Node<A, T> add(A analysis) {
+		if (running) {
+			throw new IllegalStateException("Scheduler is already running");
+		}
+		for (final Node<?, ?> node : nodes) {
+			if (node.analysis == analysis) {
+				throw new IllegalArgumentException("Analysis was already added");
+			}
+		}
+		final Node<A, T> node = new Node<>(analysis);
+		nodes.add(node);
+		return node;
+	}
+
+	public List<Node<?, ?>> getNodes() {
+		return Collections.unmodifiableList(nodes);
+	}
+
+	/**
+	 * Starts all analyses. A scheduler can only be run once.
+	 *
+	 * @return A future that completes when all analyses are computed or
+	 *         completes exceptionally if any analysis fails.
+	 */
+	public synchronized CompletableFuture<Void> run() {
+		if (running) {
+			throw new IllegalStateException("Scheduler is already running");
+		}
+		running = true;
+		// nodes only depend on nodes that were added before them
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[nodes.size()];
+		for (int i = 0; i < futures.length; i++) {
+			final Node<?, ?> node = nodes.get(i);
+			node.start();
+			futures[i] = node.future;
+		}
+		return CompletableFuture.allOf(futures);
+	}
+
+	/**
+	 * Cancels all analyses that are not computed yet.
+	 */
+	public synchronized void cancel() {
+		for (final Node<?, ?> node : nodes) {
+			node.cancel();
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import java.util.*;
+
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.bdd.*;
+import org.spldev.formula.solver.sat4j.*;
+
+/**
+ * Base class for analyses that can use any {@link SolverBackend}. If no backend
+ * is set, the {@link SolverBackends#getDefault() default backend} is used.
+ * When using the {@link Sat4JBackend}, solvers are taken from the
+ * {@link ModelRepresentation#getSolverCache() solver cache} of the model
+ * representation. Analyses that test in parallel lease additional
+ * {@link #leaseWorkerSolver(LiteralSolver) worker solvers} from the same
+ * cache. When using the {@link BDDBackend}, solvers are cloned from a
+ * prototype stored in the model representation, such that the BDD is only
+ * built once.
+ *
+ * @param <T> Type of the analysis result.
+ *
+ * @author Sebastian Krieter
+ */
+public abstract class BackendAnalysis<T> extends LiteralSolverAnalysis<T, LiteralSolver> {
+
+	private SolverBackend backend;
+	private SolverCache workerCache;
+	private CNF workerInput;
+
+	public SolverBackend getBackend() {
+		return backend != null ? backend : SolverBackends.getDefault();
+	}
+
+	public void setBackend(SolverBackend backend) {
+		this.backend = backend;
+	}
+
+	@Override
+	protected LiteralSolver createSolver(CNF input) throws RuntimeContradictionException {
+		return getBackend().createSolver(input);
+	}
+
+	@Override
+	protected LiteralSolver leaseSolver(ModelRepresentation rep, CNF input) {
+		if (getBackend() instanceof Sat4JBackend) {
+			workerCache = rep.getSolverCache();
+			workerInput = input;
+			return workerCache.lease(input);
+		}
+		workerCache = null;
+		workerInput = null;
+		if (getBackend() instanceof BDDBackend) {
+			return ((BDDBackend) getBackend()).createSolver(rep, input);
+		}
+		return null;
+	}
+
+	@Override
+	protected void releaseSolver(ModelRepresentation rep, LiteralSolver solver) {
+		// solvers of a fallback backend do not belong to the solver cache
+		final SolverCache cache = rep.getSolverCache();
+		if ((solver instanceof Sat4JSolver) && cache.isLeased((Sat4JSolver) solver)) {
+			cache.release((Sat4JSolver) solver);
+		} else {
+			closeSolver(solver);
+		}
+	}
+
+	/**
+	 * Provides a solver for a parallel worker with the same clauses, pushed
+	 * constraints, and assumptions as the given solver. If possible, a warm solver
+	 * is leased from the {@link SolverCache solver cache} of the model
+	 * representation and brought into the state of the given solver. Otherwise,
+	 * the given solver is {@link LiteralSolver#clone() cloned}. In both cases, the
+	 * worker solver uses the timeout and statistics sink of this analysis and is
+	 * {@link #registerSolver(Solver) registered}, such that {@link #cancel()}
+	 * reaches it. May be called from any thread.
+	 *
+	 * @param solver the solver of this analysis
+	 * @return A solver that must be returned by
+	 *         {@link #releaseWorkerSolver(LiteralSolver)}.
+	 */
+	protected LiteralSolver leaseWorkerSolver(LiteralSolver solver) {
+		final LiteralSolver workerSolver = createWorkerSolver(solver);
+		workerSolver.setTimeout(getTimeout());
+		workerSolver.setStatisticsSink(solver.getStatisticsSink(), solver.getStatisticsScope());
+		registerSolver(workerSolver);
+		return workerSolver;
+	}
+
+	private LiteralSolver createWorkerSolver(LiteralSolver solver) {
+		final SolverCache cache = workerCache;
+		final Sat4JSolver workerSolver = (cache != null) && (workerInput == solver.getCnf()) ? cache.lease(
+			workerInput) : null;
+		if (workerSolver == null) {
+			return solver.clone();
+		}
+		workerSolver.getFormula().setSelectorMode(solver.getDynamicFormula().isSelectorMode());
+		final List<LiteralList> clauses = solver.getDynamicFormula().getClauses();
+		final int initialSize = workerSolver.getFormula().size();
+		if (clauses.size() > initialSize) {
+			try {
+				workerSolver.getFormula().push(new ArrayList<>(clauses.subList(initialSize, clauses.size())));
+			} catch (final RuntimeContradictionException e) {
+				cache.release(workerSolver);
+				return solver.clone();
+			}
+		}
+		workerSolver.getAssumptions().pushAll(solver.getAssumptions().asArray());
+		return workerSolver;
+	}
+
+	/**
+	 * Returns a solver obtained by {@link #leaseWorkerSolver(LiteralSolver)}.
+	 * Warm solvers are reset and returned to the solver cache.
+	 *
+	 * @param workerSolver the worker solver
+	 */
+	protected void releaseWorkerSolver(LiteralSolver workerSolver) {
+		unregisterSolver(workerSolver);
+		final SolverCache cache = workerCache;
+		if ((cache != null) && (workerSolver instanceof Sat4JSolver) && cache.isLeased((Sat4JSolver) workerSolver)) {
+			cache.release((Sat4JSolver) workerSolver);
+		} else {
+			closeSolver(workerSolver);
+		}
+	}
+
+}
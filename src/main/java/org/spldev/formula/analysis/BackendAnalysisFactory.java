@@ -0,0 +1,87 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.solver.*;
+
+/**
+ * Creates analyses that use a certain {@link SolverBackend}.
+ *
+ * @author Sebastian Krieter
+ */
+public class BackendAnalysisFactory implements AnalysisFactory {
+
+	private final SolverBackend backend;
+
+	public BackendAnalysisFactory() {
+		this(SolverBackends.getDefault());
+	}
+
+	public BackendAnalysisFactory(SolverBackend backend) {
+		this.backend = backend;
+	}
+
+	public SolverBackend getBackend() {
+		return backend;
+	}
+
+	@Override
+	public HasSolutionAnalysis getHasSolutionAnalysis() {
+		return configure(new HasSolutionAnalysis());
+	}
+
+	public CoreDeadAnalysis getCoreDeadAnalysis() {
+		return configure(new CoreDeadAnalysis());
+	}
+
+	public IndeterminateAnalysis getIndeterminateAnalysis() {
+		return configure(new IndeterminateAnalysis());
+	}
+
+	public ContradictionAnalysis getContradictionAnalysis() {
+		return configure(new ContradictionAnalysis());
+	}
+
+	public IndependentContradictionAnalysis getIndependentContradictionAnalysis() {
+		return configure(new IndependentContradictionAnalysis());
+	}
+
+	public AddRedundancyAnalysis getAddRedundancyAnalysis() {
+		return configure(new AddRedundancyAnalysis());
+	}
+
+	public RemoveRedundancyAnalysis getRemoveRedundancyAnalysis() {
+		return configure(new RemoveRedundancyAnalysis());
+	}
+
+	public IndependentRedundancyAnalysis getIndependentRedundancyAnalysis() {
+		return configure(new IndependentRedundancyAnalysis());
+	}
+
+	protected <A extends BackendAnalysis<?>> A configure(A analysis) {
+		analysis.setBackend(backend);
+		return analysis;
+	}
+
+}
@@ -0,0 +1,243 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.util.job.*;
+
+/**
+ * Base class for analyses using a {@link LiteralSolver}.
+ *
+ * @param <T> Type of the analysis result.
+ * @param <S> Type of the solver for this analysis.
+ *
+ * @author Sebastian Krieter
+ */
+public abstract class LiteralSolverAnalysis<T, S extends LiteralSolver> extends AbstractAnalysis<T, S, CNF> {
+
+	/**
+	 * Whether a satisfiability check timed out. May be set by worker threads of
+	 * parallel analyses.
+	 */
+	protected volatile boolean timeoutOccurred = false;
+	private boolean throwTimeoutException = true;
+	private int timeout = 1000;
+	private long timeBudget = 0;
+	protected TimeBudget budget = null;
+	private boolean useSelectorLiterals = false;
+	private boolean previousSelectorMode = false;
+	private SolverStatisticsSink statisticsSink = SolverStatistics.getDefaultSink();
+	private SolverStatisticsSink previousStatisticsSink = null;
+	private Object previousStatisticsScope = null;
+
+	protected Random random = new Random(112358);
+
+	public LiteralSolverAnalysis() {
+		super();
+		solverInputProvider = CNFProvider.fromFormula();
+	}
+
+	@Override
+	protected Object getParameters() {
+		return assumptions != null ? assumptions : super.getParameters();
+	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return super.isResultCacheable() && !timeoutOccurred;
+	}
+
+	public Random getRandom() {
+		return random;
+	}
+
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	public final T execute(CNF cnf, InternalMonitor monitor) {
+		if (solver == null) {
+			solver = createSolver(cnf);
+		}
+		return execute(solver, monitor);
+	}
+
+	@Override
+	protected void prepareSolver(S solver) {
+		previousSelectorMode = solver.getDynamicFormula().isSelectorMode();
+		if (useSelectorLiterals) {
+			solver.getDynamicFormula().setSelectorMode(true);
+		}
+		previousStatisticsSink = solver.getStatisticsSink();
+		previousStatisticsScope = solver.getStatisticsScope();
+		if (statisticsSink != null) {
+			solver.setStatisticsSink(statisticsSink, getIdentifier());
+		}
+		super.prepareSolver(solver);
+		solver.setTimeout(timeout);
+		if (timeBudget > 0) {
+			budget = new TimeBudget(timeBudget);
+		} else {
+			budget = null;
+		}
+		timeoutOccurred = false;
+	}
+
+	@Override
+	protected void resetSolver(S solver) {
+		super.resetSolver(solver);
+		solver.getDynamicFormula().setSelectorMode(previousSelectorMode);
+		solver.setStatisticsSink(previousStatisticsSink, previousStatisticsScope);
+	}
+
+	protected final void reportTimeout() throws RuntimeTimeoutException {
+		timeoutOccurred = true;
+		if (throwTimeoutException) {
+			throw new RuntimeTimeoutException();
+		}
+	}
+
+	/**
+	 * Sets the timeout of the solver for the next satisfiability check according
+	 * to the {@link #setTimeBudget(long) time budget}. Does nothing if there is no
+	 * time budget.
+	 *
+	 * @param solver         the solver
+	 * @param remainingCalls the estimated number of remaining checks, including
+	 *                       the next one
+	 * @return {@code false}, if the time budget has expired and the check should
+	 *         not be done, {@code true} otherwise.
+	 */
+	protected final boolean startBudgetedCall(S solver, int remainingCalls) {
+		if (budget == null) {
+			return true;
+		}
+		final int slice = budget.getSlice(remainingCalls);
+		if (slice <= 0) {
+			timeoutOccurred = true;
+			return false;
+		}
+		solver.setTimeout(slice);
+		return true;
+	}
+
+	protected final boolean hasTimeBudget() {
+		return budget != null;
+	}
+
+	/**
+	 * Returns whether this analysis supports a {@link #setTimeBudget(long) time
+	 * budget}. Analyses that support time budgets must call
+	 * {@link #startBudgetedCall(LiteralSolver, int)} before each satisfiability
+	 * check.
+	 *
+	 * @return {@code true}, if a time budget can be set, {@code false} otherwise.
+	 */
+	public boolean isTimeBudgetSupported() {
+		return false;
+	}
+
+	public final boolean isThrowTimeoutException() {
+		return throwTimeoutException;
+	}
+
+	public final void setThrowTimeoutException(boolean throwTimeoutException) {
+		this.throwTimeoutException = throwTimeoutException;
+	}
+
+	public final boolean isTimeoutOccurred() {
+		return timeoutOccurred;
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+	public SolverStatisticsSink getStatisticsSink() {
+		return statisticsSink;
+	}
+
+	/**
+	 * Sets the sink that receives statistics about all satisfiability checks of
+	 * this analysis. The checks are recorded with the identifier of this analysis
+	 * as scope. By default, the {@link SolverStatistics#getDefaultSink() default
+	 * sink} is used.
+	 *
+	 * @param statisticsSink the sink or {@code null} to disable statistics
+	 */
+	public void setStatisticsSink(SolverStatisticsSink statisticsSink) {
+		this.statisticsSink = statisticsSink;
+	}
+
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Sets a time budget for the whole analysis. Instead of using a
+	 * {@link #setTimeout(int) fixed timeout}, each satisfiability check then gets
+	 * a share of the remaining time. Analyses that support time budgets retry
+	 * checks that timed out at the end and return a partial result if the budget
+	 * expires. Currently, only the {@link org.spldev.formula.analysis.sat4j.CoreDeadAnalysis
+	 * core-dead analysis} supports time budgets.
+	 *
+	 * @param timeBudget the time budget in milliseconds or {@code 0} to use the
+	 *                   fixed timeout
+	 *
+	 * @throws UnsupportedOperationException if a positive time budget is set for
+	 *                                       an analysis that does not
+	 *                                       {@link #isTimeBudgetSupported()
+	 *                                       support} time budgets
+	 */
+	public void setTimeBudget(long timeBudget) {
+		if ((timeBudget > 0) && !isTimeBudgetSupported()) {
+			throw new UnsupportedOperationException("Time budget is not supported by " + getClass().getSimpleName());
+		}
+		this.timeBudget = timeBudget;
+	}
+
+	public boolean isUseSelectorLiterals() {
+		return useSelectorLiterals;
+	}
+
+	/**
+	 * Sets whether constraints pushed during this analysis are guarded by selector
+	 * variables. This keeps learnt clauses when constraints are popped, but adds
+	 * one assumption per active constraint to every satisfiability check.
+	 *
+	 * @param useSelectorLiterals whether to use selector literals
+	 *
+	 * @see ClauseFormula#setSelectorMode(boolean)
+	 */
+	public void setUseSelectorLiterals(boolean useSelectorLiterals) {
+		this.useSelectorLiterals = useSelectorLiterals;
+	}
+
+}
@@ -0,0 +1,134 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.bdd.*;
+import org.spldev.formula.solver.sharpsat.*;
+import org.spldev.util.job.*;
+
+/**
+ * Base class for analyses using a {@link SharpSatSolver}. The solver is created
+ * by the {@link #getBackend() backend}. If the backend does not support model
+ * counting, a {@link ComponentSharpSatSolver} is used. Solvers of the
+ * {@link BDDBackend} are cloned from a prototype stored in the model
+ * representation.
+ *
+ * @param <T> Type of the analysis result.
+ *
+ * @author Sebastian Krieter
+ */
+public abstract class SharpSatAnalysis<T> extends AbstractAnalysis<T, SharpSatSolver, CNF> {
+
+	protected boolean timeoutOccurred = false;
+	private boolean throwTimeoutException = true;
+	private long timeout = 0;
+	private SolverBackend backend;
+
+	public SharpSatAnalysis() {
+		super();
+		solverInputProvider = CNFProvider.fromFormula();
+	}
+
+	public SolverBackend getBackend() {
+		return backend != null ? backend : SolverBackends.getDefault();
+	}
+
+	public void setBackend(SolverBackend backend) {
+		this.backend = backend;
+	}
+
+	@Override
+	protected SharpSatSolver createSolver(CNF input) throws RuntimeContradictionException {
+		return getBackend().createSharpSatSolver(input).orElseGet(() -> new ComponentSharpSatSolver(input));
+	}
+
+	@Override
+	protected SharpSatSolver leaseSolver(ModelRepresentation rep, CNF input) {
+		if (getBackend() instanceof BDDBackend) {
+			return ((BDDBackend) getBackend()).createSharpSatSolver(rep, input).orElseGet(
+				() -> new ComponentSharpSatSolver(input));
+		}
+		return null;
+	}
+
+	@Override
+	protected void releaseSolver(ModelRepresentation rep, SharpSatSolver solver) {
+		// each leased solver is a new clone or fallback solver
+		closeSolver(solver);
+	}
+
+	public final T execute(CNF cnf, InternalMonitor monitor) {
+		if (solver == null) {
+			solver = createSolver(cnf);
+		}
+		return execute(solver, monitor);
+	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return super.isResultCacheable() && !timeoutOccurred;
+	}
+
+	@Override
+	protected void prepareSolver(SharpSatSolver solver) {
+		super.prepareSolver(solver);
+		solver.setTimeout(timeout);
+		timeoutOccurred = false;
+	}
+
+	protected final void reportTimeout() throws RuntimeTimeoutException {
+		timeoutOccurred = true;
+		if (throwTimeoutException) {
+			throw new RuntimeTimeoutException();
+		}
+	}
+
+	public final boolean isThrowTimeoutException() {
+		return throwTimeoutException;
+	}
+
+	public final void setThrowTimeoutException(boolean throwTimeoutException) {
+		this.throwTimeoutException = throwTimeoutException;
+	}
+
+	public final boolean isTimeoutOccurred() {
+		return timeoutOccurred;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the maximum time for each computation of the solver.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+}
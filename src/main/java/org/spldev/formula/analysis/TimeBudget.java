@@ -0,0 +1,99 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis;
+
+/**
+ * Deadline for an analysis that is split across its satisfiability checks.
+ * Each check gets a slice of the remaining time that depends on the number of
+ * remaining checks. As most checks finish long before their slice ends, a
+ * slice is a multiple of the fair share of the remaining time. Checks that
+ * still exceed their slice can be retried at the end of the analysis, when
+ * fewer checks share the remaining time.
+ *
+ * @author Sebastian Krieter
+ */
+public class TimeBudget {
+
+	public static final int DEFAULT_MINIMUM_SLICE = 10;
+	public static final int DEFAULT_OVERCOMMIT = 4;
+
+	private final long deadline;
+	private final int minimumSlice;
+	private final int overcommit;
+
+	/**
+	 * Starts a new time budget.
+	 *
+	 * @param budget the time budget in milliseconds
+	 */
+	public TimeBudget(long budget) {
+		this(budget, DEFAULT_MINIMUM_SLICE, DEFAULT_OVERCOMMIT);
+	}
+
+	/**
+	 * Starts a new time budget.
+	 *
+	 * @param budget       the time budget in milliseconds
+	 * @param minimumSlice the minimal timeout of a single check in milliseconds
+	 * @param overcommit   the factor by which a slice exceeds the fair share of
+	 *                     the remaining time
+	 */
+	public TimeBudget(long budget, int minimumSlice, int overcommit) {
+		if (budget <= 0) {
+			throw new IllegalArgumentException("Budget must be positive: " + budget);
+		}
+		deadline = System.nanoTime() + (budget * 1_000_000L);
+		this.minimumSlice = Math.max(1, minimumSlice);
+		this.overcommit = Math.max(1, overcommit);
+	}
+
+	/**
+	 * @return The remaining time in milliseconds.
+	 */
+	public long getRemaining() {
+		return Math.max(0, (deadline - System.nanoTime()) / 1_000_000L);
+	}
+
+	public boolean isExpired() {
+		return (deadline - System.nanoTime()) <= 0;
+	}
+
+	/**
+	 * Computes the timeout for the next satisfiability check.
+	 *
+	 * @param remainingCalls the number of checks that remain, including the next
+	 *                       one
+	 * @return The timeout in milliseconds or {@code 0}, if the deadline has
+	 *         expired.
+	 */
+	public int getSlice(int remainingCalls) {
+		final long remaining = getRemaining();
+		if (remaining <= 0) {
+			return 0;
+		}
+		final long fairShare = remaining / Math.max(1, remainingCalls);
+		final long slice = Math.min(remaining, Math.max(minimumSlice, fairShare * overcommit));
+		return (int) Math.min(Integer.MAX_VALUE, slice);
+	}
+
+}
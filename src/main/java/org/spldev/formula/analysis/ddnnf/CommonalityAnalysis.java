@@ -0,0 +1,54 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis.ddnnf;
+
+import java.math.*;
+
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.util.data.*;
+import org.spldev.util.job.*;
+
+/**
+ * Computes the exact commonality of each variable, that is the number of
+ * solutions in which the variable is selected. The result contains the number
+ * for each variable index (index {@code 0} is unused).
+ *
+ * @author Sebastian Krieter
+ *
+ * @see DDNNF#getCommonality(org.spldev.formula.clauses.LiteralList)
+ */
+public class CommonalityAnalysis extends DDNNFAnalysis<BigInteger[]> {
+
+	public static final Identifier<BigInteger[]> identifier = new Identifier<>();
+
+	@Override
+	public Identifier<BigInteger[]> getIdentifier() {
+		return identifier;
+	}
+
+	@Override
+	public BigInteger[] analyze(DDNNFSolver solver, InternalMonitor monitor) throws Exception {
+		return solver.getCommonality();
+	}
+
+}
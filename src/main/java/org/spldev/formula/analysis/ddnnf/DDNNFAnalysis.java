@@ -0,0 +1,59 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis.ddnnf;
+
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.util.job.*;
+
+/**
+ * Base class for analyses using a {@link DDNNFSolver}. By default, the
+ * {@link DDNNF} is compiled from the CNF of the model representation and
+ * cached, such that subsequent analyses of the same model do not need a
+ * satisfiability solver.
+ *
+ * @param <T> Type of the analysis result.
+ *
+ * @author Sebastian Krieter
+ */
+public abstract class DDNNFAnalysis<T> extends AbstractAnalysis<T, DDNNFSolver, DDNNF> {
+
+	public DDNNFAnalysis() {
+		super();
+		solverInputProvider = DDNNFProvider.fromFormula();
+	}
+
+	public final T execute(DDNNF ddnnf, InternalMonitor monitor) {
+		if (solver == null) {
+			solver = createSolver(ddnnf);
+		}
+		return execute(solver, monitor);
+	}
+
+	@Override
+	protected DDNNFSolver createSolver(DDNNF input) throws RuntimeContradictionException {
+		return new DDNNFSolver(input);
+	}
+
+}
@@ -0,0 +1,173 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis.ddnnf;
+
+import java.math.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import org.spldev.formula.*;
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.util.job.*;
+
+/**
+ * Generates configurations that are drawn uniformly at random from all valid
+ * configurations. In contrast to the random generators based on a
+ * satisfiability solver, each configuration is drawn by a single pass over a
+ * compiled {@link DDNNF} and is not biased by any selection heuristics.
+ *
+ * @author Sebastian Krieter
+ */
+public class UniformRandomConfigurationGenerator extends DDNNFAnalysis<SolutionList> implements
+	ConfigurationGenerator {
+
+	private int maxSampleSize = Integer.MAX_VALUE;
+
+	protected boolean allowDuplicates = false;
+
+	protected Random random = new Random();
+
+	private BigInteger[] counts;
+	private BigInteger remainingSolutions;
+	private HashSet<LiteralList> solutions;
+
+	public Random getRandom() {
+		return random;
+	}
+
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	@Override
+	protected boolean isCacheable() {
+		return false;
+	}
+
+	@Override
+	public int getLimit() {
+		return maxSampleSize;
+	}
+
+	@Override
+	public void setLimit(int limit) {
+		maxSampleSize = limit;
+	}
+
+	@Override
+	public boolean isAllowDuplicates() {
+		return allowDuplicates;
+	}
+
+	@Override
+	public void setAllowDuplicates(boolean allowDuplicates) {
+		this.allowDuplicates = allowDuplicates;
+	}
+
+	@Override
+	public int characteristics() {
+		return NONNULL | IMMUTABLE;
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super LiteralList> consumer) {
+		final LiteralList literalList = get();
+		if (literalList != null) {
+			consumer.accept(literalList);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Spliterator<LiteralList> trySplit() {
+		return null;
+	}
+
+	@Override
+	public void init(ModelRepresentation rep, InternalMonitor monitor) {
+		solver = createSolver(rep.get(solverInputProvider));
+		monitor.checkCancel();
+		prepareSolver(solver);
+		init(monitor);
+	}
+
+	protected void init(InternalMonitor monitor) {
+		final DDNNF ddnnf = solver.getDdnnf();
+		counts = ddnnf.computeCounts(new LiteralList(solver.getAssumptions().asArray()));
+		remainingSolutions = counts[ddnnf.getRoot()];
+		solutions = allowDuplicates ? null : new HashSet<>();
+	}
+
+	/**
+	 * Draws the next configuration. If duplicates are not allowed, already drawn
+	 * configurations are rejected and drawn again.
+	 *
+	 * @return A configuration or {@code null}, if there are no (more)
+	 *         configurations.
+	 */
+	@Override
+	public LiteralList get() {
+		if (remainingSolutions.signum() == 0) {
+			return null;
+		}
+		final DDNNF ddnnf = solver.getDdnnf();
+		while (true) {
+			final LiteralList solution = ddnnf.sample(counts, random);
+			if (allowDuplicates) {
+				return solution;
+			}
+			if (solutions.add(solution)) {
+				remainingSolutions = remainingSolutions.subtract(BigInteger.ONE);
+				return solution;
+			}
+		}
+	}
+
+	@Override
+	public final SolutionList analyze(DDNNFSolver solver, InternalMonitor monitor) throws Exception {
+		// newly created solvers are not stored in this analysis
+		final DDNNFSolver previousSolver = this.solver;
+		this.solver = solver;
+		try {
+			init(monitor);
+			monitor.setTotalWork(maxSampleSize);
+			return new SolutionList(solver.getVariables(), StreamSupport.stream(this, false) //
+				.limit(maxSampleSize) //
+				.peek(c -> monitor.step()) //
+				.collect(Collectors.toCollection(ArrayList::new)));
+		} finally {
+			this.solver = previousSolver;
+		}
+	}
+
+}
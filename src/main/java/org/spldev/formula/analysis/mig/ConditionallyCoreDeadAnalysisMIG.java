@@ -22,11 +22,15 @@
  */
 package org.spldev.formula.analysis.mig;
 
+import java.util.*;
+
 import org.sat4j.core.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.bcp.*;
 import org.spldev.formula.solver.mig.*;
 import org.spldev.formula.solver.mig.visitor.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
@@ -43,6 +47,18 @@ public class ConditionallyCoreDeadAnalysisMIG extends Sat4JMIGAnalysis<LiteralLi
 	protected int[] variableOrder;
 	protected int newCount;
 
+	private boolean probing = false;
+	private int probedVariables = 0;
+	private UnitPropagation propagation;
+	private CNF propagationCnf;
+
+	@Override
+	protected Object getAnalysisParameters() {
+		return Arrays.asList(fixedVariables != null
+			? new LiteralList(Arrays.copyOf(fixedVariables, fixedVariables.length), Order.UNORDERED, false)
+			: null, newCount);
+	}
+
 	public void setFixedFeatures(int[] fixedVariables, int newCount) {
 		this.fixedVariables = fixedVariables;
 		this.newCount = newCount;
@@ -52,6 +68,30 @@ public class ConditionallyCoreDeadAnalysisMIG extends Sat4JMIGAnalysis<LiteralLi
 		this.variableOrder = variableOrder;
 	}
 
+	public boolean isProbing() {
+		return probing;
+	}
+
+	/**
+	 * Sets whether to run failed literal probing before any satisfiability check.
+	 * All literals that are implied by {@link UnitPropagation unit propagation}
+	 * and probing under the fixed variables are added to the result without
+	 * testing them with the solver.
+	 *
+	 * @param probing whether to use probing (default is {@code false})
+	 */
+	public void setProbing(boolean probing) {
+		this.probing = probing;
+	}
+
+	/**
+	 * @return The number of variables that were decided by probing during the
+	 *         last execution.
+	 */
+	public int getProbedVariables() {
+		return probedVariables;
+	}
+
 	public void resetFixedFeatures() {
 		fixedVariables = new int[0];
 		newCount = 0;
@@ -108,6 +148,11 @@ public class ConditionallyCoreDeadAnalysisMIG extends Sat4JMIGAnalysis<LiteralLi
 			monitor.step();
 		}
 
+		probedVariables = 0;
+		if (probing) {
+			probe(solver.getCnf(), knownValues);
+		}
+
 		if (variableOrder != null) {
 			final VecInt sortedValuesToCalculate = new VecInt(valuesToCompute.size());
 			for (int i = variableOrder.length - 1; i >= 0; i--) {
@@ -156,6 +201,38 @@ public class ConditionallyCoreDeadAnalysisMIG extends Sat4JMIGAnalysis<LiteralLi
 		return new LiteralList(solver.getAssumptions().asArray(0, solver.getAssumptions().size()));
 	}
 
+	/**
+	 * Adds all literals that are implied by probing under the known values to the
+	 * known values. The propagation engine is reused for subsequent executions on
+	 * the same CNF.
+	 */
+	private void probe(CNF cnf, int[] knownValues) {
+		if ((propagation == null) || (propagationCnf != cnf)) {
+			propagation = new UnitPropagation(cnf);
+			propagationCnf = cnf;
+		}
+		final int rootTrailSize = propagation.getTrailSize();
+		try {
+			for (final int var : knownValues) {
+				if ((var != 0) && !propagation.assign(var)) {
+					return;
+				}
+			}
+			if (propagation.probe()) {
+				for (int i = 0; i < propagation.getTrailSize(); i++) {
+					final int literal = propagation.getTrailLiteral(i);
+					final int index = Math.abs(literal) - 1;
+					if ((index < knownValues.length) && (knownValues[index] == 0)) {
+						knownValues[index] = literal;
+						probedVariables++;
+					}
+				}
+			}
+		} finally {
+			propagation.backtrack(rootTrailSize);
+		}
+	}
+
 	private void sat(Sat4JMIGSolver solver, int[] unknownValues, VecInt valuesToCalculate, InternalMonitor monitor,
 		Traverser traverser) {
 		final CollectingVisitor visitor = new CollectingVisitor();
@@ -54,6 +54,11 @@ public abstract class Sat4JMIGAnalysis<T> extends AbstractAnalysis<T, Sat4JMIGSo
 		return assumptions != null ? assumptions : super.getParameters();
 	}
 
+	@Override
+	protected boolean isResultCacheable() {
+		return super.isResultCacheable() && !timeoutOccurred;
+	}
+
 	public Random getRandom() {
 		return random;
 	}
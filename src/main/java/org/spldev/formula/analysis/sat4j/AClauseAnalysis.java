@@ -24,7 +24,9 @@ package org.spldev.formula.analysis.sat4j;
 
 import java.util.*;
 
+import org.spldev.formula.analysis.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
 
 /**
  * Base class for an analysis that works on a list of clauses. Clauses can be
@@ -35,11 +37,18 @@ import org.spldev.formula.clauses.*;
  *
  * @author Sebastian Krieter
  */
-public abstract class AClauseAnalysis<T> extends Sat4JAnalysis<T> {
+public abstract class AClauseAnalysis<T> extends BackendAnalysis<T> {
 
 	protected List<LiteralList> clauseList;
 	protected int[] clauseGroupSize;
 
+	@Override
+	protected Object getAnalysisParameters() {
+		return Arrays.asList(clauseList != null ? new ArrayList<>(clauseList) : null, clauseGroupSize != null
+			? new LiteralList(Arrays.copyOf(clauseGroupSize, clauseGroupSize.length), Order.UNORDERED, false)
+			: null);
+	}
+
 	public List<LiteralList> getClauseList() {
 		return clauseList;
 	}
@@ -22,6 +22,7 @@
  */
 package org.spldev.formula.analysis.sat4j;
 
+import org.spldev.formula.analysis.*;
 import org.spldev.formula.clauses.*;
 
 /**
@@ -31,10 +32,15 @@ import org.spldev.formula.clauses.*;
  *
  * @author Sebastian Krieter
  */
-public abstract class AVariableAnalysis<T> extends Sat4JAnalysis<T> {
+public abstract class AVariableAnalysis<T> extends BackendAnalysis<T> {
 
 	protected LiteralList variables;
 
+	@Override
+	protected Object getAnalysisParameters() {
+		return variables;
+	}
+
 	public LiteralList getVariables() {
 		return variables;
 	}
@@ -27,8 +27,9 @@ import java.util.function.*;
 import java.util.stream.*;
 
 import org.spldev.formula.*;
+import org.spldev.formula.analysis.*;
 import org.spldev.formula.clauses.*;
-import org.spldev.formula.solver.sat4j.*;
+import org.spldev.formula.solver.*;
 import org.spldev.util.job.*;
 
 /**
@@ -36,13 +37,18 @@ import org.spldev.util.job.*;
  *
  * @author Sebastian Krieter
  */
-public abstract class AbstractConfigurationGenerator extends Sat4JAnalysis<SolutionList> implements
+public abstract class AbstractConfigurationGenerator extends BackendAnalysis<SolutionList> implements
 	ConfigurationGenerator {
 
 	private int maxSampleSize = Integer.MAX_VALUE;
 
 	protected boolean allowDuplicates = false;
 
+	@Override
+	protected boolean isCacheable() {
+		return false;
+	}
+
 	@Override
 	public int getLimit() {
 		return maxSampleSize;
@@ -101,13 +107,20 @@ public abstract class AbstractConfigurationGenerator extends Sat4JAnalysis<Solut
 	}
 
 	@Override
-	public final SolutionList analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
-		init(monitor);
-		monitor.setTotalWork(maxSampleSize);
-		return new SolutionList(solver.getVariables(), StreamSupport.stream(this, false) //
-			.limit(maxSampleSize) //
-			.peek(c -> monitor.step()) //
-			.collect(Collectors.toCollection(ArrayList::new)));
+	public final SolutionList analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
+		// leased and newly created solvers are not stored in this analysis
+		final LiteralSolver previousSolver = this.solver;
+		this.solver = solver;
+		try {
+			init(monitor);
+			monitor.setTotalWork(maxSampleSize);
+			return new SolutionList(solver.getVariables(), StreamSupport.stream(this, false) //
+				.limit(maxSampleSize) //
+				.peek(c -> monitor.step()) //
+				.collect(Collectors.toCollection(ArrayList::new)));
+		} finally {
+			this.solver = previousSolver;
+		}
 	}
 
 }
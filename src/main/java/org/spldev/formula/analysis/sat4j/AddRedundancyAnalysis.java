@@ -25,8 +25,8 @@ package org.spldev.formula.analysis.sat4j;
 import java.util.*;
 
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
@@ -65,7 +65,7 @@ public class AddRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>> {
 	}
 
 	@Override
-	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public List<LiteralList> analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		if (clauseList == null) {
 			return Collections.emptyList();
 		}
@@ -98,7 +98,7 @@ public class AddRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>> {
 				case TIMEOUT:
 					reportTimeout();
 				case TRUE:
-					solver.getFormula().push(clause);
+					solver.getDynamicFormula().push(clause);
 					completelyRedundant = false;
 					break;
 				default:
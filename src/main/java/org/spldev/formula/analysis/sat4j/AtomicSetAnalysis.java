@@ -24,13 +24,22 @@ package org.spldev.formula.analysis.sat4j;
 
 import java.util.*;
 
+import org.sat4j.core.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.SatSolver.*;
+import org.spldev.formula.solver.mig.*;
 import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
 /**
- * Finds atomic sets.
+ * Finds atomic sets. Instead of testing all pairs of variables, variables are
+ * first grouped by their signature, i.e., their values in a pool of models.
+ * Only variables within the same group are tested for equivalence. Each found
+ * model splits the remaining group further. Equivalent variables are merged
+ * using union-find. Optionally, equivalences from the strongly connected
+ * components of a {@link MIG} are merged without any satisfiability check.
  *
  * @author Sebastian Krieter
  */
@@ -43,22 +52,69 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 		return identifier;
 	}
 
+	public static final int DEFAULT_SIGNATURE_SAMPLES = 32;
+
+	private LiteralList coreDead;
+	private MIG mig;
+	private int signatureSamples = DEFAULT_SIGNATURE_SAMPLES;
+
 	public AtomicSetAnalysis() {
 		super();
 	}
 
+	public LiteralList getCoreDead() {
+		return coreDead;
+	}
+
+	/**
+	 * Sets the core and dead variables of the formula, which form the first
+	 * atomic set. If set, they are not computed again by this analysis. The given
+	 * literals must be the result of a {@link CoreDeadAnalysis} with the same
+	 * assumptions as this analysis.
+	 *
+	 * @param coreDead the core and dead variables or {@code null} to compute them
+	 */
+	public void setCoreDead(LiteralList coreDead) {
+		this.coreDead = coreDead;
+	}
+
+	public MIG getMIG() {
+		return mig;
+	}
+
+	/**
+	 * Sets a {@link MIG} of the formula. If set, variables whose literals imply
+	 * each other via strong edges are merged without any satisfiability check.
+	 *
+	 * @param mig the MIG or {@code null}
+	 */
+	public void setMIG(MIG mig) {
+		this.mig = mig;
+	}
+
+	public int getSignatureSamples() {
+		return signatureSamples;
+	}
+
+	/**
+	 * Sets the number of additional random models that are used to compute the
+	 * signatures of the variables. More models result in smaller groups of
+	 * candidates and thus in less satisfiability checks.
+	 *
+	 * @param signatureSamples the number of models (default is
+	 *                         {@value #DEFAULT_SIGNATURE_SAMPLES})
+	 */
+	public void setSignatureSamples(int signatureSamples) {
+		this.signatureSamples = signatureSamples;
+	}
+
 	@Override
 	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
 		final List<LiteralList> result = new ArrayList<>();
-//		if (variables == null) {
-//			variables = LiteralList.getVariables(solver.getVariables());
-//		}
-
-		// for all variables not in this.variables, set done[...] to 2
 
 		solver.setSelectionStrategy(SStrategy.positive());
 		final int[] model1 = solver.findSolution().getLiterals();
-		final List<LiteralList> solutions = solver.rememberSolutionHistory(1000);
+		solver.rememberSolutionHistory(1000);
 
 		if (model1 != null) {
 			// initial atomic set consists of core and dead features
@@ -67,127 +123,312 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 			solver.setSelectionStrategy(SStrategy.positive());
 
 			final byte[] done = new byte[model1.length];
+			for (int i = 0; i < solver.getAssumptions().size(); i++) {
+				done[Math.abs(solver.getAssumptions().peek(i)) - 1] = 2;
+			}
 
-			final int[] model1Copy = Arrays.copyOf(model1, model1.length);
-
-			LiteralList.resetConflicts(model1Copy, model2);
-			for (int i = 0; i < model1Copy.length; i++) {
-				final int varX = model1Copy[i];
-				if (varX != 0) {
-					solver.getAssumptions().push(-varX);
-					switch (solver.hasSolution()) {
-					case FALSE:
-						done[i] = 2;
-						solver.getAssumptions().replaceLast(varX);
-						break;
-					case TIMEOUT:
-						solver.getAssumptions().pop();
-						reportTimeout();
-						break;
-					case TRUE:
-						solver.getAssumptions().pop();
-						LiteralList.resetConflicts(model1Copy, solver.getInternalSolution());
-						solver.shuffleOrder(getRandom());
-						break;
+			if (coreDead != null) {
+				for (final int literal : coreDead.getLiterals()) {
+					done[Math.abs(literal) - 1] = 2;
+					solver.getAssumptions().push(literal);
+				}
+			} else {
+				final int[] model1Copy = Arrays.copyOf(model1, model1.length);
+				LiteralList.resetConflicts(model1Copy, model2);
+				for (int i = 0; i < model1Copy.length; i++) {
+					final int varX = model1Copy[i];
+					if ((varX != 0) && (done[i] == 0)) {
+						solver.getAssumptions().push(-varX);
+						switch (solver.hasSolution()) {
+						case FALSE:
+							done[i] = 2;
+							solver.getAssumptions().replaceLast(varX);
+							break;
+						case TIMEOUT:
+							solver.getAssumptions().pop();
+							reportTimeout();
+							break;
+						case TRUE:
+							solver.getAssumptions().pop();
+							LiteralList.resetConflicts(model1Copy, solver.getInternalSolution());
+							solver.shuffleOrder(getRandom());
+							break;
+						}
 					}
 				}
 			}
 			final int fixedSize = solver.getAssumptions().size();
 			result.add(new LiteralList(solver.getAssumptions().asArray(0, fixedSize)));
+			monitor.checkCancel();
+
+			final List<int[]> models = sampleModels(solver, model1, model2);
+			final int[] parents = new int[model1.length];
+			for (int i = 0; i < parents.length; i++) {
+				parents[i] = i;
+			}
+			if (mig != null) {
+				mergeStronglyConnected(parents, done);
+			}
 
 			solver.setSelectionStrategy(SStrategy.random(getRandom()));
+			final ArrayDeque<int[]> groups = groupBySignature(models, model1, done);
+			while (!groups.isEmpty()) {
+				monitor.checkCancel();
+				splitGroup(solver, groups, groups.pop(), model1, parents);
+			}
 
+			final int[] setIndices = new int[model1.length];
+			Arrays.fill(setIndices, -1);
+			final List<VecInt> atomicSets = new ArrayList<>();
 			for (int i = 0; i < model1.length; i++) {
 				if (done[i] == 0) {
-					done[i] = 2;
-
-					int[] xModel0 = Arrays.copyOf(model1, model1.length);
-
-					final int mx0 = xModel0[i];
-					solver.getAssumptions().push(mx0);
-
-					inner: for (int j = i + 1; j < xModel0.length; j++) {
-						final int my0 = xModel0[j];
-						if ((my0 != 0) && (done[j] == 0)) {
-							for (final LiteralList solution : solutions) {
-								final int mxI = solution.getLiterals()[i];
-								final int myI = solution.getLiterals()[j];
-								if ((mx0 == mxI) != (my0 == myI)) {
-									continue inner;
-								}
-							}
+					final int root = find(parents, i);
+					if (setIndices[root] < 0) {
+						setIndices[root] = atomicSets.size();
+						atomicSets.add(new VecInt());
+					}
+					atomicSets.get(setIndices[root]).push(-model1[i]);
+				}
+			}
+			for (final VecInt atomicSet : atomicSets) {
+				result.add(new LiteralList(Arrays.copyOf(atomicSet.toArray(), atomicSet.size())));
+			}
+		}
+		return result;
+	}
 
-							solver.getAssumptions().push(-my0);
-
-							switch (solver.hasSolution()) {
-							case FALSE:
-								done[j] = 1;
-								break;
-							case TIMEOUT:
-								reportTimeout();
-								break;
-							case TRUE:
-								LiteralList.resetConflicts(xModel0, solver.getInternalSolution());
-								solver.shuffleOrder(getRandom());
-								break;
-							}
-							solver.getAssumptions().pop();
-						}
+	/**
+	 * Collects the models for computing signatures. The pool consists of the
+	 * models found so far and {@link #signatureSamples} random models.
+	 */
+	private List<int[]> sampleModels(Sat4JSolver solver, int[] model1, int[] model2) {
+		final List<int[]> models = new ArrayList<>();
+		models.add(model2);
+		for (final LiteralList solution : solver.getSolutionHistory()) {
+			models.add(solution.getLiterals());
+		}
+		// the solution history would return the same solution for each sample
+		solver.rememberSolutionHistory(0);
+		solver.setSelectionStrategy(SStrategy.random(getRandom()));
+		for (int i = 0; i < signatureSamples; i++) {
+			solver.shuffleOrder(getRandom());
+			final LiteralList solution = solver.findSolution();
+			if (solution == null) {
+				break;
+			}
+			models.add(solution.getLiterals());
+		}
+		solver.rememberSolutionHistory(1000);
+		return models;
+	}
+
+	/**
+	 * Groups all undecided variables by their signature. The signature of a
+	 * variable contains one bit per model, which states whether the variable has
+	 * the same value as in {@code model1}. Variables with different signatures
+	 * cannot form an atomic set.
+	 *
+	 * @return The groups of variables, each ordered by index.
+	 */
+	private static ArrayDeque<int[]> groupBySignature(List<int[]> models, int[] model1, byte[] done) {
+		final int numberOfWords = (models.size() + 63) >>> 6;
+		final long[][] signatures = new long[model1.length][];
+		final List<Integer> candidates = new ArrayList<>();
+		for (int i = 0; i < model1.length; i++) {
+			if (done[i] == 0) {
+				final long[] signature = new long[numberOfWords];
+				for (int k = 0; k < models.size(); k++) {
+					final int[] model = models.get(k);
+					if ((i < model.length) && (model[i] != model1[i])) {
+						signature[k >>> 6] |= 1L << (k & 63);
 					}
+				}
+				signatures[i] = signature;
+				candidates.add(i);
+			}
+		}
+		candidates.sort((i1, i2) -> {
+			final long[] signature1 = signatures[i1];
+			final long[] signature2 = signatures[i2];
+			for (int w = 0; w < numberOfWords; w++) {
+				final int compare = Long.compare(signature1[w], signature2[w]);
+				if (compare != 0) {
+					return compare;
+				}
+			}
+			return Integer.compare(i1, i2);
+		});
 
-					solver.getAssumptions().pop();
-					solver.getAssumptions().push(-mx0);
+		final ArrayDeque<int[]> groups = new ArrayDeque<>();
+		int groupStart = 0;
+		for (int c = 1; c <= candidates.size(); c++) {
+			if ((c == candidates.size())
+				|| !Arrays.equals(signatures[candidates.get(groupStart)], signatures[candidates.get(c)])) {
+				if ((c - groupStart) > 1) {
+					final int[] group = new int[c - groupStart];
+					for (int g = 0; g < group.length; g++) {
+						group[g] = candidates.get(groupStart + g);
+					}
+					groups.add(group);
+				}
+				groupStart = c;
+			}
+		}
+		return groups;
+	}
 
-					switch (solver.hasSolution()) {
-					case FALSE:
-						break;
-					case TIMEOUT:
-						for (int j = i + 1; j < xModel0.length; j++) {
-							done[j] = 0;
+	/**
+	 * Tests which variables of the group are equivalent to its first variable and
+	 * merges them. Each found model splits off all variables that are
+	 * inconsistent with the first variable, which are grouped again.
+	 */
+	private void splitGroup(Sat4JSolver solver, ArrayDeque<int[]> groups, int[] group, int[] model1,
+		int[] parents) {
+		final int x = group[0];
+		final int[] splitGroup = new int[group.length];
+		int splitLength = 0;
+		for (int g = 1; g < group.length; g++) {
+			final int y = group[g];
+			if (y < 0) {
+				continue;
+			}
+			if (find(parents, x) == find(parents, y)) {
+				continue;
+			}
+			final int[] model = testEquivalence(solver, model1[x], model1[y]);
+			if (model == null) {
+				parents[find(parents, y)] = find(parents, x);
+			} else {
+				splitGroup[splitLength++] = y;
+				if (model.length > 0) {
+					for (int h = g + 1; h < group.length; h++) {
+						final int z = group[h];
+						if ((z >= 0) && ((model[x] == model1[x]) != (model[z] == model1[z]))) {
+							splitGroup[splitLength++] = z;
+							group[h] = -1;
 						}
-						reportTimeout();
-						break;
-					case TRUE:
-						xModel0 = solver.getInternalSolution();
-						break;
 					}
+				}
+			}
+		}
+		if (splitLength > 1) {
+			groups.push(Arrays.copyOf(splitGroup, splitLength));
+		}
+	}
 
-					for (int j = i + 1; j < xModel0.length; j++) {
-						if (done[j] == 1) {
-							final int my0 = xModel0[j];
-							if (my0 != 0) {
-								solver.getAssumptions().push(-my0);
-
-								switch (solver.hasSolution()) {
-								case FALSE:
-									done[j] = 2;
-									solver.getAssumptions().replaceLast(my0);
-									break;
-								case TIMEOUT:
-									done[j] = 0;
-									solver.getAssumptions().pop();
-									reportTimeout();
-									break;
-								case TRUE:
-									done[j] = 0;
-									LiteralList.resetConflicts(xModel0, solver.getInternalSolution());
-									solver.shuffleOrder(getRandom());
-									solver.getAssumptions().pop();
-									break;
-								}
-							} else {
-								done[j] = 0;
+	/**
+	 * Tests whether both literals are equivalent.
+	 *
+	 * @return {@code null} if the literals are equivalent, a model that
+	 *         distinguishes them, or an empty array, if the test timed out.
+	 */
+	private int[] testEquivalence(Sat4JSolver solver, int literalX, int literalY) {
+		for (int sign = 1; sign >= -1; sign -= 2) {
+			solver.getAssumptions().push(sign * literalX);
+			solver.getAssumptions().push(-sign * literalY);
+			final SatResult satResult = solver.hasSolution();
+			solver.getAssumptions().pop(2);
+			switch (satResult) {
+			case FALSE:
+				break;
+			case TIMEOUT:
+				reportTimeout();
+				return new int[0];
+			case TRUE:
+				final int[] model = solver.getInternalSolution();
+				solver.shuffleOrder(getRandom());
+				return model;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Merges all variables whose literals are part of the same strongly
+	 * connected component of the strong edges of {@link #mig}. Such literals
+	 * imply each other and are thus equivalent.
+	 */
+	private void mergeStronglyConnected(int[] parents, byte[] done) {
+		final List<Vertex> vertices = mig.getVertices();
+		final int numberOfVertices = Math.min(vertices.size(), parents.length << 1);
+		final int[] indices = new int[numberOfVertices];
+		final int[] lowLinks = new int[numberOfVertices];
+		final boolean[] onStack = new boolean[numberOfVertices];
+		final int[] stack = new int[numberOfVertices];
+		final int[] callStack = new int[numberOfVertices];
+		final int[] edgePositions = new int[numberOfVertices];
+		int stackSize = 0;
+		int nextIndex = 1;
+
+		for (int start = 0; start < numberOfVertices; start++) {
+			if ((indices[start] != 0) || !isRelevant(vertices.get(start), done)) {
+				continue;
+			}
+			int callStackSize = 0;
+			callStack[callStackSize++] = start;
+			indices[start] = lowLinks[start] = nextIndex++;
+			stack[stackSize++] = start;
+			onStack[start] = true;
+			edgePositions[start] = 0;
+			while (callStackSize > 0) {
+				final int v = callStack[callStackSize - 1];
+				final List<Vertex> edges = vertices.get(v).getStrongEdges();
+				if (edgePositions[v] < edges.size()) {
+					final Vertex target = edges.get(edgePositions[v]++);
+					final int w = MIG.getVertexIndex(target);
+					if ((w >= numberOfVertices) || !isRelevant(target, done)) {
+						continue;
+					}
+					if (indices[w] == 0) {
+						indices[w] = lowLinks[w] = nextIndex++;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						edgePositions[w] = 0;
+						callStack[callStackSize++] = w;
+					} else if (onStack[w]) {
+						lowLinks[v] = Math.min(lowLinks[v], indices[w]);
+					}
+				} else {
+					callStackSize--;
+					if (callStackSize > 0) {
+						final int parent = callStack[callStackSize - 1];
+						lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[v]);
+					}
+					if (lowLinks[v] == indices[v]) {
+						final int rootVariable = Math.abs(vertices.get(v).getVar()) - 1;
+						int w;
+						do {
+							w = stack[--stackSize];
+							onStack[w] = false;
+							final int variable = Math.abs(vertices.get(w).getVar()) - 1;
+							final int root = find(parents, variable);
+							final int otherRoot = find(parents, rootVariable);
+							if (root != otherRoot) {
+								parents[Math.max(root, otherRoot)] = Math.min(root, otherRoot);
 							}
-						}
+						} while (w != v);
 					}
-
-					result.add(new LiteralList(solver.getAssumptions().asArray(fixedSize, solver.getAssumptions()
-						.size())));
-					solver.getAssumptions().clear(fixedSize);
 				}
 			}
 		}
-		return result;
+	}
+
+	private static boolean isRelevant(Vertex vertex, byte[] done) {
+		final int index = Math.abs(vertex.getVar()) - 1;
+		return (index < done.length) && (done[index] == 0) && vertex.isNormal();
+	}
+
+	private static int find(int[] parents, int variable) {
+		int root = variable;
+		while (parents[root] != root) {
+			root = parents[root];
+		}
+		while (parents[variable] != root) {
+			final int next = parents[variable];
+			parents[variable] = root;
+			variable = next;
+		}
+		return root;
 	}
 
 }
@@ -25,7 +25,7 @@ package org.spldev.formula.analysis.sat4j;
 import java.util.*;
 
 import org.spldev.formula.clauses.*;
-import org.spldev.formula.solver.sat4j.*;
+import org.spldev.formula.solver.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 import org.spldev.util.logging.*;
@@ -77,6 +77,54 @@ public class CauseAnalysis extends AClauseAnalysis<List<CauseAnalysis.Anomalies>
 
 	private Anomalies anomalies;
 	protected boolean[] relevantConstraint;
+	private LiteralList coreDead;
+	private List<LiteralList> redundantClauses;
+
+	@Override
+	protected Object getAnalysisParameters() {
+		BitSet relevantConstraints = null;
+		if (relevantConstraint != null) {
+			relevantConstraints = new BitSet(relevantConstraint.length);
+			for (int i = 0; i < relevantConstraint.length; i++) {
+				relevantConstraints.set(i, relevantConstraint[i]);
+			}
+		}
+		final List<Object> anomalyParameters = anomalies == null ? null
+			: Arrays.asList(anomalies.getDeadVariables(), new ArrayList<>(anomalies.getRedundantClauses()));
+		return Arrays.asList(super.getAnalysisParameters(), anomalyParameters, relevantConstraints);
+	}
+
+	public LiteralList getCoreDead() {
+		return coreDead;
+	}
+
+	/**
+	 * Sets the core and dead variables of the formula without the clauses of this
+	 * analysis. If set, they are not computed again by this analysis.
+	 *
+	 * @param coreDead the result of a {@link CoreDeadAnalysis} on the formula or
+	 *                 {@code null} to compute it
+	 */
+	public void setCoreDead(LiteralList coreDead) {
+		this.coreDead = coreDead;
+	}
+
+	public List<LiteralList> getRedundantClauses() {
+		return redundantClauses;
+	}
+
+	/**
+	 * Sets the clauses that are redundant in the formula without the clauses of
+	 * this analysis. If set, they are not computed again by this analysis.
+	 *
+	 * @param redundantClauses the result of an {@link IndependentRedundancyAnalysis}
+	 *                         on the formula for (a superset of) the redundant
+	 *                         clauses of the {@link #setAnomalies(Anomalies)
+	 *                         anomalies} or {@code null} to compute it
+	 */
+	public void setRedundantClauses(List<LiteralList> redundantClauses) {
+		this.redundantClauses = redundantClauses;
+	}
 
 	public Anomalies getAnomalies() {
 		return anomalies;
@@ -95,7 +143,7 @@ public class CauseAnalysis extends AClauseAnalysis<List<CauseAnalysis.Anomalies>
 	}
 
 	@Override
-	public List<Anomalies> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public List<Anomalies> analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		if (clauseList == null) {
 			return Collections.emptyList();
 		}
@@ -117,17 +165,29 @@ public class CauseAnalysis extends AClauseAnalysis<List<CauseAnalysis.Anomalies>
 		monitor.step();
 
 		if (!remainingClauses.isEmpty()) {
-			final List<LiteralList> result = Executor.run(
-				new IndependentRedundancyAnalysis(remainingClauses)::execute,
-				solver.getCnf()).orElse(Logger::logProblems);
+			final List<LiteralList> result;
+			if (redundantClauses != null) {
+				result = redundantClauses;
+			} else {
+				final IndependentRedundancyAnalysis redundancyAnalysis = new IndependentRedundancyAnalysis(
+					remainingClauses);
+				redundancyAnalysis.setBackend(getBackend());
+				result = Executor.run(redundancyAnalysis::execute, solver.getCnf()).orElse(Logger::logProblems);
+			}
 			remainingClauses.removeIf(result::contains);
 		}
 		monitor.step();
 
 		if (remainingVariables.getLiterals().length > 0) {
-			remainingVariables = remainingVariables.removeAll(
-				Executor.run(new CoreDeadAnalysis(remainingVariables)::execute,
-					solver.getCnf()).orElse(Logger::logProblems));
+			final LiteralList result;
+			if (coreDead != null) {
+				result = coreDead;
+			} else {
+				final CoreDeadAnalysis coreDeadAnalysis = new CoreDeadAnalysis(remainingVariables);
+				coreDeadAnalysis.setBackend(getBackend());
+				result = Executor.run(coreDeadAnalysis::execute, solver.getCnf()).orElse(Logger::logProblems);
+			}
+			remainingVariables = remainingVariables.removeAll(result);
 		}
 		monitor.step();
 
@@ -139,7 +199,7 @@ public class CauseAnalysis extends AClauseAnalysis<List<CauseAnalysis.Anomalies>
 
 			final int startIndex = endIndex;
 			endIndex += clauseGroupSize[i];
-			solver.getFormula().push(clauseList.subList(startIndex, endIndex));
+			solver.getDynamicFormula().push(clauseList.subList(startIndex, endIndex));
 			if (relevantConstraint[i]) {
 				if (remainingVariables.getLiterals().length > 0) {
 					final LiteralList deadVariables = new CoreDeadAnalysis(remainingVariables).execute(solver,
@@ -27,7 +27,6 @@ import java.util.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
@@ -57,15 +56,17 @@ public class ContradictionAnalysis extends AClauseAnalysis<List<LiteralList>> {
 
 	public ContradictionAnalysis() {
 		super();
+		setUseSelectorLiterals(true);
 	}
 
 	public ContradictionAnalysis(List<LiteralList> clauseList) {
 		super();
+		setUseSelectorLiterals(true);
 		this.clauseList = clauseList;
 	}
 
 	@Override
-	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public List<LiteralList> analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		if (clauseList == null) {
 			clauseList = solver.getCnf().getClauses();
 		}
@@ -88,7 +89,7 @@ public class ContradictionAnalysis extends AClauseAnalysis<List<LiteralList>> {
 			final List<LiteralList> subList = clauseList.subList(startIndex, endIndex);
 
 			try {
-				solver.getFormula().push(subList);
+				solver.getDynamicFormula().push(subList);
 			} catch (final RuntimeContradictionException e) {
 				resultList.set(i, clauseList.get(startIndex));
 				monitor.step();
@@ -99,7 +100,7 @@ public class ContradictionAnalysis extends AClauseAnalysis<List<LiteralList>> {
 			switch (hasSolution) {
 			case FALSE:
 				resultList.set(i, clauseList.get(startIndex));
-				solver.getFormula().pop(subList.size());
+				solver.getDynamicFormula().pop(subList.size());
 				break;
 			case TIMEOUT:
 				reportTimeout();
@@ -23,11 +23,16 @@
 package org.spldev.formula.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.*;
 
 import org.sat4j.core.*;
-import org.sat4j.specs.*;
+import org.spldev.formula.analysis.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.SatSolver.*;
+import org.spldev.formula.solver.bcp.*;
 import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
@@ -41,7 +46,36 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 
 	public static final Identifier<LiteralList> identifier = new Identifier<>();
 
-	private Sat4JSolver solver;
+	/**
+	 * Strategies for testing the candidate literals.
+	 */
+	public enum Strategy {
+		/**
+		 * Tests each candidate with a separate satisfiability check.
+		 */
+		ITERATIVE,
+		/**
+		 * Tests chunks of candidates with a single satisfiability check each.
+		 * Unsatisfiable chunks are narrowed down using the explanation of the
+		 * solver, such that several core and dead literals are confirmed at once.
+		 * Found solutions are rotated to rule out further candidates without
+		 * additional checks.
+		 */
+		CHUNKED
+	}
+
+	public static final int DEFAULT_CHUNK_SIZE = 32;
+
+	private LiteralSolver solver;
+	private LiteralList undecided = new LiteralList();
+	private int parallelism = 1;
+	private Executor executor = null;
+	private Strategy strategy = Strategy.ITERATIVE;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private boolean modelRotation = true;
+	private int satCalls = 0;
+	private boolean probing = false;
+	private int probedVariables = 0;
 
 	@Override
 	public Identifier<LiteralList> getIdentifier() {
@@ -57,21 +91,176 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 		this.variables = variables;
 	}
 
+	/**
+	 * Returns the variables that could not be decided during the last execution,
+	 * because the {@link #setTimeBudget(long) time budget} expired. Without a time
+	 * budget, this list is always empty.
+	 *
+	 * @return The undecided variables.
+	 */
+	public LiteralList getUndecided() {
+		return undecided;
+	}
+
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Sets the strategy for testing the candidates. If a
+	 * {@link #setTimeBudget(long) time budget} is set, candidates are always
+	 * tested {@link Strategy#ITERATIVE iteratively}. The
+	 * {@link Strategy#CHUNKED chunked} strategy always uses a single solver and
+	 * ignores the {@link #setParallelism(int) parallelism}.
+	 *
+	 * @param strategy the strategy (default is {@link Strategy#ITERATIVE})
+	 */
+	public void setStrategy(Strategy strategy) {
+		this.strategy = Objects.requireNonNull(strategy);
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the maximum number of candidates that are tested at once by the
+	 * {@link Strategy#CHUNKED chunked} strategy.
+	 *
+	 * @param chunkSize the chunk size (default is {@value #DEFAULT_CHUNK_SIZE})
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException(String.valueOf(chunkSize));
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	public boolean isModelRotation() {
+		return modelRotation;
+	}
+
+	/**
+	 * Sets whether the {@link Strategy#CHUNKED chunked} strategy rotates found
+	 * solutions. A candidate literal that is not the only satisfied literal of any
+	 * clause can be flipped in a solution and is thus neither core nor dead.
+	 *
+	 * @param modelRotation whether to use model rotation (default is
+	 *                      {@code true})
+	 */
+	public void setModelRotation(boolean modelRotation) {
+		this.modelRotation = modelRotation;
+	}
+
+	/**
+	 * @return The number of satisfiability checks during the last execution.
+	 */
+	public int getSatCalls() {
+		return satCalls;
+	}
+
+	public boolean isProbing() {
+		return probing;
+	}
+
+	/**
+	 * Sets whether to run failed literal probing before any satisfiability check.
+	 * All literals that are implied by {@link UnitPropagation unit propagation}
+	 * and probing are core or dead and do not need to be tested by the solver.
+	 *
+	 * @param probing whether to use probing (default is {@code false})
+	 */
+	public void setProbing(boolean probing) {
+		this.probing = probing;
+	}
+
+	/**
+	 * @return The number of variables that were decided by probing during the
+	 *         last execution.
+	 */
+	public int getProbedVariables() {
+		return probedVariables;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that test the candidates in parallel. With a
+	 * parallelism greater than one, the analysis tests the candidates using
+	 * {@link #leaseWorkerSolver(LiteralSolver) worker solvers}, which share each
+	 * found solution to rule out further candidates. The result is the same as for
+	 * sequential execution. The parallelism is ignored and the analysis is
+	 * executed sequentially, if a {@link #setTimeBudget(long) time budget} is set
+	 * or the {@link Strategy#CHUNKED chunked} strategy is used.
+	 *
+	 * @param parallelism the number of solvers (default is {@code 1})
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(String.valueOf(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor for the additional solvers in parallel execution.
+	 *
+	 * @param executor the executor or {@code null} to use the
+	 *                 {@link AbstractAnalysis#getDefaultExecutor() default
+	 *                 executor}
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	public boolean isTimeBudgetSupported() {
+		return true;
+	}
+
 	@Override
-	public LiteralList analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public LiteralList analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		this.solver = solver;
+		undecided = new LiteralList();
+		satCalls = 0;
+		probedVariables = 0;
 		return analyze1(monitor);
 	}
 
-	// currently unused (divide & conquer)
-	public LiteralList analyze2(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public LiteralList analyze1(InternalMonitor monitor) throws Exception {
 		final int initialAssignmentLength = solver.getAssumptions().size();
+		if (probing && !probe()) {
+			return new LiteralList();
+		}
+		final int numberOfVariables = solver.getCnf().getVariableMap().size();
+		if (!startBudgetedCall(solver, numberOfVariables + 2)) {
+			return budgetExpired(numberOfVariables);
+		}
 		solver.setSelectionStrategy(SStrategy.positive());
-		int[] model1 = solver.findSolution().getLiterals();
+		satCalls++;
+		final SatResult firstResult = solver.hasSolution();
+		if (firstResult == SatResult.TIMEOUT) {
+			return initialCheckTimedOut(numberOfVariables);
+		}
 
-		if (model1 != null) {
-			solver.setSelectionStrategy(SStrategy.negative());
-			final int[] model2 = solver.findSolution().getLiterals();
+		if (firstResult == SatResult.TRUE) {
+			int[] model1 = solver.getSolution().getLiterals();
+			if (!startBudgetedCall(solver, numberOfVariables + 1)) {
+				return budgetExpired(numberOfVariables);
+			}
+			solver.setSelectionStrategy(SStrategy.inverse(model1));
+			satCalls++;
+			if (solver.hasSolution() != SatResult.TRUE) {
+				// the formula is satisfiable, so the check timed out
+				return initialCheckTimedOut(numberOfVariables);
+			}
+			final int[] model2 = solver.getSolution().getLiterals();
 
 			if (variables != null) {
 				final int[] model3 = new int[model1.length];
@@ -84,147 +273,485 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 				model1 = model3;
 			}
 
-			for (int i = 0; i < initialAssignmentLength; i++) {
+			// also excludes the literals found by probing
+			for (int i = 0; i < solver.getAssumptions().size(); i++) {
 				model1[Math.abs(solver.getAssumptions().peek(i)) - 1] = 0;
 			}
 
 			LiteralList.resetConflicts(model1, model2);
-			solver.setSelectionStrategy(SStrategy.inverse(model1));
 
-			vars = new VecInt(model1.length);
-			split(model1, 0, model1.length);
+			if (hasTimeBudget()) {
+				testWithBudget(model1);
+			} else if (strategy == Strategy.CHUNKED) {
+				testChunked(model1);
+			} else if (parallelism > 1) {
+				testInParallel(model1);
+			} else {
+				for (int i = 0; i < model1.length; i++) {
+					final int varX = model1[i];
+					if (varX != 0) {
+						solver.getAssumptions().push(-varX);
+						satCalls++;
+						switch (solver.hasSolution()) {
+						case FALSE:
+							solver.getAssumptions().replaceLast(varX);
+							break;
+						case TIMEOUT:
+							solver.getAssumptions().pop();
+							reportTimeout();
+							break;
+						case TRUE:
+							solver.getAssumptions().pop();
+							LiteralList.resetConflicts(model1, solver.getInternalSolution());
+							solver.shuffleOrder(getRandom());
+							break;
+						}
+					}
+				}
+			}
 		}
+
 		return new LiteralList(solver.getAssumptions().asArray(initialAssignmentLength, solver.getAssumptions()
 			.size()));
 	}
 
-	VecInt vars;
+	/**
+	 * Tests all remaining candidates in {@code model} using {@link #parallelism}
+	 * solvers. Each solver takes the next untested candidate from a shared index.
+	 * Found solutions are applied to the shared candidates immediately, such that
+	 * all solvers skip the ruled out candidates. As a candidate is only ruled out
+	 * by a solution and only confirmed by an unsatisfiable check, the found
+	 * literals do not depend on the scheduling and are added to the assumptions of
+	 * {@link #solver} in the same order as in sequential execution.
+	 */
+	private void testInParallel(int[] model) throws Exception {
+		final AtomicIntegerArray candidates = new AtomicIntegerArray(model);
+		final AtomicIntegerArray found = new AtomicIntegerArray(model.length);
+		final AtomicInteger nextIndex = new AtomicInteger();
+		final AtomicInteger parallelSatCalls = new AtomicInteger();
+
+		final Random[] workerRandoms = new Random[parallelism];
+		for (int k = 1; k < parallelism; k++) {
+			workerRandoms[k] = new Random(getRandom().nextLong());
+		}
+		workerRandoms[0] = new Random(getRandom().nextLong());
+
+		ParallelWorkers.run(parallelism, executor != null ? executor : AbstractAnalysis.getDefaultExecutor(), k -> {
+			testCandidates(workerRandoms[k], candidates, found, nextIndex, parallelSatCalls);
+			return null;
+		}, () -> nextIndex.set(model.length));
 
-	private void split(int[] model, int start, int end) {
-		vars.clear();
-		for (int j = start; j < end; j++) {
-			final int var = model[j];
+		satCalls += parallelSatCalls.get();
+		for (int i = 0; i < model.length; i++) {
+			final int var = found.get(i);
 			if (var != 0) {
-				vars.push(-var);
+				solver.getAssumptions().push(var);
 			}
 		}
-		switch (vars.size()) {
-		case 0:
-			return;
-		case 1:
-			test(model, 0);
-			break;
-		case 2:
-			test(model, 0);
-			test(model, 1);
-			break;
-		default:
-			try {
-				solver.getFormula().push(new LiteralList(Arrays.copyOf(vars.toArray(), vars.size())));
-				switch (solver.hasSolution()) {
-				case FALSE:
-					foundVariables(model, vars);
-					break;
-				case TIMEOUT:
-					reportTimeout();
-					break;
-				case TRUE:
-					LiteralList.resetConflicts(model, solver.getInternalSolution());
-					solver.shuffleOrder(getRandom());
+	}
 
-					final int halfLength = (end - start) / 2;
-					if (halfLength > 0) {
-						split(model, start + halfLength, end);
-						split(model, start, start + halfLength);
+	private void testCandidates(Random workerRandom, AtomicIntegerArray candidates, AtomicIntegerArray found,
+		AtomicInteger nextIndex, AtomicInteger parallelSatCalls) {
+		final LiteralSolver workerSolver = leaseWorkerSolver(solver);
+		try {
+			testCandidates(workerSolver, workerRandom, candidates, found, nextIndex, parallelSatCalls);
+		} finally {
+			releaseWorkerSolver(workerSolver);
+		}
+	}
+
+	private void testCandidates(LiteralSolver workerSolver, Random workerRandom, AtomicIntegerArray candidates,
+		AtomicIntegerArray found, AtomicInteger nextIndex, AtomicInteger parallelSatCalls) {
+		final int length = candidates.length();
+		for (int i = nextIndex.getAndIncrement(); i < length; i = nextIndex.getAndIncrement()) {
+			final int varX = candidates.get(i);
+			if (varX == 0) {
+				continue;
+			}
+			if (isCancelled()) {
+				workerSolver.setCancelled(true);
+			}
+			workerSolver.getAssumptions().push(-varX);
+			parallelSatCalls.incrementAndGet();
+			switch (workerSolver.hasSolution()) {
+			case FALSE:
+				workerSolver.getAssumptions().replaceLast(varX);
+				found.set(i, varX);
+				break;
+			case TIMEOUT:
+				workerSolver.getAssumptions().pop();
+				reportTimeout();
+				break;
+			case TRUE:
+				workerSolver.getAssumptions().pop();
+				final int[] solution = workerSolver.getInternalSolution();
+				for (int j = 0; j < length; j++) {
+					final int candidate = candidates.get(j);
+					if ((candidate != 0) && (solution[j] != candidate)) {
+						candidates.compareAndSet(j, candidate, 0);
 					}
-					break;
 				}
-				solver.getFormula().pop();
-			} catch (final RuntimeContradictionException e) {
-				foundVariables(model, vars);
+				workerSolver.shuffleOrder(workerRandom);
+				break;
 			}
-			break;
 		}
 	}
 
-	private void test(int[] model, int i) {
-		final int var = vars.get(i);
-		solver.getAssumptions().push(var);
-		switch (solver.hasSolution()) {
-		case FALSE:
-			solver.getAssumptions().replaceLast(-var);
-			model[Math.abs(var) - 1] = 0;
-			break;
-		case TIMEOUT:
-			solver.getAssumptions().pop();
-			reportTimeout();
-			break;
-		case TRUE:
-			solver.getAssumptions().pop();
-			LiteralList.resetConflicts(model, solver.getInternalSolution());
-			solver.shuffleOrder(getRandom());
-			break;
+	/**
+	 * Tests all remaining candidates in {@code model} in chunks of at most
+	 * {@link #chunkSize} literals. For each chunk, the negations of its literals
+	 * are assumed at once. A solution rules out the whole chunk. Otherwise, the
+	 * explanation of the solver narrows the chunk down to the literals that caused
+	 * the contradiction. A single literal is confirmed directly. For multiple
+	 * literals, a clause containing their negations is added temporarily. If this
+	 * is unsatisfiable, all of them are confirmed at once, otherwise the found
+	 * solution rules out at least one of them. Thus, each check decides at least
+	 * one candidate.
+	 */
+	private void testChunked(int[] model) {
+		final int initialAssignmentLength = solver.getAssumptions().size();
+		final int[] found = new int[model.length];
+		final List<LiteralList> clauses = modelRotation ? solver.getClauses() : null;
+		final int[][] occurrences = modelRotation ? getOccurrences(clauses, model.length) : null;
+
+		// keep learnt clauses when popping the clauses pushed for a chunk
+		final boolean selectorMode = solver.getDynamicFormula().isSelectorMode();
+		solver.getDynamicFormula().setSelectorMode(true);
+		try {
+			final int[] chunk = new int[chunkSize];
+			int start = 0;
+			while (start < model.length) {
+				int chunkLength = 0;
+				for (; (start < model.length) && (chunkLength < chunkSize); start++) {
+					if (model[start] != 0) {
+						chunk[chunkLength++] = start;
+					}
+				}
+				int chunkLimit = chunkLength;
+				while (chunkLength > 0) {
+					final int testLength = Math.min(chunkLength, chunkLimit);
+					for (int j = 0; j < testLength; j++) {
+						solver.getAssumptions().push(-model[chunk[j]]);
+					}
+					satCalls++;
+					final SatResult result = solver.hasSolution();
+					switch (result) {
+					case FALSE:
+						final int[] explanation = solver.getContradictoryAssignment();
+						solver.getAssumptions().pop(testLength);
+						final int explanationLength = narrowChunk(model, chunk, testLength, explanation);
+						if (explanationLength == 1) {
+							confirm(model, found, chunk[0]);
+						} else {
+							testClause(model, found, chunk, explanationLength, clauses, occurrences);
+						}
+						break;
+					case TIMEOUT:
+						solver.getAssumptions().pop(testLength);
+						reportTimeout();
+						if (testLength == 1) {
+							model[chunk[0]] = 0;
+						} else {
+							chunkLimit = 1;
+						}
+						break;
+					case TRUE:
+						solver.getAssumptions().pop(testLength);
+						ruleOut(model, solver.getInternalSolution(), clauses, occurrences);
+						break;
+					}
+					chunkLength = compactChunk(model, chunk, chunkLength);
+				}
+			}
+		} finally {
+			solver.getDynamicFormula().setSelectorMode(selectorMode);
+		}
+
+		solver.getAssumptions().clear(initialAssignmentLength);
+		for (final int var : found) {
+			if (var != 0) {
+				solver.getAssumptions().push(var);
+			}
+		}
+	}
+
+	/**
+	 * Runs failed literal probing under the current assumptions and adds all
+	 * implied literals of the relevant variables to the assumptions.
+	 *
+	 * @return {@code false}, if probing proves that there is no solution,
+	 *         {@code true} otherwise.
+	 */
+	private boolean probe() {
+		final UnitPropagation propagation = new UnitPropagation(solver.getCnf().getVariableMap().getMaxIndex(),
+			solver.getClauses());
+		final LiteralAssumptions assumptions = solver.getAssumptions();
+		final boolean[] decided = new boolean[propagation.getNumberOfVariables() + 1];
+		for (int i = 0; i < assumptions.size(); i++) {
+			final int literal = assumptions.peek(i);
+			if (!propagation.assign(literal)) {
+				return false;
+			}
+			decided[Math.abs(literal)] = true;
+		}
+		if (!propagation.probe()) {
+			return false;
+		}
+		if (variables != null) {
+			final boolean[] relevant = new boolean[decided.length];
+			for (final int var : variables.getLiterals()) {
+				if ((var > 0) && (var < relevant.length)) {
+					relevant[var] = true;
+				}
+			}
+			for (int var = 1; var < decided.length; var++) {
+				decided[var] |= !relevant[var];
+			}
+		}
+		for (int i = 0; i < propagation.getTrailSize(); i++) {
+			final int literal = propagation.getTrailLiteral(i);
+			if (!decided[Math.abs(literal)]) {
+				assumptions.push(literal);
+				probedVariables++;
+			}
 		}
+		return true;
 	}
 
-	private void foundVariables(int[] model, VecInt vars) {
-		for (final IteratorInt iterator = vars.iterator(); iterator.hasNext();) {
-			final int var = iterator.next();
-			solver.getAssumptions().push(-var);
-			model[Math.abs(var) - 1] = 0;
+	/**
+	 * Moves the candidates within the first {@code testLength} elements of
+	 * {@code chunk} whose negations are part of the explanation to the front.
+	 *
+	 * @return The number of candidates in the explanation or {@code testLength},
+	 *         if the explanation contains none of them.
+	 */
+	private static int narrowChunk(int[] model, int[] chunk, int testLength, int[] explanation) {
+		final HashSet<Integer> explanationLiterals = new HashSet<>();
+		for (final int literal : explanation) {
+			explanationLiterals.add(literal);
+		}
+		int length = 0;
+		for (int j = 0; j < testLength; j++) {
+			final int index = chunk[j];
+			if (explanationLiterals.contains(-model[index])) {
+				chunk[j] = chunk[length];
+				chunk[length++] = index;
+			}
 		}
+		return length == 0 ? testLength : length;
 	}
 
-	public LiteralList analyze1(InternalMonitor monitor) throws Exception {
-		final int initialAssignmentLength = solver.getAssumptions().size();
-		solver.setSelectionStrategy(SStrategy.positive());
-		int[] model1 = solver.findSolution().getLiterals();
+	private void testClause(int[] model, int[] found, int[] chunk, int length, List<LiteralList> clauses,
+		int[][] occurrences) {
+		final int[] negatedLiterals = new int[length];
+		for (int j = 0; j < length; j++) {
+			negatedLiterals[j] = -model[chunk[j]];
+		}
+		try {
+			solver.getDynamicFormula().push(new LiteralList(negatedLiterals));
+		} catch (final RuntimeContradictionException e) {
+			for (int j = 0; j < length; j++) {
+				confirm(model, found, chunk[j]);
+			}
+			return;
+		}
+		try {
+			satCalls++;
+			switch (solver.hasSolution()) {
+			case FALSE:
+				for (int j = 0; j < length; j++) {
+					confirm(model, found, chunk[j]);
+				}
+				break;
+			case TIMEOUT:
+				reportTimeout();
+				for (int j = 0; j < length; j++) {
+					model[chunk[j]] = 0;
+				}
+				break;
+			case TRUE:
+				ruleOut(model, solver.getInternalSolution(), clauses, occurrences);
+				break;
+			}
+		} finally {
+			solver.getDynamicFormula().pop();
+		}
+	}
 
-		if (model1 != null) {
-			solver.setSelectionStrategy(SStrategy.inverse(model1));
-			final int[] model2 = solver.findSolution().getLiterals();
+	private void confirm(int[] model, int[] found, int index) {
+		final int var = model[index];
+		solver.getAssumptions().push(var);
+		found[index] = var;
+		model[index] = 0;
+	}
 
-			if (variables != null) {
-				final int[] model3 = new int[model1.length];
-				for (int i = 0; i < variables.getLiterals().length; i++) {
-					final int index = variables.getLiterals()[i] - 1;
-					if (index >= 0) {
-						model3[index] = model1[index];
+	/**
+	 * Removes all candidates from {@code model} that are not satisfied by
+	 * {@code solution}. If {@code clauses} are given, additionally removes all
+	 * candidates that are not the only satisfied literal of any clause, as
+	 * flipping them results in another solution.
+	 */
+	private void ruleOut(int[] model, int[] solution, List<LiteralList> clauses, int[][] occurrences) {
+		LiteralList.resetConflicts(model, solution);
+		if (clauses != null) {
+			final int[] satisfiedLiterals = new int[clauses.size()];
+			for (int c = 0; c < satisfiedLiterals.length; c++) {
+				for (final int literal : clauses.get(c).getLiterals()) {
+					if (solution[Math.abs(literal) - 1] == literal) {
+						satisfiedLiterals[c]++;
 					}
 				}
-				model1 = model3;
 			}
+			candidates: for (int i = 0; i < model.length; i++) {
+				final int literal = model[i];
+				if (literal != 0) {
+					for (final int c : occurrences[getOccurrenceIndex(literal)]) {
+						if (satisfiedLiterals[c] == 1) {
+							continue candidates;
+						}
+					}
+					model[i] = 0;
+				}
+			}
+		}
+		solver.shuffleOrder(getRandom());
+	}
 
-			for (int i = 0; i < initialAssignmentLength; i++) {
-				model1[Math.abs(solver.getAssumptions().peek(i)) - 1] = 0;
+	private static int compactChunk(int[] model, int[] chunk, int chunkLength) {
+		int length = 0;
+		for (int j = 0; j < chunkLength; j++) {
+			if (model[chunk[j]] != 0) {
+				chunk[length++] = chunk[j];
 			}
+		}
+		return length;
+	}
 
-			LiteralList.resetConflicts(model1, model2);
+	private static int[][] getOccurrences(List<LiteralList> clauses, int numberOfVariables) {
+		final int[] counts = new int[2 * (numberOfVariables + 1)];
+		for (final LiteralList clause : clauses) {
+			for (final int literal : clause.getLiterals()) {
+				counts[getOccurrenceIndex(literal)]++;
+			}
+		}
+		final int[][] occurrences = new int[counts.length][];
+		for (int i = 0; i < counts.length; i++) {
+			occurrences[i] = new int[counts[i]];
+			counts[i] = 0;
+		}
+		for (int c = 0; c < clauses.size(); c++) {
+			for (final int literal : clauses.get(c).getLiterals()) {
+				final int index = getOccurrenceIndex(literal);
+				occurrences[index][counts[index]++] = c;
+			}
+		}
+		return occurrences;
+	}
 
-			for (int i = 0; i < model1.length; i++) {
-				final int varX = model1[i];
-				if (varX != 0) {
-					solver.getAssumptions().push(-varX);
-					switch (solver.hasSolution()) {
-					case FALSE:
-						solver.getAssumptions().replaceLast(varX);
-						break;
-					case TIMEOUT:
-						solver.getAssumptions().pop();
-						reportTimeout();
-						break;
-					case TRUE:
-						solver.getAssumptions().pop();
-						LiteralList.resetConflicts(model1, solver.getInternalSolution());
-						solver.shuffleOrder(getRandom());
-						break;
-					}
+	private static int getOccurrenceIndex(int literal) {
+		return literal > 0 ? literal << 1 : (-literal << 1) + 1;
+	}
+
+	/**
+	 * Marks all candidates as {@link #undecided} after the time budget expired
+	 * before the initial solutions were found.
+	 */
+	private LiteralList budgetExpired(int numberOfVariables) {
+		if (variables != null) {
+			undecided = variables;
+		} else {
+			final int[] undecidedVariables = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				undecidedVariables[i] = i + 1;
+			}
+			undecided = new LiteralList(undecidedVariables);
+		}
+		return new LiteralList();
+	}
+
+	/**
+	 * Handles a timeout of one of the checks for the initial solutions. With a
+	 * time budget, all candidates are marked as {@link #undecided}. Otherwise, the
+	 * timeout is reported.
+	 */
+	private LiteralList initialCheckTimedOut(int numberOfVariables) {
+		if (hasTimeBudget()) {
+			timeoutOccurred = true;
+			return budgetExpired(numberOfVariables);
+		}
+		reportTimeout();
+		return new LiteralList();
+	}
+
+	/**
+	 * Tests all remaining candidates in {@code model} using the time budget.
+	 * Checks that time out are deferred and retried with the remaining time once
+	 * all other candidates are tested. Candidates that cannot be decided before
+	 * the deadline are stored in {@link #undecided}.
+	 */
+	private void testWithBudget(int[] model) {
+		int remainingCalls = 0;
+		for (final int var : model) {
+			if (var != 0) {
+				remainingCalls++;
+			}
+		}
+		VecInt pending = new VecInt(remainingCalls);
+		for (int i = 0; i < model.length; i++) {
+			if (model[i] != 0) {
+				pending.push(i);
+			}
+		}
+
+		while (!pending.isEmpty()) {
+			final VecInt deferred = new VecInt();
+			for (int j = 0; j < pending.size(); j++) {
+				final int i = pending.get(j);
+				final int varX = model[i];
+				if (varX == 0) {
+					continue;
+				}
+				if (!startBudgetedCall(solver, pending.size() - j)) {
+					deferred.push(i);
+					continue;
+				}
+				solver.getAssumptions().push(-varX);
+				satCalls++;
+				switch (solver.hasSolution()) {
+				case FALSE:
+					solver.getAssumptions().replaceLast(varX);
+					break;
+				case TIMEOUT:
+					solver.getAssumptions().pop();
+					deferred.push(i);
+					break;
+				case TRUE:
+					solver.getAssumptions().pop();
+					LiteralList.resetConflicts(model, solver.getInternalSolution());
+					solver.shuffleOrder(getRandom());
+					break;
 				}
 			}
+			if (deferred.size() == pending.size() && budget.isExpired()) {
+				break;
+			}
+			pending = deferred;
 		}
 
-		return new LiteralList(solver.getAssumptions().asArray(initialAssignmentLength, solver.getAssumptions()
-			.size()));
+		if (!pending.isEmpty()) {
+			final int[] undecidedVariables = new int[pending.size()];
+			int length = 0;
+			for (int j = 0; j < pending.size(); j++) {
+				final int var = model[pending.get(j)];
+				if (var != 0) {
+					undecidedVariables[length++] = Math.abs(var);
+				}
+			}
+			undecided = new LiteralList(Arrays.copyOf(undecidedVariables, length));
+			if (length > 0) {
+				timeoutOccurred = true;
+			}
+		}
 	}
 
 }
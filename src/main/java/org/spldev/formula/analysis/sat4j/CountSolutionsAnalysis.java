@@ -32,6 +32,8 @@ import org.spldev.util.job.*;
 
 /**
  * Attempts to count the number of possible solutions of a given {@link CNF}.
+ * If the solver times out, the result is {@code -(n + 1)}, where {@code n} is
+ * the number of solutions found so far. Such results are not cached.
  *
  * @author Sebastian Krieter
  */
@@ -59,7 +61,12 @@ public class CountSolutionsAnalysis extends Sat4JAnalysis<Long> {
 			}
 			hasSolution = solver.hasSolution();
 		}
-		return hasSolution == SatResult.TIMEOUT ? -(solutionCount + 1) : solutionCount;
+		if (hasSolution == SatResult.TIMEOUT) {
+			// the negative count is only a lower bound and must not be cached
+			timeoutOccurred = true;
+			return -(solutionCount + 1);
+		}
+		return solutionCount;
 	}
 
 }
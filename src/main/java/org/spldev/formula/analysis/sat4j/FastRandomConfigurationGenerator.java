@@ -23,7 +23,7 @@
 package org.spldev.formula.analysis.sat4j;
 
 import org.spldev.formula.clauses.*;
-import org.spldev.formula.solver.sat4j.*;
+import org.spldev.formula.solver.*;
 import org.spldev.util.data.*;
 
 /**
@@ -42,14 +42,14 @@ public class FastRandomConfigurationGenerator extends RandomConfigurationGenerat
 	}
 
 	@Override
-	protected void prepareSolver(Sat4JSolver solver) {
+	protected void prepareSolver(LiteralSolver solver) {
 		super.prepareSolver(solver);
 		originalSelectionStrategy = solver.getSelectionStrategy();
 		solver.setSelectionStrategy(SStrategy.random(getRandom()));
 	}
 
 	@Override
-	protected void resetSolver(Sat4JSolver solver) {
+	protected void resetSolver(LiteralSolver solver) {
 		super.resetSolver(solver);
 		solver.setSelectionStrategy(originalSelectionStrategy);
 		originalSelectionStrategy = null;
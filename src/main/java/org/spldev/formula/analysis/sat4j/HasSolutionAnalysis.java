@@ -22,9 +22,10 @@
  */
 package org.spldev.formula.analysis.sat4j;
 
+import org.spldev.formula.analysis.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
@@ -34,7 +35,7 @@ import org.spldev.util.job.*;
  *
  * @author Sebastian Krieter
  */
-public class HasSolutionAnalysis extends Sat4JAnalysis<Boolean> {
+public class HasSolutionAnalysis extends BackendAnalysis<Boolean> {
 
 	public static final Identifier<Boolean> identifier = new Identifier<>();
 
@@ -44,7 +45,7 @@ public class HasSolutionAnalysis extends Sat4JAnalysis<Boolean> {
 	}
 
 	@Override
-	public Boolean analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public Boolean analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		final SatResult hasSolution = solver.hasSolution();
 		switch (hasSolution) {
 		case FALSE:
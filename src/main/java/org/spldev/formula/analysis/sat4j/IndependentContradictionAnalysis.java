@@ -27,7 +27,6 @@ import java.util.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
@@ -55,15 +54,17 @@ public class IndependentContradictionAnalysis extends AClauseAnalysis<List<Liter
 
 	public IndependentContradictionAnalysis() {
 		super();
+		setUseSelectorLiterals(true);
 	}
 
 	public IndependentContradictionAnalysis(List<LiteralList> clauseList) {
 		super();
+		setUseSelectorLiterals(true);
 		this.clauseList = clauseList;
 	}
 
 	@Override
-	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public List<LiteralList> analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		if (clauseList == null) {
 			clauseList = solver.getCnf().getClauses();
 		}
@@ -86,7 +87,7 @@ public class IndependentContradictionAnalysis extends AClauseAnalysis<List<Liter
 			final List<LiteralList> subList = clauseList.subList(startIndex, endIndex);
 
 			try {
-				solver.getFormula().push(subList);
+				solver.getDynamicFormula().push(subList);
 			} catch (final RuntimeContradictionException e) {
 				resultList.set(i, clauseList.get(startIndex));
 				monitor.step();
@@ -107,7 +108,7 @@ public class IndependentContradictionAnalysis extends AClauseAnalysis<List<Liter
 				throw new AssertionError(hasSolution);
 			}
 
-			solver.getFormula().pop(subList.size());
+			solver.getDynamicFormula().pop(subList.size());
 			monitor.step();
 		}
 
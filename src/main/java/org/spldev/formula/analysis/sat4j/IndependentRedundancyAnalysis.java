@@ -25,6 +25,7 @@ package org.spldev.formula.analysis.sat4j;
 import java.util.*;
 
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
 import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
@@ -61,7 +62,7 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 	}
 
 	@Override
-	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public List<LiteralList> analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		if (clauseList == null) {
 			return Collections.emptyList();
 		}
@@ -77,7 +78,7 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 		}
 		monitor.step();
 
-		final List<LiteralList> solutionList = solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+		solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
 
 		if (solver.hasSolution() == SatResult.TRUE) {
 			solver.setSelectionStrategy(SStrategy.random(getRandom()));
@@ -90,10 +91,8 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 					final LiteralList clause = clauseList.get(j);
 					final LiteralList complement = clause.negate();
 
-					for (final LiteralList solution : solutionList) {
-						if (solution.containsAll(complement)) {
-							continue clauseLoop;
-						}
+					if (solver.getSolutionFromHistory(complement.getLiterals()) != null) {
+						continue clauseLoop;
 					}
 
 					final SatResult hasSolution = solver.hasSolution(complement);
@@ -23,8 +23,12 @@
 package org.spldev.formula.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.*;
 
 import org.sat4j.core.*;
+import org.spldev.formula.analysis.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
@@ -33,7 +37,10 @@ import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
 /**
- * Finds indeterminate features.
+ * Finds indeterminate features. A variable is indeterminate, if the formula is
+ * satisfiable after removing all literals of this variable from its clauses.
+ * All variables are tested incrementally using a single solver that contains
+ * renamed copies of the variables (see {@link CopySolver}).
  *
  * @author Sebastian Krieter
  */
@@ -43,51 +50,309 @@ public class IndeterminateAnalysis extends AVariableAnalysis<LiteralList> { // t
 
 	public static final Identifier<LiteralList> identifier = new Identifier<>();
 
+	private int parallelism = 1;
+	private Executor executor = null;
+
 	@Override
 	public Identifier<LiteralList> getIdentifier() {
 		return identifier;
 	}
 
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that test the variables in parallel. Each solver
+	 * is built once from the same encoding and takes the next untested variable
+	 * from a shared index.
+	 *
+	 * @param parallelism the number of solvers (default is {@code 1})
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(String.valueOf(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor for the additional solvers in parallel execution.
+	 *
+	 * @param executor the executor or {@code null} to use the
+	 *                 {@link AbstractAnalysis#getDefaultExecutor() default
+	 *                 executor}
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Solver that contains the clauses of the formula, in which each literal of a
+	 * tested variable {@code v} is replaced by a copy. Positive literals are
+	 * replaced by {@code p}, negative literals by {@code -n}. While the selector
+	 * {@code s} is assumed, both copies are equivalent to {@code v}. Assuming
+	 * {@code -s, -p, n} instead removes all literals of {@code v} from the
+	 * clauses.
+	 */
+	private static final class CopySolver {
+		private final LiteralSolver solver;
+		private final int[] selectors;
+		private final int[] positiveCopies;
+		private final int[] negativeCopies;
+		/**
+		 * Contains all selectors and two additional slots for the copies of the
+		 * tested variable.
+		 */
+		private final int[] assignment;
+		private boolean contradiction = false;
+
+		private CopySolver(LiteralSolver solver, int numberOfSlots) {
+			this.solver = solver;
+			selectors = new int[numberOfSlots];
+			positiveCopies = new int[numberOfSlots];
+			negativeCopies = new int[numberOfSlots];
+			assignment = new int[numberOfSlots + 2];
+		}
+	}
+
 	@Override
-	public LiteralList analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public LiteralList analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		if (variables == null) {
 			variables = LiteralList.getVariables(solver.getVariables());
 		}
 		monitor.setTotalWork(variables.getLiterals().length);
 
+		final int[] candidates = variables.getLiterals();
+		final int maxIndex = solver.getVariables().getMaxIndex();
+		final int[] slots = new int[candidates.length];
+		final int[] slotVariables = new int[candidates.length];
+		final int[] variableSlots = new int[maxIndex + 1];
+		Arrays.fill(variableSlots, -1);
+		int numberOfSlots = 0;
+		for (int c = 0; c < candidates.length; c++) {
+			final int variable = candidates[c];
+			if ((variable > 0) && (variable <= maxIndex)) {
+				if (variableSlots[variable] < 0) {
+					variableSlots[variable] = numberOfSlots;
+					slotVariables[numberOfSlots++] = variable;
+				}
+				slots[c] = variableSlots[variable];
+			} else {
+				slots[c] = -1;
+			}
+		}
+
+		final int slotCount = numberOfSlots;
+		final CopySolver copySolver = createCopySolver(solver, variableSlots, slotVariables, slotCount);
+		if (copySolver == null) {
+			return analyzeIndividually(solver, monitor);
+		}
+
+		final boolean[] indeterminate = new boolean[candidates.length];
+		final AtomicInteger nextIndex = new AtomicInteger();
+		final List<Integer> testedVariables;
+		registerSolver(copySolver.solver);
+		try {
+			testedVariables = ParallelWorkers.run(parallelism, executor != null ? executor
+				: AbstractAnalysis.getDefaultExecutor(), k -> {
+					if (k == 0) {
+						return testVariables(copySolver, slots, indeterminate, nextIndex, monitor);
+					}
+					final CopySolver workerCopySolver = createCopySolver(solver, variableSlots, slotVariables,
+						slotCount);
+					registerSolver(workerCopySolver.solver);
+					try {
+						return testVariables(workerCopySolver, slots, indeterminate, nextIndex, null);
+					} finally {
+						unregisterSolver(workerCopySolver.solver);
+					}
+				}, //
+				() -> nextIndex.set(candidates.length));
+		} finally {
+			unregisterSolver(copySolver.solver);
+		}
+		// the calling thread already reported its progress
+		for (int k = 1; k < parallelism; k++) {
+			for (int i = 0; i < testedVariables.get(k); i++) {
+				monitor.step();
+			}
+		}
+
+		final VecInt resultList = new VecInt();
+		for (int c = 0; c < candidates.length; c++) {
+			if (indeterminate[c]) {
+				resultList.push(candidates[c]);
+			}
+		}
+		return new LiteralList(Arrays.copyOf(resultList.toArray(), resultList.size()));
+	}
+
+	/**
+	 * Creates a new solver with the timeout of this analysis and the statistics
+	 * sink of the given solver. The new solver must be
+	 * {@link #registerSolver(Solver) registered} while in use, such that
+	 * {@link #cancel()} reaches it.
+	 */
+	private LiteralSolver createModSolver(LiteralSolver solver) {
+		final LiteralSolver modSolver = getBackend().createSolver(new CNF(solver.getVariables()));
+		modSolver.setTimeout(getTimeout());
+		modSolver.setStatisticsSink(solver.getStatisticsSink(), solver.getStatisticsScope());
+		return modSolver;
+	}
+
+	/**
+	 * Loads the clauses of the given solver into a new solver once. Uses
+	 * {@link Sat4JFormula#newVariable() new variables} of a Sat4J solver for
+	 * selectors and copies.
+	 *
+	 * @return The new solver or {@code null}, if the backend does not support new
+	 *         variables.
+	 */
+	private CopySolver createCopySolver(LiteralSolver solver, int[] variableSlots, int[] slotVariables,
+		int numberOfSlots) {
+		final LiteralSolver modSolver = createModSolver(solver);
+		if (!(modSolver.getDynamicFormula() instanceof Sat4JFormula)) {
+			return null;
+		}
+		final Sat4JFormula formula = (Sat4JFormula) modSolver.getDynamicFormula();
+		final CopySolver copySolver = new CopySolver(modSolver, numberOfSlots);
+
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int slot = 0; slot < numberOfSlots; slot++) {
+			final int variable = slotVariables[slot];
+			final int selector = formula.newVariable();
+			final int positiveCopy = formula.newVariable();
+			final int negativeCopy = formula.newVariable();
+			copySolver.selectors[slot] = selector;
+			copySolver.positiveCopies[slot] = positiveCopy;
+			copySolver.negativeCopies[slot] = negativeCopy;
+			copySolver.assignment[slot] = selector;
+			clauses.add(new LiteralList(-selector, -positiveCopy, variable));
+			clauses.add(new LiteralList(-selector, positiveCopy, -variable));
+			clauses.add(new LiteralList(-selector, -negativeCopy, variable));
+			clauses.add(new LiteralList(-selector, negativeCopy, -variable));
+		}
+		for (final LiteralList clause : solver.getCnf().getClauses()) {
+			final int[] literals = Arrays.copyOf(clause.getLiterals(), clause.size());
+			for (int i = 0; i < literals.length; i++) {
+				final int literal = literals[i];
+				final int variable = Math.abs(literal);
+				final int slot = variable < variableSlots.length ? variableSlots[variable] : -1;
+				if (slot >= 0) {
+					literals[i] = literal > 0 ? copySolver.positiveCopies[slot] : -copySolver.negativeCopies[slot];
+				}
+			}
+			clauses.add(new LiteralList(literals));
+		}
+		try {
+			formula.push(clauses);
+		} catch (final RuntimeContradictionException e) {
+			copySolver.contradiction = true;
+		}
+		return copySolver;
+	}
+
+	/**
+	 * Tests variables until the shared index exceeds the candidates.
+	 *
+	 * @return The number of tested variables.
+	 */
+	private int testVariables(CopySolver copySolver, int[] slots, boolean[] indeterminate, AtomicInteger nextIndex,
+		InternalMonitor monitor) {
+		final int[] assignment = copySolver.assignment;
+		final int length = assignment.length;
+		int testedVariables = 0;
+		for (int c = nextIndex.getAndIncrement(); c < slots.length; c = nextIndex.getAndIncrement()) {
+			final int slot = slots[c];
+			if (copySolver.contradiction) {
+				indeterminate[c] = false;
+			} else {
+				final SatResult hasSolution;
+				if (slot >= 0) {
+					assignment[slot] = -copySolver.selectors[slot];
+					assignment[length - 2] = -copySolver.positiveCopies[slot];
+					assignment[length - 1] = copySolver.negativeCopies[slot];
+					hasSolution = copySolver.solver.hasSolution(assignment);
+					assignment[slot] = copySolver.selectors[slot];
+				} else {
+					// the variable does not occur in any clause
+					hasSolution = copySolver.solver.hasSolution(Arrays.copyOf(assignment, length - 2));
+				}
+				switch (hasSolution) {
+				case FALSE:
+					break;
+				case TIMEOUT:
+					reportTimeout();
+					break;
+				case TRUE:
+					indeterminate[c] = true;
+					break;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+			}
+			testedVariables++;
+			if (monitor != null) {
+				monitor.step();
+			}
+		}
+		return testedVariables;
+	}
+
+	/**
+	 * Tests each variable with a new solver, in which all literals of the
+	 * variable are removed from the clauses. Used for backends that do not support
+	 * new variables.
+	 */
+	private LiteralList analyzeIndividually(LiteralSolver solver, InternalMonitor monitor) throws Exception {
 		final VecInt resultList = new VecInt();
 		variableLoop: for (final int variable : variables.getLiterals()) {
-			final Sat4JSolver modSolver = new Sat4JSolver(solver.getVariables());
-			final List<LiteralList> clauses = solver.getCnf().getClauses();
-			for (final LiteralList clause : clauses) {
-				final LiteralList newClause = clause.removeVariables(variable);
-				if (newClause != null) {
-					try {
-						modSolver.getFormula().push(newClause);
-					} catch (final RuntimeContradictionException e) {
+			final LiteralSolver modSolver = createModSolver(solver);
+			try {
+				final List<LiteralList> clauses = solver.getCnf().getClauses();
+				for (final LiteralList clause : clauses) {
+					final LiteralList newClause = clause.removeVariables(variable);
+					if (newClause != null) {
+						try {
+							modSolver.getDynamicFormula().push(newClause);
+						} catch (final RuntimeContradictionException e) {
+							monitor.step();
+							continue variableLoop;
+						}
+					} else {
 						monitor.step();
 						continue variableLoop;
 					}
-				} else {
-					monitor.step();
-					continue variableLoop;
 				}
-			}
 
-			final SatResult hasSolution = modSolver.hasSolution();
-			switch (hasSolution) {
-			case FALSE:
-				break;
-			case TIMEOUT:
-				reportTimeout();
-				break;
-			case TRUE:
-				resultList.push(variable);
-				break;
-			default:
-				throw new AssertionError(hasSolution);
+				final SatResult hasSolution;
+				registerSolver(modSolver);
+				try {
+					hasSolution = modSolver.hasSolution();
+				} finally {
+					unregisterSolver(modSolver);
+				}
+				switch (hasSolution) {
+				case FALSE:
+					break;
+				case TIMEOUT:
+					reportTimeout();
+					break;
+				case TRUE:
+					resultList.push(variable);
+					break;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+				monitor.step();
+			} finally {
+				closeSolver(modSolver);
 			}
-			monitor.step();
 		}
 		return new LiteralList(Arrays.copyOf(resultList.toArray(), resultList.size()));
 	}
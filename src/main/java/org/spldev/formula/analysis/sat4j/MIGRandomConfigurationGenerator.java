@@ -23,8 +23,8 @@
 package org.spldev.formula.analysis.sat4j;
 
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.mig.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 import org.spldev.util.logging.*;
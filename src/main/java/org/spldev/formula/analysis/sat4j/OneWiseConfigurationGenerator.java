@@ -24,8 +24,8 @@ package org.spldev.formula.analysis.sat4j;
 
 import org.sat4j.core.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
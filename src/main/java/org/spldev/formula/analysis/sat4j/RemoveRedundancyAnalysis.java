@@ -24,10 +24,9 @@ package org.spldev.formula.analysis.sat4j;
 
 import java.util.*;
 
-import org.sat4j.specs.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
-import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
@@ -59,14 +58,20 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 
 	public RemoveRedundancyAnalysis() {
 		super();
+		setUseSelectorLiterals(true);
 	}
 
 	public RemoveRedundancyAnalysis(List<LiteralList> clauseList) {
+		setUseSelectorLiterals(true);
 		this.clauseList = clauseList;
 	}
 
 	@Override
-	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+	public List<LiteralList> analyze(LiteralSolver solver, InternalMonitor monitor) throws Exception {
+		return analyze(solver, solver.getDynamicFormula(), monitor);
+	}
+
+	private <O> List<LiteralList> analyze(LiteralSolver solver, ClauseFormula<O> formula, InternalMonitor monitor) {
 		if (clauseList == null) {
 			return Collections.emptyList();
 		}
@@ -81,9 +86,9 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 			resultList.add(null);
 		}
 
-		final List<IConstr> constrs = new ArrayList<>(clauseList.size());
+		final List<O> constrs = new ArrayList<>(clauseList.size());
 		for (final LiteralList clause : clauseList) {
-			constrs.add(solver.getFormula().push(clause));
+			constrs.add(formula.push(clause));
 		}
 
 		monitor.step();
@@ -95,10 +100,10 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 			boolean completelyRedundant = true;
 			boolean removedAtLeastOne = false;
 			for (int j = startIndex; j < endIndex; j++) {
-				final IConstr cm = constrs.get(j);
+				final O cm = constrs.get(j);
 				if (cm != null) {
 					removedAtLeastOne = true;
-					solver.getFormula().remove(cm);
+					formula.remove(cm);
 				}
 			}
 
@@ -114,7 +119,7 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 						reportTimeout();
 						break;
 					case TRUE:
-						solver.getFormula().push(clause);
+						formula.push(clause);
 						completelyRedundant = false;
 						break;
 					default:
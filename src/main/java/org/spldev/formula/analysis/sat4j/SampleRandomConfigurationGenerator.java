@@ -25,6 +25,7 @@ package org.spldev.formula.analysis.sat4j;
 import java.util.*;
 
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
 import org.spldev.formula.solver.sat4j.*;
 import org.spldev.util.data.*;
@@ -77,7 +78,7 @@ public class SampleRandomConfigurationGenerator extends RandomConfigurationGener
 		dist.reset();
 	}
 
-	private boolean findCoreFeatures(Sat4JSolver solver) {
+	private boolean findCoreFeatures(LiteralSolver solver) {
 		final int[] fixedFeatures = solver.findSolution().getLiterals();
 		if (fixedFeatures == null) {
 			return false;
@@ -26,9 +26,9 @@ import java.util.*;
 
 import org.sat4j.core.*;
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
 import org.spldev.formula.solver.mig.visitor.*;
-import org.spldev.formula.solver.sat4j.*;
 
 /**
  * Represent a solution within a covering array.
@@ -72,7 +72,7 @@ public class TWiseConfiguration extends LiteralList {
 		@Override
 		public final VisitResult visitWeak(final int curLiteral) {
 			if (unknownValues == null) {
-				final Sat4JSolver solver = util.getSolver();
+				final LiteralSolver solver = util.getSolver();
 				setUpSolver(solver);
 				solver.setSelectionStrategy(SStrategy.original());
 				switch (solver.hasSolution()) {
@@ -81,8 +81,9 @@ public class TWiseConfiguration extends LiteralList {
 				case TIMEOUT:
 					throw new RuntimeException();
 				case TRUE:
-					unknownValues = solver.getInternalSolution();
-					util.addSolverSolution(Arrays.copyOf(unknownValues, unknownValues.length));
+					final int[] solution = solver.getInternalSolution();
+					unknownValues = Arrays.copyOf(solution, solution.length);
+					util.addSolverSolution(Arrays.copyOf(solution, solution.length));
 					solver.shuffleOrder(util.getRandom());
 					break;
 				default:
@@ -113,7 +114,7 @@ public class TWiseConfiguration extends LiteralList {
 		private final boolean sat(final int[] unknownValues, final int curLiteral) {
 			final int i = Math.abs(curLiteral) - 1;
 			if (unknownValues[i] == curLiteral) {
-				final Sat4JSolver solver = util.getSolver();
+				final LiteralSolver solver = util.getSolver();
 				solver.getAssumptions().push(-curLiteral);
 				switch (solver.hasSolution()) {
 				case FALSE:
@@ -253,7 +254,7 @@ public class TWiseConfiguration extends LiteralList {
 	}
 
 	public void propagation() {
-		final Sat4JSolver solver = util.getSolver();
+		final LiteralSolver solver = util.getSolver();
 		final int orgAssignmentSize;
 		if (traverser != null) {
 			final DPVisitor visitor = new DPVisitor();
@@ -334,7 +335,7 @@ public class TWiseConfiguration extends LiteralList {
 		if (!isComplete()) {
 			if (util.hasSolver()) {
 				if (solverSolutionIndex.isEmpty()) {
-					final Sat4JSolver solver = util.getSolver();
+					final LiteralSolver solver = util.getSolver();
 					final int orgAssignmentSize = setUpSolver(solver);
 					try {
 						if (solver.hasSolution() == SatResult.TRUE) {
@@ -366,7 +367,7 @@ public class TWiseConfiguration extends LiteralList {
 			final int[] s;
 			if (util.hasSolver()) {
 				if (solverSolutionIndex.isEmpty()) {
-					final Sat4JSolver solver = util.getSolver();
+					final LiteralSolver solver = util.getSolver();
 					final int orgAssignmentSize = setUpSolver(solver);
 					try {
 						final SatResult satResult = solver.hasSolution();
@@ -403,7 +404,7 @@ public class TWiseConfiguration extends LiteralList {
 	}
 
 	public void generateRandomSolutions(int count) {
-		final Sat4JSolver solver = util.getSolver();
+		final LiteralSolver solver = util.getSolver();
 		solver.setSelectionStrategy(SStrategy.random(util.getRandom()));
 		final int orgAssignmentSize = setUpSolver(solver);
 		try {
@@ -419,7 +420,7 @@ public class TWiseConfiguration extends LiteralList {
 	}
 
 	public boolean isValid() {
-		final Sat4JSolver solver = util.getSolver();
+		final LiteralSolver solver = util.getSolver();
 		final SStrategy selectionStrategy = solver.getSelectionStrategy();
 		final int orgAssignmentSize = setUpSolver(solver);
 		solver.setSelectionStrategy(SStrategy.original());
@@ -431,7 +432,7 @@ public class TWiseConfiguration extends LiteralList {
 		}
 	}
 
-	public int setUpSolver(final Sat4JSolver solver) {
+	public int setUpSolver(final LiteralSolver solver) {
 		final int orgAssignmentSize = solver.getAssumptions().size();
 		if (isComplete()) {
 			for (int i = 0; i < literals.length; i++) {
@@ -32,6 +32,7 @@ import org.spldev.formula.analysis.sat4j.twise.TWiseConfigurationGenerator.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.clauses.LiteralList.Order;
 import org.spldev.formula.io.mig.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
 import org.spldev.formula.solver.mig.*;
 import org.spldev.formula.solver.sat4j.*;
@@ -68,7 +69,7 @@ public class TWiseConfigurationUtil {
 	private InvalidClausesList invalidClausesList = InvalidClausesList.None;
 
 	protected final CNF cnf;
-	protected final Sat4JSolver localSolver;
+	protected final LiteralSolver localSolver;
 	protected final boolean hasSolver;
 
 	protected MIG mig;
@@ -80,7 +81,7 @@ public class TWiseConfigurationUtil {
 	private Deduce createConfigurationDeduce = Deduce.DP;
 	private Deduce extendConfigurationDeduce = Deduce.NONE;
 
-	public TWiseConfigurationUtil(CNF cnf, Sat4JSolver localSolver) {
+	public TWiseConfigurationUtil(CNF cnf, LiteralSolver localSolver) {
 		this.cnf = cnf;
 		this.localSolver = localSolver;
 		hasSolver = localSolver != null;
@@ -159,7 +160,7 @@ public class TWiseConfigurationUtil {
 	}
 
 	public LiteralList computeDeadCoreFeatures() {
-		final Sat4JSolver solver = new Sat4JSolver(cnf);
+		final LiteralSolver solver = new Sat4JSolver(cnf);
 		final int[] firstSolution = solver.findSolution().getLiterals();
 		if (firstSolution != null) {
 			final int[] coreDeadArray = new int[firstSolution.length];
@@ -203,7 +204,7 @@ public class TWiseConfigurationUtil {
 		return cnf;
 	}
 
-	public Sat4JSolver getSolver() {
+	public LiteralSolver getSolver() {
 		return localSolver;
 	}
 
@@ -307,7 +308,7 @@ public class TWiseConfigurationUtil {
 				}
 			}
 
-			final Sat4JSolver solver = getSolver();
+			final LiteralSolver solver = getSolver();
 //			solver.setSelectionStrategy(SStrategy.random(getRandom()));
 			final int orgAssignmentLength = solver.getAssumptions().size();
 			try {
@@ -434,7 +435,7 @@ public class TWiseConfigurationUtil {
 
 	private boolean isSelectionPossibleSat(final LiteralList literals, final TWiseConfiguration configuration) {
 		if (hasSolver) {
-			final Sat4JSolver localSolver = getSolver();
+			final LiteralSolver localSolver = getSolver();
 //			localSolver.setSelectionStrategy(SStrategy.random());
 			final int orgAssignmentSize = configuration.setUpSolver(localSolver);
 			try {
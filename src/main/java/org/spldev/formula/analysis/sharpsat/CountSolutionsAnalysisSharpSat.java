@@ -0,0 +1,190 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.analysis.sharpsat;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sharpsat.*;
+import org.spldev.util.data.*;
+import org.spldev.util.job.*;
+
+/**
+ * Counts the number of solutions of a given {@link CNF} exactly. Optionally,
+ * counting can be projected onto a subset of the variables.<br>
+ * <br>
+ * If {@link #setEstimateOnTimeout(boolean) enabled}, the analysis estimates
+ * the number of solutions with an {@link ApproxMCSharpSatSolver} when exact
+ * counting times out. The estimate gets its own {@link #setTimeout(long)
+ * timeout}.
+ *
+ * @author Sebastian Krieter
+ */
+public class CountSolutionsAnalysisSharpSat extends SharpSatAnalysis<BigInteger> {
+
+	public static final Identifier<BigInteger> identifier = new Identifier<>();
+
+	private LiteralList projection = null;
+	private boolean estimateOnTimeout = false;
+	private double epsilon = ApproxMCSharpSatSolver.DEFAULT_EPSILON;
+	private double delta = ApproxMCSharpSatSolver.DEFAULT_DELTA;
+	private long seed = 0;
+
+	private CNF input = null;
+	private boolean estimated = false;
+
+	@Override
+	public Identifier<BigInteger> getIdentifier() {
+		return identifier;
+	}
+
+	public LiteralList getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Sets the variables onto which counting is projected.
+	 *
+	 * @param projection the variables or {@code null} to count all variables
+	 *
+	 * @see SharpSatSolver#setProjection(LiteralList)
+	 */
+	public void setProjection(LiteralList projection) {
+		this.projection = projection;
+	}
+
+	public boolean isEstimateOnTimeout() {
+		return estimateOnTimeout;
+	}
+
+	/**
+	 * Sets whether the number of solutions is estimated, if exact counting times
+	 * out. Estimation requires that the solver of this analysis was created from
+	 * the model representation.
+	 *
+	 * @param estimateOnTimeout whether to estimate the number of solutions
+	 */
+	public void setEstimateOnTimeout(boolean estimateOnTimeout) {
+		this.estimateOnTimeout = estimateOnTimeout;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * @param epsilon the tolerance of the estimate
+	 *
+	 * @see ApproxMCSharpSatSolver#setEpsilon(double)
+	 */
+	public void setEpsilon(double epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	public double getDelta() {
+		return delta;
+	}
+
+	/**
+	 * @param delta the probability that the estimate is not within the tolerance
+	 *
+	 * @see ApproxMCSharpSatSolver#setDelta(double)
+	 */
+	public void setDelta(double delta) {
+		this.delta = delta;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return Whether the last result is an estimate.
+	 */
+	public boolean isEstimated() {
+		return estimated;
+	}
+
+	/**
+	 * Estimates are not cached, so that a later execution can still compute the
+	 * exact number of solutions.
+	 */
+	@Override
+	protected boolean isResultCacheable() {
+		return super.isResultCacheable() && !estimated;
+	}
+
+	@Override
+	protected Object getAnalysisParameters() {
+		return estimateOnTimeout ? Arrays.asList(projection, epsilon, delta, seed) : projection;
+	}
+
+	@Override
+	protected SharpSatSolver createSolver(CNF input) throws RuntimeContradictionException {
+		this.input = input;
+		return super.createSolver(input);
+	}
+
+	@Override
+	public BigInteger analyze(SharpSatSolver solver, InternalMonitor monitor) throws Exception {
+		estimated = false;
+		final BigInteger count = count(solver);
+		if ((count == null) && estimateOnTimeout && (input != null) && !isCancelled()) {
+			final ApproxMCSharpSatSolver approximateSolver = new ApproxMCSharpSatSolver(input);
+			approximateSolver.setEpsilon(epsilon);
+			approximateSolver.setDelta(delta);
+			approximateSolver.setSeed(seed);
+			prepareSolver(approximateSolver);
+			try {
+				final BigInteger estimate = count(approximateSolver);
+				if (estimate != null) {
+					estimated = !approximateSolver.isExact();
+					return estimate;
+				}
+			} finally {
+				resetSolver(approximateSolver);
+			}
+		}
+		if (count == null) {
+			reportTimeout();
+		}
+		return count;
+	}
+
+	private BigInteger count(SharpSatSolver solver) {
+		solver.setProjection(projection);
+		try {
+			return solver.countSolutions();
+		} finally {
+			solver.setProjection(null);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.clauses;
+
+import java.nio.charset.*;
+import java.security.*;
+import java.util.*;
+
+import org.spldev.formula.expression.atomic.literal.*;
+
+/**
+ * Computes a canonical fingerprint of a {@link CNF}. The fingerprint is based
+ * on the variable names instead of their indices and does not depend on the
+ * order of clauses, the order of literals within clauses, or duplicate
+ * literals and clauses. Thus, two CNFs with the same fingerprint represent the
+ * same formula over the same variables.
+ *
+ * @author Sebastian Krieter
+ */
+public final class CNFFingerprint {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private CNFFingerprint() {
+	}
+
+	/**
+	 * Computes the fingerprint of the given CNF.
+	 *
+	 * @param cnf the CNF
+	 * @return A SHA-256 hash as hexadecimal string.
+	 * @throws IllegalArgumentException if a variable of the CNF has no name
+	 */
+	public static String of(CNF cnf) {
+		final VariableMap variables = cnf.getVariableMap();
+		final int maxIndex = variables.getMaxIndex();
+
+		// rank variables by their names
+		final String[] names = new String[maxIndex + 1];
+		final List<String> sortedNames = new ArrayList<>(maxIndex);
+		for (int i = 1; i <= maxIndex; i++) {
+			final Optional<String> name = variables.getName(i);
+			if (name.isPresent()) {
+				names[i] = name.get();
+				sortedNames.add(name.get());
+			}
+		}
+		Collections.sort(sortedNames);
+		final Map<String, Integer> ranks = new HashMap<>(sortedNames.size() << 1);
+		for (int i = 0; i < sortedNames.size(); i++) {
+			ranks.put(sortedNames.get(i), i + 1);
+		}
+
+		// rename literals and sort them within clauses and clauses among each other
+		final List<int[]> clauses = new ArrayList<>(cnf.getClauses().size());
+		for (final LiteralList clause : cnf.getClauses()) {
+			final int[] literals = clause.getLiterals();
+			final int[] canonicalLiterals = new int[literals.length];
+			for (int i = 0; i < literals.length; i++) {
+				final int literal = literals[i];
+				final int variable = Math.abs(literal);
+				if (variable == 0) {
+					continue;
+				}
+				if ((variable >= names.length) || (names[variable] == null)) {
+					throw new IllegalArgumentException("No name for variable " + variable);
+				}
+				final int rank = ranks.get(names[variable]);
+				canonicalLiterals[i] = literal > 0 ? rank : -rank;
+			}
+			clauses.add(distinct(canonicalLiterals));
+		}
+		clauses.sort(CNFFingerprint::compare);
+
+		final MessageDigest digest = createDigest();
+		final byte[] buffer = new byte[4];
+		update(digest, buffer, sortedNames.size());
+		for (final String name : sortedNames) {
+			final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			update(digest, buffer, bytes.length);
+			digest.update(bytes);
+		}
+		int[] lastClause = null;
+		for (final int[] clause : clauses) {
+			if ((lastClause == null) || !Arrays.equals(lastClause, clause)) {
+				update(digest, buffer, clause.length);
+				for (final int literal : clause) {
+					update(digest, buffer, literal);
+				}
+				lastClause = clause;
+			}
+		}
+		return toHexString(digest.digest());
+	}
+
+	private static int[] distinct(int[] literals) {
+		Arrays.sort(literals);
+		int length = 0;
+		for (int i = 0; i < literals.length; i++) {
+			if ((i == 0) || (literals[i] != literals[i - 1])) {
+				literals[length++] = literals[i];
+			}
+		}
+		return length == literals.length ? literals : Arrays.copyOf(literals, length);
+	}
+
+	private static int compare(int[] clause1, int[] clause2) {
+		final int length = Math.min(clause1.length, clause2.length);
+		for (int i = 0; i < length; i++) {
+			final int diff = Integer.compare(clause1[i], clause2[i]);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return Integer.compare(clause1.length, clause2.length);
+	}
+
+	private static void update(MessageDigest digest, byte[] buffer, int value) {
+		buffer[0] = (byte) (value >>> 24);
+		buffer[1] = (byte) (value >>> 16);
+		buffer[2] = (byte) (value >>> 8);
+		buffer[3] = (byte) value;
+		digest.update(buffer);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Computes the SHA-256 hash of a string.
+	 *
+	 * @param text the string
+	 * @return The hash as hexadecimal string.
+	 */
+	public static String hash(String text) {
+		return toHexString(createDigest().digest(text.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String toHexString(byte[] bytes) {
+		final char[] chars = new char[bytes.length << 1];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i << 1] = HEX_DIGITS[(bytes[i] >>> 4) & 0xf];
+			chars[(i << 1) + 1] = HEX_DIGITS[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+}
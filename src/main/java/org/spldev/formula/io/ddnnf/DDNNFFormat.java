@@ -0,0 +1,124 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.io.ddnnf;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.util.data.Result;
+import org.spldev.util.io.binary.*;
+import org.spldev.util.io.format.*;
+
+/**
+ * Reads / Writes a {@link DDNNF} in a compact binary format. The format stores
+ * the variable names followed by the node arrays of the d-DNNF.
+ *
+ * @author Sebastian Krieter
+ */
+public class DDNNFFormat extends BinaryFormat<DDNNF> {
+
+	public static final String ID = DDNNFFormat.class.getCanonicalName();
+
+	@Override
+	public void write(DDNNF ddnnf, Output out) throws IOException {
+		final OutputStream outputStream = out.getOutputStream();
+		final List<String> names = ddnnf.getVariables().getNames();
+		writeInt(outputStream, names.size());
+		for (final String name : names) {
+			writeString(outputStream, name);
+		}
+		final byte[] types = ddnnf.getTypes();
+		writeInt(outputStream, types.length);
+		writeBytes(outputStream, types);
+		writeIntArray(outputStream, ddnnf.getOffsets());
+		writeIntArray(outputStream, ddnnf.getData());
+		outputStream.flush();
+	}
+
+	@Override
+	public Result<DDNNF> parse(Input source) {
+		final InputStream inputStream = source.getInputStream();
+		try {
+			final int numberOfVariables = readInt(inputStream);
+			final List<String> variableNames = new ArrayList<>(numberOfVariables);
+			for (int i = 0; i < numberOfVariables; i++) {
+				variableNames.add(readString(inputStream));
+			}
+			final VariableMap variableMap = VariableMap.fromNames(variableNames);
+			final byte[] types = readBytes(inputStream, readInt(inputStream));
+			final int[] offsets = readIntArray(inputStream);
+			final int[] data = readIntArray(inputStream);
+			return Result.of(new DDNNF(variableMap, types, offsets, data));
+		} catch (final IOException | IllegalArgumentException e) {
+			return Result.empty(e);
+		}
+	}
+
+	private void writeIntArray(OutputStream outputStream, int[] array) throws IOException {
+		writeInt(outputStream, array.length);
+		final ByteBuffer buffer = ByteBuffer.allocate(array.length << 2);
+		buffer.asIntBuffer().put(array);
+		writeBytes(outputStream, buffer.array());
+	}
+
+	private int[] readIntArray(InputStream inputStream) throws IOException {
+		final int length = readInt(inputStream);
+		final int[] array = new int[length];
+		ByteBuffer.wrap(readBytes(inputStream, length << 2)).asIntBuffer().get(array);
+		return array;
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "ddnnf";
+	}
+
+	@Override
+	public DDNNFFormat getInstance() {
+		return this;
+	}
+
+	@Override
+	public String getIdentifier() {
+		return ID;
+	}
+
+	@Override
+	public boolean supportsSerialize() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsParse() {
+		return true;
+	}
+
+	@Override
+	public String getName() {
+		return "BinaryDDNNF";
+	}
+
+}
@@ -0,0 +1,68 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Modifiable formula that accepts clauses in form of {@link LiteralList literal
+ * lists}.
+ *
+ * @param <O> type of the constraint object used within a solver
+ *
+ * @author Sebastian Krieter
+ */
+public interface ClauseFormula<O> extends DynamicFormula<O> {
+
+	List<O> push(List<? extends LiteralList> clauses) throws RuntimeContradictionException;
+
+	O push(LiteralList clause) throws RuntimeContradictionException;
+
+	/**
+	 * @return The clauses that correspond to the currently pushed constraints in
+	 *         the same order.
+	 */
+	List<LiteralList> getClauses();
+
+	/**
+	 * @return Whether pushed clauses can be popped without losing learnt
+	 *         information.
+	 *
+	 * @see #setSelectorMode(boolean)
+	 */
+	default boolean isSelectorMode() {
+		return false;
+	}
+
+	/**
+	 * Sets whether subsequently pushed clauses are guarded by selector variables,
+	 * if supported by the solver.
+	 *
+	 * @param selectorMode whether to use selector variables
+	 */
+	default void setSelectorMode(boolean selectorMode) {
+	}
+
+}
@@ -0,0 +1,65 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import org.spldev.formula.expression.atomic.*;
+
+/**
+ * Assumptions of a {@link LiteralSolver} organized as a stack of literals.
+ *
+ * @author Sebastian Krieter
+ */
+public interface LiteralAssumptions extends Assignment {
+
+	void push(int literal);
+
+	void pushAll(int[] literals);
+
+	int pop();
+
+	void pop(int count);
+
+	void replaceLast(int literal);
+
+	int peek();
+
+	int peek(int index);
+
+	int size();
+
+	void clear();
+
+	/**
+	 * Removes all literals above the given stack size.
+	 *
+	 * @param newSize the new number of literals
+	 */
+	void clear(int newSize);
+
+	int[] asArray();
+
+	int[] asArray(int from);
+
+	int[] asArray(int from, int to);
+
+}
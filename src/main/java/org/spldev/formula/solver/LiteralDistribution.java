@@ -20,7 +20,7 @@
  * See <https://github.com/skrieter/formula-analysis> for further information.
  * -----------------------------------------------------------------------------
  */
-package org.spldev.formula.solver.sat4j;
+package org.spldev.formula.solver;
 
 import java.util.*;
 
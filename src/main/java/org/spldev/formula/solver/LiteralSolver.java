@@ -0,0 +1,177 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Incremental sat solver working on a {@link CNF} that represents assumptions,
+ * clauses, and solutions as integer literals. Analyses that are written
+ * against this interface can be executed with any {@link SolverBackend}.
+ *
+ * @author Sebastian Krieter
+ */
+public interface LiteralSolver extends SolutionSolver<LiteralList> {
+
+	@Override
+	LiteralAssumptions getAssumptions();
+
+	@Override
+	ClauseFormula<?> getDynamicFormula();
+
+	/**
+	 * @return The {@link CNF sat instance} given to the solver.
+	 */
+	CNF getCnf();
+
+	/**
+	 * Returns all clauses this solver considers, i.e., the clauses of its
+	 * {@link #getCnf() CNF} and all clauses pushed to its
+	 * {@link #getDynamicFormula() dynamic formula}. Each clause is contained
+	 * once, even if the dynamic formula of a solver already holds the clauses of
+	 * the CNF.
+	 *
+	 * @return A new list of clauses.
+	 */
+	default List<LiteralList> getClauses() {
+		final CNF cnf = getCnf();
+		final List<LiteralList> pushedClauses = getDynamicFormula().getClauses();
+		final List<LiteralList> clauses = new ArrayList<>((cnf != null ? cnf.getClauses().size() : 0)
+			+ pushedClauses.size());
+		if (cnf != null) {
+			clauses.addAll(cnf.getClauses());
+		}
+		clauses.addAll(pushedClauses);
+		return clauses;
+	}
+
+	/**
+	 * Checks whether there is a satisfying solution considering the clauses of the
+	 * solver and the given variable assignment.<br>
+	 * Does only consider the given {@code assignment} and <b>not</b> the global
+	 * assignment variable of the solver.
+	 *
+	 * @param assignment The temporarily variable assignment for this call.
+	 * @return A {@link SatResult}.
+	 */
+	SatResult hasSolution(int... assignment);
+
+	default SatResult hasSolution(LiteralList assignment) {
+		return hasSolution(assignment.getLiterals());
+	}
+
+	/**
+	 * Returns the last solution found by satisfiability solver without copying
+	 * it. The returned array <b>must not be modified</b>.
+	 *
+	 * @return An array representing the satisfying assignment ordered by
+	 *         variable index.
+	 */
+	int[] getInternalSolution();
+
+	/**
+	 * @return A subset of the assumptions that caused the last unsatisfiable
+	 *         result.
+	 */
+	int[] getContradictoryAssignment();
+
+	List<LiteralList> rememberSolutionHistory(int numberOfSolutions);
+
+	/**
+	 * @return A snapshot of the remembered solutions, starting with the most
+	 *         recently found solution, or an empty list if the history is
+	 *         disabled.
+	 */
+	List<LiteralList> getSolutionHistory();
+
+	/**
+	 * Searches the solution history for a solution containing all given
+	 * literals.
+	 *
+	 * @param literals the literals
+	 * @return A solution from the history or {@code null}, if there is no such
+	 *         solution or the history is disabled.
+	 */
+	LiteralList getSolutionFromHistory(int... literals);
+
+	void setTimeout(int timeout);
+
+	/**
+	 * Returns the strategy for selecting variables and phases during search.
+	 * Solvers that do not support selection strategies return the
+	 * {@link SStrategy#original() original} strategy.
+	 *
+	 * @return the current strategy
+	 */
+	default SStrategy getSelectionStrategy() {
+		return SStrategy.original();
+	}
+
+	/**
+	 * Sets the strategy for selecting variables and phases during search. Solvers
+	 * that do not support selection strategies ignore this call.
+	 *
+	 * @param strategy the strategy
+	 */
+	default void setSelectionStrategy(SStrategy strategy) {
+	}
+
+	/**
+	 * Randomizes the order in which variables are selected during search. Solvers
+	 * that do not support selection strategies ignore this call.
+	 *
+	 * @param random the random generator
+	 */
+	default void shuffleOrder(Random random) {
+	}
+
+	/**
+	 * Sets the sink that receives statistics about each satisfiability check of
+	 * this solver. Solvers that do not support statistics ignore this call.
+	 *
+	 * @param sink  the sink or {@code null} to disable statistics
+	 * @param scope the scope that is passed to the sink with each record (e.g.,
+	 *              the identifier of the current analysis)
+	 */
+	default void setStatisticsSink(SolverStatisticsSink sink, Object scope) {
+	}
+
+	default SolverStatisticsSink getStatisticsSink() {
+		return null;
+	}
+
+	default Object getStatisticsScope() {
+		return null;
+	}
+
+	/**
+	 * Creates an independent copy of this solver.
+	 *
+	 * @return A new solver with the same clauses, pushed constraints, and
+	 *         assumptions.
+	 */
+	LiteralSolver clone();
+
+}
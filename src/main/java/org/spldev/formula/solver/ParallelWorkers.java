@@ -0,0 +1,96 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Runs a task in several threads and waits for all of them. Used by solvers
+ * and analyses that test in parallel.
+ *
+ * @author Sebastian Krieter
+ */
+public final class ParallelWorkers {
+
+	private ParallelWorkers() {
+	}
+
+	/**
+	 * Runs the given task {@code parallelism} times. Task {@code 0} runs in the
+	 * calling thread, all other tasks are submitted to the given executor. When
+	 * the task of the calling thread returns or fails, {@code stop} is called to
+	 * signal the other tasks to finish. Then all tasks are joined, even if one of
+	 * them failed, so no task is running when this method returns.<br>
+	 * <br>
+	 * If tasks fail, the first failure is rethrown. Failures of the other tasks
+	 * are added to it as {@link Throwable#addSuppressed(Throwable) suppressed}
+	 * exceptions.
+	 *
+	 * @param parallelism the number of tasks
+	 * @param executor    the executor for all tasks except the first one
+	 * @param task        the task, which gets the index of the task
+	 * @param stop        signals all running tasks to finish
+	 * @return The results of all tasks ordered by their index.
+	 */
+	public static <R> List<R> run(int parallelism, Executor executor, IntFunction<R> task, Runnable stop) {
+		final List<CompletableFuture<R>> workers = new ArrayList<>(parallelism - 1);
+		final List<R> results = new ArrayList<>(parallelism);
+		Throwable failure = null;
+		try {
+			for (int k = 1; k < parallelism; k++) {
+				final int index = k;
+				workers.add(CompletableFuture.supplyAsync(() -> task.apply(index), executor));
+			}
+			results.add(task.apply(0));
+		} catch (final Throwable e) {
+			failure = e;
+			results.add(null);
+		}
+		stop.run();
+		for (final CompletableFuture<R> worker : workers) {
+			try {
+				results.add(worker.join());
+			} catch (final CompletionException | CancellationException e) {
+				results.add(null);
+				final Throwable cause = (e instanceof CompletionException) && (e.getCause() != null) ? e.getCause()
+					: e;
+				if (failure == null) {
+					failure = cause;
+				} else if (failure != cause) {
+					failure.addSuppressed(cause);
+				}
+			}
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new CompletionException(failure);
+		}
+		return results;
+	}
+
+}
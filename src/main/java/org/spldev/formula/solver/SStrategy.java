@@ -20,12 +20,10 @@
  * See <https://github.com/skrieter/formula-analysis> for further information.
  * -----------------------------------------------------------------------------
  */
-package org.spldev.formula.solver.sat4j;
+package org.spldev.formula.solver;
 
 import java.util.*;
 
-import org.spldev.formula.solver.mig.*;
-
 public interface SStrategy {
 
 	public enum Strategy {
@@ -124,9 +122,9 @@ public interface SStrategy {
 	}
 
 	public static final class MIGRandomStrategy implements SStrategy {
-		private final MIGDistribution dist;
+		private final LiteralDistribution dist;
 
-		public MIGRandomStrategy(MIGDistribution dist) {
+		public MIGRandomStrategy(LiteralDistribution dist) {
 			this.dist = dist;
 		}
 
@@ -135,7 +133,7 @@ public interface SStrategy {
 			return Strategy.MIGRandom;
 		}
 
-		public MIGDistribution getDist() {
+		public LiteralDistribution getDist() {
 			return dist;
 		}
 	}
@@ -172,7 +170,7 @@ public interface SStrategy {
 		return new UniformRandomStrategy(dist);
 	}
 
-	static MIGRandomStrategy mig(MIGDistribution dist) {
+	static MIGRandomStrategy mig(LiteralDistribution dist) {
 		return new MIGRandomStrategy(dist);
 	}
 
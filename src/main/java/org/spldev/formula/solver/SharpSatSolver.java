@@ -24,6 +24,8 @@ package org.spldev.formula.solver;
 
 import java.math.*;
 
+import org.spldev.formula.clauses.*;
+
 /**
  * Sharp-Sat solver interface.
  *
@@ -34,8 +36,33 @@ public interface SharpSatSolver extends SatSolver {
 	/**
 	 * Returns the number of possible solutions.
 	 *
-	 * @return The number of possible solutions.
+	 * @return The number of possible solutions or {@code null}, if the
+	 *         computation did not finish (e.g., due to a timeout).
 	 */
 	BigInteger countSolutions();
 
+	/**
+	 * Sets the maximum time for each subsequent computation of this solver.
+	 * Solvers that do not support timeouts ignore this call.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 */
+	default void setTimeout(long timeout) {
+	}
+
+	/**
+	 * Sets the variables onto which counting is projected. Then, two solutions are
+	 * only counted as different, if they differ in at least one of the given
+	 * variables.
+	 *
+	 * @param projection the variables or {@code null} to count all variables
+	 * @throws UnsupportedOperationException if the solver does not support
+	 *                                       projected counting
+	 */
+	default void setProjection(LiteralList projection) {
+		if (projection != null) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
 }
@@ -0,0 +1,88 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.literal.*;
+
+/**
+ * Modifiable formula that only stores the pushed clauses. Can be used by
+ * solvers that rebuild their internal data structures from the current clauses
+ * instead of modifying them incrementally.
+ *
+ * @author Sebastian Krieter
+ */
+public class SimpleClauseFormula extends AbstractDynamicFormula<LiteralList> implements ClauseFormula<LiteralList> {
+
+	private int modificationCount = 0;
+
+	public SimpleClauseFormula(VariableMap variableMap) {
+		super(variableMap);
+	}
+
+	protected SimpleClauseFormula(SimpleClauseFormula oldFormula) {
+		super(oldFormula);
+	}
+
+	@Override
+	public List<LiteralList> getClauses() {
+		return Collections.unmodifiableList(constraints);
+	}
+
+	/**
+	 * @return A number that changes with every modification of this formula.
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	@Override
+	public List<LiteralList> push(Formula formula) throws RuntimeContradictionException {
+		return push(FormulaToCNF.convert(formula, variableMap).getClauses());
+	}
+
+	@Override
+	public List<LiteralList> push(List<? extends LiteralList> clauses) {
+		final ArrayList<LiteralList> pushedClauses = new ArrayList<>(clauses);
+		constraints.addAll(pushedClauses);
+		modificationCount++;
+		return pushedClauses;
+	}
+
+	@Override
+	public LiteralList push(LiteralList clause) {
+		constraints.add(clause);
+		modificationCount++;
+		return clause;
+	}
+
+	@Override
+	protected LiteralList removeConstraint(int index) {
+		modificationCount++;
+		return super.removeConstraint(index);
+	}
+
+}
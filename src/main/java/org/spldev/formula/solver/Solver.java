@@ -41,4 +41,25 @@ public interface Solver extends Cloneable {
 	default void reset() {
 	}
 
+	/**
+	 * Stops the currently running computation of this solver, if there is one.
+	 * May be called from any thread. Solvers that do not support interruption
+	 * ignore this call.
+	 */
+	default void interrupt() {
+	}
+
+	/**
+	 * Sets whether this solver is cancelled. In contrast to {@link #interrupt()},
+	 * a cancelled solver also stops all subsequent computations immediately until
+	 * it is no longer cancelled. May be called from any thread.
+	 *
+	 * @param cancelled whether the solver is cancelled
+	 */
+	default void setCancelled(boolean cancelled) {
+		if (cancelled) {
+			interrupt();
+		}
+	}
+
 }
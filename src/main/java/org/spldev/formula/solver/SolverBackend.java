@@ -0,0 +1,66 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Creates solvers of a certain solver implementation. Analyses based on
+ * {@link LiteralSolver} use a backend to obtain their solver, such that the
+ * solver implementation can be selected at runtime.
+ *
+ * @author Sebastian Krieter
+ *
+ * @see SolverBackends
+ */
+public interface SolverBackend {
+
+	/**
+	 * @return A unique identifier of this backend.
+	 */
+	String getIdentifier();
+
+	/**
+	 * Creates a new solver for the given formula.
+	 *
+	 * @param cnf the formula
+	 * @return A new solver.
+	 * @throws RuntimeContradictionException if the formula is a contradiction and
+	 *                                       the solver cannot handle this case
+	 */
+	LiteralSolver createSolver(CNF cnf) throws RuntimeContradictionException;
+
+	/**
+	 * Creates a new solver that can count the solutions of the given formula, if
+	 * supported by this backend.
+	 *
+	 * @param cnf the formula
+	 * @return A new solver or an empty optional, if not supported.
+	 */
+	default Optional<SharpSatSolver> createSharpSatSolver(CNF cnf) {
+		return Optional.empty();
+	}
+
+}
@@ -0,0 +1,78 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+
+import org.spldev.formula.solver.bdd.*;
+import org.spldev.formula.solver.sat4j.*;
+
+/**
+ * Registry of all known {@link SolverBackend solver backends}. Unless
+ * specified otherwise, {@link Sat4JBackend} is used as default backend.
+ *
+ * @author Sebastian Krieter
+ */
+public final class SolverBackends {
+
+	private static final Map<String, SolverBackend> backends = new LinkedHashMap<>();
+	private static SolverBackend defaultBackend;
+
+	static {
+		defaultBackend = new Sat4JBackend();
+		register(defaultBackend);
+		register(new Sat4JPortfolioBackend());
+		register(new BDDBackend());
+	}
+
+	private SolverBackends() {
+	}
+
+	public static synchronized void register(SolverBackend backend) {
+		backends.put(backend.getIdentifier(), backend);
+	}
+
+	public static synchronized Optional<SolverBackend> get(String identifier) {
+		return Optional.ofNullable(backends.get(identifier));
+	}
+
+	public static synchronized List<SolverBackend> getAll() {
+		return new ArrayList<>(backends.values());
+	}
+
+	public static synchronized SolverBackend getDefault() {
+		return defaultBackend;
+	}
+
+	/**
+	 * Sets the backend used by all analyses that do not specify a backend
+	 * explicitly. The backend is registered, if necessary.
+	 *
+	 * @param backend the new default backend
+	 */
+	public static synchronized void setDefault(SolverBackend backend) {
+		register(backend);
+		defaultBackend = backend;
+	}
+
+}
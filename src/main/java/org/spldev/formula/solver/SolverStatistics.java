@@ -0,0 +1,226 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.spldev.formula.solver.SatSolver.*;
+
+/**
+ * Thread-safe {@link SolverStatisticsSink} that aggregates counters and a
+ * latency histogram for each scope.<br>
+ * <br>
+ * Solvers only record statistics if a sink is set. Analyses use the
+ * {@link #getDefaultSink() default sink}, which is {@code null} (i.e.,
+ * disabled) unless specified otherwise.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverStatistics implements SolverStatisticsSink {
+
+	private static volatile SolverStatisticsSink defaultSink = null;
+
+	public static SolverStatisticsSink getDefaultSink() {
+		return defaultSink;
+	}
+
+	/**
+	 * Sets the sink used by all subsequently created analyses.
+	 *
+	 * @param sink the sink or {@code null} to disable statistics
+	 */
+	public static void setDefaultSink(SolverStatisticsSink sink) {
+		defaultSink = sink;
+	}
+
+	/**
+	 * Aggregated statistics of one scope. Latencies are recorded in a histogram
+	 * with logarithmic buckets, where bucket {@code i} counts all calls with a
+	 * duration in {@code [2^(i-1), 2^i)} nanoseconds.
+	 */
+	public static final class Entry {
+
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder cacheHits = new LongAdder();
+		private final LongAdder trueResults = new LongAdder();
+		private final LongAdder falseResults = new LongAdder();
+		private final LongAdder timeouts = new LongAdder();
+		private final LongAdder conflicts = new LongAdder();
+		private final LongAdder decisions = new LongAdder();
+		private final LongAdder propagations = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final AtomicLongArray histogram = new AtomicLongArray(Long.SIZE + 1);
+
+		private void record(SatResult result, boolean cacheHit, long time, long conflictCount, long decisionCount,
+			long propagationCount) {
+			calls.increment();
+			if (cacheHit) {
+				cacheHits.increment();
+			}
+			switch (result) {
+			case FALSE:
+				falseResults.increment();
+				break;
+			case TIMEOUT:
+				timeouts.increment();
+				break;
+			case TRUE:
+				trueResults.increment();
+				break;
+			default:
+				throw new AssertionError(result);
+			}
+			conflicts.add(conflictCount);
+			decisions.add(decisionCount);
+			propagations.add(propagationCount);
+			nanos.add(time);
+			histogram.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(time, 0)));
+		}
+
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		public long getCacheHits() {
+			return cacheHits.sum();
+		}
+
+		public long getTrueResults() {
+			return trueResults.sum();
+		}
+
+		public long getFalseResults() {
+			return falseResults.sum();
+		}
+
+		public long getTimeouts() {
+			return timeouts.sum();
+		}
+
+		public long getConflicts() {
+			return conflicts.sum();
+		}
+
+		public long getDecisions() {
+			return decisions.sum();
+		}
+
+		public long getPropagations() {
+			return propagations.sum();
+		}
+
+		public long getTotalNanos() {
+			return nanos.sum();
+		}
+
+		public long[] getLatencyHistogram() {
+			final long[] buckets = new long[histogram.length()];
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = histogram.get(i);
+			}
+			return buckets;
+		}
+
+		/**
+		 * Estimates a percentile of the call latency from the histogram.
+		 *
+		 * @param percentile a value between 0 and 1
+		 * @return The upper bound of the bucket containing the percentile in
+		 *         nanoseconds.
+		 */
+		public long getLatencyPercentile(double percentile) {
+			final long[] buckets = getLatencyHistogram();
+			long total = 0;
+			for (final long count : buckets) {
+				total += count;
+			}
+			final long threshold = (long) Math.ceil(total * percentile);
+			long count = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				count += buckets[i];
+				if ((count >= threshold) && (count > 0)) {
+					return i < (Long.SIZE - 1) ? 1L << i : Long.MAX_VALUE;
+				}
+			}
+			return 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+				"calls=%d, cacheHits=%d, true=%d, false=%d, timeouts=%d, conflicts=%d, decisions=%d, propagations=%d, time=%dms, p50=%dns, p99=%dns",
+				getCalls(), getCacheHits(), getTrueResults(), getFalseResults(), getTimeouts(), getConflicts(),
+				getDecisions(), getPropagations(), getTotalNanos() / 1_000_000, getLatencyPercentile(0.5),
+				getLatencyPercentile(0.99));
+		}
+
+	}
+
+	private static final Object NO_SCOPE = new Object() {
+		@Override
+		public String toString() {
+			return "none";
+		}
+	};
+
+	private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+	@Override
+	public void record(Object scope, SatResult result, boolean cacheHit, long nanos, long conflicts, long decisions,
+		long propagations) {
+		entries.computeIfAbsent(scope != null ? scope : NO_SCOPE, k -> new Entry()) //
+			.record(result, cacheHit, nanos, conflicts, decisions, propagations);
+	}
+
+	/**
+	 * @param scope the scope
+	 * @return The statistics of the given scope or {@code null}, if nothing was
+	 *         recorded for this scope.
+	 */
+	public Entry getEntry(Object scope) {
+		return entries.get(scope != null ? scope : NO_SCOPE);
+	}
+
+	public Map<Object, Entry> getEntries() {
+		return Collections.unmodifiableMap(entries);
+	}
+
+	public void reset() {
+		entries.clear();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (final Map.Entry<Object, Entry> entry : entries.entrySet()) {
+			sb.append(entry.getKey());
+			sb.append(": ");
+			sb.append(entry.getValue());
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,52 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver;
+
+import org.spldev.formula.solver.SatSolver.*;
+
+/**
+ * Receives statistics about single satisfiability checks of a solver.
+ *
+ * @author Sebastian Krieter
+ *
+ * @see SolverStatistics
+ */
+@FunctionalInterface
+public interface SolverStatisticsSink {
+
+	/**
+	 * Called after each satisfiability check.
+	 *
+	 * @param scope        the scope of the check (e.g., the identifier of the
+	 *                     analysis that uses the solver), may be {@code null}
+	 * @param result       the result of the check
+	 * @param cacheHit     whether the result was taken from the solution history
+	 * @param nanos        the duration of the check in nanoseconds
+	 * @param conflicts    the number of conflicts during the check
+	 * @param decisions    the number of decisions during the check
+	 * @param propagations the number of propagations during the check
+	 */
+	void record(Object scope, SatResult result, boolean cacheHit, long nanos, long conflicts, long decisions,
+		long propagations);
+
+}
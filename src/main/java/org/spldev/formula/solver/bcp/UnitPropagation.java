@@ -0,0 +1,361 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bcp;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Boolean constraint propagation on the clauses of a {@link CNF} using two
+ * watched literals. Literals are assigned on a trail and can be retracted by
+ * {@link #backtrack(int) backtracking} to an earlier trail size. Unit clauses
+ * of the CNF are propagated on construction.<br>
+ * <br>
+ * {@link #probe() Failed literal probing} assigns each unassigned variable
+ * once positively and once negatively. If one assignment leads to a conflict,
+ * the opposite literal is implied. If both assignments imply a common literal,
+ * this literal is implied as well. Probing does not allocate memory and
+ * visits the variables in ascending order, such that its result is
+ * deterministic.
+ *
+ * @author Sebastian Krieter
+ */
+public class UnitPropagation {
+
+	private final int numberOfVariables;
+	private final int[][] clauses;
+
+	private final int[][] watches;
+	private final int[] watchSizes;
+
+	/**
+	 * Value of each variable: {@code 1} for true, {@code -1} for false, and
+	 * {@code 0} for unassigned.
+	 */
+	private final byte[] values;
+	private final int[] trail;
+	private int trailSize = 0;
+	private int queueHead = 0;
+
+	private final int[] stamps;
+	private final int[] commonLiterals;
+	private int stamp = 0;
+
+	private boolean contradiction = false;
+	private int settledCount = 0;
+
+	public UnitPropagation(CNF cnf) {
+		this(cnf.getVariableMap().getMaxIndex(), cnf.getClauses());
+	}
+
+	/**
+	 * Creates a new propagation engine.
+	 *
+	 * @param numberOfVariables the highest variable index used by the clauses
+	 * @param clauses           the clauses
+	 */
+	public UnitPropagation(int numberOfVariables, Collection<? extends LiteralList> clauses) {
+		int maxVariable = numberOfVariables;
+		for (final LiteralList clause : clauses) {
+			for (final int literal : clause.getLiterals()) {
+				maxVariable = Math.max(maxVariable, Math.abs(literal));
+			}
+		}
+		this.numberOfVariables = maxVariable;
+		values = new byte[maxVariable + 1];
+		trail = new int[maxVariable];
+		stamps = new int[(maxVariable + 1) << 1];
+		commonLiterals = new int[maxVariable];
+		watches = new int[(maxVariable + 1) << 1][];
+		watchSizes = new int[watches.length];
+		for (int i = 0; i < watches.length; i++) {
+			watches[i] = new int[4];
+		}
+
+		final ArrayList<int[]> watchedClauses = new ArrayList<>(clauses.size());
+		final ArrayList<Integer> units = new ArrayList<>();
+		for (final LiteralList clause : clauses) {
+			final int[] literals = normalize(clause.getLiterals());
+			if (literals == null) {
+				continue;
+			}
+			switch (literals.length) {
+			case 0:
+				contradiction = true;
+				break;
+			case 1:
+				units.add(literals[0]);
+				break;
+			default:
+				watchedClauses.add(literals);
+				break;
+			}
+		}
+		this.clauses = watchedClauses.toArray(new int[0][]);
+		for (int c = 0; c < this.clauses.length; c++) {
+			addWatch(getIndex(this.clauses[c][0]), c);
+			addWatch(getIndex(this.clauses[c][1]), c);
+		}
+		if (!contradiction) {
+			for (final int unit : units) {
+				if (!assign(unit)) {
+					contradiction = true;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes duplicate literals.
+	 *
+	 * @return A sorted copy of the literals or {@code null}, if the literals
+	 *         contain a complementary pair.
+	 */
+	private static int[] normalize(int[] literals) {
+		final int[] sortedLiterals = Arrays.copyOf(literals, literals.length);
+		Arrays.sort(sortedLiterals);
+		int length = 0;
+		for (final int literal : sortedLiterals) {
+			if (literal == 0) {
+				continue;
+			}
+			if ((length > 0) && (sortedLiterals[length - 1] == literal)) {
+				continue;
+			}
+			if ((literal > 0) && (Arrays.binarySearch(sortedLiterals, -literal) >= 0)) {
+				return null;
+			}
+			sortedLiterals[length++] = literal;
+		}
+		return length == sortedLiterals.length ? sortedLiterals : Arrays.copyOf(sortedLiterals, length);
+	}
+
+	private static int getIndex(int literal) {
+		return literal > 0 ? literal << 1 : (-literal << 1) + 1;
+	}
+
+	private void addWatch(int index, int clauseIndex) {
+		int[] watchList = watches[index];
+		final int size = watchSizes[index];
+		if (size == watchList.length) {
+			watchList = Arrays.copyOf(watchList, size << 1);
+			watches[index] = watchList;
+		}
+		watchList[size] = clauseIndex;
+		watchSizes[index] = size + 1;
+	}
+
+	private int getLiteralValue(int literal) {
+		return literal > 0 ? values[literal] : -values[-literal];
+	}
+
+	private void enqueue(int literal) {
+		values[Math.abs(literal)] = (byte) (literal > 0 ? 1 : -1);
+		trail[trailSize++] = literal;
+	}
+
+	private boolean propagate() {
+		while (queueHead < trailSize) {
+			final int falseLiteral = -trail[queueHead++];
+			final int index = getIndex(falseLiteral);
+			final int[] watchList = watches[index];
+			final int size = watchSizes[index];
+			int i = 0;
+			int j = 0;
+			watchLoop: while (i < size) {
+				final int clauseIndex = watchList[i++];
+				final int[] clause = clauses[clauseIndex];
+				if (clause[0] == falseLiteral) {
+					clause[0] = clause[1];
+					clause[1] = falseLiteral;
+				}
+				if (getLiteralValue(clause[0]) > 0) {
+					watchList[j++] = clauseIndex;
+					continue;
+				}
+				for (int k = 2; k < clause.length; k++) {
+					final int literal = clause[k];
+					if (getLiteralValue(literal) >= 0) {
+						clause[1] = literal;
+						clause[k] = falseLiteral;
+						addWatch(getIndex(literal), clauseIndex);
+						continue watchLoop;
+					}
+				}
+				watchList[j++] = clauseIndex;
+				if (getLiteralValue(clause[0]) < 0) {
+					while (i < size) {
+						watchList[j++] = watchList[i++];
+					}
+					watchSizes[index] = j;
+					queueHead = trailSize;
+					return false;
+				}
+				enqueue(clause[0]);
+			}
+			watchSizes[index] = j;
+		}
+		return true;
+	}
+
+	/**
+	 * Assigns the given literal and propagates all implied literals. In case of a
+	 * conflict, the trail contains the partial propagation and should be
+	 * {@link #backtrack(int) backtracked} by the caller.
+	 *
+	 * @param literal the literal
+	 * @return {@code false}, if the assignment leads to a conflict, {@code true}
+	 *         otherwise.
+	 */
+	public boolean assign(int literal) {
+		if (contradiction) {
+			return false;
+		}
+		final int value = getLiteralValue(literal);
+		if (value != 0) {
+			return value > 0;
+		}
+		enqueue(literal);
+		return propagate();
+	}
+
+	/**
+	 * Retracts all literals that were assigned after the trail had the given
+	 * size.
+	 *
+	 * @param newTrailSize the previous {@link #getTrailSize() trail size}
+	 */
+	public void backtrack(int newTrailSize) {
+		for (int i = trailSize - 1; i >= newTrailSize; i--) {
+			values[Math.abs(trail[i])] = 0;
+		}
+		trailSize = newTrailSize;
+		queueHead = Math.min(queueHead, newTrailSize);
+	}
+
+	/**
+	 * Probes all unassigned variables until no further literal is implied.
+	 * Implied literals are added to the trail. The number of implied literals is
+	 * available via {@link #getSettledCount()}.
+	 *
+	 * @return {@code false}, if the clauses are unsatisfiable under the current
+	 *         assignment, {@code true} otherwise.
+	 */
+	public boolean probe() {
+		settledCount = 0;
+		if (contradiction) {
+			return false;
+		}
+		final int initialTrailSize = trailSize;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int var = 1; var <= numberOfVariables; var++) {
+				if (values[var] != 0) {
+					continue;
+				}
+				final int mark = trailSize;
+				if (!assign(var)) {
+					backtrack(mark);
+					if (!assign(-var)) {
+						return false;
+					}
+					changed = true;
+					continue;
+				}
+				if (++stamp == 0) {
+					Arrays.fill(stamps, 0);
+					stamp = 1;
+				}
+				for (int i = mark + 1; i < trailSize; i++) {
+					stamps[getIndex(trail[i])] = stamp;
+				}
+				backtrack(mark);
+				if (!assign(-var)) {
+					backtrack(mark);
+					if (!assign(var)) {
+						return false;
+					}
+					changed = true;
+					continue;
+				}
+				int commonCount = 0;
+				for (int i = mark + 1; i < trailSize; i++) {
+					final int literal = trail[i];
+					if (stamps[getIndex(literal)] == stamp) {
+						commonLiterals[commonCount++] = literal;
+					}
+				}
+				backtrack(mark);
+				for (int i = 0; i < commonCount; i++) {
+					if (!assign(commonLiterals[i])) {
+						return false;
+					}
+					changed = true;
+				}
+			}
+		}
+		settledCount = trailSize - initialTrailSize;
+		return true;
+	}
+
+	/**
+	 * @return The number of literals that were implied by the last call of
+	 *         {@link #probe()}.
+	 */
+	public int getSettledCount() {
+		return settledCount;
+	}
+
+	/**
+	 * @return Whether the clauses are unsatisfiable by unit propagation without
+	 *         any assignment.
+	 */
+	public boolean isContradiction() {
+		return contradiction;
+	}
+
+	/**
+	 * @param variable the variable
+	 * @return The assigned literal of the variable or {@code 0}, if it is
+	 *         unassigned.
+	 */
+	public int getValue(int variable) {
+		return variable < values.length ? values[variable] * variable : 0;
+	}
+
+	public int getTrailSize() {
+		return trailSize;
+	}
+
+	public int getTrailLiteral(int index) {
+		return trail[index];
+	}
+
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+}
@@ -0,0 +1,666 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.formula.solver.*;
+
+/**
+ * Reduced ordered binary decision diagrams (BDDs) over a fixed variable order.
+ * All nodes are stored in int arrays and identified by their index. The
+ * indices {@link #FALSE} and {@link #TRUE} denote the terminal nodes.<br>
+ * <br>
+ * A unique table ensures that no two nodes have the same level and children,
+ * and an operation cache stores the results of recent operations. Nodes that
+ * are not reachable from any {@link #ref(int) referenced} node are freed by
+ * garbage collection. Garbage is only collected before an operation starts,
+ * so intermediate results of a running operation are never freed. Thus, the
+ * result of an operation must be referenced before the next operation, if it
+ * is still needed.<br>
+ * <br>
+ * The number of nodes is bounded by a node limit. If an operation exceeds the
+ * limit, a {@link BDDNodeLimitException} is thrown. If an operation exceeds
+ * the {@link #setDeadline(long) deadline}, a {@link RuntimeTimeoutException}
+ * is thrown.<br>
+ * <br>
+ * Queries accept a partial assignment of the variables as literals. A BDD
+ * object is not thread-safe, use {@link #copy()} to query a BDD concurrently.
+ *
+ * @author Sebastian Krieter
+ */
+public class BDD {
+
+	public static final int FALSE = 0;
+	public static final int TRUE = 1;
+
+	public static final int DEFAULT_NODE_LIMIT = 1 << 21;
+
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	private static final int MIN_CACHE_SIZE = 1 << 12;
+	/**
+	 * Number of created nodes after which the deadline is checked again.
+	 */
+	private static final int DEADLINE_CHECK_INTERVAL = 1 << 12;
+
+	private static final int OP_AND = 1;
+	private static final int OP_OR = 2;
+	private static final int OP_NOT = 3;
+
+	private final int numberOfVariables;
+	private final int numberOfLevels;
+	private final int nodeLimit;
+	private final int[] order;
+	private final int[] variableLevels;
+
+	private int[] levels;
+	private int[] lows;
+	private int[] highs;
+	private int[] next;
+	private int[] references;
+	private int[] buckets;
+	private int capacity;
+	private int firstUnused;
+	private int freeList = -1;
+	private int usedNodes;
+	private long garbageCollections = 0;
+	private long deadline = Long.MAX_VALUE;
+	private int createdNodes = 0;
+
+	private int[] cacheOps;
+	private int[] cacheLefts;
+	private int[] cacheRights;
+	private int[] cacheResults;
+
+	private int[] stamps;
+	private int stamp = 0;
+	private byte[] satisfiable;
+	private BigInteger[] counts;
+	private final byte[] levelValues;
+	private final int[] freeLevels;
+
+	/**
+	 * Creates a new BDD manager.
+	 *
+	 * @param order     the variable order, i.e., the variable of each level
+	 * @param nodeLimit the maximum number of nodes
+	 */
+	public BDD(int[] order, int nodeLimit) {
+		this.order = Arrays.copyOf(order, order.length);
+		this.nodeLimit = Math.max(nodeLimit, 2);
+		numberOfLevels = order.length;
+		int maxVariable = 0;
+		for (final int var : order) {
+			maxVariable = Math.max(maxVariable, var);
+		}
+		numberOfVariables = maxVariable;
+		variableLevels = new int[numberOfVariables + 1];
+		Arrays.fill(variableLevels, -1);
+		for (int level = 0; level < numberOfLevels; level++) {
+			if (variableLevels[order[level]] >= 0) {
+				throw new IllegalArgumentException("Variable occurs twice in order: " + order[level]);
+			}
+			variableLevels[order[level]] = level;
+		}
+		levelValues = new byte[numberOfLevels + 1];
+		freeLevels = new int[numberOfLevels + 1];
+
+		capacity = Math.min(INITIAL_CAPACITY, this.nodeLimit);
+		levels = new int[capacity];
+		lows = new int[capacity];
+		highs = new int[capacity];
+		next = new int[capacity];
+		references = new int[capacity];
+		stamps = new int[capacity];
+		satisfiable = new byte[capacity];
+		buckets = new int[Integer.highestOneBit(capacity) << 1];
+		Arrays.fill(buckets, -1);
+		initCache(MIN_CACHE_SIZE);
+
+		levels[FALSE] = numberOfLevels;
+		levels[TRUE] = numberOfLevels;
+		next[FALSE] = -1;
+		next[TRUE] = -1;
+		firstUnused = 2;
+		usedNodes = 2;
+	}
+
+	private BDD(BDD other) {
+		order = other.order;
+		variableLevels = other.variableLevels;
+		nodeLimit = other.nodeLimit;
+		numberOfVariables = other.numberOfVariables;
+		numberOfLevels = other.numberOfLevels;
+		levelValues = new byte[numberOfLevels + 1];
+		freeLevels = new int[numberOfLevels + 1];
+
+		capacity = other.capacity;
+		levels = Arrays.copyOf(other.levels, capacity);
+		lows = Arrays.copyOf(other.lows, capacity);
+		highs = Arrays.copyOf(other.highs, capacity);
+		next = Arrays.copyOf(other.next, capacity);
+		references = Arrays.copyOf(other.references, capacity);
+		stamps = new int[capacity];
+		satisfiable = new byte[capacity];
+		buckets = Arrays.copyOf(other.buckets, other.buckets.length);
+		firstUnused = other.firstUnused;
+		freeList = other.freeList;
+		usedNodes = other.usedNodes;
+		initCache(other.cacheResults.length);
+	}
+
+	/**
+	 * @return An independent copy of this BDD manager containing the same nodes
+	 *         with the same indices.
+	 */
+	public BDD copy() {
+		return new BDD(this);
+	}
+
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	/**
+	 * @return The variable order, i.e., the variable of each level.
+	 */
+	public int[] getOrder() {
+		return Arrays.copyOf(order, order.length);
+	}
+
+	public int getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * @return The number of allocated nodes including the terminal nodes.
+	 */
+	public int getNodeCount() {
+		return usedNodes;
+	}
+
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Sets the point in time after which operations that create new nodes are
+	 * aborted. The deadline is not copied by {@link #copy()}.
+	 *
+	 * @param deadline the deadline in terms of {@link System#nanoTime()} or
+	 *                 {@link Long#MAX_VALUE} for no deadline
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	public long getGarbageCollections() {
+		return garbageCollections;
+	}
+
+	public int getVariable(int node) {
+		return order[levels[node]];
+	}
+
+	public int getLow(int node) {
+		return lows[node];
+	}
+
+	public int getHigh(int node) {
+		return highs[node];
+	}
+
+	/**
+	 * Adds a reference to the given node, which protects the node and all its
+	 * descendants from garbage collection.
+	 *
+	 * @param node the node
+	 * @return The given node.
+	 */
+	public int ref(int node) {
+		if (node > TRUE) {
+			references[node]++;
+		}
+		return node;
+	}
+
+	/**
+	 * Removes a reference from the given node.
+	 *
+	 * @param node the node
+	 */
+	public void deref(int node) {
+		if ((node > TRUE) && (references[node] > 0)) {
+			references[node]--;
+		}
+	}
+
+	/**
+	 * @param literal a literal
+	 * @return The node representing the given literal.
+	 */
+	public int literal(int literal) {
+		collectGarbageIfFull();
+		final int level = getLevel(literal);
+		return literal > 0 ? makeNode(level, FALSE, TRUE) : makeNode(level, TRUE, FALSE);
+	}
+
+	/**
+	 * @param literals the literals of a clause
+	 * @return The node representing the disjunction of the given literals.
+	 */
+	public int clause(int[] literals) {
+		collectGarbageIfFull();
+		// encodes each literal by its level and sign, such that sorting the keys
+		// groups literals of the same variable
+		final int[] keys = new int[literals.length];
+		int length = 0;
+		for (final int literal : literals) {
+			if (literal != 0) {
+				keys[length++] = (getLevel(literal) << 1) | (literal > 0 ? 1 : 0);
+			}
+		}
+		Arrays.sort(keys, 0, length);
+		// builds the clause bottom-up, starting with the deepest literal
+		int node = FALSE;
+		for (int i = length - 1; i >= 0; i--) {
+			final int key = keys[i];
+			if ((i < (length - 1)) && ((keys[i + 1] >>> 1) == (key >>> 1))) {
+				if (keys[i + 1] != key) {
+					// complementary literals
+					return TRUE;
+				}
+				continue;
+			}
+			final int level = key >>> 1;
+			node = (key & 1) != 0 ? makeNode(level, node, TRUE) : makeNode(level, TRUE, node);
+		}
+		return node;
+	}
+
+	public int and(int a, int b) {
+		collectGarbageIfFull();
+		return apply(OP_AND, a, b);
+	}
+
+	public int or(int a, int b) {
+		collectGarbageIfFull();
+		return apply(OP_OR, a, b);
+	}
+
+	public int not(int a) {
+		collectGarbageIfFull();
+		return negate(a);
+	}
+
+	private int getLevel(int literal) {
+		final int var = Math.abs(literal);
+		if ((var > numberOfVariables) || (variableLevels[var] < 0)) {
+			throw new IllegalArgumentException("Unknown variable: " + var);
+		}
+		return variableLevels[var];
+	}
+
+	private int apply(int op, int a, int b) {
+		if (op == OP_AND) {
+			if ((a == FALSE) || (b == FALSE)) {
+				return FALSE;
+			} else if ((a == TRUE) || (a == b)) {
+				return b;
+			} else if (b == TRUE) {
+				return a;
+			}
+		} else {
+			if ((a == TRUE) || (b == TRUE)) {
+				return TRUE;
+			} else if ((a == FALSE) || (a == b)) {
+				return b;
+			} else if (b == FALSE) {
+				return a;
+			}
+		}
+		if (a > b) {
+			final int t = a;
+			a = b;
+			b = t;
+		}
+		final int cacheIndex = getCacheIndex(op, a, b);
+		if ((cacheOps[cacheIndex] == op) && (cacheLefts[cacheIndex] == a) && (cacheRights[cacheIndex] == b)) {
+			return cacheResults[cacheIndex];
+		}
+		final int levelA = levels[a];
+		final int levelB = levels[b];
+		final int level = Math.min(levelA, levelB);
+		final int low = apply(op, levelA == level ? lows[a] : a, levelB == level ? lows[b] : b);
+		final int high = apply(op, levelA == level ? highs[a] : a, levelB == level ? highs[b] : b);
+		final int result = makeNode(level, low, high);
+		storeCache(op, a, b, result);
+		return result;
+	}
+
+	private int negate(int a) {
+		if (a == FALSE) {
+			return TRUE;
+		} else if (a == TRUE) {
+			return FALSE;
+		}
+		final int cacheIndex = getCacheIndex(OP_NOT, a, 0);
+		if ((cacheOps[cacheIndex] == OP_NOT) && (cacheLefts[cacheIndex] == a)) {
+			return cacheResults[cacheIndex];
+		}
+		final int low = negate(lows[a]);
+		final int high = negate(highs[a]);
+		final int result = makeNode(levels[a], low, high);
+		storeCache(OP_NOT, a, 0, result);
+		return result;
+	}
+
+	private int makeNode(int level, int low, int high) {
+		if (low == high) {
+			return low;
+		}
+		int bucket = hash(level, low, high) & (buckets.length - 1);
+		for (int node = buckets[bucket]; node >= 0; node = next[node]) {
+			if ((levels[node] == level) && (lows[node] == low) && (highs[node] == high)) {
+				return node;
+			}
+		}
+		if ((((++createdNodes) % DEADLINE_CHECK_INTERVAL) == 0) && (System.nanoTime() > deadline)) {
+			throw new RuntimeTimeoutException();
+		}
+		if ((freeList < 0) && (firstUnused == capacity)) {
+			grow();
+			bucket = hash(level, low, high) & (buckets.length - 1);
+		}
+		final int node;
+		if (freeList >= 0) {
+			node = freeList;
+			freeList = next[node];
+		} else {
+			node = firstUnused++;
+		}
+		usedNodes++;
+		levels[node] = level;
+		lows[node] = low;
+		highs[node] = high;
+		references[node] = 0;
+		next[node] = buckets[bucket];
+		buckets[bucket] = node;
+		return node;
+	}
+
+	private static int hash(int level, int low, int high) {
+		int hash = (level * 0x9E3779B1) + (low * 0x85EBCA6B) + (high * 0xC2B2AE35);
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
+	private void grow() {
+		if (capacity >= nodeLimit) {
+			throw new BDDNodeLimitException(nodeLimit);
+		}
+		capacity = (int) Math.min((long) capacity << 1, nodeLimit);
+		levels = Arrays.copyOf(levels, capacity);
+		lows = Arrays.copyOf(lows, capacity);
+		highs = Arrays.copyOf(highs, capacity);
+		next = Arrays.copyOf(next, capacity);
+		references = Arrays.copyOf(references, capacity);
+		stamps = new int[capacity];
+		satisfiable = new byte[capacity];
+		counts = null;
+		stamp = 0;
+		rehash();
+		if (cacheResults.length < (capacity >>> 2)) {
+			initCache(Integer.highestOneBit(capacity >>> 2));
+		}
+	}
+
+	/**
+	 * Rebuilds the unique table. Free nodes are skipped, so their links within the
+	 * free list remain intact.
+	 */
+	private void rehash() {
+		buckets = new int[Integer.highestOneBit(capacity) << 1];
+		Arrays.fill(buckets, -1);
+		for (int node = 2; node < firstUnused; node++) {
+			if (levels[node] >= 0) {
+				final int bucket = hash(levels[node], lows[node], highs[node]) & (buckets.length - 1);
+				next[node] = buckets[bucket];
+				buckets[bucket] = node;
+			}
+		}
+	}
+
+	/**
+	 * Collects garbage, if all allocated nodes are in use. If garbage collection
+	 * frees less than a quarter of the nodes, the node arrays are grown as well.
+	 */
+	private void collectGarbageIfFull() {
+		if ((freeList < 0) && (firstUnused == capacity) && (capacity >= (nodeLimit >>> 1))) {
+			collectGarbage();
+			if ((usedNodes > (capacity - (capacity >>> 2))) && (capacity < nodeLimit)) {
+				grow();
+			}
+		}
+	}
+
+	/**
+	 * Frees all nodes that are not reachable from a referenced node.
+	 */
+	public void collectGarbage() {
+		garbageCollections++;
+		final boolean[] marked = new boolean[firstUnused];
+		marked[FALSE] = true;
+		marked[TRUE] = true;
+		final int[] stack = new int[firstUnused];
+		for (int node = 2; node < firstUnused; node++) {
+			if ((levels[node] >= 0) && (references[node] > 0) && !marked[node]) {
+				int stackSize = 0;
+				stack[stackSize++] = node;
+				marked[node] = true;
+				while (stackSize > 0) {
+					final int current = stack[--stackSize];
+					if (!marked[lows[current]]) {
+						marked[lows[current]] = true;
+						stack[stackSize++] = lows[current];
+					}
+					if (!marked[highs[current]]) {
+						marked[highs[current]] = true;
+						stack[stackSize++] = highs[current];
+					}
+				}
+			}
+		}
+		freeList = -1;
+		usedNodes = 2;
+		for (int node = firstUnused - 1; node >= 2; node--) {
+			if (marked[node]) {
+				usedNodes++;
+			} else {
+				levels[node] = -1;
+				next[node] = freeList;
+				freeList = node;
+			}
+		}
+		rehash();
+		initCache(cacheResults.length);
+	}
+
+	private void initCache(int size) {
+		cacheOps = new int[size];
+		cacheLefts = new int[size];
+		cacheRights = new int[size];
+		cacheResults = new int[size];
+	}
+
+	private int getCacheIndex(int op, int a, int b) {
+		return hash(op, a, b) & (cacheResults.length - 1);
+	}
+
+	private void storeCache(int op, int a, int b, int result) {
+		final int cacheIndex = getCacheIndex(op, a, b);
+		cacheOps[cacheIndex] = op;
+		cacheLefts[cacheIndex] = a;
+		cacheRights[cacheIndex] = b;
+		cacheResults[cacheIndex] = result;
+	}
+
+	/**
+	 * Sets the values of all levels according to the given literals.
+	 *
+	 * @return {@code false}, if the literals contain a complementary pair.
+	 */
+	private boolean setAssignment(int[] literals) {
+		Arrays.fill(levelValues, (byte) 0);
+		for (final int literal : literals) {
+			final int var = Math.abs(literal);
+			if ((var == 0) || (var > numberOfVariables) || (variableLevels[var] < 0)) {
+				continue;
+			}
+			final int level = variableLevels[var];
+			final byte value = literal > 0 ? (byte) 1 : (byte) -1;
+			if (levelValues[level] == -value) {
+				return false;
+			}
+			levelValues[level] = value;
+		}
+		if (++stamp == 0) {
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given node has a solution that contains all given
+	 * literals.
+	 *
+	 * @param node     the node
+	 * @param literals the literals
+	 * @return {@code true}, if there is such a solution.
+	 */
+	public boolean hasSolution(int node, int[] literals) {
+		return setAssignment(literals) && isSatisfiable(node);
+	}
+
+	private boolean isSatisfiable(int node) {
+		if (node <= TRUE) {
+			return node == TRUE;
+		}
+		if (stamps[node] == stamp) {
+			return satisfiable[node] != 0;
+		}
+		final byte value = levelValues[levels[node]];
+		final boolean result = ((value >= 0) && isSatisfiable(highs[node])) || ((value <= 0) && isSatisfiable(
+			lows[node]));
+		stamps[node] = stamp;
+		satisfiable[node] = result ? (byte) 1 : (byte) 0;
+		return result;
+	}
+
+	/**
+	 * Returns a solution of the given node that contains all given literals.
+	 * Variables that are not determined by the node and the literals are
+	 * deselected, unless a random generator is given.
+	 *
+	 * @param node     the node
+	 * @param literals the literals
+	 * @param random   a random generator used to choose among the possible
+	 *                 values of a variable or {@code null} to prefer deselected
+	 *                 variables
+	 * @return A solution ordered by variable index or {@code null}, if there is
+	 *         no such solution.
+	 */
+	public int[] getSolution(int node, int[] literals, Random random) {
+		if (!hasSolution(node, literals)) {
+			return null;
+		}
+		final int[] solution = new int[numberOfVariables];
+		for (int var = 1; var <= numberOfVariables; var++) {
+			solution[var - 1] = -var;
+		}
+		int current = node;
+		for (int level = 0; level < numberOfLevels; level++) {
+			final int var = order[level];
+			final byte value = levelValues[level];
+			boolean selected;
+			if (levels[current] == level) {
+				final boolean highPossible = (value >= 0) && isSatisfiable(highs[current]);
+				final boolean lowPossible = (value <= 0) && isSatisfiable(lows[current]);
+				selected = highPossible && (!lowPossible || ((random != null) && random.nextBoolean()));
+				current = selected ? highs[current] : lows[current];
+			} else {
+				selected = value != 0 ? value > 0 : (random != null) && random.nextBoolean();
+			}
+			solution[var - 1] = selected ? var : -var;
+		}
+		return solution;
+	}
+
+	/**
+	 * Counts the solutions of the given node that contain all given literals.
+	 * Solutions are counted over all variables of the variable order.
+	 *
+	 * @param node     the node
+	 * @param literals the literals
+	 * @return The number of solutions.
+	 */
+	public BigInteger countSolutions(int node, int[] literals) {
+		if (!setAssignment(literals)) {
+			return BigInteger.ZERO;
+		}
+		freeLevels[numberOfLevels] = 0;
+		for (int level = numberOfLevels - 1; level >= 0; level--) {
+			freeLevels[level] = freeLevels[level + 1] + (levelValues[level] == 0 ? 1 : 0);
+		}
+		if ((counts == null) || (counts.length < capacity)) {
+			counts = new BigInteger[capacity];
+		}
+		return count(node).shiftLeft(freeLevels[0] - freeLevels[levels[node]]);
+	}
+
+	private BigInteger count(int node) {
+		if (node <= TRUE) {
+			return node == TRUE ? BigInteger.ONE : BigInteger.ZERO;
+		}
+		if (stamps[node] == stamp) {
+			return counts[node];
+		}
+		final int level = levels[node];
+		final byte value = levelValues[level];
+		BigInteger result = BigInteger.ZERO;
+		if (value >= 0) {
+			final int high = highs[node];
+			result = result.add(count(high).shiftLeft(freeLevels[level + 1] - freeLevels[levels[high]]));
+		}
+		if (value <= 0) {
+			final int low = lows[node];
+			result = result.add(count(low).shiftLeft(freeLevels[level + 1] - freeLevels[levels[low]]));
+		}
+		stamps[node] = stamp;
+		counts[node] = result;
+		return result;
+	}
+
+}
@@ -0,0 +1,208 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import java.util.*;
+
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sat4j.*;
+import org.spldev.util.data.*;
+import org.spldev.util.job.*;
+
+/**
+ * Solver backend that creates {@link BDDSolver BDD solvers}. If the BDD of a
+ * formula exceeds the node limit or cannot be built within the
+ * {@link #setTimeout(long) timeout}, the backend falls back to another backend
+ * (by default, {@link Sat4JBackend}).<br>
+ * <br>
+ * Solvers for the CNF of a {@link ModelRepresentation} are cloned from a
+ * prototype that is stored in the model representation, such that the BDD is
+ * only built once per CNF.
+ *
+ * @author Sebastian Krieter
+ */
+public class BDDBackend implements SolverBackend {
+
+	public static final String ID = BDDBackend.class.getCanonicalName();
+
+	private int nodeLimit = BDD.DEFAULT_NODE_LIMIT;
+	private long timeout = 0;
+	private SolverBackend fallbackBackend = new Sat4JBackend();
+
+	@Override
+	public String getIdentifier() {
+		return ID;
+	}
+
+	public int getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Sets the maximum number of nodes of the BDD of each created solver.
+	 *
+	 * @param nodeLimit the node limit
+	 */
+	public void setNodeLimit(int nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the maximum time for building the BDD of each created solver.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public SolverBackend getFallbackBackend() {
+		return fallbackBackend;
+	}
+
+	/**
+	 * Sets the backend that is used for formulas whose BDD exceeds the node limit.
+	 *
+	 * @param fallbackBackend the fallback backend
+	 */
+	public void setFallbackBackend(SolverBackend fallbackBackend) {
+		this.fallbackBackend = Objects.requireNonNull(fallbackBackend);
+	}
+
+	@Override
+	public LiteralSolver createSolver(CNF cnf) {
+		try {
+			return new BDDSolver(cnf, nodeLimit, timeout);
+		} catch (final BDDNodeLimitException | RuntimeTimeoutException e) {
+			return fallbackBackend.createSolver(cnf);
+		}
+	}
+
+	@Override
+	public Optional<SharpSatSolver> createSharpSatSolver(CNF cnf) {
+		try {
+			return Optional.of(new BDDSolver(cnf, nodeLimit, timeout));
+		} catch (final BDDNodeLimitException | RuntimeTimeoutException e) {
+			return fallbackBackend.createSharpSatSolver(cnf);
+		}
+	}
+
+	/**
+	 * Creates a new solver for the given formula. If the formula is the CNF of the
+	 * given model representation, the solver is cloned from the prototype stored
+	 * in the model representation.
+	 *
+	 * @param rep the model representation
+	 * @param cnf the formula
+	 * @return A new solver.
+	 */
+	public LiteralSolver createSolver(ModelRepresentation rep, CNF cnf) {
+		final Result<BDDSolver> prototype = getPrototype(rep, cnf);
+		if (prototype == null) {
+			return createSolver(cnf);
+		}
+		return prototype.isEmpty() ? fallbackBackend.createSolver(cnf) : prototype.get().clone();
+	}
+
+	/**
+	 * Creates a new solver that can count the solutions of the given formula. If
+	 * the formula is the CNF of the given model representation, the solver is
+	 * cloned from the prototype stored in the model representation.
+	 *
+	 * @param rep the model representation
+	 * @param cnf the formula
+	 * @return A new solver or an empty optional, if not supported.
+	 */
+	public Optional<SharpSatSolver> createSharpSatSolver(ModelRepresentation rep, CNF cnf) {
+		final Result<BDDSolver> prototype = getPrototype(rep, cnf);
+		if (prototype == null) {
+			return createSharpSatSolver(cnf);
+		}
+		return prototype.isEmpty() ? fallbackBackend.createSharpSatSolver(cnf)
+			: Optional.of(prototype.get().clone());
+	}
+
+	/**
+	 * @return The prototype for the given formula, an empty result if its BDD
+	 *         cannot be built, or {@code null} if the model representation has no
+	 *         matching prototype.
+	 */
+	private Result<BDDSolver> getPrototype(ModelRepresentation rep, CNF cnf) {
+		final Result<CNF> representedCnf = rep.getResult(CNFProvider.fromFormula());
+		if (representedCnf.isEmpty() || (representedCnf.get() != cnf)) {
+			return null;
+		}
+		final Result<Optional<BDDSolver>> prototype = rep.getResult(new PrototypeProvider(nodeLimit, timeout));
+		if (prototype.isEmpty() || !prototype.get().isPresent()) {
+			return Result.empty();
+		}
+		return Result.of(prototype.get().get());
+	}
+
+	/**
+	 * Builds the prototype for the CNF of a model representation. A failed build
+	 * (i.e., exceeding the node limit or the timeout) results in an empty
+	 * optional, such that the model representation remembers the failure for the
+	 * given limits and does not repeat the build.
+	 */
+	private static final class PrototypeProvider implements Provider<Optional<BDDSolver>> {
+
+		private static final Identifier<Optional<BDDSolver>> identifier = new Identifier<>();
+
+		private final int nodeLimit;
+		private final long timeout;
+
+		private PrototypeProvider(int nodeLimit, long timeout) {
+			this.nodeLimit = nodeLimit;
+			this.timeout = timeout;
+		}
+
+		@Override
+		public Identifier<Optional<BDDSolver>> getIdentifier() {
+			return identifier;
+		}
+
+		@Override
+		public Object getParameters() {
+			return Arrays.asList(nodeLimit, timeout);
+		}
+
+		@Override
+		public Result<Optional<BDDSolver>> apply(Cache c, InternalMonitor m) {
+			final Result<BDDSolver> prototype;
+			try {
+				prototype = c.get(BDDProvider.fromCNF(nodeLimit, timeout), m);
+			} catch (final BDDNodeLimitException | RuntimeTimeoutException e) {
+				return Result.of(Optional.empty());
+			}
+			return prototype.isEmpty() ? Result.empty() : Result.of(Optional.of(prototype.get()));
+		}
+	}
+
+}
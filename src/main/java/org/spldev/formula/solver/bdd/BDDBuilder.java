@@ -0,0 +1,66 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.util.job.*;
+
+/**
+ * Builds a {@link BDDSolver} for a {@link CNF}. The solver can be used as a
+ * prototype that is {@link BDDSolver#clone() cloned} for each use, such that
+ * the BDD is only built once.
+ *
+ * @author Sebastian Krieter
+ *
+ * @see BDDProvider
+ */
+public class BDDBuilder implements MonitorableFunction<CNF, BDDSolver> {
+
+	private final int nodeLimit;
+	private final long timeout;
+
+	public BDDBuilder() {
+		this(BDD.DEFAULT_NODE_LIMIT, 0);
+	}
+
+	/**
+	 * @param nodeLimit the maximum number of nodes of the BDD
+	 * @param timeout   the maximum time in milliseconds for building the BDD or
+	 *                  {@code 0} for no timeout
+	 */
+	public BDDBuilder(int nodeLimit, long timeout) {
+		this.nodeLimit = nodeLimit;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @throws BDDNodeLimitException  if the BDD exceeds the node limit
+	 * @throws RuntimeTimeoutException if building the BDD exceeds the timeout
+	 */
+	@Override
+	public BDDSolver execute(CNF cnf, InternalMonitor monitor) {
+		return new BDDSolver(cnf, nodeLimit, timeout);
+	}
+
+}
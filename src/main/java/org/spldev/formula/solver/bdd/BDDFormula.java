@@ -0,0 +1,129 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.solver.*;
+
+/**
+ * Modifiable formula for a {@link BDDSolver}. For each pushed clause, the
+ * formula stores the conjunction of the solver's BDD with all clauses up to
+ * this clause. Thus, popping a clause only releases the last conjunction,
+ * while removing any other clause rebuilds all subsequent conjunctions.
+ *
+ * @author Sebastian Krieter
+ */
+public class BDDFormula extends AbstractDynamicFormula<LiteralList> implements ClauseFormula<LiteralList> {
+
+	private final BDDSolver bddSolver;
+	private final ArrayList<Integer> roots;
+
+	public BDDFormula(BDDSolver solver) {
+		super(solver.getVariables());
+		bddSolver = solver;
+		roots = new ArrayList<>();
+	}
+
+	protected BDDFormula(BDDSolver solver, BDDFormula oldFormula) {
+		super(oldFormula);
+		bddSolver = solver;
+		roots = new ArrayList<>(oldFormula.roots);
+	}
+
+	@Override
+	public List<LiteralList> getClauses() {
+		return Collections.unmodifiableList(constraints);
+	}
+
+	/**
+	 * @return The root node of the conjunction of the solver's BDD and all
+	 *         currently pushed clauses.
+	 */
+	public int getRoot() {
+		return roots.isEmpty() ? bddSolver.getBaseRoot() : roots.get(roots.size() - 1);
+	}
+
+	@Override
+	public List<LiteralList> push(Formula formula) throws RuntimeContradictionException {
+		return push(FormulaToCNF.convert(formula, variableMap).getClauses());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws BDDNodeLimitException if the resulting BDD exceeds the node limit
+	 */
+	@Override
+	public List<LiteralList> push(List<? extends LiteralList> clauses) {
+		final ArrayList<LiteralList> pushedClauses = new ArrayList<>(clauses.size());
+		try {
+			for (final LiteralList clause : clauses) {
+				pushedClauses.add(push(clause));
+			}
+		} catch (final BDDNodeLimitException e) {
+			pop(pushedClauses.size());
+			throw e;
+		}
+		return pushedClauses;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws BDDNodeLimitException if the resulting BDD exceeds the node limit
+	 */
+	@Override
+	public LiteralList push(LiteralList clause) {
+		roots.add(conjoin(getRoot(), clause));
+		constraints.add(clause);
+		bddSolver.clearSolutionHistory();
+		return clause;
+	}
+
+	private int conjoin(int root, LiteralList clause) {
+		final BDD bdd = bddSolver.getBdd();
+		final int clauseRoot = bdd.ref(bdd.clause(clause.getLiterals()));
+		try {
+			return bdd.ref(bdd.and(root, clauseRoot));
+		} finally {
+			bdd.deref(clauseRoot);
+		}
+	}
+
+	@Override
+	protected LiteralList removeConstraint(int index) {
+		final BDD bdd = bddSolver.getBdd();
+		for (int i = roots.size() - 1; i >= index; i--) {
+			bdd.deref(roots.remove(i));
+		}
+		final LiteralList clause = super.removeConstraint(index);
+		for (int i = index; i < constraints.size(); i++) {
+			roots.add(conjoin(getRoot(), constraints.get(i)));
+		}
+		return clause;
+	}
+
+}
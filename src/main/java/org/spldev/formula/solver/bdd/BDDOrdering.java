@@ -0,0 +1,152 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Computes variable orders for {@link BDD BDDs} from the structure of a
+ * {@link CNF}. The size of a BDD heavily depends on its variable order.
+ * Variables that occur together in clauses should be close to each other in
+ * the order.
+ *
+ * @author Sebastian Krieter
+ */
+public final class BDDOrdering {
+
+	public static final int DEFAULT_ITERATIONS = 20;
+
+	private BDDOrdering() {
+	}
+
+	/**
+	 * Computes a variable order with the FORCE heuristic. In each iteration, the
+	 * center of gravity of each clause is computed from the positions of its
+	 * variables and each variable is moved to the average center of gravity of
+	 * the clauses it occurs in. The order with the least total span of all
+	 * clauses is returned.
+	 *
+	 * @param numberOfVariables the number of variables
+	 * @param clauses           the clauses
+	 * @param iterations        the maximum number of iterations
+	 * @return The variable order, i.e., the variable of each level.
+	 */
+	public static int[] force(int numberOfVariables, List<? extends LiteralList> clauses, int iterations) {
+		final int[][] variables = new int[clauses.size()][];
+		int clauseIndex = 0;
+		for (final LiteralList clause : clauses) {
+			final int[] literals = clause.getLiterals();
+			final int[] clauseVariables = new int[literals.length];
+			int length = 0;
+			for (final int literal : literals) {
+				final int var = Math.abs(literal);
+				if ((var > 0) && (var <= numberOfVariables)) {
+					clauseVariables[length++] = var;
+				}
+			}
+			variables[clauseIndex++] = Arrays.copyOf(clauseVariables, length);
+		}
+
+		final int[] order = new int[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			order[i] = i + 1;
+		}
+		final int[] positions = new int[numberOfVariables + 1];
+		setPositions(order, positions);
+		int[] bestOrder = Arrays.copyOf(order, numberOfVariables);
+		long bestSpan = getSpan(variables, positions);
+
+		final double[] gravitySums = new double[numberOfVariables + 1];
+		final int[] gravityCounts = new int[numberOfVariables + 1];
+		final double[] newPositions = new double[numberOfVariables + 1];
+		final Integer[] sortedVariables = new Integer[numberOfVariables];
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			Arrays.fill(gravitySums, 0);
+			Arrays.fill(gravityCounts, 0);
+			for (final int[] clauseVariables : variables) {
+				if (clauseVariables.length > 1) {
+					double gravity = 0;
+					for (final int var : clauseVariables) {
+						gravity += positions[var];
+					}
+					gravity /= clauseVariables.length;
+					for (final int var : clauseVariables) {
+						gravitySums[var] += gravity;
+						gravityCounts[var]++;
+					}
+				}
+			}
+			for (int var = 1; var <= numberOfVariables; var++) {
+				newPositions[var] = gravityCounts[var] > 0 ? gravitySums[var] / gravityCounts[var] : positions[var];
+				sortedVariables[var - 1] = var;
+			}
+			// ties are broken by the previous position
+			Arrays.sort(sortedVariables, (a, b) -> {
+				final int comparison = Double.compare(newPositions[a], newPositions[b]);
+				return comparison != 0 ? comparison : Integer.compare(positions[a], positions[b]);
+			});
+			for (int i = 0; i < numberOfVariables; i++) {
+				order[i] = sortedVariables[i];
+			}
+			setPositions(order, positions);
+
+			final long span = getSpan(variables, positions);
+			if (span < bestSpan) {
+				bestSpan = span;
+				bestOrder = Arrays.copyOf(order, numberOfVariables);
+			} else {
+				break;
+			}
+		}
+		return bestOrder;
+	}
+
+	public static int[] force(CNF cnf) {
+		return force(cnf.getVariableMap().getMaxIndex(), cnf.getClauses(), DEFAULT_ITERATIONS);
+	}
+
+	private static void setPositions(int[] order, int[] positions) {
+		for (int i = 0; i < order.length; i++) {
+			positions[order[i]] = i;
+		}
+	}
+
+	private static long getSpan(int[][] variables, int[] positions) {
+		long span = 0;
+		for (final int[] clauseVariables : variables) {
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (final int var : clauseVariables) {
+				min = Math.min(min, positions[var]);
+				max = Math.max(max, positions[var]);
+			}
+			if (clauseVariables.length > 0) {
+				span += max - min;
+			}
+		}
+		return span;
+	}
+
+}
@@ -0,0 +1,88 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.util.data.*;
+import org.spldev.util.job.*;
+
+/**
+ * Abstract creator to derive a {@link BDDSolver} from a {@link Cache}. The
+ * derived solver holds the BDD of the CNF and should only be used as a
+ * prototype, i.e., queries should be answered by its
+ * {@link BDDSolver#clone() clones}.
+ *
+ * @author Sebastian Krieter
+ */
+@FunctionalInterface
+public interface BDDProvider extends Provider<BDDSolver> {
+
+	Identifier<BDDSolver> identifier = new Identifier<>();
+
+	@Override
+	default Identifier<BDDSolver> getIdentifier() {
+		return identifier;
+	}
+
+	static BDDProvider empty() {
+		return (c, m) -> Result.empty();
+	}
+
+	static BDDProvider of(BDDSolver solver) {
+		return (c, m) -> Result.of(solver);
+	}
+
+	static BDDProvider fromFormula() {
+		return (c, m) -> Provider.convert(c, CNFProvider.identifier, new BDDBuilder(), m);
+	}
+
+	static BDDProvider fromCNF() {
+		return (c, m) -> Provider.convert(c, CNFProvider.fromFormula(), new BDDBuilder(), m);
+	}
+
+	/**
+	 * Creates a provider that builds the BDD with the given limits. The limits are
+	 * the {@link #getParameters() parameters} of the provider, such that solvers
+	 * for different limits are cached separately.
+	 *
+	 * @param nodeLimit the maximum number of nodes
+	 * @param timeout   the timeout in milliseconds or {@code 0} for no timeout
+	 * @return A new provider.
+	 */
+	static BDDProvider fromCNF(int nodeLimit, long timeout) {
+		return new BDDProvider() {
+			@Override
+			public Object getParameters() {
+				return Arrays.asList(nodeLimit, timeout);
+			}
+
+			@Override
+			public Result<BDDSolver> apply(Cache c, InternalMonitor m) {
+				return Provider.convert(c, CNFProvider.fromFormula(), new BDDBuilder(nodeLimit, timeout), m);
+			}
+		};
+	}
+
+}
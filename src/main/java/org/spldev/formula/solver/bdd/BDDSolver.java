@@ -0,0 +1,382 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.bdd;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sat4j.*;
+
+/**
+ * Solver that compiles a {@link CNF} into a {@link BDD}. Once the BDD is
+ * built, satisfiability checks, solutions, and the number of solutions under
+ * the current {@link #getAssumptions() assumptions} require only a single
+ * pass over the BDD's nodes. Clauses pushed to the
+ * {@link #getDynamicFormula() dynamic formula} are conjoined with the BDD.<br>
+ * <br>
+ * The size of the BDD may grow exponentially with the number of variables.
+ * Thus, the solver is only suitable for small and medium formulas. If the BDD
+ * exceeds its node limit, a {@link BDDNodeLimitException} is thrown, which is
+ * handled by the {@link BDDBackend}.<br>
+ * <br>
+ * Queries on the BDD cannot be interrupted and do not consider the timeout.
+ *
+ * @author Sebastian Krieter
+ */
+public class BDDSolver implements LiteralSolver, SharpSatSolver {
+
+	protected final CNF cnf;
+	protected final BDD bdd;
+	protected final int root;
+	protected final Sat4JAssumptions assumptions;
+	protected final BDDFormula formula;
+
+	protected SolutionHistory solutionHistory = null;
+	protected int[] lastModel = null;
+	private int[] lastAssignment = null;
+	private Random random = null;
+	private int timeout = 1_000_000;
+
+	private volatile boolean cancelled = false;
+
+	private SolverStatisticsSink statisticsSink = null;
+	private Object statisticsScope = null;
+	private boolean historyHit = false;
+
+	public BDDSolver(CNF cnf) {
+		this(cnf, BDD.DEFAULT_NODE_LIMIT);
+	}
+
+	/**
+	 * Builds the BDD of the given formula.
+	 *
+	 * @param cnf       the formula
+	 * @param nodeLimit the maximum number of nodes of the BDD
+	 * @throws BDDNodeLimitException if the BDD exceeds the node limit
+	 */
+	public BDDSolver(CNF cnf, int nodeLimit) {
+		this(cnf, nodeLimit, 0);
+	}
+
+	/**
+	 * Builds the BDD of the given formula within the given time.
+	 *
+	 * @param cnf       the formula
+	 * @param nodeLimit the maximum number of nodes of the BDD
+	 * @param timeout   the maximum time in milliseconds for building the BDD or
+	 *                  {@code 0} for no timeout
+	 * @throws BDDNodeLimitException  if the BDD exceeds the node limit
+	 * @throws RuntimeTimeoutException if building the BDD exceeds the timeout
+	 */
+	public BDDSolver(CNF cnf, int nodeLimit, long timeout) {
+		this.cnf = cnf;
+		bdd = new BDD(BDDOrdering.force(cnf), nodeLimit);
+		if (timeout > 0) {
+			bdd.setDeadline(System.nanoTime() + (timeout * 1_000_000L));
+		}
+		root = build(bdd, cnf.getClauses());
+		bdd.setDeadline(Long.MAX_VALUE);
+		assumptions = new Sat4JAssumptions(cnf.getVariableMap());
+		formula = new BDDFormula(this);
+	}
+
+	protected BDDSolver(BDDSolver oldSolver) {
+		cnf = oldSolver.cnf;
+		bdd = oldSolver.bdd.copy();
+		root = oldSolver.root;
+		assumptions = new Sat4JAssumptions(cnf.getVariableMap());
+		assumptions.pushAll(oldSolver.assumptions.asArray());
+		formula = new BDDFormula(this, oldSolver.formula);
+		timeout = oldSolver.timeout;
+		if (oldSolver.solutionHistory != null) {
+			rememberSolutionHistory(oldSolver.solutionHistory.getCapacity());
+		}
+		if (oldSolver.random != null) {
+			random = new Random(oldSolver.random.nextLong());
+		}
+		statisticsSink = oldSolver.statisticsSink;
+		statisticsScope = oldSolver.statisticsScope;
+	}
+
+	/**
+	 * Conjoins all clauses in a balanced binary tree. Clauses are sorted by the
+	 * level of their topmost variable beforehand, such that clauses over nearby
+	 * variables are conjoined first.
+	 *
+	 * @return The referenced root of the conjunction.
+	 */
+	private static int build(BDD bdd, List<LiteralList> clauses) {
+		final int[] order = bdd.getOrder();
+		final int[] levels = new int[bdd.getNumberOfVariables() + 1];
+		for (int level = 0; level < order.length; level++) {
+			levels[order[level]] = level;
+		}
+		final ArrayList<LiteralList> sortedClauses = new ArrayList<>(clauses);
+		sortedClauses.sort(Comparator.comparingInt(clause -> {
+			int topLevel = Integer.MAX_VALUE;
+			for (final int literal : clause.getLiterals()) {
+				if (literal != 0) {
+					topLevel = Math.min(topLevel, levels[Math.abs(literal)]);
+				}
+			}
+			return -topLevel;
+		}));
+
+		int[] nodes = new int[sortedClauses.size()];
+		int size = 0;
+		for (final LiteralList clause : sortedClauses) {
+			final int node = bdd.ref(bdd.clause(clause.getLiterals()));
+			if (node == BDD.FALSE) {
+				return BDD.FALSE;
+			}
+			nodes[size++] = node;
+		}
+		if (size == 0) {
+			return BDD.TRUE;
+		}
+		while (size > 1) {
+			final int[] nextNodes = new int[(size + 1) >>> 1];
+			int nextSize = 0;
+			for (int i = 0; i < size; i += 2) {
+				if ((i + 1) < size) {
+					final int node = bdd.ref(bdd.and(nodes[i], nodes[i + 1]));
+					bdd.deref(nodes[i]);
+					bdd.deref(nodes[i + 1]);
+					if (node == BDD.FALSE) {
+						return BDD.FALSE;
+					}
+					nextNodes[nextSize++] = node;
+				} else {
+					nextNodes[nextSize++] = nodes[i];
+				}
+			}
+			nodes = nextNodes;
+			size = nextSize;
+		}
+		return nodes[0];
+	}
+
+	@Override
+	public BDDSolver clone() {
+		return new BDDSolver(this);
+	}
+
+	@Override
+	public CNF getCnf() {
+		return cnf;
+	}
+
+	@Override
+	public Sat4JAssumptions getAssumptions() {
+		return assumptions;
+	}
+
+	@Override
+	public BDDFormula getDynamicFormula() {
+		return formula;
+	}
+
+	@Override
+	public VariableMap getVariables() {
+		return cnf.getVariableMap();
+	}
+
+	public BDD getBdd() {
+		return bdd;
+	}
+
+	/**
+	 * @return The root node of the BDD of the {@link CNF} without any pushed
+	 *         clauses.
+	 */
+	public int getBaseRoot() {
+		return root;
+	}
+
+	@Override
+	public SatResult hasSolution() {
+		return hasSolution(assumptions.asArray());
+	}
+
+	@Override
+	public SatResult hasSolution(int... assignment) {
+		if (statisticsSink == null) {
+			return solve(assignment);
+		}
+		final long startTime = System.nanoTime();
+		final SatResult result = solve(assignment);
+		statisticsSink.record(statisticsScope, result, historyHit, System.nanoTime() - startTime, 0, 0, 0);
+		return result;
+	}
+
+	private SatResult solve(int[] assignment) {
+		historyHit = false;
+		if (cancelled) {
+			lastModel = null;
+			return SatResult.TIMEOUT;
+		}
+
+		if (solutionHistory != null) {
+			final LiteralList solution = solutionHistory.getSolution(assignment);
+			if (solution != null) {
+				lastModel = solution.getLiterals();
+				historyHit = true;
+				return SatResult.TRUE;
+			}
+		}
+
+		final int[] model = bdd.getSolution(formula.getRoot(), assignment, random);
+		if (model != null) {
+			lastModel = model;
+			lastAssignment = null;
+			if (solutionHistory != null) {
+				solutionHistory.add(new LiteralList(lastModel, Order.INDEX, false));
+			}
+			return SatResult.TRUE;
+		} else {
+			lastModel = null;
+			lastAssignment = Arrays.copyOf(assignment, assignment.length);
+			return SatResult.FALSE;
+		}
+	}
+
+	@Override
+	public LiteralList getSolution() {
+		return new LiteralList(Arrays.copyOf(lastModel, lastModel.length), Order.INDEX, false);
+	}
+
+	@Override
+	public int[] getInternalSolution() {
+		return lastModel;
+	}
+
+	/**
+	 * Computes a minimal subset of the assignment of the last unsatisfiable
+	 * check by removing each literal that is not required for the contradiction.
+	 */
+	@Override
+	public int[] getContradictoryAssignment() {
+		if (lastAssignment == null) {
+			return new int[0];
+		}
+		final int rootNode = formula.getRoot();
+		int[] core = lastAssignment;
+		for (int i = core.length - 1; i >= 0; i--) {
+			final int[] reducedCore = new int[core.length - 1];
+			System.arraycopy(core, 0, reducedCore, 0, i);
+			System.arraycopy(core, i + 1, reducedCore, i, core.length - i - 1);
+			if (!bdd.hasSolution(rootNode, reducedCore)) {
+				core = reducedCore;
+			}
+		}
+		return core;
+	}
+
+	/**
+	 * Counts the solutions of the BDD under the current assumptions.
+	 *
+	 * @return The number of solutions or {@code null}, if the solver is
+	 *         cancelled.
+	 */
+	@Override
+	public BigInteger countSolutions() {
+		return cancelled ? null : bdd.countSolutions(formula.getRoot(), assumptions.asArray());
+	}
+
+	@Override
+	public List<LiteralList> rememberSolutionHistory(int numberOfSolutions) {
+		if (numberOfSolutions > 0) {
+			solutionHistory = new SolutionHistory(cnf.getVariableMap().getMaxIndex(), numberOfSolutions);
+		} else {
+			solutionHistory = null;
+		}
+		return getSolutionHistory();
+	}
+
+	@Override
+	public List<LiteralList> getSolutionHistory() {
+		return solutionHistory != null ? solutionHistory.getSolutions() : Collections.emptyList();
+	}
+
+	@Override
+	public LiteralList getSolutionFromHistory(int... literals) {
+		return solutionHistory != null ? solutionHistory.getSolution(literals) : null;
+	}
+
+	void clearSolutionHistory() {
+		if (solutionHistory != null) {
+			solutionHistory.clear();
+			lastModel = null;
+		}
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
+	@Override
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Randomizes the values of variables that are not determined by the BDD and
+	 * the assumptions within subsequently found solutions.
+	 *
+	 * @param random the random generator
+	 */
+	@Override
+	public void shuffleOrder(Random random) {
+		this.random = random;
+	}
+
+	@Override
+	public void setStatisticsSink(SolverStatisticsSink sink, Object scope) {
+		statisticsSink = sink;
+		statisticsScope = scope;
+	}
+
+	@Override
+	public SolverStatisticsSink getStatisticsSink() {
+		return statisticsSink;
+	}
+
+	@Override
+	public Object getStatisticsScope() {
+		return statisticsScope;
+	}
+
+	@Override
+	public void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+}
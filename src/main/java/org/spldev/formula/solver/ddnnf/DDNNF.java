@@ -0,0 +1,353 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.ddnnf;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.expression.atomic.literal.*;
+
+/**
+ * Smooth formula in deterministic decomposable negation normal form (d-DNNF).
+ * The nodes are stored in int arrays in topological order, such that the
+ * children of a node always precede the node. The last node is the root.<br>
+ * <br>
+ * Each node is either a literal, a conjunction ({@link #AND}), or a disjunction
+ * ({@link #OR}). The children of a conjunction share no variables and the
+ * children of a disjunction are mutually exclusive. Additionally, all children
+ * of a disjunction contain the same variables and the root contains all
+ * variables. Thus, counting, conditioning, and sampling only require a single
+ * pass over the nodes.<br>
+ * <br>
+ * All queries accept a partial assignment, which conditions the formula on the
+ * given literals.
+ *
+ * @author Sebastian Krieter
+ *
+ * @see DDNNFCompiler
+ */
+public class DDNNF {
+
+	public static final byte LITERAL = 0;
+	public static final byte AND = 1;
+	public static final byte OR = 2;
+
+	private final VariableMap variables;
+	private final byte[] types;
+	private final int[] offsets;
+	private final int[] data;
+
+	/**
+	 * Creates a new d-DNNF from the given arrays. The arrays are not copied.
+	 *
+	 * @param variables the variables
+	 * @param types     the type of each node
+	 * @param offsets   the start of each node in {@code data}, followed by the
+	 *                  length of {@code data}
+	 * @param data      the literal of each literal node and the children of each
+	 *                  conjunction and disjunction
+	 */
+	public DDNNF(VariableMap variables, byte[] types, int[] offsets, int[] data) {
+		if ((types.length == 0) || (offsets.length != (types.length + 1))) {
+			throw new IllegalArgumentException();
+		}
+		this.variables = variables;
+		this.types = types;
+		this.offsets = offsets;
+		this.data = data;
+	}
+
+	public VariableMap getVariables() {
+		return variables;
+	}
+
+	public int getNumberOfVariables() {
+		return variables.getMaxIndex();
+	}
+
+	public int getNodeCount() {
+		return types.length;
+	}
+
+	public int getEdgeCount() {
+		int edgeCount = 0;
+		for (int i = 0; i < types.length; i++) {
+			if (types[i] != LITERAL) {
+				edgeCount += offsets[i + 1] - offsets[i];
+			}
+		}
+		return edgeCount;
+	}
+
+	public int getRoot() {
+		return types.length - 1;
+	}
+
+	/**
+	 * Returns the type of each node. The returned array <b>must not be
+	 * modified</b>.
+	 *
+	 * @return The node types.
+	 */
+	public byte[] getTypes() {
+		return types;
+	}
+
+	/**
+	 * Returns the start of each node in {@link #getData() data}. The returned
+	 * array <b>must not be modified</b>.
+	 *
+	 * @return The node offsets.
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * Returns the literals of literal nodes and the children of all other nodes.
+	 * The returned array <b>must not be modified</b>.
+	 *
+	 * @return The node data.
+	 */
+	public int[] getData() {
+		return data;
+	}
+
+	public BigInteger countSolutions() {
+		return countSolutions(new LiteralList());
+	}
+
+	/**
+	 * Counts the solutions that contain all literals of the given assignment.
+	 *
+	 * @param assignment the assignment
+	 * @return The number of solutions.
+	 */
+	public BigInteger countSolutions(LiteralList assignment) {
+		return computeCounts(assignment)[getRoot()];
+	}
+
+	/**
+	 * Computes the number of solutions of each node that contain all literals of
+	 * the given assignment. The result can be used for {@link #sample(BigInteger[],
+	 * Random) sampling}.
+	 *
+	 * @param assignment the assignment
+	 * @return The number of solutions of each node.
+	 */
+	public BigInteger[] computeCounts(LiteralList assignment) {
+		final int[] values = getValues(assignment);
+		final BigInteger[] counts = new BigInteger[types.length];
+		for (int i = 0; i < types.length; i++) {
+			switch (types[i]) {
+			case LITERAL:
+				counts[i] = isExcluded(data[offsets[i]], values) ? BigInteger.ZERO : BigInteger.ONE;
+				break;
+			case AND: {
+				BigInteger count = BigInteger.ONE;
+				for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+					count = count.multiply(counts[data[j]]);
+					if (count.signum() == 0) {
+						break;
+					}
+				}
+				counts[i] = count;
+				break;
+			}
+			case OR: {
+				BigInteger count = BigInteger.ZERO;
+				for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+					count = count.add(counts[data[j]]);
+				}
+				counts[i] = count;
+				break;
+			}
+			default:
+				throw new IllegalStateException(String.valueOf(types[i]));
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Computes for each variable the number of solutions in which it is selected
+	 * and that contain all literals of the given assignment. The number of
+	 * solutions in which a variable {@code v} is deselected is the
+	 * {@link #countSolutions(LiteralList) number of solutions} minus the value at
+	 * index {@code v}.
+	 *
+	 * @param assignment the assignment
+	 * @return An array containing the number of solutions for each variable
+	 *         index. Index {@code 0} is unused.
+	 */
+	public BigInteger[] getCommonality(LiteralList assignment) {
+		final int[] values = getValues(assignment);
+		final BigInteger[] counts = computeCounts(assignment);
+		final BigInteger[] derivatives = new BigInteger[types.length];
+		Arrays.fill(derivatives, BigInteger.ZERO);
+		derivatives[getRoot()] = BigInteger.ONE;
+
+		final BigInteger[] commonality = new BigInteger[getNumberOfVariables() + 1];
+		Arrays.fill(commonality, BigInteger.ZERO);
+		for (int i = types.length - 1; i >= 0; i--) {
+			final BigInteger derivative = derivatives[i];
+			if (derivative.signum() == 0) {
+				continue;
+			}
+			switch (types[i]) {
+			case LITERAL: {
+				final int literal = data[offsets[i]];
+				if ((literal > 0) && !isExcluded(literal, values)) {
+					commonality[literal] = commonality[literal].add(derivative);
+				}
+				break;
+			}
+			case AND: {
+				// the derivative of a child is the product of all other children
+				final int start = offsets[i];
+				final int end = offsets[i + 1];
+				final BigInteger[] suffixProducts = new BigInteger[(end - start) + 1];
+				suffixProducts[end - start] = derivative;
+				for (int j = end - 1; j >= start; j--) {
+					suffixProducts[j - start] = suffixProducts[(j - start) + 1].multiply(counts[data[j]]);
+				}
+				BigInteger prefixProduct = BigInteger.ONE;
+				for (int j = start; j < end; j++) {
+					final int child = data[j];
+					derivatives[child] = derivatives[child].add(prefixProduct.multiply(suffixProducts[(j - start)
+						+ 1]));
+					prefixProduct = prefixProduct.multiply(counts[child]);
+				}
+				break;
+			}
+			case OR:
+				for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+					final int child = data[j];
+					derivatives[child] = derivatives[child].add(derivative);
+				}
+				break;
+			default:
+				throw new IllegalStateException(String.valueOf(types[i]));
+			}
+		}
+		return commonality;
+	}
+
+	/**
+	 * Draws a solution uniformly at random from all solutions that contain all
+	 * literals of the given assignment.
+	 *
+	 * @param assignment the assignment
+	 * @param random     the random generator
+	 * @return A solution or {@code null}, if there is no solution.
+	 */
+	public LiteralList sample(LiteralList assignment, Random random) {
+		return sample(computeCounts(assignment), random);
+	}
+
+	/**
+	 * Draws a solution uniformly at random using the given node counts. Drawing
+	 * multiple solutions with the same counts avoids recomputing them for each
+	 * solution.
+	 *
+	 * @param counts the node counts computed by
+	 *               {@link #computeCounts(LiteralList)}
+	 * @param random the random generator
+	 * @return A solution or {@code null}, if there is no solution.
+	 */
+	public LiteralList sample(BigInteger[] counts, Random random) {
+		final int root = getRoot();
+		if (counts[root].signum() == 0) {
+			return null;
+		}
+		final int[] solution = new int[getNumberOfVariables()];
+		final int[] stack = new int[types.length];
+		int stackSize = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			final int node = stack[--stackSize];
+			switch (types[node]) {
+			case LITERAL: {
+				final int literal = data[offsets[node]];
+				solution[Math.abs(literal) - 1] = literal;
+				break;
+			}
+			case AND:
+				for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+					stack[stackSize++] = data[j];
+				}
+				break;
+			case OR: {
+				BigInteger remaining = nextBigInteger(random, counts[node]);
+				for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+					final int child = data[j];
+					remaining = remaining.subtract(counts[child]);
+					if (remaining.signum() < 0) {
+						stack[stackSize++] = child;
+						break;
+					}
+				}
+				break;
+			}
+			default:
+				throw new IllegalStateException(String.valueOf(types[node]));
+			}
+		}
+		return new LiteralList(solution, Order.INDEX, false);
+	}
+
+	/**
+	 * @return A uniformly distributed random number between {@code 0}
+	 *         (inclusive) and {@code bound} (exclusive).
+	 */
+	private static BigInteger nextBigInteger(Random random, BigInteger bound) {
+		if (bound.bitLength() < 31) {
+			// avoids the low-order bits of the generator, which are less random
+			return BigInteger.valueOf(random.nextInt(bound.intValue()));
+		}
+		BigInteger value;
+		do {
+			value = new BigInteger(bound.bitLength(), random);
+		} while (value.compareTo(bound) >= 0);
+		return value;
+	}
+
+	private int[] getValues(LiteralList assignment) {
+		final int[] values = new int[getNumberOfVariables() + 1];
+		for (final int literal : assignment.getLiterals()) {
+			final int var = Math.abs(literal);
+			if ((var > 0) && (var < values.length)) {
+				values[var] = literal;
+			}
+		}
+		return values;
+	}
+
+	private static boolean isExcluded(int literal, int[] values) {
+		final int value = values[Math.abs(literal)];
+		return (value != 0) && (value != literal);
+	}
+
+}
@@ -0,0 +1,483 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.ddnnf;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.bcp.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compiles a {@link CNF} into a {@link DDNNF} by top-down search. The search
+ * follows the same scheme as an exact model counter. After each decision, all
+ * implied literals are assigned by {@link UnitPropagation} and the remaining
+ * variables are partitioned into components that are compiled independently.
+ * A decision on a variable yields a disjunction of two conjunctions, one for
+ * each phase. Compiled components are cached and shared within the result.<br>
+ * <br>
+ * Variables that do not occur in any unsatisfied clause are represented by a
+ * disjunction of both of their literals, such that the result is smooth.
+ *
+ * @author Sebastian Krieter
+ */
+public class DDNNFCompiler implements MonitorableFunction<CNF, DDNNF> {
+
+	/**
+	 * Default stack size of the thread used for compilation. The recursion depth
+	 * is bounded by the number of variables.
+	 */
+	public static final long DEFAULT_STACK_SIZE = 512L << 20;
+
+	private static final int FALSE = -1;
+
+	private static final class Component {
+		private final int[] variables;
+		private final int[] clauses;
+
+		private Component(int[] variables, int[] clauses) {
+			this.variables = variables;
+			this.clauses = clauses;
+		}
+
+		private Signature getSignature() {
+			final int[] signature = new int[1 + variables.length + clauses.length];
+			signature[0] = variables.length;
+			System.arraycopy(variables, 0, signature, 1, variables.length);
+			System.arraycopy(clauses, 0, signature, 1 + variables.length, clauses.length);
+			return new Signature(signature);
+		}
+	}
+
+	private static final class Signature {
+		private final int[] signature;
+		private final int hashCode;
+
+		private Signature(int[] signature) {
+			this.signature = signature;
+			hashCode = Arrays.hashCode(signature);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			return (hashCode == ((Signature) obj).hashCode) && Arrays.equals(signature, ((Signature) obj).signature);
+		}
+	}
+
+	private long stackSize = DEFAULT_STACK_SIZE;
+
+	private int numberOfVariables;
+	private int[][] clauses;
+	private int[][] occurrences;
+	private UnitPropagation propagation;
+	private InternalMonitor monitor;
+
+	private int[] variableStamps;
+	private int[] clauseStamps;
+	private int[] queue;
+	private int[] scores;
+	private int stamp;
+
+	private HashMap<Signature, Integer> cache;
+	private int[] literalNodes;
+	private int[] freeNodes;
+
+	private byte[] types;
+	private int[] offsets;
+	private int[] data;
+	private int nodeCount;
+	private int dataLength;
+
+	public long getStackSize() {
+		return stackSize;
+	}
+
+	/**
+	 * Sets the stack size of the thread used for compilation. A value of
+	 * {@code 0} compiles within the calling thread.
+	 *
+	 * @param stackSize the stack size in bytes
+	 */
+	public void setStackSize(long stackSize) {
+		this.stackSize = stackSize;
+	}
+
+	@Override
+	public DDNNF execute(CNF cnf, InternalMonitor monitor) throws Exception {
+		return compile(cnf, cnf.getClauses(), monitor);
+	}
+
+	/**
+	 * Compiles the given clauses over the variables of the given CNF.
+	 *
+	 * @param cnf     the CNF that defines the variables
+	 * @param clauses the clauses
+	 * @param monitor the monitor
+	 * @return The compiled d-DNNF.
+	 */
+	public DDNNF compile(CNF cnf, List<LiteralList> clauses, InternalMonitor monitor) throws Exception {
+		if (stackSize <= 0) {
+			return compileClauses(cnf, clauses, monitor);
+		}
+		final DDNNF[] result = new DDNNF[1];
+		final Throwable[] exception = new Throwable[1];
+		final Thread thread = new Thread(null, () -> {
+			try {
+				result[0] = compileClauses(cnf, clauses, monitor);
+			} catch (final Throwable e) {
+				exception[0] = e;
+			}
+		}, "DDNNFCompiler", stackSize);
+		thread.start();
+		thread.join();
+		if (exception[0] instanceof Exception) {
+			throw (Exception) exception[0];
+		} else if (exception[0] instanceof Error) {
+			throw (Error) exception[0];
+		}
+		return result[0];
+	}
+
+	private DDNNF compileClauses(CNF cnf, List<LiteralList> clauses, InternalMonitor monitor) {
+		this.monitor = monitor;
+		init(cnf.getVariableMap().getMaxIndex(), clauses);
+		try {
+			int root = FALSE;
+			if (!propagation.isContradiction()) {
+				final int[] variables = new int[numberOfVariables];
+				for (int var = 1; var <= numberOfVariables; var++) {
+					variables[var - 1] = var;
+				}
+				root = compileBranch(0, variables);
+			}
+			if (root == FALSE) {
+				root = addNode(DDNNF.OR, new int[0], 0);
+			} else if (root != (nodeCount - 1)) {
+				// ensures that the root is the last node
+				root = addNode(DDNNF.AND, new int[] { root }, 1);
+			}
+			return new DDNNF(cnf.getVariableMap(), Arrays.copyOf(types, nodeCount), Arrays.copyOf(offsets,
+				nodeCount + 1), Arrays.copyOf(data, dataLength));
+		} finally {
+			release();
+		}
+	}
+
+	private void init(int numberOfVariables, List<LiteralList> clauses) {
+		propagation = new UnitPropagation(numberOfVariables, clauses);
+		this.numberOfVariables = propagation.getNumberOfVariables();
+
+		final ArrayList<int[]> clauseList = new ArrayList<>(clauses.size());
+		for (final LiteralList clause : clauses) {
+			final int[] literals = removeDuplicates(clause.getLiterals());
+			if ((literals != null) && (literals.length > 0)) {
+				clauseList.add(literals);
+			}
+		}
+		this.clauses = clauseList.toArray(new int[0][]);
+
+		final int[] counts = new int[this.numberOfVariables + 1];
+		for (final int[] clause : this.clauses) {
+			for (final int literal : clause) {
+				counts[Math.abs(literal)]++;
+			}
+		}
+		occurrences = new int[counts.length][];
+		for (int var = 0; var < counts.length; var++) {
+			occurrences[var] = new int[counts[var]];
+			counts[var] = 0;
+		}
+		for (int c = 0; c < this.clauses.length; c++) {
+			for (final int literal : this.clauses[c]) {
+				final int var = Math.abs(literal);
+				occurrences[var][counts[var]++] = c;
+			}
+		}
+
+		variableStamps = new int[this.numberOfVariables + 1];
+		clauseStamps = new int[this.clauses.length];
+		queue = new int[this.numberOfVariables];
+		scores = new int[this.numberOfVariables + 1];
+		stamp = 0;
+
+		cache = new HashMap<>();
+		literalNodes = new int[(this.numberOfVariables + 1) << 1];
+		freeNodes = new int[this.numberOfVariables + 1];
+		Arrays.fill(literalNodes, FALSE);
+		Arrays.fill(freeNodes, FALSE);
+
+		types = new byte[1024];
+		offsets = new int[1025];
+		data = new int[4096];
+		nodeCount = 0;
+		dataLength = 0;
+	}
+
+	private void release() {
+		clauses = null;
+		occurrences = null;
+		propagation = null;
+		monitor = null;
+		variableStamps = null;
+		clauseStamps = null;
+		queue = null;
+		scores = null;
+		cache = null;
+		literalNodes = null;
+		freeNodes = null;
+		types = null;
+		offsets = null;
+		data = null;
+	}
+
+	/**
+	 * @return A sorted copy of the literals without duplicates or {@code null}, if
+	 *         the literals contain a complementary pair.
+	 */
+	private static int[] removeDuplicates(int[] literals) {
+		final int[] sortedLiterals = Arrays.copyOf(literals, literals.length);
+		Arrays.sort(sortedLiterals);
+		int length = 0;
+		for (final int literal : sortedLiterals) {
+			if ((literal == 0) || ((length > 0) && (sortedLiterals[length - 1] == literal))) {
+				continue;
+			}
+			if ((literal > 0) && (Arrays.binarySearch(sortedLiterals, -literal) >= 0)) {
+				return null;
+			}
+			sortedLiterals[length++] = literal;
+		}
+		return Arrays.copyOf(sortedLiterals, length);
+	}
+
+	/**
+	 * Creates a conjunction of all literals assigned since the given trail
+	 * position and of all components formed by the unassigned variables of the
+	 * given array.
+	 */
+	private int compileBranch(int trailStart, int[] variables) {
+		final int trailSize = propagation.getTrailSize();
+		final List<Component> components = new ArrayList<>();
+		final List<Integer> freeVariables = new ArrayList<>();
+		findComponents(variables, components, freeVariables);
+
+		final int[] children = new int[(trailSize - trailStart) + freeVariables.size() + components.size()];
+		int childCount = 0;
+		for (int i = trailStart; i < trailSize; i++) {
+			children[childCount++] = getLiteralNode(propagation.getTrailLiteral(i));
+		}
+		for (final int var : freeVariables) {
+			children[childCount++] = getFreeNode(var);
+		}
+		for (final Component component : components) {
+			final int child = compileComponent(component);
+			if (child == FALSE) {
+				return FALSE;
+			}
+			children[childCount++] = child;
+		}
+		return childCount == 1 ? children[0] : addNode(DDNNF.AND, children, childCount);
+	}
+
+	private int compileComponent(Component component) {
+		monitor.checkCancel();
+		final Signature signature = component.getSignature();
+		final Integer cachedNode = cache.get(signature);
+		if (cachedNode != null) {
+			return cachedNode;
+		}
+
+		final int var = selectVariable(component);
+		final int[] children = new int[2];
+		int childCount = 0;
+		for (final int literal : new int[] { var, -var }) {
+			final int trailSize = propagation.getTrailSize();
+			try {
+				if (propagation.assign(literal)) {
+					final int child = compileBranch(trailSize, component.variables);
+					if (child != FALSE) {
+						children[childCount++] = child;
+					}
+				}
+			} finally {
+				propagation.backtrack(trailSize);
+			}
+		}
+		final int node = childCount == 0 ? FALSE
+			: childCount == 1 ? children[0] : addNode(DDNNF.OR, children, childCount);
+		cache.put(signature, node);
+		return node;
+	}
+
+	/**
+	 * Selects the variable with the most occurrences in the unsatisfied clauses
+	 * of the component.
+	 */
+	private int selectVariable(Component component) {
+		for (final int c : component.clauses) {
+			for (final int literal : clauses[c]) {
+				scores[Math.abs(literal)]++;
+			}
+		}
+		int selectedVariable = 0;
+		int maxScore = -1;
+		for (final int var : component.variables) {
+			if (scores[var] > maxScore) {
+				maxScore = scores[var];
+				selectedVariable = var;
+			}
+		}
+		for (final int c : component.clauses) {
+			for (final int literal : clauses[c]) {
+				scores[Math.abs(literal)] = 0;
+			}
+		}
+		return selectedVariable;
+	}
+
+	/**
+	 * Partitions the unassigned variables of the given array into components and
+	 * variables that do not occur in any unsatisfied clause.
+	 */
+	private void findComponents(int[] variables, List<Component> components, List<Integer> freeVariables) {
+		stamp++;
+		final IntList componentVariables = new IntList();
+		final IntList componentClauses = new IntList();
+		for (final int start : variables) {
+			if ((propagation.getValue(start) != 0) || (variableStamps[start] == stamp)) {
+				continue;
+			}
+			componentVariables.clear();
+			componentClauses.clear();
+			int queueHead = 0;
+			int queueTail = 0;
+			variableStamps[start] = stamp;
+			queue[queueTail++] = start;
+			while (queueHead < queueTail) {
+				final int var = queue[queueHead++];
+				componentVariables.add(var);
+				for (final int c : occurrences[var]) {
+					if (clauseStamps[c] == stamp) {
+						continue;
+					}
+					clauseStamps[c] = stamp;
+					if (isSatisfied(clauses[c])) {
+						continue;
+					}
+					componentClauses.add(c);
+					for (final int literal : clauses[c]) {
+						final int otherVar = Math.abs(literal);
+						if ((variableStamps[otherVar] != stamp) && (propagation.getValue(otherVar) == 0)) {
+							variableStamps[otherVar] = stamp;
+							queue[queueTail++] = otherVar;
+						}
+					}
+				}
+			}
+			if (componentClauses.size() == 0) {
+				freeVariables.add(start);
+			} else {
+				components.add(new Component(componentVariables.toSortedArray(), componentClauses.toSortedArray()));
+			}
+		}
+	}
+
+	private boolean isSatisfied(int[] clause) {
+		for (final int literal : clause) {
+			if (propagation.getValue(Math.abs(literal)) == literal) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getLiteralNode(int literal) {
+		final int index = (Math.abs(literal) << 1) + (literal > 0 ? 1 : 0);
+		if (literalNodes[index] == FALSE) {
+			literalNodes[index] = addNode(DDNNF.LITERAL, new int[] { literal }, 1);
+		}
+		return literalNodes[index];
+	}
+
+	private int getFreeNode(int var) {
+		if (freeNodes[var] == FALSE) {
+			freeNodes[var] = addNode(DDNNF.OR, new int[] { getLiteralNode(var), getLiteralNode(-var) }, 2);
+		}
+		return freeNodes[var];
+	}
+
+	private int addNode(byte type, int[] nodeData, int length) {
+		if (nodeCount == types.length) {
+			types = Arrays.copyOf(types, nodeCount << 1);
+			offsets = Arrays.copyOf(offsets, (nodeCount << 1) + 1);
+		}
+		if ((dataLength + length) > data.length) {
+			data = Arrays.copyOf(data, Math.max(dataLength + length, data.length << 1));
+		}
+		types[nodeCount] = type;
+		offsets[nodeCount] = dataLength;
+		System.arraycopy(nodeData, 0, data, dataLength, length);
+		dataLength += length;
+		offsets[nodeCount + 1] = dataLength;
+		return nodeCount++;
+	}
+
+	private static final class IntList {
+		private int[] elements = new int[16];
+		private int size = 0;
+
+		private void add(int element) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, size << 1);
+			}
+			elements[size++] = element;
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private int[] toSortedArray() {
+			final int[] array = Arrays.copyOf(elements, size);
+			Arrays.sort(array);
+			return array;
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.ddnnf;
+
+import java.nio.file.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.io.ddnnf.*;
+import org.spldev.util.data.*;
+import org.spldev.util.io.format.*;
+
+/**
+ * Abstract creator to derive a {@link DDNNF} from a {@link Cache}.
+ *
+ * @author Sebastian Krieter
+ */
+@FunctionalInterface
+public interface DDNNFProvider extends Provider<DDNNF> {
+
+	Identifier<DDNNF> identifier = new Identifier<>();
+
+	@Override
+	default Identifier<DDNNF> getIdentifier() {
+		return identifier;
+	}
+
+	static DDNNFProvider empty() {
+		return (c, m) -> Result.empty();
+	}
+
+	static DDNNFProvider of(DDNNF ddnnf) {
+		return (c, m) -> Result.of(ddnnf);
+	}
+
+	static DDNNFProvider loader(Path path) {
+		return (c, m) -> Provider.load(path, FormatSupplier.of(new DDNNFFormat()));
+	}
+
+	static DDNNFProvider fromFormula() {
+		return (c, m) -> Provider.convert(c, CNFProvider.identifier, new DDNNFCompiler(), m);
+	}
+
+	static DDNNFProvider fromCNF() {
+		return (c, m) -> Provider.convert(c, CNFProvider.fromFormula(), new DDNNFCompiler(), m);
+	}
+
+}
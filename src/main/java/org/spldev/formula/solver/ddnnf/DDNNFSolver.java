@@ -0,0 +1,164 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.ddnnf;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sat4j.*;
+import org.spldev.util.job.*;
+
+/**
+ * Solver that answers queries on a compiled {@link DDNNF}. All queries
+ * consider the {@link #getAssumptions() assumptions} by conditioning the
+ * d-DNNF, which requires a single pass over its nodes.<br>
+ * <br>
+ * Clauses that are pushed to the {@link #getDynamicFormula() dynamic formula}
+ * cannot be conditioned. If there are such clauses, the solver compiles a new
+ * d-DNNF from the clauses of its {@link CNF} and the pushed clauses. This is
+ * only possible, if the solver was created from a CNF.
+ *
+ * @author Sebastian Krieter
+ */
+public class DDNNFSolver implements SharpSatSolver {
+
+	protected final DDNNF ddnnf;
+	protected final CNF cnf;
+	protected final Sat4JAssumptions assumptions;
+	protected final SimpleClauseFormula formula;
+
+	private DDNNF extendedDdnnf = null;
+	private int extendedModificationCount = -1;
+
+	public DDNNFSolver(DDNNF ddnnf) {
+		this(ddnnf, null);
+	}
+
+	public DDNNFSolver(CNF cnf) {
+		this(compile(cnf), cnf);
+	}
+
+	/**
+	 * @param ddnnf the d-DNNF
+	 * @param cnf   the CNF from which the d-DNNF was compiled or {@code null}, if
+	 *              unknown
+	 */
+	public DDNNFSolver(DDNNF ddnnf, CNF cnf) {
+		this.ddnnf = ddnnf;
+		this.cnf = cnf;
+		assumptions = new Sat4JAssumptions(ddnnf.getVariables());
+		formula = new SimpleClauseFormula(ddnnf.getVariables());
+	}
+
+	private static DDNNF compile(CNF cnf) {
+		try {
+			return new DDNNFCompiler().execute(cnf, new NullMonitor());
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public Sat4JAssumptions getAssumptions() {
+		return assumptions;
+	}
+
+	@Override
+	public SimpleClauseFormula getDynamicFormula() {
+		return formula;
+	}
+
+	@Override
+	public VariableMap getVariables() {
+		return ddnnf.getVariables();
+	}
+
+	/**
+	 * @return The d-DNNF considering all pushed clauses.
+	 * @throws UnsupportedOperationException if there are pushed clauses and the
+	 *                                       CNF of this solver is unknown
+	 */
+	public DDNNF getDdnnf() {
+		final List<LiteralList> clauses = formula.getClauses();
+		if (clauses.isEmpty()) {
+			return ddnnf;
+		}
+		if (cnf == null) {
+			throw new UnsupportedOperationException("Cannot add clauses to a d-DNNF without its CNF");
+		}
+		if ((extendedDdnnf == null) || (extendedModificationCount != formula.getModificationCount())) {
+			final ArrayList<LiteralList> allClauses = new ArrayList<>(cnf.getClauses().size() + clauses.size());
+			allClauses.addAll(cnf.getClauses());
+			allClauses.addAll(clauses);
+			try {
+				extendedDdnnf = new DDNNFCompiler().compile(cnf, allClauses, new NullMonitor());
+			} catch (final RuntimeException e) {
+				throw e;
+			} catch (final Exception e) {
+				throw new RuntimeException(e);
+			}
+			extendedModificationCount = formula.getModificationCount();
+		}
+		return extendedDdnnf;
+	}
+
+	private LiteralList getAssignment() {
+		return new LiteralList(assumptions.asArray());
+	}
+
+	@Override
+	public BigInteger countSolutions() {
+		return getDdnnf().countSolutions(getAssignment());
+	}
+
+	@Override
+	public SatResult hasSolution() {
+		return countSolutions().signum() > 0 ? SatResult.TRUE : SatResult.FALSE;
+	}
+
+	/**
+	 * @return For each variable index, the number of solutions in which the
+	 *         variable is selected.
+	 *
+	 * @see DDNNF#getCommonality(LiteralList)
+	 */
+	public BigInteger[] getCommonality() {
+		return getDdnnf().getCommonality(getAssignment());
+	}
+
+	/**
+	 * Draws a solution uniformly at random.
+	 *
+	 * @param random the random generator
+	 * @return A solution or {@code null}, if there is no solution.
+	 */
+	public LiteralList sample(Random random) {
+		return getDdnnf().sample(getAssignment(), random);
+	}
+
+}
@@ -307,10 +307,8 @@ public class IncrementalMIGBuilder extends MIGBuilder {
 					final int[] literals = adaptClause.getLiterals();
 					final int l1 = -literals[0];
 					final int l2 = -literals[1];
-					for (final LiteralList solution : solver.getSolutionHistory()) {
-						if (solution.containsAllLiterals(l1, l2)) {
-							continue loop;
-						}
+					if (solver.getSolutionFromHistory(l1, l2) != null) {
+						continue loop;
 					}
 					solver.getAssumptions().push(l1);
 					solver.getAssumptions().push(l2);
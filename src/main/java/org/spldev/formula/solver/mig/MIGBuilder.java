@@ -27,6 +27,7 @@ import java.util.stream.*;
 
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.solver.*;
 import org.spldev.formula.solver.SatSolver.*;
 import org.spldev.formula.solver.mig.Vertex.*;
 import org.spldev.formula.solver.sat4j.*;
@@ -37,4 +37,14 @@ public class Sat4JMIGSolver extends Sat4JSolver {
 		this.mig = mig;
 	}
 
+	protected Sat4JMIGSolver(Sat4JMIGSolver oldSolver) {
+		super(oldSolver);
+		mig = oldSolver.mig;
+	}
+
+	@Override
+	public Sat4JMIGSolver clone() {
+		return new Sat4JMIGSolver(this);
+	}
+
 }
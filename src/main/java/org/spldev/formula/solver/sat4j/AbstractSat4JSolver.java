@@ -23,6 +23,7 @@
 package org.spldev.formula.solver.sat4j;
 
 import java.util.*;
+import java.util.concurrent.locks.*;
 
 import org.sat4j.core.*;
 import org.sat4j.specs.*;
@@ -30,31 +31,44 @@ import org.spldev.formula.clauses.*;
 import org.spldev.formula.clauses.LiteralList.*;
 import org.spldev.formula.expression.atomic.literal.*;
 import org.spldev.formula.solver.*;
-import org.spldev.util.data.*;
 
 /**
  * Base class for solvers using Sat4J.
  *
  * @author Sebastian Krieter
  */
-public abstract class AbstractSat4JSolver<T extends ISolver> implements SolutionSolver<LiteralList> {
+public abstract class AbstractSat4JSolver<T extends ISolver> implements LiteralSolver {
 
 	public static final int MAX_SOLUTION_BUFFER = 1000;
 
+	/**
+	 * Time in nanoseconds between two attempts to interrupt a check that is about
+	 * to start.
+	 */
+	private static final long INTERRUPT_INTERVAL = 100_000;
+
 	protected CNF satInstance;
 
 	protected final T solver;
 	protected final Sat4JAssumptions assumptions;
 	protected final Sat4JFormula formula;
 
-	// TODO extract solution history in separate class
-	protected LinkedList<LiteralList> solutionHistory = null;
-	protected int solutionHistoryLimit = -1;
+	protected SolutionHistory solutionHistory = null;
 	protected int[] lastModel = null;
+	private final VecInt assignmentBuffer = new VecInt();
+	private final VecInt selectorBuffer = new VecInt();
 
 	protected boolean globalTimeout = false;
+	protected int timeout = 1_000_000;
 
 	private boolean contradiction = false;
+	private volatile boolean cancelled = false;
+	private volatile boolean solving = false;
+	private volatile long checks = 0;
+
+	private SolverStatisticsSink statisticsSink = null;
+	private Object statisticsScope = null;
+	private boolean historyHit = false;
 
 	public AbstractSat4JSolver(VariableMap variableMap) {
 		satInstance = null;
@@ -76,6 +90,48 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 		assumptions = new Sat4JAssumptions(cnf.getVariableMap());
 	}
 
+	/**
+	 * Creates an independent copy of the given solver. The copy uses a new Sat4J
+	 * instance containing the same clauses, pushed constraints, and assumptions
+	 * as the given solver.
+	 *
+	 * @param oldSolver the solver to copy
+	 */
+	protected AbstractSat4JSolver(AbstractSat4JSolver<T> oldSolver) {
+		satInstance = oldSolver.satInstance;
+		solver = createSolver();
+		configureSolver();
+		formula = new Sat4JFormula(this, oldSolver.formula.getVariableMap());
+		formula.setSelectorMode(oldSolver.formula.isSelectorMode());
+		initSolver(Collections.emptyList());
+		try {
+			// clauses that are guarded by selectors stay removable in the copy
+			formula.pushClauses(oldSolver.formula);
+		} catch (final RuntimeContradictionException e) {
+			contradiction = true;
+		}
+		contradiction |= oldSolver.contradiction;
+
+		assumptions = new Sat4JAssumptions(oldSolver.assumptions);
+		globalTimeout = oldSolver.globalTimeout;
+		setTimeout(oldSolver.timeout);
+		if (oldSolver.solutionHistory != null) {
+			rememberSolutionHistory(oldSolver.solutionHistory.getCapacity());
+		}
+		statisticsSink = oldSolver.statisticsSink;
+		statisticsScope = oldSolver.statisticsScope;
+	}
+
+	/**
+	 * Creates an independent copy of this solver that can be used concurrently to
+	 * this solver.
+	 *
+	 * @return A new solver with the same clauses, pushed constraints, and
+	 *         assumptions.
+	 */
+	@Override
+	public abstract AbstractSat4JSolver<T> clone();
+
 	/**
 	 * @return The {@link CNF sat instance} given to the solver.
 	 */
@@ -83,6 +139,15 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 		return satInstance;
 	}
 
+	/**
+	 * {@inheritDoc} The clauses of the CNF are pushed to the dynamic formula when
+	 * the solver is created, so this returns the clauses of the dynamic formula.
+	 */
+	@Override
+	public List<LiteralList> getClauses() {
+		return new ArrayList<>(formula.getClauses());
+	}
+
 	@Override
 	public Sat4JAssumptions getAssumptions() {
 		return assumptions;
@@ -113,6 +178,17 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 		return new LiteralList(getLastModelCopy(), Order.INDEX, false);
 	}
 
+	/**
+	 * Returns the last solution found by satisfiability solver without copying
+	 * it. The returned array may be shared with the solution history and thus
+	 * <b>must not be modified</b>. Use {@link #getSolution()} to obtain a
+	 * modifiable copy.
+	 *
+	 * @return An array representing the satisfying assignment ordered by
+	 *         variable index.
+	 *
+	 * @see #getSolution()
+	 */
 	public int[] getInternalSolution() {
 		return lastModel;
 	}
@@ -181,7 +257,12 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 		}
 	}
 
+	public int getTimeout() {
+		return timeout;
+	}
+
 	public void setTimeout(int timeout) {
+		this.timeout = timeout;
 		solver.setTimeoutMs(timeout);
 	}
 
@@ -195,18 +276,21 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	}
 
 	public List<LiteralList> getSolutionHistory() {
-		return solutionHistory != null ? Collections.unmodifiableList(solutionHistory) : Collections.emptyList();
+		return solutionHistory != null ? solutionHistory.getSolutions() : Collections.emptyList();
 	}
 
-	private int[] getAssumptionArray() {
-		final List<Pair<Integer, Object>> all = assumptions.getAll();
-		final int[] literals = new int[all.size()];
-		int index = 0;
-		for (final Pair<Integer, Object> entry : all) {
-			final int variable = entry.getKey();
-			literals[index++] = (entry.getValue() == Boolean.TRUE) ? variable : -variable;
-		}
-		return literals;
+	/**
+	 * Searches the solution history for a solution containing all given
+	 * literals.
+	 *
+	 * @param literals the literals
+	 * @return A solution from the history or {@code null}, if there is no such
+	 *         solution or the history is disabled.
+	 *
+	 * @see #rememberSolutionHistory(int)
+	 */
+	public LiteralList getSolutionFromHistory(int... literals) {
+		return solutionHistory != null ? solutionHistory.getSolution(literals) : null;
 	}
 
 	/**
@@ -221,24 +305,48 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	 */
 	@Override
 	public SatResult hasSolution() {
+		// set before checking the cancel flag, so that interrupt() cannot miss a check
+		checks++;
+		solving = true;
+		try {
+			if (statisticsSink == null) {
+				return solve();
+			}
+			final Map<String, Number> statistics = solver.getStat();
+			final long startTime = System.nanoTime();
+			final SatResult result = solve();
+			record(result, startTime, statistics);
+			return result;
+		} finally {
+			solving = false;
+		}
+	}
+
+	private SatResult solve() {
+		historyHit = false;
 		if (contradiction) {
 			lastModel = null;
 			return SatResult.FALSE;
 		}
+		if (cancelled) {
+			lastModel = null;
+			return SatResult.TIMEOUT;
+		}
 
-		final int[] assumptionArray = getAssumptionArray();
+		final VecInt assumptionVector = assumptions.getAssumptions();
 		if (solutionHistory != null) {
-			for (final LiteralList solution : solutionHistory) {
-				if (solution.containsAllLiterals(assumptionArray)) {
-					lastModel = solution.getLiterals();
-					return SatResult.TRUE;
-				}
+			final LiteralList solution = solutionHistory.getSolution(assumptionVector.toArray(),
+				assumptionVector.size());
+			if (solution != null) {
+				lastModel = solution.getLiterals();
+				historyHit = true;
+				return SatResult.TRUE;
 			}
 		}
 
 		try {
-			if (solver.isSatisfiable(new VecInt(assumptionArray), globalTimeout)) {
-				lastModel = solver.model();
+			if (solver.isSatisfiable(addSelectors(assumptionVector), globalTimeout)) {
+				lastModel = getModel();
 				addSolution();
 				return SatResult.TRUE;
 			} else {
@@ -265,26 +373,56 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	 * @see #getInternalSolution()
 	 */
 	public SatResult hasSolution(int... assignment) {
+		checks++;
+		solving = true;
+		try {
+			if (statisticsSink == null) {
+				return solve(assignment);
+			}
+			final Map<String, Number> statistics = solver.getStat();
+			final long startTime = System.nanoTime();
+			final SatResult result = solve(assignment);
+			record(result, startTime, statistics);
+			return result;
+		} finally {
+			solving = false;
+		}
+	}
+
+	private SatResult solve(int... assignment) {
+		historyHit = false;
 		if (contradiction) {
 			return SatResult.FALSE;
 		}
+		if (cancelled) {
+			lastModel = null;
+			return SatResult.TIMEOUT;
+		}
 
 		if (solutionHistory != null) {
-			for (final LiteralList solution : solutionHistory) {
-				if (solution.containsAllLiterals(assignment)) {
-					lastModel = solution.getLiterals();
-					return SatResult.TRUE;
-				}
+			final LiteralList solution = solutionHistory.getSolution(assignment);
+			if (solution != null) {
+				lastModel = solution.getLiterals();
+				historyHit = true;
+				return SatResult.TRUE;
 			}
 		}
 
-		final int[] unitClauses = new int[assignment.length];
-		System.arraycopy(assignment, 0, unitClauses, 0, unitClauses.length);
+		// the solver may keep a reference to the assumptions, so the given array is
+		// copied into a buffer that is owned by this solver
+		final VecInt selectors = formula.getActiveSelectors();
+		assignmentBuffer.clear();
+		assignmentBuffer.ensure(selectors.size() + assignment.length);
+		for (int i = 0; i < selectors.size(); i++) {
+			assignmentBuffer.unsafePush(selectors.unsafeGet(i));
+		}
+		for (final int literal : assignment) {
+			assignmentBuffer.unsafePush(literal);
+		}
 
 		try {
-			// TODO why is this necessary?
-			if (solver.isSatisfiable(new VecInt(unitClauses), globalTimeout)) {
-				lastModel = solver.model();
+			if (solver.isSatisfiable(assignmentBuffer, globalTimeout)) {
+				lastModel = getModel();
 				addSolution();
 				return SatResult.TRUE;
 			} else {
@@ -297,31 +435,146 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 		}
 	}
 
+	/**
+	 * Passes the statistics of the last satisfiability check to the statistics
+	 * sink. Sat4J's counters are cumulative, so the differences to the given
+	 * counters from before the check are reported.
+	 */
+	private void record(SatResult result, long startTime, Map<String, Number> statisticsBefore) {
+		final long nanos = System.nanoTime() - startTime;
+		if (historyHit) {
+			statisticsSink.record(statisticsScope, result, true, nanos, 0, 0, 0);
+		} else {
+			final Map<String, Number> statisticsAfter = solver.getStat();
+			statisticsSink.record(statisticsScope, result, false, nanos, //
+				getDifference(statisticsBefore, statisticsAfter, "conflicts"), //
+				getDifference(statisticsBefore, statisticsAfter, "decisions"), //
+				getDifference(statisticsBefore, statisticsAfter, "propagations"));
+		}
+	}
+
+	private static long getDifference(Map<String, Number> before, Map<String, Number> after, String key) {
+		final Number valueBefore = before.get(key);
+		final Number valueAfter = after.get(key);
+		return (valueBefore != null) && (valueAfter != null) ? valueAfter.longValue() - valueBefore.longValue() : 0;
+	}
+
+	@Override
+	public void setStatisticsSink(SolverStatisticsSink sink, Object scope) {
+		statisticsSink = sink;
+		statisticsScope = scope;
+	}
+
+	@Override
+	public SolverStatisticsSink getStatisticsSink() {
+		return statisticsSink;
+	}
+
+	@Override
+	public Object getStatisticsScope() {
+		return statisticsScope;
+	}
+
 	private void addSolution() {
 		if (solutionHistory != null) {
-			solutionHistory.addFirst(getSolution());
-			if (solutionHistory.size() > solutionHistoryLimit) {
-				solutionHistory.removeLast();
-			}
+			// Sat4J already returns a copy of its model, which is shared with the history
+			solutionHistory.add(new LiteralList(lastModel, Order.INDEX, false));
 		}
 	}
 
 	public int[] getContradictoryAssignment() {
 		final IVecInt unsatExplanation = solver.unsatExplanation();
-		return Arrays.copyOf(unsatExplanation.toArray(), unsatExplanation.size());
+		final int numberOfVariables = formula.getVariableMap().getMaxIndex();
+		final int[] literals = new int[unsatExplanation.size()];
+		int length = 0;
+		for (int i = 0; i < unsatExplanation.size(); i++) {
+			final int literal = unsatExplanation.get(i);
+			// omit selector variables
+			if (Math.abs(literal) <= numberOfVariables) {
+				literals[length++] = literal;
+			}
+		}
+		return length == literals.length ? literals : Arrays.copyOf(literals, length);
+	}
+
+	/**
+	 * Combines the active selector variables of the formula with the given
+	 * assumptions.
+	 */
+	private IVecInt addSelectors(VecInt assumptions) {
+		final VecInt selectors = formula.getActiveSelectors();
+		if (selectors.isEmpty()) {
+			return assumptions;
+		}
+		selectorBuffer.clear();
+		selectorBuffer.ensure(selectors.size() + assumptions.size());
+		for (int i = 0; i < selectors.size(); i++) {
+			selectorBuffer.unsafePush(selectors.unsafeGet(i));
+		}
+		for (int i = 0; i < assumptions.size(); i++) {
+			selectorBuffer.unsafePush(assumptions.unsafeGet(i));
+		}
+		return selectorBuffer;
+	}
+
+	/**
+	 * Returns the current model of the Sat4J solver restricted to the variables of
+	 * the formula (i.e., without selector variables).
+	 */
+	private int[] getModel() {
+		final int[] model = solver.model();
+		final int numberOfVariables = formula.getVariableMap().getMaxIndex();
+		return model.length > numberOfVariables ? Arrays.copyOf(model, numberOfVariables) : model;
 	}
 
 	public List<LiteralList> rememberSolutionHistory(int numberOfSolutions) {
 		if (numberOfSolutions > 0) {
-			solutionHistory = new LinkedList<>();
-			solutionHistoryLimit = numberOfSolutions;
+			solutionHistory = new SolutionHistory(formula.getVariableMap().getMaxIndex(), numberOfSolutions);
 		} else {
 			solutionHistory = null;
-			solutionHistoryLimit = -1;
 		}
 		return getSolutionHistory();
 	}
 
+	/**
+	 * Stops a currently running satisfiability check of this solver, which then
+	 * returns {@link SatResult#TIMEOUT}. May be called from any thread.
+	 *
+	 * <br>
+	 * <br>
+	 * Sat4J resets its timeout at the beginning of each search, so an
+	 * interruption that arrives while a check is about to start would be lost.
+	 * Therefore, the timeout is expired repeatedly until the current check has
+	 * returned. Subsequent checks are not affected.
+	 */
+	@Override
+	public void interrupt() {
+		final long check = checks;
+		solver.expireTimeout();
+		while (solving && (checks == check)) {
+			LockSupport.parkNanos(INTERRUPT_INTERVAL);
+			solver.expireTimeout();
+		}
+	}
+
+	/**
+	 * Sets whether this solver is cancelled. While cancelled, every
+	 * satisfiability check returns {@link SatResult#TIMEOUT} immediately.
+	 * Cancelling also {@link #interrupt() interrupts} a currently running check.
+	 * May be called from any thread.
+	 */
+	@Override
+	public void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+		if (cancelled) {
+			interrupt();
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
 	public boolean isGlobalTimeout() {
 		return globalTimeout;
 	}
@@ -331,7 +584,7 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	}
 
 	protected void configureSolver() {
-		solver.setTimeoutMs(1_000_000);
+		solver.setTimeoutMs(timeout);
 		solver.setDBSimplificationAllowed(true);
 		solver.setKeepSolverHot(true);
 		solver.setVerbose(false);
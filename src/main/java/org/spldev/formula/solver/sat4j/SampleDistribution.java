@@ -25,6 +25,7 @@ package org.spldev.formula.solver.sat4j;
 import java.util.*;
 
 import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
 
 /**
  * Uses a sample of configurations to achieve a phase selection that corresponds
@@ -25,20 +25,40 @@ package org.spldev.formula.solver.sat4j;
 import java.util.*;
 
 import org.sat4j.core.*;
-import org.spldev.formula.expression.atomic.*;
 import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.*;
 import org.spldev.util.data.*;
 
 /**
- * Assumptions for a {@link Sat4JSolver}.
+ * Assumptions for a {@link Sat4JSolver}. The assumptions are kept as a stack of
+ * literals, which is directly passed to Sat4J. Additionally, the position of
+ * each variable within the stack is indexed, such that assumptions can be
+ * accessed and modified by variable in constant time.
  *
  * @author Sebastian Krieter
  */
-public class Sat4JAssumptions implements Assignment {
+public class Sat4JAssumptions implements LiteralAssumptions {
 
 	protected final VecInt assumptions;
 	protected final VariableMap variables;
 
+	/**
+	 * Position of one occurrence of each variable in {@link #assumptions} or
+	 * {@code -1}, if the variable is not assumed.
+	 */
+	private int[] positions;
+	/**
+	 * Number of occurrences of each variable in {@link #assumptions}.
+	 */
+	private int[] counts;
+
+	/**
+	 * Returns the stack of literals that is passed to Sat4J. The returned vector
+	 * <b>must not be modified</b> directly, as this would invalidate the index of
+	 * this object.
+	 *
+	 * @return The current assumptions.
+	 */
 	public VecInt getAssumptions() {
 		return assumptions;
 	}
@@ -46,13 +66,27 @@ public class Sat4JAssumptions implements Assignment {
 	public Sat4JAssumptions(VariableMap variables) {
 		this.variables = variables;
 		assumptions = new VecInt(variables.size());
+		positions = new int[variables.getMaxIndex() + 1];
+		counts = new int[positions.length];
+		Arrays.fill(positions, -1);
+	}
+
+	protected Sat4JAssumptions(Sat4JAssumptions oldAssumptions) {
+		variables = oldAssumptions.variables;
+		assumptions = new VecInt(Math.max(variables.size(), oldAssumptions.size()));
+		oldAssumptions.assumptions.copyTo(assumptions);
+		positions = Arrays.copyOf(oldAssumptions.positions, oldAssumptions.positions.length);
+		counts = Arrays.copyOf(oldAssumptions.counts, oldAssumptions.counts.length);
 	}
 
 	public void clear() {
-		assumptions.clear();
+		clear(0);
 	}
 
 	public void clear(int newSize) {
+		for (int i = assumptions.size() - 1; i >= newSize; i--) {
+			removed(assumptions.unsafeGet(i), i);
+		}
 		assumptions.shrinkTo(newSize);
 	}
 
@@ -60,34 +94,54 @@ public class Sat4JAssumptions implements Assignment {
 		assumptions.ensure(size);
 	}
 
-	public Integer pop() {
-		final int topElement = assumptions.get(assumptions.size());
+	public int pop() {
+		final int topElement = assumptions.last();
+		removed(topElement, assumptions.size() - 1);
 		assumptions.pop();
 		return topElement;
 	}
 
 	public void pop(int count) {
-		assumptions.shrinkTo(assumptions.size() - count);
+		clear(assumptions.size() - count);
 	}
 
 	public void push(int var) {
+		added(var, assumptions.size());
 		assumptions.push(var);
 	}
 
 	public void pushAll(int[] vars) {
-		assumptions.pushAll(new VecInt(vars));
+		assumptions.ensure(assumptions.size() + vars.length);
+		for (final int var : vars) {
+			added(var, assumptions.size());
+			assumptions.unsafePush(var);
+		}
 	}
 
 	public void replaceLast(int var) {
+		final int index = assumptions.size() - 1;
+		removed(assumptions.last(), index);
+		added(var, index);
 		assumptions.pop().unsafePush(var);
 	}
 
 	public void remove(int i) {
+		final int lastIndex = assumptions.size() - 1;
+		removed(assumptions.get(i), i);
+		if (i != lastIndex) {
+			final int lastVariable = Math.abs(assumptions.last());
+			if (positions[lastVariable] == lastIndex) {
+				positions[lastVariable] = i;
+			}
+		}
+		// moves the last element to position i
 		assumptions.delete(i);
 	}
 
 	public void set(int index, int var) {
+		removed(assumptions.get(index), index);
 		assumptions.set(index, var);
+		added(var, index);
 	}
 
 	public int size() {
@@ -107,7 +161,7 @@ public class Sat4JAssumptions implements Assignment {
 	}
 
 	public int peek() {
-		return assumptions.get(assumptions.size() - 1);
+		return assumptions.last();
 	}
 
 	public int peek(int i) {
@@ -117,14 +171,13 @@ public class Sat4JAssumptions implements Assignment {
 	@Override
 	public void set(int index, Object assignment) {
 		if (assignment instanceof Boolean) {
-			for (int i = 0; i < assumptions.size(); i++) {
-				final int l = assumptions.unsafeGet(i);
-				if (Math.abs(l) == index) {
-					assumptions.set(i, (Boolean) assignment ? l : -l);
-					return;
-				}
+			final int position = getPosition(index);
+			if (position >= 0) {
+				final int l = assumptions.unsafeGet(position);
+				assumptions.set(position, (Boolean) assignment ? Math.abs(l) : -Math.abs(l));
+			} else {
+				push((Boolean) assignment ? index : -index);
 			}
-			assumptions.push((Boolean) assignment ? index : -index);
 		}
 	}
 
@@ -137,29 +190,21 @@ public class Sat4JAssumptions implements Assignment {
 
 	@Override
 	public void unset(int index) {
-		for (int i = 0; i < assumptions.size(); i++) {
-			final int l = assumptions.unsafeGet(i);
-			if (Math.abs(l) == index) {
-				assumptions.delete(i);
-				return;
-			}
+		final int position = getPosition(index);
+		if (position >= 0) {
+			remove(position);
 		}
 	}
 
 	@Override
 	public void unsetAll() {
-		assumptions.clear();
+		clear();
 	}
 
 	@Override
 	public Optional<Object> get(int index) {
-		for (int i = 0; i < assumptions.size(); i++) {
-			final int l = assumptions.unsafeGet(i);
-			if (Math.abs(l) == index) {
-				return Optional.of(l);
-			}
-		}
-		return Optional.empty();
+		final int position = getPosition(index);
+		return position >= 0 ? Optional.of(assumptions.unsafeGet(position)) : Optional.empty();
 	}
 
 	public Optional<Object> get(String name) {
@@ -183,6 +228,39 @@ public class Sat4JAssumptions implements Assignment {
 		return map;
 	}
 
+	private int getPosition(int variable) {
+		return (variable > 0) && (variable < positions.length) ? positions[variable] : -1;
+	}
+
+	private void added(int literal, int index) {
+		final int variable = Math.abs(literal);
+		if (variable >= positions.length) {
+			final int oldLength = positions.length;
+			final int newLength = Math.max(variable + 1, oldLength << 1);
+			positions = Arrays.copyOf(positions, newLength);
+			counts = Arrays.copyOf(counts, newLength);
+			Arrays.fill(positions, oldLength, newLength, -1);
+		}
+		if (counts[variable]++ == 0) {
+			positions[variable] = index;
+		}
+	}
+
+	private void removed(int literal, int index) {
+		final int variable = Math.abs(literal);
+		if (--counts[variable] == 0) {
+			positions[variable] = -1;
+		} else if (positions[variable] == index) {
+			// variable is assumed multiple times, find another occurrence
+			for (int i = 0; i < assumptions.size(); i++) {
+				if ((i != index) && (Math.abs(assumptions.unsafeGet(i)) == variable)) {
+					positions[variable] = i;
+					break;
+				}
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
@@ -0,0 +1,55 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sat4j;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sharpsat.*;
+
+/**
+ * Solver backend that creates {@link Sat4JSolver Sat4J solvers}.
+ *
+ * @author Sebastian Krieter
+ */
+public class Sat4JBackend implements SolverBackend {
+
+	public static final String ID = Sat4JBackend.class.getCanonicalName();
+
+	@Override
+	public String getIdentifier() {
+		return ID;
+	}
+
+	@Override
+	public Sat4JSolver createSolver(CNF cnf) {
+		return new Sat4JSolver(cnf);
+	}
+
+	@Override
+	public Optional<SharpSatSolver> createSharpSatSolver(CNF cnf) {
+		return Optional.of(new ComponentSharpSatSolver(cnf));
+	}
+
+}
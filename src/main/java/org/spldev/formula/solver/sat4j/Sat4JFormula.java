@@ -32,22 +32,108 @@ import org.spldev.formula.expression.atomic.literal.*;
 import org.spldev.formula.solver.*;
 
 /**
- * Modifiable formula for a {@link Sat4JSolver}.
+ * Modifiable formula for a {@link Sat4JSolver}.<br>
+ * <br>
+ * In {@link #setSelectorMode(boolean) selector mode}, each pushed clause
+ * {@code C} is extended by the negation of a new selector variable {@code s}
+ * (i.e., {@code (-s v C)}) and {@code s} is added to the assumptions of every
+ * subsequent satisfiability check. Popping such a clause only retires its
+ * selector by adding the unit clause {@code -s}. Thus, in contrast to removing
+ * a clause, all clauses learnt by the solver remain valid.
  *
  * @author Sebastian Krieter
  */
-public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
+public class Sat4JFormula extends AbstractDynamicFormula<IConstr> implements ClauseFormula<IConstr> {
 
 	private final AbstractSat4JSolver<?> sat4jSolver;
+	private final ArrayList<LiteralList> clauses;
+	private final ArrayList<Integer> selectors;
+	private final VecInt activeSelectors;
+
+	private boolean selectorMode = false;
 
 	public Sat4JFormula(AbstractSat4JSolver<?> solver, VariableMap variableMap) {
 		super(variableMap);
 		sat4jSolver = solver;
+		clauses = new ArrayList<>();
+		selectors = new ArrayList<>();
+		activeSelectors = new VecInt();
 	}
 
 	protected Sat4JFormula(AbstractSat4JSolver<?> solver, Sat4JFormula oldFormula) {
 		super(oldFormula);
 		sat4jSolver = solver;
+		clauses = new ArrayList<>(oldFormula.clauses);
+		selectors = new ArrayList<>(oldFormula.selectors);
+		activeSelectors = new VecInt(oldFormula.activeSelectors.size());
+		oldFormula.activeSelectors.copyTo(activeSelectors);
+		selectorMode = oldFormula.selectorMode;
+	}
+
+	/**
+	 * @return The clauses that correspond to the currently pushed constraints in
+	 *         the same order.
+	 */
+	public List<LiteralList> getClauses() {
+		return Collections.unmodifiableList(clauses);
+	}
+
+	public boolean isSelectorMode() {
+		return selectorMode;
+	}
+
+	/**
+	 * Sets whether subsequently pushed clauses are guarded by a selector variable.
+	 * Does not affect clauses that are already pushed.
+	 *
+	 * @param selectorMode whether to use selector variables
+	 */
+	public void setSelectorMode(boolean selectorMode) {
+		this.selectorMode = selectorMode;
+	}
+
+	/**
+	 * Pushes all clauses of the given formula in the same order. Each clause that
+	 * is guarded by a selector variable in the given formula is guarded by a new
+	 * selector variable, such that it can still be popped.
+	 *
+	 * @param oldFormula the formula to copy
+	 */
+	void pushClauses(Sat4JFormula oldFormula) throws RuntimeContradictionException {
+		final boolean currentSelectorMode = selectorMode;
+		try {
+			final int size = oldFormula.clauses.size();
+			int start = 0;
+			while (start < size) {
+				final boolean guarded = oldFormula.selectors.get(start) != 0;
+				int end = start + 1;
+				while ((end < size) && ((oldFormula.selectors.get(end) != 0) == guarded)) {
+					end++;
+				}
+				selectorMode = guarded;
+				push(oldFormula.clauses.subList(start, end));
+				start = end;
+			}
+		} finally {
+			selectorMode = currentSelectorMode;
+		}
+	}
+
+	/**
+	 * @return The selector variables of all currently pushed clauses.
+	 */
+	VecInt getActiveSelectors() {
+		return activeSelectors;
+	}
+
+	/**
+	 * Reserves a new variable in the solver that is not part of the
+	 * {@link #getVariableMap() variable map}.
+	 *
+	 * @return The index of the new variable.
+	 */
+	public int newVariable() {
+		return sat4jSolver.solver.nextFreeVarId(true);
 	}
 
 	@Override
@@ -57,26 +143,34 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 
 	public List<IConstr> push(List<? extends LiteralList> clauses) {
 		final ArrayList<IConstr> constrs = new ArrayList<>();
+		final int[] newSelectors = new int[clauses.size()];
 		for (final LiteralList clause : clauses) {
 			try {
 				if ((clause.size() == 1) && (clause.getLiterals()[0] == 0)) {
 					throw new ContradictionException();
 				}
-				final IConstr constr = sat4jSolver.solver
-					.addClause(new VecInt(Arrays.copyOf(clause.getLiterals(), clause.size())));
+				final int selector = selectorMode ? newVariable() : 0;
+				final IConstr constr = addClause(clause, selector);
+				newSelectors[constrs.size()] = selector;
 				constrs.add(constr);
 			} catch (final ContradictionException e) {
-				for (final IConstr constr : constrs) {
-					sat4jSolver.solver.removeConstr(constr);
+				for (int i = 0; i < constrs.size(); i++) {
+					if (newSelectors[i] != 0) {
+						// the new selectors are not active yet
+						disableSelector(newSelectors[i]);
+					} else {
+						sat4jSolver.solver.removeConstr(constrs.get(i));
+					}
 				}
 				throw new RuntimeContradictionException(e);
 			}
 		}
-		if (sat4jSolver.solutionHistory != null) {
-			sat4jSolver.solutionHistory.clear();
-			sat4jSolver.lastModel = null;
-		}
+		clearSolutionHistory();
 		constraints.addAll(constrs);
+		this.clauses.addAll(clauses);
+		for (int i = 0; i < constrs.size(); i++) {
+			addSelector(newSelectors[i]);
+		}
 		return constrs;
 	}
 
@@ -85,31 +179,91 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 			if ((clause.size() == 1) && (clause.getLiterals()[0] == 0)) {
 				throw new ContradictionException();
 			}
-			final IConstr constr = sat4jSolver.solver
-				.addClause(new VecInt(Arrays.copyOfRange(clause.getLiterals(), 0, clause.size())));
+			final int selector = selectorMode ? newVariable() : 0;
+			final IConstr constr = addClause(clause, selector);
 			constraints.add(constr);
-			if (sat4jSolver.solutionHistory != null) {
-				sat4jSolver.solutionHistory.clear();
-				sat4jSolver.lastModel = null;
-			}
+			clauses.add(clause);
+			addSelector(selector);
+			clearSolutionHistory();
 			return constr;
 		} catch (final ContradictionException e) {
 			throw new RuntimeContradictionException(e);
 		}
 	}
 
+	private IConstr addClause(LiteralList clause, int selector) throws ContradictionException {
+		final int[] literals = clause.getLiterals();
+		if (selector == 0) {
+			return sat4jSolver.solver.addClause(new VecInt(Arrays.copyOf(literals, literals.length)));
+		} else {
+			final int[] guardedLiterals = Arrays.copyOf(literals, literals.length + 1);
+			guardedLiterals[literals.length] = -selector;
+			return sat4jSolver.solver.addClause(new VecInt(guardedLiterals));
+		}
+	}
+
+	private void addSelector(int selector) {
+		selectors.add(selector);
+		if (selector != 0) {
+			activeSelectors.push(selector);
+		}
+	}
+
+	private void retireSelector(int selector) {
+		activeSelectors.remove(selector);
+		disableSelector(selector);
+	}
+
+	private void disableSelector(int selector) {
+		try {
+			sat4jSolver.solver.addClause(new VecInt(new int[] { -selector }));
+		} catch (final ContradictionException e) {
+			// cannot happen, as selectors only occur negatively within clauses
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void clearSolutionHistory() {
+		if (sat4jSolver.solutionHistory != null) {
+			sat4jSolver.solutionHistory.clear();
+			sat4jSolver.lastModel = null;
+		}
+	}
+
+	@Override
+	protected IConstr removeConstraint(int index) {
+		clauses.remove(index);
+		selectors.remove(index);
+		return super.removeConstraint(index);
+	}
+
 	@Override
 	public IConstr pop() {
+		final int selector = selectors.get(selectors.size() - 1);
 		final IConstr lastConstraint = super.pop();
-		sat4jSolver.solver.removeConstr(lastConstraint);
+		if (selector != 0) {
+			retireSelector(selector);
+		} else {
+			sat4jSolver.solver.removeConstr(lastConstraint);
+		}
 		return lastConstraint;
 	}
 
 	@Override
 	public void remove(IConstr constr) {
 		if (constr != null) {
-			sat4jSolver.solver.removeConstr(constr);
-			super.remove(constr);
+			final int index = constraints.indexOf(constr);
+			if (index < 0) {
+				sat4jSolver.solver.removeConstr(constr);
+				return;
+			}
+			final int selector = selectors.get(index);
+			if (selector != 0) {
+				retireSelector(selector);
+			} else {
+				sat4jSolver.solver.removeConstr(constr);
+			}
+			removeConstraint(index);
 		}
 	}
 
@@ -118,13 +272,23 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 		if (count > constraints.size()) {
 			count = constraints.size();
 		}
+		boolean removedClauses = false;
 		for (int i = 0; i < count; i++) {
-			final IConstr lastConstraint = removeConstraint(constraints.size() - 1);
-			if (lastConstraint != null) {
-				sat4jSolver.solver.removeSubsumedConstr(lastConstraint);
+			final int index = constraints.size() - 1;
+			final int selector = selectors.get(index);
+			final IConstr lastConstraint = removeConstraint(index);
+			if (selector != 0) {
+				retireSelector(selector);
+			} else {
+				removedClauses = true;
+				if (lastConstraint != null) {
+					sat4jSolver.solver.removeSubsumedConstr(lastConstraint);
+				}
 			}
 		}
-		sat4jSolver.solver.clearLearntClauses();
+		if (removedClauses) {
+			sat4jSolver.solver.clearLearntClauses();
+		}
 	}
 
 }
@@ -54,13 +54,22 @@ import org.spldev.formula.solver.*;
 public class Sat4JMusSolver extends AbstractSat4JSolver<Xplain<ISolver>> implements MusSolver<IConstr> {
 
 	public Sat4JMusSolver(ModelRepresentation modelRepresentation) {
-		this(modelRepresentation.getCache().get(CNFProvider.fromFormula()).get());
+		this(modelRepresentation.getResult(CNFProvider.fromFormula()).get());
 	}
 
 	public Sat4JMusSolver(CNF cnf) {
 		super(cnf);
 	}
 
+	protected Sat4JMusSolver(Sat4JMusSolver oldSolver) {
+		super(oldSolver);
+	}
+
+	@Override
+	public Sat4JMusSolver clone() {
+		return new Sat4JMusSolver(this);
+	}
+
 	@Override
 	protected Xplain<ISolver> createSolver() {
 		return new Xplain<>(SolverFactory.newDefault());
@@ -0,0 +1,58 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sat4j;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sharpsat.*;
+
+/**
+ * Solver backend that creates {@link Sat4JPortfolioSolver portfolio solvers}.
+ * Each satisfiability check races several differently configured Sat4J
+ * solvers, which reduces the number of checks that time out on hard formulas
+ * at the cost of additional threads.
+ *
+ * @author Sebastian Krieter
+ */
+public class Sat4JPortfolioBackend implements SolverBackend {
+
+	public static final String ID = Sat4JPortfolioBackend.class.getCanonicalName();
+
+	@Override
+	public String getIdentifier() {
+		return ID;
+	}
+
+	@Override
+	public Sat4JPortfolioSolver createSolver(CNF cnf) {
+		return new Sat4JPortfolioSolver(cnf);
+	}
+
+	@Override
+	public Optional<SharpSatSolver> createSharpSatSolver(CNF cnf) {
+		return Optional.of(new ComponentSharpSatSolver(cnf));
+	}
+
+}
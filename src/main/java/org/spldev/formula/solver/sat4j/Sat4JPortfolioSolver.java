@@ -0,0 +1,502 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sat4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import org.sat4j.minisat.core.*;
+import org.sat4j.minisat.restarts.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.*;
+
+/**
+ * Portfolio solver that runs multiple {@link Sat4JSolver} replicas with
+ * different {@link SStrategy selection strategies} and restart strategies in
+ * parallel. The first replica that returns a definite result wins and all
+ * other replicas are {@link AbstractSat4JSolver#interrupt() interrupted}.<br>
+ * <br>
+ * Constraints and assumptions are kept in sync with all replicas. Each replica
+ * uses its own thread, which terminates when the solver is idle for a while.
+ * The solver can be {@link #close() closed} to release its threads
+ * immediately. Analyses can use the portfolio through the
+ * {@link Sat4JPortfolioBackend}.
+ *
+ * @author Sebastian Krieter
+ */
+public class Sat4JPortfolioSolver implements LiteralSolver, AutoCloseable {
+
+	/**
+	 * Time in milliseconds after which idle replica threads terminate.
+	 */
+	private static final long KEEP_ALIVE_TIME = 10_000;
+	/**
+	 * Interval in milliseconds in which losing replicas are interrupted again
+	 * until they stop.
+	 */
+	private static final long INTERRUPT_INTERVAL = 10;
+
+	/**
+	 * Configuration of a single replica within the portfolio.
+	 */
+	public static final class Configuration {
+
+		private final SStrategy strategy;
+		private final Supplier<RestartStrategy> restartStrategy;
+
+		/**
+		 * @param strategy        the selection strategy of the replica
+		 * @param restartStrategy creates the restart strategy of the replica or
+		 *                        {@code null} to use the default of Sat4J
+		 */
+		public Configuration(SStrategy strategy, Supplier<RestartStrategy> restartStrategy) {
+			this.strategy = strategy;
+			this.restartStrategy = restartStrategy;
+		}
+
+		public SStrategy getStrategy() {
+			return strategy;
+		}
+
+		public Supplier<RestartStrategy> getRestartStrategy() {
+			return restartStrategy;
+		}
+
+	}
+
+	public static List<Configuration> getDefaultConfigurations(Random random) {
+		return Arrays.asList( //
+			new Configuration(SStrategy.original(), null), //
+			new Configuration(SStrategy.negative(), LubyRestarts::new), //
+			new Configuration(SStrategy.positive(), ArminRestarts::new), //
+			new Configuration(SStrategy.random(random), MiniSATRestarts::new));
+	}
+
+	private final class PortfolioFormula extends AbstractDynamicFormula<LiteralList> implements
+		ClauseFormula<LiteralList> {
+
+		public PortfolioFormula(VariableMap variableMap) {
+			super(variableMap);
+		}
+
+		@Override
+		public List<LiteralList> push(Formula formula) throws RuntimeContradictionException {
+			return push(FormulaToCNF.convert(formula, variableMap).getClauses());
+		}
+
+		@Override
+		public List<LiteralList> push(List<? extends LiteralList> clauses) throws RuntimeContradictionException {
+			int pushedReplicas = 0;
+			try {
+				for (final Sat4JSolver replica : replicas) {
+					replica.getFormula().push(clauses);
+					pushedReplicas++;
+				}
+			} catch (final RuntimeException e) {
+				// each replica rolls back a failed push itself
+				for (int i = 0; i < pushedReplicas; i++) {
+					replicas.get(i).getFormula().pop(clauses.size());
+				}
+				throw e;
+			}
+			constraints.addAll(clauses);
+			clearSolutionHistory();
+			return Collections.unmodifiableList(new ArrayList<LiteralList>(clauses));
+		}
+
+		@Override
+		public LiteralList push(LiteralList clause) throws RuntimeContradictionException {
+			int pushedReplicas = 0;
+			try {
+				for (final Sat4JSolver replica : replicas) {
+					replica.getFormula().push(clause);
+					pushedReplicas++;
+				}
+			} catch (final RuntimeException e) {
+				for (int i = 0; i < pushedReplicas; i++) {
+					replicas.get(i).getFormula().pop();
+				}
+				throw e;
+			}
+			constraints.add(clause);
+			clearSolutionHistory();
+			return clause;
+		}
+
+		@Override
+		public List<LiteralList> getClauses() {
+			return Collections.unmodifiableList(constraints);
+		}
+
+		@Override
+		public LiteralList pop() {
+			for (final Sat4JSolver replica : replicas) {
+				replica.getFormula().pop();
+			}
+			return super.pop();
+		}
+
+		@Override
+		public void remove(LiteralList constraint) {
+			final int index = constraints.indexOf(constraint);
+			if (index >= 0) {
+				for (final Sat4JSolver replica : replicas) {
+					final Sat4JFormula formula = replica.getFormula();
+					final int offset = formula.size() - constraints.size();
+					formula.remove(formula.getConstraints().get(offset + index));
+				}
+				removeConstraint(index);
+			}
+		}
+
+	}
+
+	private final CNF cnf;
+	private final List<LiteralList> prototypeClauses;
+	private final List<Configuration> configurations;
+	private final List<Sat4JSolver> replicas;
+	private final ThreadPoolExecutor executor;
+	private final Sat4JAssumptions assumptions;
+	private final PortfolioFormula formula;
+
+	private int timeout = 1_000_000;
+	private SolutionHistory solutionHistory = null;
+	private int[] lastModel = null;
+	private Sat4JSolver lastWinner = null;
+	private volatile boolean cancelled = false;
+
+	public Sat4JPortfolioSolver(CNF cnf) {
+		this(new Sat4JSolver(cnf), getDefaultConfigurations(new Random(112358)));
+	}
+
+	/**
+	 * Creates a portfolio with one replica of the given solver for each
+	 * configuration. The given solver itself is not used by the portfolio.
+	 *
+	 * @param prototype      the solver to replicate
+	 * @param configurations the configurations of the replicas
+	 */
+	public Sat4JPortfolioSolver(Sat4JSolver prototype, List<Configuration> configurations) {
+		if (configurations.isEmpty()) {
+			throw new IllegalArgumentException("No configurations given");
+		}
+		cnf = prototype.getCnf();
+		prototypeClauses = new ArrayList<>(prototype.getFormula().getClauses());
+		this.configurations = new ArrayList<>(configurations);
+		replicas = new ArrayList<>(configurations.size());
+		for (final Configuration configuration : configurations) {
+			final Sat4JSolver replica = prototype.clone();
+			replica.setSelectionStrategy(configuration.getStrategy());
+			if (configuration.getRestartStrategy() != null) {
+				replica.setRestartStrategy(configuration.getRestartStrategy().get());
+			}
+			// allows to remove all constraints pushed via the portfolio
+			replica.getFormula().setSelectorMode(true);
+			// solutions are remembered by the portfolio
+			replica.rememberSolutionHistory(0);
+			replicas.add(replica);
+		}
+		assumptions = new Sat4JAssumptions(prototype.getVariables());
+		assumptions.pushAll(prototype.getAssumptions().asArray());
+		formula = new PortfolioFormula(prototype.getVariables());
+		executor = new ThreadPoolExecutor(replicas.size(), replicas.size(), KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(), runnable -> {
+				final Thread thread = new Thread(runnable, "Sat4JPortfolioSolver");
+				thread.setDaemon(true);
+				return thread;
+			});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Creates a portfolio with the same clauses, pushed constraints, assumptions,
+	 * and configurations as the given portfolio.
+	 */
+	private Sat4JPortfolioSolver(Sat4JPortfolioSolver oldSolver) {
+		this(new Sat4JSolver(new CNF(oldSolver.cnf.getVariableMap(), oldSolver.prototypeClauses)),
+			oldSolver.configurations);
+		formula.push(oldSolver.formula.getClauses());
+		assumptions.clear();
+		assumptions.pushAll(oldSolver.assumptions.asArray());
+		setTimeout(oldSolver.timeout);
+		if (oldSolver.solutionHistory != null) {
+			rememberSolutionHistory(oldSolver.solutionHistory.getCapacity());
+		}
+	}
+
+	@Override
+	public Sat4JPortfolioSolver clone() {
+		return new Sat4JPortfolioSolver(this);
+	}
+
+	@Override
+	public CNF getCnf() {
+		return cnf;
+	}
+
+	@Override
+	public List<LiteralList> getClauses() {
+		final List<LiteralList> clauses = new ArrayList<>(prototypeClauses);
+		clauses.addAll(formula.getClauses());
+		return clauses;
+	}
+
+	@Override
+	public Sat4JAssumptions getAssumptions() {
+		return assumptions;
+	}
+
+	@Override
+	public ClauseFormula<LiteralList> getDynamicFormula() {
+		return formula;
+	}
+
+	@Override
+	public VariableMap getVariables() {
+		return formula.getVariableMap();
+	}
+
+	public List<Sat4JSolver> getReplicas() {
+		return Collections.unmodifiableList(replicas);
+	}
+
+	@Override
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+		for (final Sat4JSolver replica : replicas) {
+			replica.setTimeout(timeout);
+		}
+	}
+
+	@Override
+	public LiteralList getSolution() {
+		return new LiteralList(Arrays.copyOf(lastModel, lastModel.length), Order.INDEX, false);
+	}
+
+	/**
+	 * Returns the last solution found by satisfiability solver without copying
+	 * it. The returned array <b>must not be modified</b>.
+	 *
+	 * @return An array representing the satisfying assignment ordered by
+	 *         variable index.
+	 */
+	@Override
+	public int[] getInternalSolution() {
+		return lastModel;
+	}
+
+	/**
+	 * @return The explanation of the replica that decided the last unsatisfiable
+	 *         check.
+	 */
+	@Override
+	public int[] getContradictoryAssignment() {
+		return lastWinner != null ? lastWinner.getContradictoryAssignment() : new int[0];
+	}
+
+	@Override
+	public SatResult hasSolution() {
+		return race(assumptions.asArray());
+	}
+
+	/**
+	 * Checks whether there is a satisfying solution considering the clauses of the
+	 * solver and the given variable assignment.<br>
+	 * Does only consider the given {@code assignment} and <b>not</b> the global
+	 * assignment variable of the solver.
+	 *
+	 * @param assignment The temporarily variable assignment for this call.
+	 * @return A {@link SatResult}.
+	 */
+	@Override
+	public SatResult hasSolution(int... assignment) {
+		return race(Arrays.copyOf(assignment, assignment.length));
+	}
+
+	@Override
+	public SatResult hasSolution(LiteralList assignment) {
+		return hasSolution(assignment.getLiterals());
+	}
+
+	private SatResult race(int[] literals) {
+		lastModel = null;
+		lastWinner = null;
+		if (cancelled) {
+			return SatResult.TIMEOUT;
+		}
+		if (solutionHistory != null) {
+			final LiteralList solution = solutionHistory.getSolution(literals);
+			if (solution != null) {
+				lastModel = solution.getLiterals();
+				return SatResult.TRUE;
+			}
+		}
+
+		final AtomicBoolean decided = new AtomicBoolean(false);
+		final CompletionService<SatResult> completionService = new ExecutorCompletionService<>(executor);
+		final Map<Future<SatResult>, Sat4JSolver> futures = new HashMap<>();
+		for (final Sat4JSolver replica : replicas) {
+			futures.put(completionService.submit(() -> solve(replica, literals, decided)), replica);
+		}
+
+		SatResult result = SatResult.TIMEOUT;
+		RuntimeException exception = null;
+		boolean interrupted = false;
+		// wait for all replicas, such that none of them is running after returning
+		for (int i = 0; i < replicas.size();) {
+			final Future<SatResult> future;
+			try {
+				if (decided.get()) {
+					// a loser may have started its search after it was interrupted
+					future = completionService.poll(INTERRUPT_INTERVAL, TimeUnit.MILLISECONDS);
+					if (future == null) {
+						interruptLosers(futures);
+						continue;
+					}
+				} else {
+					future = completionService.take();
+				}
+			} catch (final InterruptedException e) {
+				interrupted = true;
+				decided.set(true);
+				replicas.forEach(Sat4JSolver::interrupt);
+				continue;
+			}
+			i++;
+			final Sat4JSolver replica = futures.remove(future);
+			try {
+				final SatResult replicaResult = future.get();
+				if (!interrupted && (result == SatResult.TIMEOUT) && (replicaResult != SatResult.TIMEOUT)) {
+					decided.set(true);
+					result = replicaResult;
+					lastWinner = replica;
+					interruptLosers(futures);
+				}
+			} catch (final ExecutionException e) {
+				decided.set(true);
+				replicas.forEach(Sat4JSolver::interrupt);
+				exception = new RuntimeException(e.getCause());
+			} catch (final InterruptedException e) {
+				// cannot happen, as the future is already completed
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+			lastWinner = null;
+			return SatResult.TIMEOUT;
+		}
+		if (exception != null) {
+			lastWinner = null;
+			throw exception;
+		}
+		if ((result == SatResult.TRUE) && (lastWinner != null)) {
+			lastModel = lastWinner.getSolution().getLiterals();
+			if (solutionHistory != null) {
+				solutionHistory.add(new LiteralList(lastModel, Order.INDEX, false));
+			}
+		}
+		return result;
+	}
+	/**
+	 * Interrupts all replicas that are still running.
+	 */
+	private static void interruptLosers(Map<Future<SatResult>, Sat4JSolver> runningReplicas) {
+		for (final Sat4JSolver replica : runningReplicas.values()) {
+			replica.interrupt();
+		}
+	}
+
+	private SatResult solve(Sat4JSolver replica, int[] literals, AtomicBoolean decided) {
+		if (decided.get()) {
+			return SatResult.TIMEOUT;
+		}
+		final Sat4JAssumptions replicaAssumptions = replica.getAssumptions();
+		replicaAssumptions.clear();
+		replicaAssumptions.pushAll(literals);
+		return replica.hasSolution();
+	}
+
+	@Override
+	public List<LiteralList> rememberSolutionHistory(int numberOfSolutions) {
+		if (numberOfSolutions > 0) {
+			solutionHistory = new SolutionHistory(cnf.getVariableMap().getMaxIndex(), numberOfSolutions);
+		} else {
+			solutionHistory = null;
+		}
+		return getSolutionHistory();
+	}
+
+	@Override
+	public List<LiteralList> getSolutionHistory() {
+		return solutionHistory != null ? solutionHistory.getSolutions() : Collections.emptyList();
+	}
+
+	@Override
+	public LiteralList getSolutionFromHistory(int... literals) {
+		return solutionHistory != null ? solutionHistory.getSolution(literals) : null;
+	}
+
+	private void clearSolutionHistory() {
+		if (solutionHistory != null) {
+			solutionHistory.clear();
+			lastModel = null;
+		}
+	}
+
+	@Override
+	public void interrupt() {
+		for (final Sat4JSolver replica : replicas) {
+			replica.interrupt();
+		}
+	}
+
+	@Override
+	public void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+		for (final Sat4JSolver replica : replicas) {
+			replica.setCancelled(cancelled);
+		}
+	}
+
+	@Override
+	public void reset() {
+		for (final Sat4JSolver replica : replicas) {
+			replica.reset();
+		}
+		clearSolutionHistory();
+		lastModel = null;
+		lastWinner = null;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+}
@@ -29,7 +29,8 @@ import org.sat4j.minisat.core.*;
 import org.sat4j.minisat.orders.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.expression.atomic.literal.*;
-import org.spldev.formula.solver.sat4j.SStrategy.*;
+import org.spldev.formula.solver.SStrategy;
+import org.spldev.formula.solver.SStrategy.*;
 import org.spldev.formula.solver.sat4j.strategy.*;
 
 /**
@@ -56,6 +57,21 @@ public class Sat4JSolver extends AbstractSat4JSolver<Solver<?>> {
 		setOrderFix();
 	}
 
+	protected Sat4JSolver(Sat4JSolver oldSolver) {
+		super(oldSolver);
+		order = Arrays.copyOf(oldSolver.order, oldSolver.order.length);
+		if (oldSolver.strategy.strategy() == SStrategy.Strategy.Original) {
+			strategy = oldSolver.strategy;
+		} else {
+			setSelectionStrategy(oldSolver.strategy);
+		}
+	}
+
+	@Override
+	public Sat4JSolver clone() {
+		return new Sat4JSolver(this);
+	}
+
 	@Override
 	protected Solver<?> createSolver() {
 		return (Solver<?>) SolverFactory.newDefault();
@@ -71,6 +87,7 @@ public class Sat4JSolver extends AbstractSat4JSolver<Solver<?>> {
 		return order;
 	}
 
+	@Override
 	public SStrategy getSelectionStrategy() {
 		return strategy;
 	}
@@ -99,6 +116,16 @@ public class Sat4JSolver extends AbstractSat4JSolver<Solver<?>> {
 		}
 	}
 
+	/**
+	 * Sets the restart strategy of the underlying Sat4J solver. The restart
+	 * strategy is not copied by {@link #clone()}.
+	 *
+	 * @param restartStrategy the restart strategy
+	 */
+	public void setRestartStrategy(RestartStrategy restartStrategy) {
+		solver.setRestartStrategy(restartStrategy);
+	}
+
 	private void setSelectionStrategy(IOrder strategy) {
 		solver.setOrder(strategy);
 		solver.getOrder().init();
@@ -0,0 +1,216 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sat4j;
+
+import java.util.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Bounded cache of solutions found by a solver. For each literal, the cache
+ * maintains a bitset over all cached solutions that contain this literal. Thus,
+ * finding a cached solution that satisfies a set of literals only requires a
+ * few bitwise ANDs per literal. If the cache is full, the least recently used
+ * solution is replaced.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolutionHistory {
+
+	private static final int WORD_SHIFT = 6;
+
+	private final int capacity;
+	private final int numberOfVariables;
+	private final int numberOfWords;
+
+	/**
+	 * For each literal, a bitset over all slots. The positive literal of variable
+	 * {@code v} starts at {@code 2 * v * numberOfWords}, the negative literal at
+	 * {@code (2 * v + 1) * numberOfWords}.
+	 */
+	private final long[] literalBits;
+	private final long[] validSlots;
+	private final LiteralList[] slots;
+	private final long[] lastAccess;
+	private final long[] additionTime;
+
+	private long accessCounter = 0;
+	private int size = 0;
+
+	public SolutionHistory(int numberOfVariables, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.numberOfVariables = numberOfVariables;
+		numberOfWords = ((capacity - 1) >>> WORD_SHIFT) + 1;
+		literalBits = new long[2 * (numberOfVariables + 1) * numberOfWords];
+		validSlots = new long[numberOfWords];
+		slots = new LiteralList[capacity];
+		lastAccess = new long[capacity];
+		additionTime = new long[capacity];
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return A snapshot of all cached solutions, starting with the most recently
+	 *         added solution. The solutions are copies that are not affected by
+	 *         subsequent changes of this cache.
+	 */
+	public List<LiteralList> getSolutions() {
+		final Integer[] order = new Integer[size];
+		for (int slot = 0; slot < size; slot++) {
+			order[slot] = slot;
+		}
+		Arrays.sort(order, (slot1, slot2) -> Long.compare(additionTime[slot2], additionTime[slot1]));
+		final List<LiteralList> solutions = new ArrayList<>(size);
+		for (final int slot : order) {
+			solutions.add(new LiteralList(slots[slot]));
+		}
+		return Collections.unmodifiableList(solutions);
+	}
+
+	/**
+	 * Adds a solution to this cache. If the cache is full, the least recently
+	 * used solution is removed.
+	 *
+	 * @param solution a complete assignment ordered by variable index
+	 */
+	public void add(LiteralList solution) {
+		final int slot;
+		if (size < capacity) {
+			slot = size++;
+		} else {
+			slot = getLeastRecentlyUsedSlot();
+		}
+		final LiteralList oldSolution = slots[slot];
+		if (oldSolution != null) {
+			setBits(oldSolution, slot, false);
+		}
+		slots[slot] = solution;
+		setBits(solution, slot, true);
+		validSlots[slot >>> WORD_SHIFT] |= 1L << slot;
+		lastAccess[slot] = ++accessCounter;
+		additionTime[slot] = accessCounter;
+	}
+
+	/**
+	 * Searches for a cached solution that contains all given literals.
+	 *
+	 * @param literals the literals
+	 * @return A solution containing all literals or {@code null}, if there is no
+	 *         such solution.
+	 */
+	public LiteralList getSolution(int... literals) {
+		return getSolution(literals, literals.length);
+	}
+
+	/**
+	 * Searches for a cached solution that contains the first {@code length}
+	 * literals of the given array.
+	 *
+	 * @param literals the literals
+	 * @param length   the number of literals to consider
+	 * @return A solution containing all literals or {@code null}, if there is no
+	 *         such solution.
+	 */
+	public LiteralList getSolution(int[] literals, int length) {
+		if (size == 0) {
+			return null;
+		}
+		for (int i = 0; i < length; i++) {
+			if (Math.abs(literals[i]) > numberOfVariables) {
+				return null;
+			}
+		}
+		for (int wordIndex = 0; wordIndex < numberOfWords; wordIndex++) {
+			long word = validSlots[wordIndex];
+			for (int i = 0; (i < length) && (word != 0); i++) {
+				final int literal = literals[i];
+				if (literal != 0) {
+					word &= literalBits[getOffset(literal) + wordIndex];
+				}
+			}
+			if (word != 0) {
+				final int slot = (wordIndex << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+				lastAccess[slot] = ++accessCounter;
+				return slots[slot];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all solutions from this cache.
+	 */
+	public void clear() {
+		// bits of invalid slots are cleared lazily when the slot is reused
+		Arrays.fill(validSlots, 0);
+		size = 0;
+	}
+
+	private int getLeastRecentlyUsedSlot() {
+		int slot = 0;
+		long minAccess = lastAccess[0];
+		for (int i = 1; i < capacity; i++) {
+			if (lastAccess[i] < minAccess) {
+				minAccess = lastAccess[i];
+				slot = i;
+			}
+		}
+		return slot;
+	}
+
+	private void setBits(LiteralList solution, int slot, boolean value) {
+		final int wordIndex = slot >>> WORD_SHIFT;
+		final long mask = 1L << slot;
+		for (final int literal : solution.getLiterals()) {
+			if ((literal != 0) && (Math.abs(literal) <= numberOfVariables)) {
+				final int index = getOffset(literal) + wordIndex;
+				if (value) {
+					literalBits[index] |= mask;
+				} else {
+					literalBits[index] &= ~mask;
+				}
+			}
+		}
+	}
+
+	private int getOffset(int literal) {
+		return literal > 0 //
+			? (literal << 1) * numberOfWords //
+			: ((-literal << 1) + 1) * numberOfWords;
+	}
+
+}
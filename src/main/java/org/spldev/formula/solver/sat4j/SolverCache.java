@@ -0,0 +1,244 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sat4j;
+
+import java.lang.ref.*;
+import java.util.*;
+
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+
+/**
+ * Keeps warm {@link Sat4JSolver solvers} for each {@link CNF}, such that
+ * subsequent analyses on the same CNF do not have to build a new solver. For
+ * each CNF, a {@link SolverPool} is created on first demand. Pools are only
+ * softly referenced and thus are discarded under memory pressure.<br>
+ * <br>
+ * A leased solver contains only the clauses of its CNF. Callers apply their
+ * assumptions and constraints incrementally and {@link #release(Sat4JSolver)
+ * release} the solver afterwards, which restores its initial state.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverCache {
+
+	/**
+	 * Soft reference to a pool that remembers its CNF, such that the entries of
+	 * a discarded pool can be removed.
+	 */
+	private static final class PoolReference extends SoftReference<SolverPool> {
+		private final CNF cnf;
+
+		private PoolReference(CNF cnf, SolverPool pool, ReferenceQueue<SolverPool> queue) {
+			super(pool, queue);
+			this.cnf = cnf;
+		}
+	}
+
+	private final Map<CNF, PoolReference> pools = new IdentityHashMap<>();
+	private final Map<Sat4JSolver, SolverPool> leasedSolvers = new IdentityHashMap<>();
+	private final Map<CNF, Long> buildTimes = new IdentityHashMap<>();
+	private final ReferenceQueue<SolverPool> discardedPools = new ReferenceQueue<>();
+	private final int poolSize;
+
+	private boolean enabled = true;
+	/**
+	 * Incremented by {@link #clear()}, such that pools that were built
+	 * concurrently are not cached.
+	 */
+	private int generation = 0;
+
+	public SolverCache() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param poolSize the maximal number of solvers per CNF
+	 */
+	public SolverCache(int poolSize) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+		}
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Leases a warm solver for the given CNF. If there is no pool for the CNF, it
+	 * is built without holding the lock of this cache.
+	 *
+	 * @param cnf the CNF
+	 * @return A solver for the CNF or {@code null}, if the cache is disabled or
+	 *         all solvers for this CNF are currently leased.
+	 */
+	public Sat4JSolver lease(CNF cnf) {
+		if (cnf == null) {
+			return null;
+		}
+		final int currentGeneration;
+		synchronized (this) {
+			if (!enabled) {
+				return null;
+			}
+			final SolverPool pool = getPool(cnf);
+			if (pool != null) {
+				return tryLease(pool);
+			}
+			currentGeneration = generation;
+		}
+		final long startTime = System.nanoTime();
+		final SolverPool newPool = new SolverPool(cnf, poolSize);
+		final long buildTime = System.nanoTime() - startTime;
+		synchronized (this) {
+			if (!enabled) {
+				return null;
+			}
+			SolverPool pool = getPool(cnf);
+			if (pool == null) {
+				pool = newPool;
+				if (generation == currentGeneration) {
+					buildTimes.put(cnf, buildTime);
+					pools.put(cnf, new PoolReference(cnf, pool, discardedPools));
+				}
+			}
+			return tryLease(pool);
+		}
+	}
+
+	private SolverPool getPool(CNF cnf) {
+		removeDiscardedPools();
+		final PoolReference reference = pools.get(cnf);
+		return reference != null ? reference.get() : null;
+	}
+
+	private Sat4JSolver tryLease(SolverPool pool) {
+		final Sat4JSolver solver = pool.tryLease();
+		if (solver != null) {
+			leasedSolvers.put(solver, pool);
+		}
+		return solver;
+	}
+
+	/**
+	 * Removes the entries of all pools that were discarded under memory pressure,
+	 * such that their CNFs are no longer referenced.
+	 */
+	private void removeDiscardedPools() {
+		for (Reference<? extends SolverPool> reference = discardedPools.poll(); reference != null; reference =
+			discardedPools.poll()) {
+			final CNF cnf = ((PoolReference) reference).cnf;
+			if (pools.get(cnf) == reference) {
+				pools.remove(cnf);
+				buildTimes.remove(cnf);
+			}
+		}
+	}
+
+	/**
+	 * Resets the given solver and returns it to the cache.
+	 *
+	 * @param solver a solver leased from this cache
+	 */
+	public void release(Sat4JSolver solver) {
+		final SolverPool pool;
+		synchronized (this) {
+			pool = leasedSolvers.remove(solver);
+		}
+		if (pool == null) {
+			throw new IllegalStateException("Solver does not belong to this cache");
+		}
+		pool.release(solver);
+	}
+
+	/**
+	 * @param solver a solver
+	 * @return Whether the given solver is currently leased from this cache.
+	 */
+	public synchronized boolean isLeased(Sat4JSolver solver) {
+		return leasedSolvers.containsKey(solver);
+	}
+
+	/**
+	 * Discards all idle solvers. Currently leased solvers can still be released.
+	 */
+	public synchronized void clear() {
+		pools.clear();
+		buildTimes.clear();
+		generation++;
+	}
+
+	/**
+	 * @return The estimated size of all cached solvers in bytes.
+	 *
+	 * @see SizeEstimator#estimateSolver(CNF)
+	 */
+	public synchronized long getEstimatedSize() {
+		removeDiscardedPools();
+		long size = 0;
+		for (final Map.Entry<CNF, PoolReference> entry : pools.entrySet()) {
+			final SolverPool pool = entry.getValue().get();
+			if (pool != null) {
+				size += (pool.getCreatedSolvers() + 1) * SizeEstimator.estimateSolver(entry.getKey());
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return The estimated time in nanoseconds to build all cached solvers
+	 *         again.
+	 */
+	public synchronized long getBuildTime() {
+		removeDiscardedPools();
+		long time = 0;
+		for (final Map.Entry<CNF, PoolReference> entry : pools.entrySet()) {
+			final SolverPool pool = entry.getValue().get();
+			final Long buildTime = buildTimes.get(entry.getKey());
+			if ((pool != null) && (buildTime != null)) {
+				time += (pool.getCreatedSolvers() + 1) * buildTime;
+			}
+		}
+		return time;
+	}
+
+	public synchronized boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether solvers are cached. Disabling the cache discards all idle
+	 * solvers.
+	 *
+	 * @param enabled whether to cache solvers
+	 */
+	public synchronized void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+}
@@ -0,0 +1,207 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sat4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+
+/**
+ * A fixed-size pool of independent {@link Sat4JSolver} replicas that can be
+ * leased to worker threads. Each replica is a {@link Sat4JSolver#clone() clone}
+ * of a prototype solver and starts with its clauses, pushed constraints, and
+ * assumptions. Replicas are created lazily on first demand. When a replica is
+ * {@link #release(Sat4JSolver) released}, it is reset to the state of the
+ * prototype at the time the pool was created. Replicas that reserved many
+ * additional variables (e.g., for selector literals) are replaced by a fresh
+ * clone of the prototype instead.
+ *
+ * <br>
+ * <br>
+ * The prototype must not be modified while the pool is in use. The pool itself
+ * is thread-safe, the leased solvers are not.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverPool {
+
+	/**
+	 * Maximum ratio between the number of variables of a replica and the number
+	 * of variables of the prototype. Each clause that is pushed in selector mode
+	 * permanently reserves a new variable in the solver.
+	 */
+	public static final int MAX_VARIABLE_GROWTH = 2;
+
+	private final Sat4JSolver prototype;
+	private final int maxSize;
+
+	private final int[] initialAssumptions;
+	private final int initialFormulaSize;
+	private final SStrategy initialStrategy;
+	private final int[] initialOrder;
+	private final int initialTimeout;
+	private final boolean initialGlobalTimeout;
+	private final int initialHistoryCapacity;
+	private final boolean initialSelectorMode;
+	private final SolverStatisticsSink initialStatisticsSink;
+	private final Object initialStatisticsScope;
+	private final int maxVariables;
+
+	private final BlockingQueue<Sat4JSolver> idleSolvers;
+	private int createdSolvers = 0;
+
+	public SolverPool(CNF cnf, int size) {
+		this(new Sat4JSolver(cnf), size);
+	}
+
+	public SolverPool(Sat4JSolver prototype, int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Pool size must be positive: " + size);
+		}
+		this.prototype = prototype;
+		maxSize = size;
+		initialAssumptions = prototype.getAssumptions().asArray();
+		initialFormulaSize = prototype.getFormula().size();
+		initialStrategy = prototype.getSelectionStrategy();
+		initialOrder = Arrays.copyOf(prototype.getOrder(), prototype.getOrder().length);
+		initialTimeout = prototype.timeout;
+		initialGlobalTimeout = prototype.isGlobalTimeout();
+		initialHistoryCapacity = prototype.solutionHistory != null ? prototype.solutionHistory.getCapacity() : 0;
+		initialSelectorMode = prototype.getFormula().isSelectorMode();
+		initialStatisticsSink = prototype.getStatisticsSink();
+		initialStatisticsScope = prototype.getStatisticsScope();
+		maxVariables = MAX_VARIABLE_GROWTH * Math.max(1, prototype.solver.nVars());
+		idleSolvers = new ArrayBlockingQueue<>(size);
+	}
+
+	public Sat4JSolver getPrototype() {
+		return prototype;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return The number of replicas created so far (excluding the prototype).
+	 */
+	public synchronized int getCreatedSolvers() {
+		return createdSolvers;
+	}
+
+	/**
+	 * Leases a solver from this pool, waiting if necessary until a solver becomes
+	 * available.
+	 *
+	 * @return A solver that is exclusively used by the caller until it is
+	 *         {@link #release(Sat4JSolver) released}.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public Sat4JSolver lease() throws InterruptedException {
+		final Sat4JSolver solver = tryLease();
+		return solver != null ? solver : idleSolvers.take();
+	}
+
+	/**
+	 * Leases a solver from this pool, if one is available.
+	 *
+	 * @return A solver or {@code null}, if all solvers are currently leased.
+	 */
+	public Sat4JSolver tryLease() {
+		final Sat4JSolver solver = idleSolvers.poll();
+		if (solver != null) {
+			return solver;
+		}
+		synchronized (this) {
+			if (createdSolvers < maxSize) {
+				createdSolvers++;
+			} else {
+				return null;
+			}
+		}
+		return prototype.clone();
+	}
+
+	/**
+	 * Resets the given solver and makes it available for other threads.
+	 *
+	 * @param solver a solver leased from this pool
+	 */
+	public void release(Sat4JSolver solver) {
+		if (!idleSolvers.offer(reset(solver))) {
+			throw new IllegalStateException("Solver does not belong to this pool");
+		}
+	}
+
+	/**
+	 * Leases a solver, applies the given function, and releases the solver
+	 * again.
+	 *
+	 * @param function the function to apply
+	 * @return The result of the function.
+	 * @throws InterruptedException if interrupted while waiting for a solver
+	 */
+	public <R> R apply(Function<Sat4JSolver, R> function) throws InterruptedException {
+		final Sat4JSolver solver = lease();
+		try {
+			return function.apply(solver);
+		} finally {
+			release(solver);
+		}
+	}
+
+	private Sat4JSolver reset(Sat4JSolver solver) {
+		solver.setCancelled(false);
+		final Sat4JFormula formula = solver.getFormula();
+		final int pushedConstraints = formula.size() - initialFormulaSize;
+		if (pushedConstraints < 0) {
+			// constraints of the prototype were removed, so the replica cannot be restored
+			return prototype.clone();
+		} else if (solver.solver.nVars() > maxVariables) {
+			// variables reserved for selectors cannot be freed
+			return prototype.clone();
+		} else if (pushedConstraints > 0) {
+			formula.pop(pushedConstraints);
+		}
+		final Sat4JAssumptions assumptions = solver.getAssumptions();
+		assumptions.clear();
+		assumptions.pushAll(initialAssumptions);
+		if (solver.getSelectionStrategy() != initialStrategy) {
+			solver.setSelectionStrategy(initialStrategy);
+		}
+		solver.setOrder(initialOrder);
+		formula.setSelectorMode(initialSelectorMode);
+		solver.setTimeout(initialTimeout);
+		solver.setGlobalTimeout(initialGlobalTimeout);
+		solver.setStatisticsSink(initialStatisticsSink, initialStatisticsScope);
+		final SolutionHistory history = solver.solutionHistory;
+		if ((history != null ? history.getCapacity() : 0) != initialHistoryCapacity) {
+			solver.rememberSolutionHistory(initialHistoryCapacity);
+		}
+		return solver;
+	}
+
+}
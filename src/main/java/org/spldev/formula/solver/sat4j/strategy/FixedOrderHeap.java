@@ -53,13 +53,21 @@ public class FixedOrderHeap extends VarOrderHeap {
 		heap = new Heap(activity);
 		heap.setBounds(nlength);
 		nlength--;
-		for (int i = 0; i < nlength; i++) {
+		final int orderLength = Math.min(order.length, nlength);
+		for (int i = 0; i < orderLength; i++) {
 			final int x = order[i];
 			activity[x] = 0.0;
 			if (lits.belongsToPool(x)) {
 				heap.insert(x);
 			}
 		}
+		// additional variables (e.g., selector variables) that are not part of the order
+		for (int x = orderLength + 1; x <= nlength; x++) {
+			activity[x] = 0.0;
+			if (lits.belongsToPool(x)) {
+				heap.insert(x);
+			}
+		}
 	}
 
 	public int[] getOrder() {
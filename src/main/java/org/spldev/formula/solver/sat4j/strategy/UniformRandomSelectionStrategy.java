@@ -26,7 +26,7 @@ import static org.sat4j.core.LiteralsUtils.*;
 
 import org.sat4j.core.*;
 import org.sat4j.minisat.core.*;
-import org.spldev.formula.solver.sat4j.*;
+import org.spldev.formula.solver.LiteralDistribution;
 
 /**
  * Uses a sample of configurations to achieve a phase selection that corresponds
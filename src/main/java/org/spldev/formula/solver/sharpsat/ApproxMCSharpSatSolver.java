@@ -0,0 +1,571 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sharpsat;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sat4j.*;
+
+/**
+ * Approximate #SAT solver based on hashing with random XOR constraints
+ * (ApproxMC). The returned estimate is within a factor of {@code 1 + epsilon}
+ * of the exact number of solutions with a probability of at least
+ * {@code 1 - delta}.<br>
+ * <br>
+ * Each iteration partitions the solutions into cells by adding {@code m}
+ * random XOR constraints over the counted variables to a {@link Sat4JSolver}.
+ * The smallest {@code m} for which a cell contains at most
+ * {@link #getThreshold() threshold} solutions is determined by enumerating
+ * cells with blocking clauses. Then, the size of the cell multiplied by
+ * {@code 2^m} is an estimate of the number of solutions. The result is the
+ * median of the estimates of all iterations.<br>
+ * <br>
+ * XOR constraints are encoded as chains of auxiliary variables. The
+ * constraints of one iteration are nested and each one is activated by an
+ * assumption, such that different values of {@code m} can be tested on the
+ * same solver. Iterations are independent and can be executed in parallel.
+ * The random XOR constraints of each iteration only depend on the
+ * {@link #setSeed(long) seed} and the index of the iteration, so the result
+ * does not depend on the scheduling.
+ *
+ * @author Sebastian Krieter
+ */
+public class ApproxMCSharpSatSolver implements SharpSatSolver {
+
+	public static final double DEFAULT_EPSILON = 0.8;
+	public static final double DEFAULT_DELTA = 0.2;
+
+	protected final CNF cnf;
+	protected final Sat4JAssumptions assumptions;
+	protected final SimpleClauseFormula formula;
+
+	private double epsilon = DEFAULT_EPSILON;
+	private double delta = DEFAULT_DELTA;
+	private long seed = 0;
+	private LiteralList projection = null;
+	private long timeout = 0;
+	private int parallelism = 1;
+	private Executor executor = null;
+
+	private boolean exact = false;
+	private final List<Sat4JSolver> activeSolvers = new CopyOnWriteArrayList<>();
+	private volatile boolean cancelled = false;
+
+	public ApproxMCSharpSatSolver(CNF cnf) {
+		this.cnf = cnf;
+		assumptions = new Sat4JAssumptions(cnf.getVariableMap());
+		formula = new SimpleClauseFormula(cnf.getVariableMap());
+	}
+
+	@Override
+	public Sat4JAssumptions getAssumptions() {
+		return assumptions;
+	}
+
+	@Override
+	public SimpleClauseFormula getDynamicFormula() {
+		return formula;
+	}
+
+	@Override
+	public VariableMap getVariables() {
+		return cnf.getVariableMap();
+	}
+
+	public CNF getCnf() {
+		return cnf;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * Sets the tolerance of the estimate. The estimate is within a factor of
+	 * {@code 1 + epsilon} of the exact number of solutions.
+	 *
+	 * @param epsilon the tolerance (default is {@value #DEFAULT_EPSILON})
+	 */
+	public void setEpsilon(double epsilon) {
+		if (!(epsilon > 0)) {
+			throw new IllegalArgumentException(String.valueOf(epsilon));
+		}
+		this.epsilon = epsilon;
+	}
+
+	public double getDelta() {
+		return delta;
+	}
+
+	/**
+	 * Sets the confidence of the estimate. The estimate is within the tolerance
+	 * with a probability of at least {@code 1 - delta}.
+	 *
+	 * @param delta the probability of error (default is {@value #DEFAULT_DELTA})
+	 */
+	public void setDelta(double delta) {
+		if (!((delta > 0) && (delta < 1))) {
+			throw new IllegalArgumentException(String.valueOf(delta));
+		}
+		this.delta = delta;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return The maximum number of solutions in a cell.
+	 */
+	public int getThreshold() {
+		final double tolerance = 1 + (1 / epsilon);
+		return (int) Math.ceil(1 + (9.84 * (1 + (epsilon / (1 + epsilon))) * tolerance * tolerance));
+	}
+
+	/**
+	 * @return The number of estimates of which the median is computed.
+	 */
+	public int getIterations() {
+		return (int) Math.ceil(17 * (Math.log(3 / delta) / Math.log(2)));
+	}
+
+	public LiteralList getProjection() {
+		return projection;
+	}
+
+	@Override
+	public void setProjection(LiteralList projection) {
+		this.projection = projection;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	@Override
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of iterations that are executed in parallel. Each
+	 * iteration uses its own copy of the solver.
+	 *
+	 * @param parallelism the number of parallel iterations (default is
+	 *                    {@code 1})
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(String.valueOf(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor for parallel iterations.
+	 *
+	 * @param executor the executor or {@code null} to use the
+	 *                 {@link AbstractAnalysis#getDefaultExecutor() default
+	 *                 executor}
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @return Whether the last result of {@link #countSolutions()} is exact,
+	 *         because the number of solutions did not exceed the
+	 *         {@link #getThreshold() threshold}.
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * Estimates the number of solutions of the clauses under the current
+	 * assumptions.
+	 *
+	 * @return The estimated number of solutions or {@code null}, if a timeout
+	 *         occurred or the solver was interrupted.
+	 */
+	@Override
+	public BigInteger countSolutions() {
+		exact = false;
+		if (cancelled) {
+			return null;
+		}
+		final long deadline = timeout > 0 ? System.nanoTime() + (timeout * 1_000_000L) : Long.MAX_VALUE;
+		final Sat4JSolver baseSolver;
+		try {
+			baseSolver = createBaseSolver();
+		} catch (final RuntimeContradictionException e) {
+			exact = true;
+			return BigInteger.ZERO;
+		}
+		final int[] samplingVariables = getSamplingVariables();
+		final int threshold = getThreshold();
+
+		final int count = countCell(baseSolver, samplingVariables, threshold, deadline);
+		if (count < 0) {
+			return null;
+		}
+		if (count <= threshold) {
+			exact = true;
+			return BigInteger.valueOf(count);
+		}
+
+		final int iterations = getIterations();
+		final BigInteger[] estimates = new BigInteger[iterations];
+		final AtomicInteger nextIteration = new AtomicInteger();
+		final AtomicInteger hint = new AtomicInteger(1);
+		final AtomicBoolean failed = new AtomicBoolean();
+
+		ParallelWorkers.run(parallelism, executor != null ? executor : AbstractAnalysis.getDefaultExecutor(), k -> {
+			runIterations(baseSolver, samplingVariables, threshold, deadline, estimates, nextIteration, hint,
+				failed);
+			return null;
+		}, () -> nextIteration.set(iterations));
+		if (failed.get()) {
+			return null;
+		}
+		Arrays.sort(estimates);
+		return estimates[iterations / 2];
+	}
+
+	@Override
+	public SatResult hasSolution() {
+		if (cancelled) {
+			return SatResult.TIMEOUT;
+		}
+		final Sat4JSolver baseSolver;
+		try {
+			baseSolver = createBaseSolver();
+		} catch (final RuntimeContradictionException e) {
+			return SatResult.FALSE;
+		}
+		activeSolvers.add(baseSolver);
+		try {
+			setRemainingTime(baseSolver, timeout > 0 ? System.nanoTime() + (timeout * 1_000_000L)
+				: Long.MAX_VALUE);
+			return cancelled ? SatResult.TIMEOUT : baseSolver.hasSolution();
+		} finally {
+			activeSolvers.remove(baseSolver);
+		}
+	}
+
+	private Sat4JSolver createBaseSolver() throws RuntimeContradictionException {
+		final Sat4JSolver baseSolver = new Sat4JSolver(cnf);
+		baseSolver.rememberSolutionHistory(0);
+		baseSolver.getFormula().push(formula.getClauses());
+		baseSolver.getAssumptions().pushAll(assumptions.asArray());
+		return baseSolver;
+	}
+
+	private int[] getSamplingVariables() {
+		if (projection != null) {
+			return Arrays.stream(projection.getLiterals()).map(Math::abs).filter(var -> var != 0).distinct()
+				.sorted().toArray();
+		}
+		final int numberOfVariables = cnf.getVariableMap().getMaxIndex();
+		final int[] samplingVariables = new int[numberOfVariables];
+		for (int var = 1; var <= numberOfVariables; var++) {
+			samplingVariables[var - 1] = var;
+		}
+		return samplingVariables;
+	}
+
+	private void runIterations(Sat4JSolver baseSolver, int[] samplingVariables, int threshold, long deadline,
+		BigInteger[] estimates, AtomicInteger nextIteration, AtomicInteger hint, AtomicBoolean failed) {
+		for (int i = nextIteration.getAndIncrement(); i < estimates.length; i = nextIteration.getAndIncrement()) {
+			if (failed.get() || cancelled) {
+				failed.set(true);
+				return;
+			}
+			final BigInteger estimate = estimate(baseSolver.clone(), samplingVariables, threshold, deadline,
+				new Random(mix(seed, i)), hint);
+			if (estimate == null) {
+				failed.set(true);
+				return;
+			}
+			estimates[i] = estimate;
+		}
+	}
+
+	/**
+	 * Computes one estimate by searching for the smallest number of XOR
+	 * constraints {@code m} for which the cell contains at most
+	 * {@code threshold} solutions. The search starts at the result of the
+	 * previous iteration, as the value of {@code m} is usually similar for all
+	 * iterations.
+	 */
+	private BigInteger estimate(Sat4JSolver solver, int[] samplingVariables, int threshold, long deadline,
+		Random random, AtomicInteger hint) {
+		final int maxM = samplingVariables.length;
+		final int[] guards = new int[maxM + 1];
+		final int[] cellCounts = new int[maxM + 1];
+		Arrays.fill(cellCounts, -1);
+
+		// m = 0 is already known to exceed the threshold
+		int low = 0;
+		int high = maxM + 1;
+		int step = 1;
+		int m = Math.max(1, Math.min(hint.get(), maxM));
+		int count = countCell(solver, samplingVariables, threshold, deadline, random, guards, m, cellCounts);
+		if (count < 0) {
+			return null;
+		}
+		if (count > threshold) {
+			low = m;
+			while ((low + step) <= maxM) {
+				m = low + step;
+				count = countCell(solver, samplingVariables, threshold, deadline, random, guards, m, cellCounts);
+				if (count < 0) {
+					return null;
+				}
+				if (count > threshold) {
+					low = m;
+					step <<= 1;
+				} else {
+					high = m;
+					break;
+				}
+			}
+		} else {
+			high = m;
+			while ((high - step) > low) {
+				m = high - step;
+				count = countCell(solver, samplingVariables, threshold, deadline, random, guards, m, cellCounts);
+				if (count < 0) {
+					return null;
+				}
+				if (count > threshold) {
+					low = m;
+					break;
+				} else {
+					high = m;
+					step <<= 1;
+				}
+			}
+		}
+		while ((high - low) > 1) {
+			m = (low + high) >>> 1;
+			count = countCell(solver, samplingVariables, threshold, deadline, random, guards, m, cellCounts);
+			if (count < 0) {
+				return null;
+			}
+			if (count > threshold) {
+				low = m;
+			} else {
+				high = m;
+			}
+		}
+		if (high > maxM) {
+			// cannot happen for independent XOR constraints, use the largest cell as
+			// lower bound
+			high = maxM;
+		}
+		hint.set(high);
+		return BigInteger.valueOf(cellCounts[high]).shiftLeft(high);
+	}
+
+	/**
+	 * Counts the solutions within the cell defined by the first {@code m} XOR
+	 * constraints of the given solver. Missing XOR constraints are created.
+	 */
+	private int countCell(Sat4JSolver solver, int[] samplingVariables, int threshold, long deadline, Random random,
+		int[] guards, int m, int[] cellCounts) {
+		if (cellCounts[m] >= 0) {
+			return cellCounts[m];
+		}
+		for (int i = 1; i <= m; i++) {
+			if (guards[i] == 0) {
+				guards[i] = addXor(solver, samplingVariables, random);
+			}
+		}
+		final Sat4JAssumptions solverAssumptions = solver.getAssumptions();
+		final int assumptionCount = solverAssumptions.size();
+		for (int i = 1; i <= m; i++) {
+			solverAssumptions.push(guards[i]);
+		}
+		try {
+			final int count = countCell(solver, samplingVariables, threshold, deadline);
+			if (count >= 0) {
+				cellCounts[m] = count;
+			}
+			return count;
+		} finally {
+			solverAssumptions.clear(assumptionCount);
+		}
+	}
+
+	/**
+	 * Enumerates the solutions of the given solver until the number of solutions
+	 * exceeds the threshold. Two solutions are only counted as different, if they
+	 * differ in at least one sampling variable.
+	 *
+	 * @return The number of solutions (at most {@code threshold + 1}) or
+	 *         {@code -1}, if a timeout occurred.
+	 */
+	private int countCell(Sat4JSolver solver, int[] samplingVariables, int threshold, long deadline) {
+		final Sat4JFormula solverFormula = solver.getFormula();
+		final boolean selectorMode = solverFormula.isSelectorMode();
+		solverFormula.setSelectorMode(true);
+		activeSolvers.add(solver);
+		int count = 0;
+		try {
+			while (count <= threshold) {
+				if (cancelled || !setRemainingTime(solver, deadline)) {
+					return -1;
+				}
+				final SatResult hasSolution = solver.hasSolution();
+				switch (hasSolution) {
+				case FALSE:
+					return count;
+				case TIMEOUT:
+					return -1;
+				case TRUE:
+					if (samplingVariables.length == 0) {
+						return 1;
+					}
+					final int[] solution = solver.getInternalSolution();
+					final int[] blockingClause = new int[samplingVariables.length];
+					for (int i = 0; i < samplingVariables.length; i++) {
+						blockingClause[i] = -solution[samplingVariables[i] - 1];
+					}
+					solverFormula.push(new LiteralList(blockingClause));
+					count++;
+					break;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+			}
+			return count;
+		} finally {
+			solverFormula.pop(count);
+			solverFormula.setSelectorMode(selectorMode);
+			activeSolvers.remove(solver);
+		}
+	}
+
+	/**
+	 * Adds a random XOR constraint over the sampling variables to the given
+	 * solver. Each sampling variable is contained with a probability of
+	 * {@code 1/2}. The constraint is encoded as a chain of auxiliary variables
+	 * {@code y_j = y_(j-1) xor x_j} and is only active, if the returned guard
+	 * variable is assumed.
+	 *
+	 * @return The guard variable of the constraint.
+	 */
+	private static int addXor(Sat4JSolver solver, int[] samplingVariables, Random random) {
+		final Sat4JFormula solverFormula = solver.getFormula();
+		final boolean selectorMode = solverFormula.isSelectorMode();
+		solverFormula.setSelectorMode(false);
+		try {
+			final int guard = solverFormula.newVariable();
+			final boolean parity = random.nextBoolean();
+			int chain = 0;
+			for (final int var : samplingVariables) {
+				if (random.nextBoolean()) {
+					if (chain == 0) {
+						chain = var;
+					} else {
+						final int next = solverFormula.newVariable();
+						solverFormula.push(new LiteralList(-next, chain, var));
+						solverFormula.push(new LiteralList(-next, -chain, -var));
+						solverFormula.push(new LiteralList(next, -chain, var));
+						solverFormula.push(new LiteralList(next, chain, -var));
+						chain = next;
+					}
+				}
+			}
+			if (chain == 0) {
+				if (parity) {
+					solverFormula.push(new LiteralList(-guard));
+				}
+			} else {
+				solverFormula.push(new LiteralList(-guard, parity ? chain : -chain));
+			}
+			return guard;
+		} finally {
+			solverFormula.setSelectorMode(selectorMode);
+		}
+	}
+
+	private static boolean setRemainingTime(Sat4JSolver solver, long deadline) {
+		if (deadline == Long.MAX_VALUE) {
+			solver.setTimeout(Integer.MAX_VALUE);
+			return true;
+		}
+		final long remainingTime = (deadline - System.nanoTime()) / 1_000_000L;
+		if (remainingTime <= 0) {
+			return false;
+		}
+		solver.setTimeout((int) Math.min(Integer.MAX_VALUE, remainingTime));
+		return true;
+	}
+
+	/**
+	 * Derives a well distributed seed for an iteration from the base seed.
+	 */
+	private static long mix(long seed, int iteration) {
+		long z = seed + ((iteration + 1) * 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public void interrupt() {
+		for (final Sat4JSolver activeSolver : activeSolvers) {
+			activeSolver.interrupt();
+		}
+	}
+
+	@Override
+	public void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+		if (cancelled) {
+			interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sharpsat;
+
+import java.math.*;
+import java.util.*;
+
+/**
+ * Bounded cache for the model counts of components. A component is identified
+ * by its variables and clauses, which together determine its residual formula.
+ * If the estimated size of all entries exceeds the capacity, the least
+ * recently used entries are removed.
+ *
+ * @author Sebastian Krieter
+ */
+public class ComponentCache {
+
+	/**
+	 * Packed signature of a component, consisting of the number of variables,
+	 * the sorted variables, and the sorted indices of the clauses.
+	 */
+	static final class Key {
+		private final int[] signature;
+		private final int hashCode;
+
+		Key(int[] signature) {
+			this.signature = signature;
+			hashCode = Arrays.hashCode(signature);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			return (hashCode == ((Key) obj).hashCode) && Arrays.equals(signature, ((Key) obj).signature);
+		}
+
+		long estimateSize(BigInteger count) {
+			return 64 + (4L * signature.length) + (count.bitLength() >>> 3);
+		}
+	}
+
+	public static final long DEFAULT_CAPACITY = 64L << 20;
+
+	private final LinkedHashMap<Key, BigInteger> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long capacity;
+	private long size = 0;
+	private long hits = 0;
+	private long misses = 0;
+
+	public ComponentCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity the maximum estimated size of all entries in bytes
+	 */
+	public ComponentCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	BigInteger get(Key key) {
+		final BigInteger count = entries.get(key);
+		if (count != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return count;
+	}
+
+	void put(Key key, BigInteger count) {
+		final BigInteger oldCount = entries.put(key, count);
+		if (oldCount != null) {
+			size -= key.estimateSize(oldCount);
+		}
+		size += key.estimateSize(count);
+		evict();
+	}
+
+	private void evict() {
+		final Iterator<Map.Entry<Key, BigInteger>> iterator = entries.entrySet().iterator();
+		while ((size > capacity) && iterator.hasNext()) {
+			final Map.Entry<Key, BigInteger> entry = iterator.next();
+			size -= entry.getKey().estimateSize(entry.getValue());
+			iterator.remove();
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(long capacity) {
+		this.capacity = capacity;
+		evict();
+	}
+
+	/**
+	 * @return The estimated size of all entries in bytes.
+	 */
+	public long getEstimatedSize() {
+		return size;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+}
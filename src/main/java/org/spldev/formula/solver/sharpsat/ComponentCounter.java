@@ -0,0 +1,368 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sharpsat;
+
+import java.math.*;
+import java.util.*;
+import java.util.function.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.bcp.*;
+
+/**
+ * Exact model counter based on DPLL with component decomposition. After each
+ * decision, all implied literals are assigned by {@link UnitPropagation}. The
+ * remaining variables are partitioned into components that share no
+ * unsatisfied clause, which are counted independently. The counts of
+ * components are stored in a {@link ComponentCache}.<br>
+ * <br>
+ * Counting can be projected onto a subset of the variables. Then, components
+ * without projected variables are only checked for satisfiability.
+ *
+ * @author Sebastian Krieter
+ */
+class ComponentCounter {
+
+	private static final class Component {
+		private final int[] variables;
+		private final int[] clauses;
+		private final boolean projected;
+
+		private Component(int[] variables, int[] clauses, boolean projected) {
+			this.variables = variables;
+			this.clauses = clauses;
+			this.projected = projected;
+		}
+
+		private ComponentCache.Key getKey() {
+			final int[] signature = new int[1 + variables.length + clauses.length];
+			signature[0] = variables.length;
+			System.arraycopy(variables, 0, signature, 1, variables.length);
+			System.arraycopy(clauses, 0, signature, 1 + variables.length, clauses.length);
+			return new ComponentCache.Key(signature);
+		}
+	}
+
+	private final int numberOfVariables;
+	private final int[][] clauses;
+	private final int[][] occurrences;
+	private final boolean[] projected;
+	private final UnitPropagation propagation;
+	private final ComponentCache cache;
+
+	private final int[] variableStamps;
+	private final int[] clauseStamps;
+	private final int[] queue;
+	private final int[] scores;
+	private int stamp = 0;
+
+	private long deadline = Long.MAX_VALUE;
+	private BooleanSupplier cancelled = () -> false;
+
+	/**
+	 * @param numberOfVariables the highest variable index
+	 * @param clauses           the clauses
+	 * @param projection        the variables to count or {@code null} to count
+	 *                          all variables
+	 * @param cache             the cache for components
+	 */
+	ComponentCounter(int numberOfVariables, Collection<? extends LiteralList> clauses, LiteralList projection,
+		ComponentCache cache) {
+		this.cache = cache;
+		propagation = new UnitPropagation(numberOfVariables, clauses);
+		this.numberOfVariables = propagation.getNumberOfVariables();
+
+		final ArrayList<int[]> clauseList = new ArrayList<>(clauses.size());
+		for (final LiteralList clause : clauses) {
+			final int[] literals = removeDuplicates(clause.getLiterals());
+			if (literals != null) {
+				clauseList.add(literals);
+			}
+		}
+		this.clauses = clauseList.toArray(new int[0][]);
+
+		final int[] counts = new int[this.numberOfVariables + 1];
+		for (final int[] clause : this.clauses) {
+			for (final int literal : clause) {
+				counts[Math.abs(literal)]++;
+			}
+		}
+		occurrences = new int[counts.length][];
+		for (int var = 0; var < counts.length; var++) {
+			occurrences[var] = new int[counts[var]];
+			counts[var] = 0;
+		}
+		for (int c = 0; c < this.clauses.length; c++) {
+			for (final int literal : this.clauses[c]) {
+				final int var = Math.abs(literal);
+				occurrences[var][counts[var]++] = c;
+			}
+		}
+
+		projected = new boolean[this.numberOfVariables + 1];
+		if (projection == null) {
+			Arrays.fill(projected, true);
+		} else {
+			for (final int var : projection.getLiterals()) {
+				if ((var > 0) && (var < projected.length)) {
+					projected[var] = true;
+				}
+			}
+		}
+
+		variableStamps = new int[this.numberOfVariables + 1];
+		clauseStamps = new int[this.clauses.length];
+		queue = new int[this.numberOfVariables];
+		scores = new int[this.numberOfVariables + 1];
+	}
+
+	/**
+	 * @return A sorted copy of the literals without duplicates or {@code null}, if
+	 *         the literals contain a complementary pair.
+	 */
+	private static int[] removeDuplicates(int[] literals) {
+		final int[] sortedLiterals = Arrays.copyOf(literals, literals.length);
+		Arrays.sort(sortedLiterals);
+		int length = 0;
+		for (final int literal : sortedLiterals) {
+			if ((literal == 0) || ((length > 0) && (sortedLiterals[length - 1] == literal))) {
+				continue;
+			}
+			if ((literal > 0) && (Arrays.binarySearch(sortedLiterals, -literal) >= 0)) {
+				return null;
+			}
+			sortedLiterals[length++] = literal;
+		}
+		return Arrays.copyOf(sortedLiterals, length);
+	}
+
+	void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	void setCancelled(BooleanSupplier cancelled) {
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Counts the solutions under the given assumptions.
+	 *
+	 * @param assumptions the assumed literals
+	 * @return The number of solutions projected onto the projected variables.
+	 * @throws RuntimeTimeoutException if the deadline is exceeded or counting is
+	 *                                 cancelled
+	 */
+	BigInteger count(int[] assumptions) throws RuntimeTimeoutException {
+		final int rootTrailSize = propagation.getTrailSize();
+		try {
+			for (final int literal : assumptions) {
+				if (!propagation.assign(literal)) {
+					return BigInteger.ZERO;
+				}
+			}
+			if (propagation.isContradiction()) {
+				return BigInteger.ZERO;
+			}
+			final int[] variables = new int[numberOfVariables];
+			for (int var = 1; var <= numberOfVariables; var++) {
+				variables[var - 1] = var;
+			}
+			return countComponents(variables);
+		} finally {
+			propagation.backtrack(rootTrailSize);
+		}
+	}
+
+	/**
+	 * Counts the solutions of all components formed by the unassigned variables
+	 * of the given array.
+	 */
+	private BigInteger countComponents(int[] variables) {
+		final List<Component> components = new ArrayList<>();
+		final int freeVariables = findComponents(variables, components);
+		BigInteger count = BigInteger.ONE.shiftLeft(freeVariables);
+		for (final Component component : components) {
+			final BigInteger componentCount = countComponent(component);
+			if (componentCount.signum() == 0) {
+				return BigInteger.ZERO;
+			}
+			count = count.multiply(componentCount);
+		}
+		return count;
+	}
+
+	private BigInteger countComponent(Component component) {
+		if ((System.nanoTime() > deadline) || cancelled.getAsBoolean()) {
+			throw new RuntimeTimeoutException();
+		}
+		final ComponentCache.Key key = component.getKey();
+		final BigInteger cachedCount = cache.get(key);
+		if (cachedCount != null) {
+			return cachedCount;
+		}
+
+		final int var = selectVariable(component);
+		BigInteger count = BigInteger.ZERO;
+		for (int literal = var; literal != 0; literal = literal > 0 ? -literal : 0) {
+			final int trailSize = propagation.getTrailSize();
+			try {
+				if (propagation.assign(literal)) {
+					count = count.add(countComponents(component.variables));
+				}
+			} finally {
+				propagation.backtrack(trailSize);
+			}
+			if (!component.projected && (count.signum() > 0)) {
+				// without projected variables, a component only needs to be satisfiable
+				count = BigInteger.ONE;
+				break;
+			}
+		}
+		cache.put(key, count);
+		return count;
+	}
+
+	/**
+	 * Selects the variable with the most occurrences in the unsatisfied clauses
+	 * of the component. If the component contains projected variables, only these
+	 * are considered.
+	 */
+	private int selectVariable(Component component) {
+		for (final int c : component.clauses) {
+			for (final int literal : clauses[c]) {
+				scores[Math.abs(literal)]++;
+			}
+		}
+		int selectedVariable = 0;
+		int maxScore = -1;
+		for (final int var : component.variables) {
+			if ((!component.projected || projected[var]) && (scores[var] > maxScore)) {
+				maxScore = scores[var];
+				selectedVariable = var;
+			}
+		}
+		for (final int c : component.clauses) {
+			for (final int literal : clauses[c]) {
+				scores[Math.abs(literal)] = 0;
+			}
+		}
+		return selectedVariable;
+	}
+
+	/**
+	 * Partitions the unassigned variables of the given array into components.
+	 *
+	 * @return The number of unassigned projected variables that do not occur in
+	 *         any unsatisfied clause.
+	 */
+	private int findComponents(int[] variables, List<Component> components) {
+		stamp++;
+		int freeVariables = 0;
+		final VariableBuffer componentVariables = new VariableBuffer();
+		final VariableBuffer componentClauses = new VariableBuffer();
+		for (final int start : variables) {
+			if ((propagation.getValue(start) != 0) || (variableStamps[start] == stamp)) {
+				continue;
+			}
+			componentVariables.clear();
+			componentClauses.clear();
+			boolean containsProjected = false;
+			int queueHead = 0;
+			int queueTail = 0;
+			variableStamps[start] = stamp;
+			queue[queueTail++] = start;
+			while (queueHead < queueTail) {
+				final int var = queue[queueHead++];
+				componentVariables.add(var);
+				containsProjected |= projected[var];
+				for (final int c : occurrences[var]) {
+					if (clauseStamps[c] == stamp) {
+						continue;
+					}
+					clauseStamps[c] = stamp;
+					if (isSatisfied(clauses[c])) {
+						continue;
+					}
+					componentClauses.add(c);
+					for (final int literal : clauses[c]) {
+						final int otherVar = Math.abs(literal);
+						if ((variableStamps[otherVar] != stamp) && (propagation.getValue(otherVar) == 0)) {
+							variableStamps[otherVar] = stamp;
+							queue[queueTail++] = otherVar;
+						}
+					}
+				}
+			}
+			if (componentClauses.size() == 0) {
+				if (projected[start]) {
+					freeVariables++;
+				}
+			} else {
+				components.add(new Component(componentVariables.toSortedArray(), componentClauses.toSortedArray(),
+					containsProjected));
+			}
+		}
+		return freeVariables;
+	}
+
+	private boolean isSatisfied(int[] clause) {
+		for (final int literal : clause) {
+			if (propagation.getValue(Math.abs(literal)) == literal) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class VariableBuffer {
+		private int[] elements = new int[16];
+		private int size = 0;
+
+		private void add(int element) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, size << 1);
+			}
+			elements[size++] = element;
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private int[] toSortedArray() {
+			final int[] array = Arrays.copyOf(elements, size);
+			Arrays.sort(array);
+			return array;
+		}
+	}
+
+	int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+}
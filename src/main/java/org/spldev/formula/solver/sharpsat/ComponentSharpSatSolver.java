@@ -0,0 +1,302 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.formula.solver.sharpsat;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.sat4j.*;
+
+/**
+ * Exact #SAT solver that counts the solutions of a {@link CNF} with a
+ * {@link ComponentCounter}. Counting considers all clauses of the
+ * {@link #getDynamicFormula() dynamic formula} and all
+ * {@link #getAssumptions() assumptions}. Optionally, counting can be projected
+ * onto a subset of the variables.<br>
+ * <br>
+ * The component cache is kept between calls as long as neither the clauses nor
+ * the projection change. Assumptions do not invalidate the cache, as cached
+ * components only depend on the clauses they contain.<br>
+ * <br>
+ * Counting runs in a single thread with a large stack, which is reused between
+ * calls and terminates when the solver is idle for a while. The solver can be
+ * {@link #close() closed} to release this thread immediately.
+ *
+ * @author Sebastian Krieter
+ */
+public class ComponentSharpSatSolver implements SharpSatSolver, AutoCloseable {
+
+	/**
+	 * Default stack size of the thread used for counting. The recursion depth is
+	 * bounded by the number of variables.
+	 */
+	public static final long DEFAULT_STACK_SIZE = 512L << 20;
+	/**
+	 * Time in milliseconds after which the idle counting thread terminates.
+	 */
+	private static final long KEEP_ALIVE_TIME = 10_000;
+
+	protected final CNF cnf;
+	protected final Sat4JAssumptions assumptions;
+	protected final SimpleClauseFormula formula;
+
+	private final ComponentCache cache = new ComponentCache();
+	private LiteralList projection = null;
+	private long timeout = 0;
+	private long stackSize = DEFAULT_STACK_SIZE;
+	private ThreadPoolExecutor executor = null;
+
+	private ComponentCounter counter = null;
+	private int counterModificationCount = -1;
+
+	private volatile boolean interrupted = false;
+	private volatile boolean cancelled = false;
+
+	public ComponentSharpSatSolver(CNF cnf) {
+		this.cnf = cnf;
+		assumptions = new Sat4JAssumptions(cnf.getVariableMap());
+		formula = new SimpleClauseFormula(cnf.getVariableMap());
+	}
+
+	@Override
+	public Sat4JAssumptions getAssumptions() {
+		return assumptions;
+	}
+
+	@Override
+	public SimpleClauseFormula getDynamicFormula() {
+		return formula;
+	}
+
+	@Override
+	public VariableMap getVariables() {
+		return cnf.getVariableMap();
+	}
+
+	public CNF getCnf() {
+		return cnf;
+	}
+
+	/**
+	 * @return The variables onto which counting is projected or {@code null}, if
+	 *         all variables are counted.
+	 */
+	public LiteralList getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Sets the variables onto which counting is projected. Then, two solutions are
+	 * only counted as different, if they differ in at least one of the given
+	 * variables.
+	 *
+	 * @param projection the variables or {@code null} to count all variables
+	 */
+	@Override
+	public void setProjection(LiteralList projection) {
+		if (!Objects.equals(this.projection, projection)) {
+			this.projection = projection;
+			counter = null;
+		}
+	}
+
+	/**
+	 * @return The timeout in milliseconds or {@code 0}, if there is no timeout.
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the maximum time for one call of {@link #countSolutions()} or
+	 * {@link #hasSolution()}.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 */
+	@Override
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public ComponentCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Sets the maximum estimated size of all entries in the component cache.
+	 *
+	 * @param capacity the capacity in bytes
+	 */
+	public void setCacheCapacity(long capacity) {
+		cache.setCapacity(capacity);
+	}
+
+	public long getStackSize() {
+		return stackSize;
+	}
+
+	/**
+	 * Sets the stack size of the thread used for counting. A value of {@code 0}
+	 * counts within the calling thread.
+	 *
+	 * @param stackSize the stack size in bytes
+	 */
+	public void setStackSize(long stackSize) {
+		if (this.stackSize != stackSize) {
+			close();
+			this.stackSize = stackSize;
+		}
+	}
+
+	/**
+	 * Counts the solutions of the clauses under the current assumptions.
+	 *
+	 * @return The number of solutions or {@code null}, if a timeout occurred or
+	 *         the solver was interrupted.
+	 * @throws StackOverflowError if the recursion exceeds the
+	 *                            {@link #setStackSize(long) stack size}
+	 */
+	@Override
+	public BigInteger countSolutions() {
+		return count(getCounter());
+	}
+
+	@Override
+	public SatResult hasSolution() {
+		final BigInteger count = count(new ComponentCounter(cnf.getVariableMap().getMaxIndex(), getClauses(),
+			new LiteralList(), new ComponentCache()));
+		if (count == null) {
+			return SatResult.TIMEOUT;
+		}
+		return count.signum() > 0 ? SatResult.TRUE : SatResult.FALSE;
+	}
+
+	private List<LiteralList> getClauses() {
+		final List<LiteralList> clauses = formula.getClauses();
+		if (clauses.isEmpty()) {
+			return cnf.getClauses();
+		}
+		final ArrayList<LiteralList> allClauses = new ArrayList<>(cnf.getClauses().size() + clauses.size());
+		allClauses.addAll(cnf.getClauses());
+		allClauses.addAll(clauses);
+		return allClauses;
+	}
+
+	private ComponentCounter getCounter() {
+		if ((counter == null) || (counterModificationCount != formula.getModificationCount())) {
+			cache.clear();
+			counter = new ComponentCounter(cnf.getVariableMap().getMaxIndex(), getClauses(), projection, cache);
+			counterModificationCount = formula.getModificationCount();
+		}
+		return counter;
+	}
+
+	private BigInteger count(ComponentCounter counter) {
+		interrupted = false;
+		if (cancelled) {
+			return null;
+		}
+		counter.setDeadline(timeout > 0 ? System.nanoTime() + (timeout * 1_000_000L) : Long.MAX_VALUE);
+		counter.setCancelled(() -> interrupted || cancelled);
+		final int[] assignment = assumptions.asArray();
+		if (stackSize <= 0) {
+			try {
+				return counter.count(assignment);
+			} catch (final RuntimeTimeoutException e) {
+				return null;
+			}
+		}
+
+		final Future<BigInteger> future = getExecutor().submit(() -> {
+			try {
+				return counter.count(assignment);
+			} catch (final RuntimeTimeoutException e) {
+				return null;
+			}
+		});
+		boolean threadInterrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (final InterruptedException e) {
+					// stop counting, but wait for the counting thread to finish
+					threadInterrupted = true;
+					interrupted = true;
+				}
+			}
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new RuntimeException(cause);
+			}
+		} finally {
+			if (threadInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					final Thread thread = new Thread(null, runnable, "ComponentSharpSatSolver", stackSize);
+					thread.setDaemon(true);
+					return thread;
+				});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	@Override
+	public void interrupt() {
+		interrupted = true;
+	}
+
+	@Override
+	public void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+		if (cancelled) {
+			interrupt();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.clauses.*;
+
+public class AnalysisExecutionTest {
+
+	@Test
+	public void testCancelBeforeExecution() {
+		final LiteralList expected = new CoreDeadAnalysis().getResult(new ModelRepresentation(FormulaCreator
+			.getFormula01())).orElseThrow();
+
+		final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+		analysis.cancel();
+		assertTrue(analysis.isCancelled());
+		// a cancellation does not affect subsequent executions
+		assertEquals(expected, analysis.getResult(new ModelRepresentation(FormulaCreator.getFormula01()))
+			.orElseThrow());
+		assertFalse(analysis.isCancelled());
+	}
+
+	@Test
+	public void testCancelAsyncExecution() throws Exception {
+		final LiteralList expected = new CoreDeadAnalysis().getResult(new ModelRepresentation(FormulaCreator
+			.getFormula01())).orElseThrow();
+
+		final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+		final List<Runnable> tasks = new ArrayList<>();
+		final ModelRepresentation rep = new ModelRepresentation(FormulaCreator.getFormula01());
+
+		// cancelled after submission, but before the task starts
+		final CompletableFuture<LiteralList> cancelledFuture = analysis.executeAsync(rep, tasks::add);
+		analysis.cancel();
+		tasks.forEach(Runnable::run);
+		tasks.clear();
+		assertTrue(cancelledFuture.isCompletedExceptionally());
+
+		// the same object can be used synchronously afterwards
+		assertEquals(expected, analysis.getResult(rep).orElseThrow());
+
+		// and asynchronously
+		final CompletableFuture<LiteralList> future = analysis.executeAsync(rep, tasks::add);
+		tasks.forEach(Runnable::run);
+		tasks.clear();
+		assertEquals(expected, future.get());
+
+		// a cancelled future is not executed at all
+		final CompletableFuture<LiteralList> skippedFuture = analysis.executeAsync(rep, tasks::add);
+		assertTrue(skippedFuture.cancel(true));
+		tasks.forEach(Runnable::run);
+		assertThrows(CancellationException.class, skippedFuture::join);
+		assertEquals(expected, analysis.getResult(rep).orElseThrow());
+	}
+
+}
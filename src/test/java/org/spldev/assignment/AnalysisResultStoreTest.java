@@ -0,0 +1,129 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.atomic.literal.*;
+
+public class AnalysisResultStoreTest {
+
+	/**
+	 * (a | -b) & (b | c) & (-a | -c) with a = 1, b = 2, c = 3.
+	 */
+	private static CNF createCNF() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("a", "b", "c"));
+		return new CNF(variables, Arrays.asList(
+			new LiteralList(1, -2),
+			new LiteralList(2, 3),
+			new LiteralList(-1, -3)));
+	}
+
+	/**
+	 * The same formula as {@link #createCNF()} with c = 1, a = 2, b = 3 and a
+	 * different order of clauses and literals.
+	 */
+	private static CNF createPermutedCNF() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("c", "a", "b"));
+		return new CNF(variables, Arrays.asList(
+			new LiteralList(new int[] { -1, -2 }, LiteralList.Order.UNORDERED),
+			new LiteralList(new int[] { -3, 2 }, LiteralList.Order.UNORDERED),
+			new LiteralList(new int[] { 1, 3 }, LiteralList.Order.UNORDERED)));
+	}
+
+	@Test
+	public void testFingerprint() {
+		final String fingerprint = CNFFingerprint.of(createCNF());
+		assertEquals(fingerprint, CNFFingerprint.of(createCNF()));
+		assertEquals(fingerprint, CNFFingerprint.of(createPermutedCNF()));
+
+		final CNF cnf = createCNF();
+		final CNF duplicatedCNF = new CNF(cnf.getVariableMap(), Arrays.asList(
+			new LiteralList(-1, -3),
+			new LiteralList(2, 3),
+			new LiteralList(-2, 1),
+			new LiteralList(2, 3)));
+		assertEquals(fingerprint, CNFFingerprint.of(duplicatedCNF));
+
+		final CNF otherCNF = new CNF(cnf.getVariableMap(), Arrays.asList(
+			new LiteralList(1, -2),
+			new LiteralList(2, 3),
+			new LiteralList(-1, 3)));
+		assertNotEquals(fingerprint, CNFFingerprint.of(otherCNF));
+	}
+
+	@Test
+	public void testStoreAndLoad() throws IOException {
+		final Path directory = Files.createTempDirectory("analysis-results");
+		final CNF cnf = createCNF();
+		final CNF permutedCNF = createPermutedCNF();
+		try {
+			final AnalysisResultStore store = new AnalysisResultStore(directory);
+
+			// [+a, -c] under assumption +a with projection on b
+			final AnalysisResult<LiteralList> literalResult = new AnalysisResult<>("CoreDead", new LiteralList(1),
+				Arrays.asList(new LiteralList(2), 5, "x", LiteralList.Order.NATURAL), new LiteralList(1, -3));
+			assertTrue(store.store(cnf, literalResult));
+
+			final AnalysisResult<BigInteger> countResult = new AnalysisResult<>("Count", new LiteralList(), null,
+				BigInteger.valueOf(2));
+			assertTrue(store.store(cnf, countResult));
+
+			// a new store reads the results with the variable indices of the permuted CNF
+			final AnalysisResultStore newStore = new AnalysisResultStore(directory);
+			final AnalysisResult<LiteralList> loadedLiteralResult = newStore.load(permutedCNF,
+				new AnalysisResult<>("CoreDead", new LiteralList(2), Arrays.asList(new LiteralList(3), 5, "x",
+					LiteralList.Order.NATURAL), null));
+			assertNotNull(loadedLiteralResult);
+			assertEquals(new LiteralList(2, -1), loadedLiteralResult.getResult());
+
+			final AnalysisResult<BigInteger> loadedCountResult = newStore.load(permutedCNF, new AnalysisResult<>(
+				"Count", new LiteralList(), null, null));
+			assertNotNull(loadedCountResult);
+			assertEquals(BigInteger.valueOf(2), loadedCountResult.getResult());
+
+			// results with different keys are not found
+			assertNull(newStore.load(permutedCNF, new AnalysisResult<>("CoreDead", new LiteralList(2), Arrays
+				.asList(new LiteralList(3), 5, "y", LiteralList.Order.NATURAL), null)));
+			assertNull(newStore.load(permutedCNF, new AnalysisResult<>("Count", new LiteralList(-2), null, null)));
+
+			// key parameters without a stable encoding are not stored
+			assertFalse(store.store(cnf, new AnalysisResult<>("Unsupported", new LiteralList(), new Object(),
+				Boolean.TRUE)));
+			assertNull(newStore.load(cnf, new AnalysisResult<>("Unsupported", new LiteralList(), new Object(),
+				null)));
+		} finally {
+			new AnalysisResultStore(directory).clear(cnf);
+			Files.deleteIfExists(directory);
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.analysis.*;
+import org.spldev.formula.analysis.AnalysisScheduler.*;
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.clauses.*;
+
+public class AnalysisSchedulerTest {
+
+	@Test
+	public void testResults() {
+		final LiteralList expectedCoreDead = new CoreDeadAnalysis().getResult(new ModelRepresentation(
+			FormulaCreator.getFormula01())).orElseThrow();
+		final AtomicSetAnalysis atomicSetAnalysis = new AtomicSetAnalysis();
+		atomicSetAnalysis.setCoreDead(expectedCoreDead);
+		final List<LiteralList> expectedAtomicSets = atomicSetAnalysis.getResult(new ModelRepresentation(
+			FormulaCreator.getFormula01())).orElseThrow();
+		final LiteralList expectedIndeterminate = new IndeterminateAnalysis().getResult(new ModelRepresentation(
+			FormulaCreator.getFormula01())).orElseThrow();
+
+		final AnalysisScheduler scheduler = new AnalysisScheduler(new ModelRepresentation(FormulaCreator
+			.getFormula01()));
+		final Node<CoreDeadAnalysis, LiteralList> coreDead = scheduler.add(new CoreDeadAnalysis());
+		final Node<AtomicSetAnalysis, List<LiteralList>> atomicSets = scheduler.add(new AtomicSetAnalysis()) //
+			.dependsOn(coreDead, AtomicSetAnalysis::setCoreDead);
+		final Node<IndeterminateAnalysis, LiteralList> indeterminate = scheduler.add(new IndeterminateAnalysis());
+		assertNull(coreDead.getFuture());
+
+		scheduler.run().join();
+		assertEquals(expectedCoreDead, coreDead.getFuture().join());
+		assertEquals(expectedAtomicSets, atomicSets.getFuture().join());
+		assertEquals(expectedIndeterminate, indeterminate.getFuture().join());
+		// the result of the dependency was passed to the dependent analysis
+		assertSame(coreDead.getFuture().join(), atomicSets.getAnalysis().getCoreDead());
+	}
+
+	@Test
+	public void testOrder() {
+		final Deque<Runnable> tasks = new ArrayDeque<>();
+		final AnalysisScheduler scheduler = new AnalysisScheduler(new ModelRepresentation(FormulaCreator
+			.getFormula01()), tasks::add);
+		final Node<CoreDeadAnalysis, LiteralList> coreDead = scheduler.add(new CoreDeadAnalysis());
+		final Node<AtomicSetAnalysis, List<LiteralList>> atomicSets = scheduler.add(new AtomicSetAnalysis()) //
+			.dependsOn(coreDead, AtomicSetAnalysis::setCoreDead);
+
+		final CompletableFuture<Void> future = scheduler.run();
+		// only the independent node is started
+		assertEquals(1, tasks.size());
+		tasks.poll().run();
+		assertTrue(coreDead.getFuture().isDone());
+		assertFalse(atomicSets.getFuture().isDone());
+
+		// the dependent node is started when its dependency is computed
+		assertEquals(1, tasks.size());
+		tasks.poll().run();
+		assertTrue(tasks.isEmpty());
+		assertTrue(atomicSets.getFuture().isDone());
+		assertTrue(future.isDone());
+		assertFalse(future.isCompletedExceptionally());
+	}
+
+	@Test
+	public void testCancel() {
+		final Deque<Runnable> tasks = new ArrayDeque<>();
+		final AnalysisScheduler scheduler = new AnalysisScheduler(new ModelRepresentation(FormulaCreator
+			.getFormula01()), tasks::add);
+		final Node<CoreDeadAnalysis, LiteralList> coreDead = scheduler.add(new CoreDeadAnalysis());
+		final Node<AtomicSetAnalysis, List<LiteralList>> atomicSets = scheduler.add(new AtomicSetAnalysis()) //
+			.dependsOn(coreDead, AtomicSetAnalysis::setCoreDead);
+
+		final CompletableFuture<Void> future = scheduler.run();
+		scheduler.cancel();
+		while (!tasks.isEmpty()) {
+			tasks.poll().run();
+		}
+		assertTrue(coreDead.getFuture().isCompletedExceptionally());
+		assertTrue(atomicSets.getFuture().isCompletedExceptionally());
+		assertTrue(future.isCompletedExceptionally());
+		assertNull(atomicSets.getAnalysis().getCoreDead());
+	}
+
+	@Test
+	public void testInvalidGraphs() {
+		final AnalysisScheduler scheduler = new AnalysisScheduler(new ModelRepresentation(FormulaCreator
+			.getFormula01()));
+		final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+		final Node<CoreDeadAnalysis, LiteralList> first = scheduler.add(analysis);
+		final Node<IndeterminateAnalysis, LiteralList> second = scheduler.add(new IndeterminateAnalysis());
+		assertThrows(IllegalArgumentException.class, () -> scheduler.add(analysis));
+		// dependencies must be added before their dependent nodes
+		assertThrows(IllegalArgumentException.class, () -> first.dependsOn(second));
+		assertThrows(IllegalArgumentException.class, () -> first.dependsOn(first));
+
+		final AnalysisScheduler otherScheduler = new AnalysisScheduler(new ModelRepresentation(FormulaCreator
+			.getFormula01()));
+		final Node<CoreDeadAnalysis, LiteralList> otherNode = otherScheduler.add(new CoreDeadAnalysis());
+		assertThrows(IllegalArgumentException.class, () -> second.dependsOn(otherNode));
+
+		scheduler.run().join();
+		assertThrows(IllegalStateException.class, scheduler::run);
+		assertThrows(IllegalStateException.class, () -> scheduler.add(new CoreDeadAnalysis()));
+	}
+
+}
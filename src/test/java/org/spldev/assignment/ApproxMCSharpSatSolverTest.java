@@ -0,0 +1,124 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.sharpsat.*;
+
+public class ApproxMCSharpSatSolverTest {
+
+	@Test
+	public void testExactBelowThreshold() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("a", "b", "c", "d"));
+		final CNF cnf = new CNF(variables, Arrays.asList(new LiteralList(1, 2), new LiteralList(-3, 4)));
+		final ApproxMCSharpSatSolver solver = new ApproxMCSharpSatSolver(cnf);
+		assertEquals(countExactly(cnf), solver.countSolutions());
+		assertTrue(solver.isExact());
+
+		solver.getAssumptions().push(-1);
+		assertEquals(BigInteger.valueOf(3), solver.countSolutions());
+		assertTrue(solver.isExact());
+
+		solver.getAssumptions().push(-2);
+		assertEquals(BigInteger.ZERO, solver.countSolutions());
+		assertTrue(solver.isExact());
+	}
+
+	@Test
+	public void testEstimateAboveThreshold() {
+		final int numberOfVariables = 12;
+		final List<String> names = new ArrayList<>();
+		for (int i = 1; i <= numberOfVariables; i++) {
+			names.add("v" + i);
+		}
+		final List<LiteralList> clauses = Arrays.asList( //
+			new LiteralList(1, 2), //
+			new LiteralList(-2, 3), //
+			new LiteralList(-4, -5), //
+			new LiteralList(5, 6, -7), //
+			new LiteralList(-8, 9), //
+			new LiteralList(-9, 10, 11));
+		final CNF cnf = new CNF(VariableMap.fromNames(names), clauses);
+		final BigInteger exact = countExactly(cnf);
+
+		final ApproxMCSharpSatSolver solver = new ApproxMCSharpSatSolver(cnf);
+		solver.setSeed(1);
+		solver.setDelta(0.05);
+		assertTrue(exact.intValue() > solver.getThreshold());
+		final BigInteger estimate = solver.countSolutions();
+		assertNotNull(estimate);
+		assertFalse(solver.isExact());
+		assertWithinTolerance(exact, estimate, solver.getEpsilon());
+
+		// the iterations only depend on the seed
+		final ApproxMCSharpSatSolver parallelSolver = new ApproxMCSharpSatSolver(cnf);
+		parallelSolver.setSeed(1);
+		parallelSolver.setDelta(0.05);
+		parallelSolver.setParallelism(4);
+		assertEquals(estimate, parallelSolver.countSolutions());
+	}
+
+	@Test
+	public void testFormulaCreator() {
+		testFormula(FormulaCreator.getFormula01());
+		testFormula(FormulaCreator.getFormula02());
+	}
+
+	private void testFormula(Formula formula) {
+		final CNF cnf = new ModelRepresentation(formula).get(CNFProvider.fromFormula());
+		final BigInteger exact = countExactly(cnf);
+		final ApproxMCSharpSatSolver solver = new ApproxMCSharpSatSolver(cnf);
+		solver.setSeed(1);
+		final BigInteger estimate = solver.countSolutions();
+		if (exact.compareTo(BigInteger.valueOf(solver.getThreshold())) <= 0) {
+			assertTrue(solver.isExact());
+			assertEquals(exact, estimate);
+		} else {
+			assertWithinTolerance(exact, estimate, solver.getEpsilon());
+		}
+	}
+
+	private static BigInteger countExactly(CNF cnf) {
+		final ComponentSharpSatSolver solver = new ComponentSharpSatSolver(cnf);
+		try {
+			return solver.countSolutions();
+		} finally {
+			solver.close();
+		}
+	}
+
+	private static void assertWithinTolerance(BigInteger exact, BigInteger estimate, double epsilon) {
+		final double ratio = estimate.doubleValue() / exact.doubleValue();
+		assertTrue((ratio >= (1 / (1 + epsilon))) && (ratio <= (1 + epsilon)), estimate + " / " + exact);
+	}
+
+}
@@ -0,0 +1,175 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.mig.*;
+
+public class AtomicSetAnalysisTest {
+
+	@Test
+	public void testFormulaCreator() {
+		testVariants(FormulaCreator.getFormula01());
+		testVariants(FormulaCreator.getFormula02());
+	}
+
+	private void testVariants(Formula formula) {
+		final VariableMap map = VariableMap.fromExpression(formula);
+		final List<boolean[]> solutions = computeSolutions(formula, map);
+
+		test(formula, map, solutions, new AtomicSetAnalysis());
+
+		final ModelRepresentation rep = new ModelRepresentation(formula);
+		final AtomicSetAnalysis withCoreDead = new AtomicSetAnalysis();
+		withCoreDead.setCoreDead(new CoreDeadAnalysis().getResult(rep).orElseThrow());
+		test(formula, map, solutions, withCoreDead);
+
+		final AtomicSetAnalysis withMIG = new AtomicSetAnalysis();
+		withMIG.setMIG(rep.get(MIGProvider.fromFormula()));
+		test(formula, map, solutions, withMIG);
+
+		final AtomicSetAnalysis withBoth = new AtomicSetAnalysis();
+		withBoth.setCoreDead(new CoreDeadAnalysis().getResult(rep).orElseThrow());
+		withBoth.setMIG(rep.get(MIGProvider.fromFormula()));
+		test(formula, map, solutions, withBoth);
+
+		// without random models, the groups are only split by tested models
+		final AtomicSetAnalysis withoutSamples = new AtomicSetAnalysis();
+		withoutSamples.setSignatureSamples(0);
+		test(formula, map, solutions, withoutSamples);
+	}
+
+	private void test(Formula formula, VariableMap map, List<boolean[]> solutions, AtomicSetAnalysis analysis) {
+		final ModelRepresentation rep = new ModelRepresentation(formula);
+		final VariableMap cnfMap = rep.get(CNFProvider.fromFormula()).getVariableMap();
+		final List<LiteralList> atomicSets = analysis.getResult(rep).orElseThrow();
+		assertFalse(atomicSets.isEmpty());
+
+		// the first set contains the core and dead literals
+		final Set<String> coreDead = new HashSet<>();
+		for (final int literal : atomicSets.get(0).getLiterals()) {
+			coreDead.add((literal > 0 ? "+" : "-") + cnfMap.getName(Math.abs(literal)).orElseThrow());
+		}
+		assertEquals(computeCoreDead(map, solutions), coreDead);
+
+		// all literals of an atomic set have the same value in each solution
+		final Set<Set<String>> sets = new HashSet<>();
+		for (final LiteralList atomicSet : atomicSets.subList(1, atomicSets.size())) {
+			final Set<String> names = new HashSet<>();
+			for (final int literal : atomicSet.getLiterals()) {
+				names.add(cnfMap.getName(Math.abs(literal)).orElseThrow());
+			}
+			assertEquals(atomicSet.size(), names.size());
+			for (final boolean[] solution : solutions) {
+				final Set<Boolean> values = new HashSet<>();
+				for (final int literal : atomicSet.getLiterals()) {
+					final String name = cnfMap.getName(Math.abs(literal)).orElseThrow();
+					values.add(solution[map.getIndex(name).orElseThrow()] == (literal > 0));
+				}
+				assertEquals(1, values.size(), names.toString());
+			}
+			sets.add(names);
+		}
+		assertEquals(computeAtomicSets(map, solutions), sets);
+	}
+
+	private static List<boolean[]> computeSolutions(Formula formula, VariableMap map) {
+		final int numVariables = map.size();
+		final List<boolean[]> solutions = new ArrayList<>();
+		final Assignment assignment = new VariableAssignment(map);
+		for (int i = 0; i < (1 << numVariables); i++) {
+			final boolean[] solution = new boolean[numVariables + 1];
+			for (int j = 0; j < numVariables; j++) {
+				solution[j + 1] = ((i >> j) & 1) == 1;
+				assignment.set(j + 1, solution[j + 1]);
+			}
+			if ((Boolean) Formulas.evaluate(formula, assignment).orElseThrow()) {
+				solutions.add(solution);
+			}
+		}
+		return solutions;
+	}
+
+	private static boolean isCoreOrDead(List<boolean[]> solutions, int variable) {
+		for (final boolean[] solution : solutions) {
+			if (solution[variable] != solutions.get(0)[variable]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<String> computeCoreDead(VariableMap map, List<boolean[]> solutions) {
+		final Set<String> coreDead = new HashSet<>();
+		for (int variable = 1; variable <= map.size(); variable++) {
+			if (isCoreOrDead(solutions, variable)) {
+				coreDead.add((solutions.get(0)[variable] ? "+" : "-") + map.getName(variable).orElseThrow());
+			}
+		}
+		return coreDead;
+	}
+
+	/**
+	 * Groups all variables that are neither core nor dead, such that the values
+	 * of two variables of a group are either always equal or always different.
+	 */
+	private static Set<Set<String>> computeAtomicSets(VariableMap map, List<boolean[]> solutions) {
+		final Set<Set<String>> atomicSets = new HashSet<>();
+		final boolean[] assigned = new boolean[map.size() + 1];
+		for (int x = 1; x <= map.size(); x++) {
+			if (assigned[x] || isCoreOrDead(solutions, x)) {
+				continue;
+			}
+			final Set<String> atomicSet = new HashSet<>();
+			for (int y = x; y <= map.size(); y++) {
+				if (!assigned[y] && !isCoreOrDead(solutions, y) && isEquivalent(solutions, x, y)) {
+					atomicSet.add(map.getName(y).orElseThrow());
+					assigned[y] = true;
+				}
+			}
+			atomicSets.add(atomicSet);
+		}
+		return atomicSets;
+	}
+
+	private static boolean isEquivalent(List<boolean[]> solutions, int x, int y) {
+		final boolean sameValue = solutions.get(0)[x] == solutions.get(0)[y];
+		for (final boolean[] solution : solutions) {
+			if ((solution[x] == solution[y]) != sameValue) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
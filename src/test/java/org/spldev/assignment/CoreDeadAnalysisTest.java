@@ -0,0 +1,233 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.analysis.mig.*;
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.analysis.sat4j.CoreDeadAnalysis.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.expression.compound.*;
+import org.spldev.formula.expression.io.*;
+import org.spldev.formula.expression.term.bool.*;
+import org.spldev.util.io.*;
+import org.spldev.util.io.format.*;
+
+public class CoreDeadAnalysisTest {
+
+	@Test
+	public void testFormula() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("a", "b", "c", "d", "e"));
+		final Literal a = new LiteralPredicate((BoolVariable) variables.getVariable("a").get(), true);
+		final Literal b = new LiteralPredicate((BoolVariable) variables.getVariable("b").get(), true);
+		final Literal c = new LiteralPredicate((BoolVariable) variables.getVariable("c").get(), true);
+		final Literal d = new LiteralPredicate((BoolVariable) variables.getVariable("d").get(), true);
+		final Literal e = new LiteralPredicate((BoolVariable) variables.getVariable("e").get(), true);
+
+		testStrategies(new And(
+			new Or(d),
+			new Or(e.flip()),
+			new Or(a, b),
+			new Or(a.flip(), c),
+			new Or(d, b, e.flip()),
+			new Or(b.flip(), c, d),
+			new Or(c.flip(), d.flip(), e.flip())));
+	}
+
+	@Test
+	public void testFormulaCreator() {
+		testStrategies(FormulaCreator.getFormula01());
+		testStrategies(FormulaCreator.getFormula02());
+	}
+
+	@Test
+	public void testKConfigReader() {
+		final Path modelFile = Paths.get("src/test/resources/kconfigreader/min-example.model");
+		testStrategies(FileHandler.load(modelFile, FormatSupplier.of(new KConfigReaderFormat())).orElseThrow());
+	}
+
+	private void testStrategies(Formula formula) {
+		final Set<String> expected = computeCoreDead(formula);
+
+		final CoreDeadAnalysis sequential = new CoreDeadAnalysis();
+		assertEquals(expected, execute(formula, sequential));
+
+		final CoreDeadAnalysis parallel = new CoreDeadAnalysis();
+		parallel.setParallelism(4);
+		assertEquals(expected, execute(formula, parallel));
+
+		final CoreDeadAnalysis chunked = new CoreDeadAnalysis();
+		chunked.setStrategy(Strategy.CHUNKED);
+		assertEquals(expected, execute(formula, chunked));
+
+		final CoreDeadAnalysis probing = new CoreDeadAnalysis();
+		probing.setProbing(true);
+		assertEquals(expected, execute(formula, probing));
+
+		final CoreDeadAnalysis parallelProbing = new CoreDeadAnalysis();
+		parallelProbing.setProbing(true);
+		parallelProbing.setParallelism(4);
+		assertEquals(expected, execute(formula, parallelProbing));
+
+		final CoreDeadAnalysis smallChunks = new CoreDeadAnalysis();
+		smallChunks.setStrategy(Strategy.CHUNKED);
+		smallChunks.setChunkSize(2);
+		smallChunks.setModelRotation(false);
+		assertEquals(expected, execute(formula, smallChunks));
+
+		// with a tiny time budget, each expected literal is found or undecided
+		final CoreDeadAnalysis budgeted = new CoreDeadAnalysis();
+		budgeted.setTimeBudget(1);
+		final ModelRepresentation rep = new ModelRepresentation(formula);
+		final VariableMap map = rep.get(CNFProvider.fromFormula()).getVariableMap();
+		final Set<String> found = execute(rep, budgeted);
+		assertTrue(expected.containsAll(found));
+		final Set<String> undecided = new HashSet<>();
+		for (final int variable : budgeted.getUndecided().getLiterals()) {
+			undecided.add(map.getName(Math.abs(variable)).orElseThrow());
+		}
+		for (final String literal : expected) {
+			assertTrue(found.contains(literal) || undecided.contains(literal.substring(1)), literal);
+		}
+	}
+
+	@Test
+	public void testMIG() {
+		testMIG(FormulaCreator.getFormula01());
+		testMIG(FormulaCreator.getFormula02());
+	}
+
+	private void testMIG(Formula formula) {
+		final Set<String> expected = computeCoreDead(formula);
+		for (final boolean probing : new boolean[] { false, true }) {
+			final ConditionallyCoreDeadAnalysisMIG analysis = new ConditionallyCoreDeadAnalysisMIG();
+			analysis.setProbing(probing);
+			assertEquals(expected, execute(new ModelRepresentation(formula), analysis));
+		}
+
+		// under a fixed literal, all found literals are conditionally core or dead
+		final ModelRepresentation rep = new ModelRepresentation(formula);
+		final VariableMap map = rep.get(CNFProvider.fromFormula()).getVariableMap();
+		for (int variable = 1; variable <= map.getMaxIndex(); variable++) {
+			for (final int literal : new int[] { variable, -variable }) {
+				final String name = map.getName(variable).orElseThrow();
+				if (expected.contains(toName(map, -literal))) {
+					// the literal contradicts the formula
+					continue;
+				}
+				final Set<String> conditionallyExpected = computeCoreDead(formula, name, literal > 0);
+				for (final boolean probing : new boolean[] { false, true }) {
+					final ConditionallyCoreDeadAnalysisMIG analysis = new ConditionallyCoreDeadAnalysisMIG();
+					analysis.setProbing(probing);
+					analysis.setFixedFeatures(new int[] { literal }, 1);
+					final Set<String> found = execute(new ModelRepresentation(formula), analysis);
+					assertTrue(conditionallyExpected.containsAll(found), found.toString());
+					assertTrue(found.containsAll(expected), found.toString());
+				}
+			}
+		}
+	}
+
+	private Set<String> execute(ModelRepresentation rep, ConditionallyCoreDeadAnalysisMIG analysis) {
+		final CNF cnf = rep.get(CNFProvider.fromFormula());
+		final LiteralList coreDead = analysis.getResult(rep).orElseThrow();
+		final Set<String> names = new HashSet<>();
+		for (final int literal : coreDead.getLiterals()) {
+			names.add(toName(cnf.getVariableMap(), literal));
+		}
+		return names;
+	}
+
+	private Set<String> execute(Formula formula, CoreDeadAnalysis analysis) {
+		// a new representation for each analysis, so that no cached result is reused
+		return execute(new ModelRepresentation(formula), analysis);
+	}
+
+	private Set<String> execute(ModelRepresentation rep, CoreDeadAnalysis analysis) {
+		final CNF cnf = rep.get(CNFProvider.fromFormula());
+		final LiteralList coreDead = analysis.getResult(rep).orElseThrow();
+		final Set<String> names = new HashSet<>();
+		for (final int literal : coreDead.getLiterals()) {
+			names.add(toName(cnf.getVariableMap(), literal));
+		}
+		return names;
+	}
+
+	private Set<String> computeCoreDead(Formula formula) {
+		return computeCoreDead(formula, null, false);
+	}
+
+	/**
+	 * Computes all literals that are core or dead in all solutions, in which the
+	 * given variable has the given value.
+	 *
+	 * @param assumedName the name of the assumed variable or {@code null}
+	 */
+	private Set<String> computeCoreDead(Formula formula, String assumedName, boolean assumedValue) {
+		final VariableMap map = VariableMap.fromExpression(formula);
+		final int numVariables = map.size();
+		final int assumedIndex = assumedName != null ? map.getIndex(assumedName).orElseThrow() : 0;
+		final boolean[] positive = new boolean[numVariables + 1];
+		final boolean[] negative = new boolean[numVariables + 1];
+		final Assignment assignment = new VariableAssignment(map);
+		final int numAssignments = 1 << numVariables;
+		for (int i = 0; i < numAssignments; i++) {
+			if ((assumedIndex > 0) && ((((i >> (assumedIndex - 1)) & 1) == 1) != assumedValue)) {
+				continue;
+			}
+			for (int j = 0; j < numVariables; j++) {
+				assignment.set(j + 1, ((i >> j) & 1) == 1);
+			}
+			if ((Boolean) Formulas.evaluate(formula, assignment).orElseThrow()) {
+				for (int j = 0; j < numVariables; j++) {
+					if (((i >> j) & 1) == 1) {
+						positive[j + 1] = true;
+					} else {
+						negative[j + 1] = true;
+					}
+				}
+			}
+		}
+		final Set<String> coreDead = new HashSet<>();
+		for (int i = 1; i <= numVariables; i++) {
+			if (positive[i] != negative[i]) {
+				coreDead.add(toName(map, positive[i] ? i : -i));
+			}
+		}
+		return coreDead;
+	}
+
+	private static String toName(VariableMap map, int literal) {
+		return (literal > 0 ? "+" : "-") + map.getName(Math.abs(literal)).orElseThrow();
+	}
+
+}
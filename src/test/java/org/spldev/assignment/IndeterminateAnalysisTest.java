@@ -0,0 +1,105 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.analysis.sat4j.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.solver.bdd.*;
+
+public class IndeterminateAnalysisTest {
+
+	@Test
+	public void testFormulaCreator() {
+		testEncodings(FormulaCreator.getFormula01());
+		testEncodings(FormulaCreator.getFormula02());
+	}
+
+	private void testEncodings(Formula formula) {
+		final CNF cnf = new ModelRepresentation(formula).get(CNFProvider.fromFormula());
+		final LiteralList expected = computeIndeterminate(cnf);
+
+		// copy-variable encoding
+		final IndeterminateAnalysis sequential = new IndeterminateAnalysis();
+		assertEquals(expected, execute(formula, sequential));
+
+		final IndeterminateAnalysis parallel = new IndeterminateAnalysis();
+		parallel.setParallelism(4);
+		assertEquals(expected, execute(formula, parallel));
+
+		// a backend without new variables tests each variable with a new solver
+		final IndeterminateAnalysis individually = new IndeterminateAnalysis();
+		individually.setBackend(new BDDBackend());
+		assertEquals(expected, execute(formula, individually));
+	}
+
+	private LiteralList execute(Formula formula, IndeterminateAnalysis analysis) {
+		// a new representation for each analysis, so that no cached result is reused
+		final LiteralList result = analysis.getResult(new ModelRepresentation(formula)).orElseThrow();
+		final int[] literals = Arrays.copyOf(result.getLiterals(), result.size());
+		Arrays.sort(literals);
+		return new LiteralList(literals);
+	}
+
+	/**
+	 * A variable is indeterminate, if the clauses remain satisfiable after
+	 * removing all of its literals and no clause becomes empty.
+	 */
+	private LiteralList computeIndeterminate(CNF cnf) {
+		final int numVariables = cnf.getVariableMap().getMaxIndex();
+		final List<Integer> indeterminate = new ArrayList<>();
+		for (int variable = 1; variable <= numVariables; variable++) {
+			if (isSatisfiableWithout(cnf, variable)) {
+				indeterminate.add(variable);
+			}
+		}
+		return new LiteralList(indeterminate.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	private boolean isSatisfiableWithout(CNF cnf, int variable) {
+		final long numAssignments = 1L << cnf.getVariableMap().getMaxIndex();
+		assignments: for (long i = 0; i < numAssignments; i++) {
+			clauses: for (final LiteralList clause : cnf.getClauses()) {
+				for (final int literal : clause.getLiterals()) {
+					if ((Math.abs(literal) != variable) && isSatisfied(i, literal)) {
+						continue clauses;
+					}
+				}
+				continue assignments;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isSatisfied(long assignment, int literal) {
+		return (((assignment >> (Math.abs(literal) - 1)) & 1) == 1) == (literal > 0);
+	}
+
+}
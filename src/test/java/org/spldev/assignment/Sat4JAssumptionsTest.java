@@ -0,0 +1,206 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.sat4j.*;
+
+public class Sat4JAssumptionsTest {
+
+	private static final int NUMBER_OF_VARIABLES = 5;
+	/**
+	 * Also uses variables that are not part of the variable map, which enlarges
+	 * the index.
+	 */
+	private static final int MAX_VARIABLE = NUMBER_OF_VARIABLES + 3;
+
+	@Test
+	public void testRandomOperations() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("a", "b", "c", "d", "e"));
+		final Random random = new Random(1);
+		for (int run = 0; run < 100; run++) {
+			final Sat4JAssumptions assumptions = new Sat4JAssumptions(variables);
+			final List<Integer> reference = new ArrayList<>();
+			for (int step = 0; step < 200; step++) {
+				apply(assumptions, reference, random);
+				check(assumptions, reference);
+			}
+		}
+	}
+
+	private void apply(Sat4JAssumptions assumptions, List<Integer> reference, Random random) {
+		final int size = reference.size();
+		switch (random.nextInt(size == 0 ? 3 : 11)) {
+		case 0:
+		case 1: {
+			final int literal = randomLiteral(random);
+			assumptions.push(literal);
+			reference.add(literal);
+			break;
+		}
+		case 2: {
+			final int[] literals = new int[random.nextInt(4)];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = randomLiteral(random);
+				reference.add(literals[i]);
+			}
+			assumptions.pushAll(literals);
+			break;
+		}
+		case 3:
+			assertEquals(reference.remove(size - 1).intValue(), assumptions.pop());
+			break;
+		case 4: {
+			final int count = random.nextInt(size + 1);
+			assumptions.pop(count);
+			reference.subList(size - count, size).clear();
+			break;
+		}
+		case 5: {
+			final int literal = randomLiteral(random);
+			assumptions.replaceLast(literal);
+			reference.set(size - 1, literal);
+			break;
+		}
+		case 6: {
+			// the last element is moved to the removed position
+			final int index = random.nextInt(size);
+			assumptions.remove(index);
+			reference.set(index, reference.get(size - 1));
+			reference.remove(size - 1);
+			break;
+		}
+		case 7: {
+			final int index = random.nextInt(size);
+			final int literal = randomLiteral(random);
+			assumptions.set(index, literal);
+			reference.set(index, literal);
+			break;
+		}
+		case 8: {
+			final int newSize = random.nextInt(size + 1);
+			if (newSize == 0) {
+				assumptions.clear();
+			} else {
+				assumptions.clear(newSize);
+			}
+			reference.subList(newSize, size).clear();
+			break;
+		}
+		case 9: {
+			// removes any occurrence of the variable
+			final int variable = 1 + random.nextInt(MAX_VARIABLE);
+			assumptions.unset(variable);
+			adopt(assumptions, reference, variable, index -> {
+				final List<Integer> expected = new ArrayList<>(reference);
+				expected.set(index, expected.get(size - 1));
+				expected.remove(size - 1);
+				return expected;
+			});
+			break;
+		}
+		case 10: {
+			// changes the sign of any occurrence of the variable or pushes it
+			final int variable = 1 + random.nextInt(MAX_VARIABLE);
+			final boolean value = random.nextBoolean();
+			assumptions.set(variable, (Object) value);
+			if (!contains(reference, variable)) {
+				reference.add(value ? variable : -variable);
+			} else {
+				adopt(assumptions, reference, variable, index -> {
+					final List<Integer> expected = new ArrayList<>(reference);
+					expected.set(index, value ? variable : -variable);
+					return expected;
+				});
+			}
+			break;
+		}
+		default:
+			throw new AssertionError();
+		}
+	}
+
+	private interface Modification {
+		List<Integer> apply(int index);
+	}
+
+	/**
+	 * Replaces the reference by the actual assumptions, if they are the result
+	 * of applying the given modification to some occurrence of the variable.
+	 */
+	private void adopt(Sat4JAssumptions assumptions, List<Integer> reference, int variable,
+		Modification modification) {
+		if (!contains(reference, variable)) {
+			assertEquals(reference, toList(assumptions.asArray()));
+			return;
+		}
+		final List<Integer> actual = toList(assumptions.asArray());
+		for (int i = 0; i < reference.size(); i++) {
+			if ((Math.abs(reference.get(i)) == variable) && modification.apply(i).equals(actual)) {
+				reference.clear();
+				reference.addAll(actual);
+				return;
+			}
+		}
+		fail("Unexpected assumptions " + actual + " for " + reference);
+	}
+
+	private void check(Sat4JAssumptions assumptions, List<Integer> reference) {
+		assertEquals(reference.size(), assumptions.size());
+		assertEquals(reference, toList(assumptions.asArray()));
+		if (!reference.isEmpty()) {
+			assertEquals(reference.get(reference.size() - 1).intValue(), assumptions.peek());
+		}
+		for (int variable = 1; variable <= (MAX_VARIABLE + 1); variable++) {
+			final Optional<Object> literal = assumptions.get(variable);
+			assertEquals(contains(reference, variable), literal.isPresent(), String.valueOf(variable));
+			if (literal.isPresent()) {
+				assertEquals(variable, Math.abs((Integer) literal.get()));
+				assertTrue(reference.contains(literal.get()));
+			}
+		}
+	}
+
+	private static int randomLiteral(Random random) {
+		final int variable = 1 + random.nextInt(MAX_VARIABLE);
+		return random.nextBoolean() ? variable : -variable;
+	}
+
+	private static boolean contains(List<Integer> reference, int variable) {
+		return reference.contains(variable) || reference.contains(-variable);
+	}
+
+	private static List<Integer> toList(int[] literals) {
+		final List<Integer> list = new ArrayList<>(literals.length);
+		for (final int literal : literals) {
+			list.add(literal);
+		}
+		return list;
+	}
+
+}
@@ -0,0 +1,88 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.solver.SatSolver.*;
+import org.spldev.formula.solver.sat4j.*;
+
+public class Sat4JSolverTest {
+
+	@Test
+	public void testCloneInSelectorMode() {
+		final CNF cnf = new ModelRepresentation(FormulaCreator.getFormula01()).get(CNFProvider.fromFormula());
+		final SatResult expected = new Sat4JSolver(cnf).hasSolution();
+
+		final Sat4JSolver solver = new Sat4JSolver(cnf);
+		solver.getFormula().setSelectorMode(true);
+		solver.getFormula().push(new LiteralList(1));
+		solver.getFormula().push(new LiteralList(-1));
+		assertEquals(SatResult.FALSE, solver.hasSolution());
+
+		final Sat4JSolver clone = solver.clone();
+		assertTrue(clone.getFormula().isSelectorMode());
+		assertEquals(solver.getFormula().size(), clone.getFormula().size());
+		assertEquals(SatResult.FALSE, clone.hasSolution());
+
+		// the guarded clauses can still be removed from the copy
+		clone.getFormula().pop();
+		clone.getFormula().pop();
+		assertEquals(expected, clone.hasSolution());
+		assertEquals(cnf.getClauses().size(), clone.getFormula().size());
+
+		// the copy is independent of the original solver
+		assertEquals(SatResult.FALSE, solver.hasSolution());
+	}
+
+	@Test
+	public void testSolutionHistory() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("a", "b", "c"));
+		final Sat4JSolver solver = new Sat4JSolver(new CNF(variables));
+		solver.rememberSolutionHistory(10);
+
+		assertEquals(SatResult.TRUE, solver.hasSolution(1));
+		final LiteralList first = solver.getSolution();
+		// no remembered solution contains -1
+		assertEquals(SatResult.TRUE, solver.hasSolution(-1));
+		final LiteralList second = solver.getSolution();
+
+		// the most recent solution comes first
+		final List<LiteralList> history = solver.getSolutionHistory();
+		assertEquals(Arrays.asList(second, first), history);
+
+		// the history is a snapshot of copied solutions
+		history.get(0).getLiterals()[0] = 0;
+		assertEquals(second, solver.getSolutionHistory().get(0));
+		solver.getFormula().push(new LiteralList(2));
+		assertEquals(2, history.size());
+		assertTrue(solver.getSolutionHistory().isEmpty());
+	}
+
+}
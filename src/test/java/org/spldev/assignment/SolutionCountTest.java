@@ -0,0 +1,148 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.expression.compound.*;
+import org.spldev.formula.expression.io.*;
+import org.spldev.formula.expression.term.bool.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.bdd.*;
+import org.spldev.formula.solver.ddnnf.*;
+import org.spldev.formula.solver.sharpsat.*;
+import org.spldev.util.io.*;
+import org.spldev.util.io.format.*;
+
+public class SolutionCountTest {
+
+	@Test
+	public void testFormula() {
+		final VariableMap variables = VariableMap.fromNames(Arrays.asList("a", "b", "c", "d", "e"));
+		final Literal a = new LiteralPredicate((BoolVariable) variables.getVariable("a").get(), true);
+		final Literal b = new LiteralPredicate((BoolVariable) variables.getVariable("b").get(), true);
+		final Literal c = new LiteralPredicate((BoolVariable) variables.getVariable("c").get(), true);
+		final Literal d = new LiteralPredicate((BoolVariable) variables.getVariable("d").get(), true);
+		final Literal e = new LiteralPredicate((BoolVariable) variables.getVariable("e").get(), true);
+
+		testCounters(new And(
+			new Or(a, b),
+			new Or(a.flip(), c),
+			new Or(b.flip(), c, d),
+			new Or(c.flip(), d.flip(), e.flip())));
+	}
+
+	@Test
+	public void testFormulaCreator() {
+		testCounters(FormulaCreator.getFormula01());
+		testCounters(FormulaCreator.getFormula02());
+	}
+
+	@Test
+	public void testKConfigReader() {
+		final Path modelFile = Paths.get("src/test/resources/kconfigreader/min-example.model");
+		testCounters(FileHandler.load(modelFile, FormatSupplier.of(new KConfigReaderFormat())).orElseThrow());
+	}
+
+	private void testCounters(Formula formula) {
+		final ModelRepresentation rep = new ModelRepresentation(formula);
+		final CNF cnf = rep.get(CNFProvider.fromFormula());
+
+		final ComponentSharpSatSolver componentSolver = new ComponentSharpSatSolver(cnf);
+		try {
+			testCounter(cnf, componentSolver, componentSolver.getAssumptions());
+			testCounter(cnf, componentSolver, componentSolver.getAssumptions());
+		} finally {
+			componentSolver.close();
+		}
+		final ComponentSharpSatSolver callingThreadSolver = new ComponentSharpSatSolver(cnf);
+		callingThreadSolver.setStackSize(0);
+		testCounter(cnf, callingThreadSolver, callingThreadSolver.getAssumptions());
+
+		final DDNNFSolver ddnnfSolver = new DDNNFSolver(cnf);
+		testCounter(cnf, ddnnfSolver, ddnnfSolver.getAssumptions());
+
+		final BDDSolver bddSolver = new BDDSolver(cnf);
+		testCounter(cnf, bddSolver, bddSolver.getAssumptions());
+
+		final BDDBackend backend = new BDDBackend();
+		final BDDSolver firstClone = (BDDSolver) backend.createSolver(rep, cnf);
+		final BDDSolver secondClone = (BDDSolver) backend.createSolver(rep, cnf);
+		assertNotSame(firstClone, secondClone);
+		assertSame(rep.get(BDDProvider.fromCNF()).getCnf(), cnf);
+		testCounter(cnf, firstClone, firstClone.getAssumptions());
+		testCounter(cnf, secondClone, secondClone.getAssumptions());
+	}
+
+	private void testCounter(CNF cnf, SharpSatSolver solver, LiteralAssumptions assumptions) {
+		assertEquals(countSolutions(cnf), solver.countSolutions());
+		for (int variable = 1; variable <= cnf.getVariableMap().getMaxIndex(); variable++) {
+			for (final int literal : new int[] { variable, -variable }) {
+				assumptions.push(literal);
+				try {
+					assertEquals(countSolutions(cnf, literal), solver.countSolutions(), cnf.getVariableMap()
+						.getName(variable).orElseThrow());
+				} finally {
+					assumptions.pop();
+				}
+			}
+		}
+	}
+
+	private BigInteger countSolutions(CNF cnf, int... assumptions) {
+		final int numVariables = cnf.getVariableMap().getMaxIndex();
+		final long numAssignments = 1L << numVariables;
+		long count = 0;
+		assignments: for (long i = 0; i < numAssignments; i++) {
+			for (final int literal : assumptions) {
+				if (!isSatisfied(i, literal)) {
+					continue assignments;
+				}
+			}
+			clauses: for (final LiteralList clause : cnf.getClauses()) {
+				for (final int literal : clause.getLiterals()) {
+					if (isSatisfied(i, literal)) {
+						continue clauses;
+					}
+				}
+				continue assignments;
+			}
+			count++;
+		}
+		return BigInteger.valueOf(count);
+	}
+
+	private static boolean isSatisfied(long assignment, int literal) {
+		return (((assignment >> (Math.abs(literal) - 1)) & 1) == 1) == (literal > 0);
+	}
+
+}
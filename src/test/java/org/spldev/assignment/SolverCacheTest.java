@@ -0,0 +1,126 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.*;
+import org.spldev.formula.solver.SatSolver.*;
+import org.spldev.formula.solver.sat4j.*;
+
+public class SolverCacheTest {
+
+	@Test
+	public void testLeaseAndRelease() {
+		final CNF cnf = new ModelRepresentation(FormulaCreator.getFormula01()).get(CNFProvider.fromFormula());
+		final SolverCache cache = new SolverCache(1);
+
+		final Sat4JSolver solver = cache.lease(cnf);
+		assertNotNull(solver);
+		assertTrue(cache.isLeased(solver));
+		// the pool of the CNF only contains a single solver
+		assertNull(cache.lease(cnf));
+
+		final int formulaSize = solver.getFormula().size();
+		final int[] assumptions = solver.getAssumptions().asArray();
+		final SStrategy strategy = solver.getSelectionStrategy();
+		final int timeout = solver.getTimeout();
+		final boolean globalTimeout = solver.isGlobalTimeout();
+		final boolean selectorMode = solver.getFormula().isSelectorMode();
+		final SolverStatisticsSink statisticsSink = solver.getStatisticsSink();
+		final Object statisticsScope = solver.getStatisticsScope();
+		final int numberOfVariables = cnf.getVariableMap().getMaxIndex();
+
+		solver.getFormula().setSelectorMode(!selectorMode);
+		solver.getFormula().push(new LiteralList(-1));
+		solver.getFormula().push(new LiteralList(-2));
+		solver.getAssumptions().push(numberOfVariables);
+		solver.setSelectionStrategy(SStrategy.negative());
+		solver.setTimeout(timeout + 1);
+		solver.setGlobalTimeout(!globalTimeout);
+		solver.rememberSolutionHistory(10);
+		solver.setStatisticsSink(new SolverStatistics(), "test");
+		solver.setCancelled(true);
+		assertEquals(SatResult.TIMEOUT, solver.hasSolution());
+
+		cache.release(solver);
+		assertFalse(cache.isLeased(solver));
+		assertThrows(IllegalStateException.class, () -> cache.release(solver));
+
+		final Sat4JSolver releasedSolver = cache.lease(cnf);
+		assertSame(solver, releasedSolver);
+		assertEquals(formulaSize, releasedSolver.getFormula().size());
+		assertArrayEquals(assumptions, releasedSolver.getAssumptions().asArray());
+		assertSame(strategy, releasedSolver.getSelectionStrategy());
+		assertEquals(timeout, releasedSolver.getTimeout());
+		assertEquals(globalTimeout, releasedSolver.isGlobalTimeout());
+		assertEquals(selectorMode, releasedSolver.getFormula().isSelectorMode());
+		assertSame(statisticsSink, releasedSolver.getStatisticsSink());
+		assertSame(statisticsScope, releasedSolver.getStatisticsScope());
+		assertTrue(releasedSolver.getSolutionHistory().isEmpty());
+		assertFalse(releasedSolver.isCancelled());
+
+		// the released solver answers like a fresh solver
+		final Sat4JSolver freshSolver = new Sat4JSolver(cnf);
+		for (int variable = 1; variable <= numberOfVariables; variable++) {
+			for (final int literal : new int[] { variable, -variable }) {
+				assertEquals(freshSolver.hasSolution(literal), releasedSolver.hasSolution(literal));
+			}
+		}
+		cache.release(releasedSolver);
+	}
+
+	@Test
+	public void testPool() throws InterruptedException {
+		final CNF cnf = new ModelRepresentation(FormulaCreator.getFormula02()).get(CNFProvider.fromFormula());
+		final SolverPool pool = new SolverPool(cnf, 2);
+
+		final Sat4JSolver first = pool.lease();
+		final Sat4JSolver second = pool.lease();
+		assertNotSame(first, second);
+		assertNotSame(pool.getPrototype(), first);
+		assertNull(pool.tryLease());
+		assertEquals(2, pool.getCreatedSolvers());
+
+		final int formulaSize = first.getFormula().size();
+		first.getFormula().push(new LiteralList(1));
+		first.getAssumptions().push(-1);
+		assertEquals(SatResult.FALSE, first.hasSolution());
+		pool.release(first);
+		pool.release(second);
+
+		final List<Sat4JSolver> solvers = Arrays.asList(pool.lease(), pool.lease());
+		assertEquals(2, pool.getCreatedSolvers());
+		for (final Sat4JSolver solver : solvers) {
+			assertEquals(formulaSize, solver.getFormula().size());
+			assertEquals(0, solver.getAssumptions().size());
+			assertEquals(SatResult.TRUE, solver.hasSolution());
+		}
+	}
+
+}
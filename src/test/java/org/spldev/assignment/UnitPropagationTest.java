@@ -0,0 +1,216 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis Lib - Library to analyze propositional formulas.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis Lib.
+ * 
+ * Formula-Analysis Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.solver.bcp.*;
+
+public class UnitPropagationTest {
+
+	private static final int NUMBER_OF_VARIABLES = 8;
+
+	@Test
+	public void testAssignAndBacktrack() {
+		final Random random = new Random(1);
+		for (int run = 0; run < 200; run++) {
+			final List<LiteralList> clauses = createClauses(random);
+			final UnitPropagation propagation = new UnitPropagation(NUMBER_OF_VARIABLES, clauses);
+			final int[] rootValues = propagate(clauses, new int[0]);
+			assertEquals(rootValues == null, propagation.isContradiction());
+			if (rootValues == null) {
+				continue;
+			}
+			assertValues(rootValues, propagation);
+
+			final List<Integer> assigned = new ArrayList<>();
+			final List<Integer> marks = new ArrayList<>();
+			for (int step = 0; step < 20; step++) {
+				if (!marks.isEmpty() && (random.nextInt(3) == 0)) {
+					// retracts a random number of decisions
+					final int decisions = random.nextInt(marks.size()) + 1;
+					final int mark = marks.get(marks.size() - decisions);
+					marks.subList(marks.size() - decisions, marks.size()).clear();
+					assigned.subList(assigned.size() - decisions, assigned.size()).clear();
+					propagation.backtrack(mark);
+					assertValues(propagate(clauses, toArray(assigned)), propagation);
+					continue;
+				}
+				final int variable = random.nextInt(NUMBER_OF_VARIABLES) + 1;
+				if (propagation.getValue(variable) != 0) {
+					continue;
+				}
+				final int literal = random.nextBoolean() ? variable : -variable;
+				final int mark = propagation.getTrailSize();
+				assigned.add(literal);
+				final int[] expectedValues = propagate(clauses, toArray(assigned));
+				if (propagation.assign(literal)) {
+					assertNotNull(expectedValues);
+					assertValues(expectedValues, propagation);
+					marks.add(mark);
+				} else {
+					assertNull(expectedValues);
+					propagation.backtrack(mark);
+					assigned.remove(assigned.size() - 1);
+					assertValues(propagate(clauses, toArray(assigned)), propagation);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testProbe() {
+		final Random random = new Random(2);
+		for (int run = 0; run < 200; run++) {
+			final List<LiteralList> clauses = createClauses(random);
+			final UnitPropagation propagation = new UnitPropagation(NUMBER_OF_VARIABLES, clauses);
+			if (propagation.isContradiction()) {
+				assertFalse(propagation.probe());
+				continue;
+			}
+			final int[] rootValues = propagate(clauses, new int[0]);
+			final List<int[]> solutions = computeSolutions(clauses);
+			final int trailSize = propagation.getTrailSize();
+			if (!propagation.probe()) {
+				assertTrue(solutions.isEmpty());
+				continue;
+			}
+			assertEquals(propagation.getTrailSize() - trailSize, propagation.getSettledCount());
+			for (int variable = 1; variable <= NUMBER_OF_VARIABLES; variable++) {
+				final int value = propagation.getValue(variable);
+				// probing is sound and implies at least the literals of unit propagation
+				if (value != 0) {
+					for (final int[] solution : solutions) {
+						assertEquals(value, solution[variable], String.valueOf(variable));
+					}
+				}
+				if (rootValues[variable] != 0) {
+					assertEquals(rootValues[variable], value);
+				}
+				// failed literals are detected
+				if (value == 0) {
+					assertNotNull(propagate(clauses, new int[] { variable }));
+					assertNotNull(propagate(clauses, new int[] { -variable }));
+				}
+			}
+
+			// backtracking restores the assignment before probing
+			propagation.backtrack(trailSize);
+			assertValues(rootValues, propagation);
+		}
+	}
+
+	private static List<LiteralList> createClauses(Random random) {
+		final List<LiteralList> clauses = new ArrayList<>();
+		final int numberOfClauses = random.nextInt(16) + 1;
+		for (int i = 0; i < numberOfClauses; i++) {
+			// mostly binary and ternary clauses, some units and duplicate literals
+			final int[] literals = new int[random.nextInt(4) + 1];
+			for (int j = 0; j < literals.length; j++) {
+				final int variable = random.nextInt(NUMBER_OF_VARIABLES) + 1;
+				literals[j] = random.nextBoolean() ? variable : -variable;
+			}
+			clauses.add(new LiteralList(literals));
+		}
+		return clauses;
+	}
+
+	/**
+	 * Naive unit propagation that repeatedly scans all clauses.
+	 *
+	 * @return The value of each variable as literal ({@code 0} if unassigned) or
+	 *         {@code null}, if propagation leads to a conflict.
+	 */
+	private static int[] propagate(List<LiteralList> clauses, int[] assignment) {
+		final int[] values = new int[NUMBER_OF_VARIABLES + 1];
+		for (final int literal : assignment) {
+			if (values[Math.abs(literal)] == -literal) {
+				return null;
+			}
+			values[Math.abs(literal)] = literal;
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			clauses: for (final LiteralList clause : clauses) {
+				int unit = 0;
+				boolean multipleUnassigned = false;
+				for (final int literal : clause.getLiterals()) {
+					final int value = values[Math.abs(literal)];
+					if (value == literal) {
+						continue clauses;
+					} else if (value == 0) {
+						if (unit == 0) {
+							unit = literal;
+						} else if (unit != literal) {
+							multipleUnassigned = true;
+						}
+					}
+				}
+				if (unit == 0) {
+					return null;
+				} else if (!multipleUnassigned) {
+					values[Math.abs(unit)] = unit;
+					changed = true;
+				}
+			}
+		}
+		return values;
+	}
+
+	private static List<int[]> computeSolutions(List<LiteralList> clauses) {
+		final List<int[]> solutions = new ArrayList<>();
+		assignments: for (int i = 0; i < (1 << NUMBER_OF_VARIABLES); i++) {
+			final int[] solution = new int[NUMBER_OF_VARIABLES + 1];
+			for (int variable = 1; variable <= NUMBER_OF_VARIABLES; variable++) {
+				solution[variable] = ((i >> (variable - 1)) & 1) == 1 ? variable : -variable;
+			}
+			clauses: for (final LiteralList clause : clauses) {
+				for (final int literal : clause.getLiterals()) {
+					if (solution[Math.abs(literal)] == literal) {
+						continue clauses;
+					}
+				}
+				continue assignments;
+			}
+			solutions.add(solution);
+		}
+		return solutions;
+	}
+
+	private static void assertValues(int[] expectedValues, UnitPropagation propagation) {
+		assertNotNull(expectedValues);
+		for (int variable = 1; variable <= NUMBER_OF_VARIABLES; variable++) {
+			assertEquals(expectedValues[variable], propagation.getValue(variable), String.valueOf(variable));
+		}
+	}
+
+	private static int[] toArray(List<Integer> literals) {
+		return literals.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+}